@@ -15,6 +15,9 @@
  */
 package io.github.jeddict.ai.agent;
 
+import java.io.OutputStream;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import java.util.List;
 import org.openide.filesystems.FileObject;
 import org.openide.filesystems.FileUtil;
 
@@ -41,4 +44,35 @@ public abstract class AbstractBuildTool extends AbstractTool {
 
         return pomFile;
     }
-}
\ No newline at end of file
+
+    /**
+     * Applies a batch of changes to the build file in one edit session: the
+     * file is read once, all changes are applied in memory and the file is
+     * written once, only if changed, so that the IDE reloads the project
+     * model once. If any change fails, nothing is written. Build files are
+     * read and written as UTF-8, the encoding of Gradle scripts and of poms
+     * unless declared otherwise.
+     *
+     * @param session the edit session for this kind of build file
+     * @param changes the changes
+     *
+     * @return what has been done, one message per change
+     *
+     * @throws IllegalArgumentException if a change can not be applied
+     * @throws Exception if the build file can not be read or written
+     */
+    protected List<String> edit(final BuildFileEdit session, final List<BuildFileEdit.Change> changes)
+    throws Exception {
+        final FileObject file = buildFile();
+        final String text = new String(file.asBytes(), UTF_8);
+
+        final BuildFileEdit.Result result = session.apply(text, changes);
+        if (result.changed(text)) {
+            try (OutputStream os = file.getOutputStream()) {
+                os.write(result.text().getBytes(UTF_8));
+            }
+        }
+
+        return result.messages();
+    }
+}
@@ -0,0 +1,440 @@
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.ai.agent;
+
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.data.message.ChatMessageSerializer;
+import dev.langchain4j.invocation.InvocationContext;
+import dev.langchain4j.model.ModelProvider;
+import dev.langchain4j.model.chat.Capability;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.StreamingChatModel;
+import dev.langchain4j.model.chat.listener.ChatModelListener;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.request.ChatRequestParameters;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.chat.response.CompleteToolCall;
+import dev.langchain4j.model.chat.response.PartialResponse;
+import dev.langchain4j.model.chat.response.PartialResponseContext;
+import dev.langchain4j.model.chat.response.PartialThinking;
+import dev.langchain4j.model.chat.response.PartialThinkingContext;
+import dev.langchain4j.model.chat.response.PartialToolCall;
+import dev.langchain4j.model.chat.response.PartialToolCallContext;
+import dev.langchain4j.model.chat.response.StreamingChatResponseHandler;
+import dev.langchain4j.model.output.TokenUsage;
+import dev.langchain4j.service.tool.ToolExecutionResult;
+import dev.langchain4j.service.tool.ToolExecutor;
+import java.io.IOException;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Records agent sessions to a JSONL file, one event per line: every model
+ * request and response (or error), every tool call and tool result, each with
+ * its duration, so that sessions can be inspected, benchmarked and replayed
+ * offline with {@link TraceReplayModel}.
+ * <p>
+ * Models and tool executors are recorded by wrapping them; the wrappers do
+ * nothing but delegate and write events. Every event has a type
+ * ({@link #SESSION}, {@link #REQUEST}, {@link #RESPONSE}, {@link #ERROR},
+ * {@link #TOOL_CALL}, {@link #TOOL_RESULT}), a sequence number {@code seq},
+ * the wall clock {@code time} and the milliseconds {@code at} since the trace
+ * was created; messages are serialized with {@link ChatMessageSerializer}.
+ * Model responses and errors refer to their request by {@code request}, tool
+ * results to their call by {@code id}; durations are in milliseconds.
+ * <p>
+ * Events are appended as they happen, so the file can be followed while the
+ * agent works; a write failure is logged and does not stop the session.
+ */
+public class AgentTrace {
+
+    private static final Logger LOG = Logger.getLogger(AgentTrace.class.getName());
+
+    public static final String SESSION = "session", REQUEST = "request", RESPONSE = "response", ERROR = "error",
+                               TOOL_CALL = "tool_call", TOOL_RESULT = "tool_result";
+
+    private final Path file;
+    private final long start = System.nanoTime();
+    private final AtomicLong sequence = new AtomicLong(), requests = new AtomicLong(), calls = new AtomicLong();
+
+    /**
+     * @param file the JSONL file the events are appended to
+     */
+    public AgentTrace(final Path file) {
+        this.file = file;
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    /**
+     * Records the beginning of an agent session.
+     *
+     * @param modelName the name of the model
+     * @param agent whether tools are available
+     */
+    public void session(final String modelName, final boolean agent) {
+        write(SESSION, new JSONObject().put("model", modelName).put("agent", agent));
+    }
+
+    /**
+     * @return a model recording the requests to the given model and its
+     * responses
+     */
+    public ChatModel record(final ChatModel model) {
+        return new RecordingChatModel(model);
+    }
+
+    /**
+     * @return a streaming model recording the requests to the given model and
+     * its complete responses
+     */
+    public StreamingChatModel record(final StreamingChatModel model) {
+        return new RecordingStreamingChatModel(model);
+    }
+
+    /**
+     * @return the given executors, recording calls and results
+     */
+    public Map<ToolSpecification, ToolExecutor> record(final Map<ToolSpecification, ToolExecutor> executors) {
+        final Map<ToolSpecification, ToolExecutor> recording = new LinkedHashMap<>();
+        executors.forEach((specification, executor) -> recording.put(specification, new RecordingExecutor(executor)));
+        return recording;
+    }
+
+    /**
+     * Reads the events of a trace.
+     *
+     * @param file the JSONL file
+     *
+     * @return the events in order
+     *
+     * @throws IOException if the file can not be read
+     */
+    public static List<JSONObject> read(final Path file) throws IOException {
+        final List<JSONObject> events = new ArrayList<>();
+        for (String line : Files.readAllLines(file, UTF_8)) {
+            if (!line.isBlank()) {
+                events.add(new JSONObject(line));
+            }
+        }
+        return events;
+    }
+
+    /**
+     * Summarizes the latency of a trace: number of calls, total and maximum
+     * duration of the model and of each tool.
+     *
+     * @param events the events of a trace
+     *
+     * @return one line per model or tool, the model first and the tools
+     * sorted by name
+     */
+    public static String summary(final List<JSONObject> events) {
+        final Map<Long, String> tools = new LinkedHashMap<>();
+        final Map<String, double[]> stats = new TreeMap<>();
+        final double[] model = new double[3];
+        for (JSONObject event : events) {
+            switch (event.getString("type")) {
+                case TOOL_CALL -> tools.put(event.getLong("id"), event.getString("name"));
+                case TOOL_RESULT -> add(stats.computeIfAbsent(tools.getOrDefault(event.getLong("id"), "?"), n -> new double[3]), event);
+                case RESPONSE, ERROR -> add(model, event);
+                default -> {}
+            }
+        }
+        final StringBuilder sb = new StringBuilder(line("model", model));
+        stats.forEach((name, s) -> sb.append('\n').append(line(name, s)));
+        return sb.toString();
+    }
+
+    // --------------------------------------------------------- private methods
+
+    private long request(final ChatRequest request) {
+        final long id = requests.incrementAndGet();
+        final JSONArray tools = new JSONArray();
+        if (request.toolSpecifications() != null) {
+            request.toolSpecifications().forEach(tool -> tools.put(tool.name()));
+        }
+        write(REQUEST, new JSONObject()
+            .put("request", id)
+            .put("messages", new JSONArray(ChatMessageSerializer.messagesToJson(request.messages())))
+            .put("tools", tools)
+        );
+        return id;
+    }
+
+    private void response(final long request, final ChatResponse response, final long startNanos) {
+        final JSONObject event = new JSONObject()
+            .put("request", request)
+            .put("duration", millis(startNanos))
+            .put("message", new JSONObject(ChatMessageSerializer.messageToJson(response.aiMessage())));
+        if (response.finishReason() != null) {
+            event.put("finishReason", response.finishReason().name());
+        }
+        final TokenUsage usage = response.tokenUsage();
+        if (usage != null) {
+            event.put("inputTokens", usage.inputTokenCount()).put("outputTokens", usage.outputTokenCount());
+        }
+        write(RESPONSE, event);
+    }
+
+    private void error(final long request, final Throwable error, final long startNanos) {
+        write(ERROR, new JSONObject()
+            .put("request", request)
+            .put("duration", millis(startNanos))
+            .put("error", String.valueOf(error.getMessage()))
+        );
+    }
+
+    private synchronized void write(final String type, final JSONObject event) {
+        event.put("type", type)
+             .put("seq", sequence.incrementAndGet())
+             .put("time", Instant.now().toString())
+             .put("at", millis(start));
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            Files.writeString(file, event.toString() + '\n', UTF_8, CREATE, APPEND);
+        } catch (IOException x) {
+            LOG.log(Level.WARNING, "unable to write agent trace " + file, x);
+        }
+    }
+
+    private static double millis(final long startNanos) {
+        return Math.round((System.nanoTime() - startNanos) / 1_000.0) / 1_000.0;
+    }
+
+    private static void add(final double[] stats, final JSONObject event) {
+        final double duration = event.optDouble("duration", 0);
+        stats[0] += 1;
+        stats[1] += duration;
+        stats[2] = Math.max(stats[2], duration);
+    }
+
+    private static String line(final String name, final double[] stats) {
+        return String.format("%s: %d calls, %.1f ms total, %.1f ms max", name, (int) stats[0], stats[1], stats[2]);
+    }
+
+    private class RecordingChatModel implements ChatModel {
+
+        private final ChatModel delegate;
+
+        private RecordingChatModel(final ChatModel delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public ChatResponse chat(final ChatRequest request) {
+            final long id = request(request);
+            final long startNanos = System.nanoTime();
+            try {
+                final ChatResponse response = delegate.chat(request);
+                response(id, response, startNanos);
+                return response;
+            } catch (RuntimeException x) {
+                error(id, x, startNanos);
+                throw x;
+            }
+        }
+
+        @Override
+        public ChatResponse doChat(final ChatRequest request) {
+            return chat(request);
+        }
+
+        @Override
+        public ChatRequestParameters defaultRequestParameters() {
+            return delegate.defaultRequestParameters();
+        }
+
+        @Override
+        public List<ChatModelListener> listeners() {
+            return delegate.listeners();
+        }
+
+        @Override
+        public ModelProvider provider() {
+            return delegate.provider();
+        }
+
+        @Override
+        public Set<Capability> supportedCapabilities() {
+            return delegate.supportedCapabilities();
+        }
+    }
+
+    private class RecordingStreamingChatModel implements StreamingChatModel {
+
+        private final StreamingChatModel delegate;
+
+        private RecordingStreamingChatModel(final StreamingChatModel delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void chat(final ChatRequest request, final StreamingChatResponseHandler handler) {
+            final long id = request(request);
+            final long startNanos = System.nanoTime();
+            delegate.chat(request, new RecordingHandler(handler, id, startNanos));
+        }
+
+        @Override
+        public void doChat(final ChatRequest request, final StreamingChatResponseHandler handler) {
+            chat(request, handler);
+        }
+
+        @Override
+        public ChatRequestParameters defaultRequestParameters() {
+            return delegate.defaultRequestParameters();
+        }
+
+        @Override
+        public List<ChatModelListener> listeners() {
+            return delegate.listeners();
+        }
+
+        @Override
+        public ModelProvider provider() {
+            return delegate.provider();
+        }
+
+        @Override
+        public Set<Capability> supportedCapabilities() {
+            return delegate.supportedCapabilities();
+        }
+    }
+
+    private class RecordingHandler implements StreamingChatResponseHandler {
+
+        private final StreamingChatResponseHandler delegate;
+        private final long request, startNanos;
+
+        private RecordingHandler(final StreamingChatResponseHandler delegate, final long request, final long startNanos) {
+            this.delegate = delegate;
+            this.request = request;
+            this.startNanos = startNanos;
+        }
+
+        @Override
+        public void onPartialResponse(final String partialResponse) {
+            delegate.onPartialResponse(partialResponse);
+        }
+
+        @Override
+        public void onPartialResponse(final PartialResponse partialResponse, final PartialResponseContext context) {
+            delegate.onPartialResponse(partialResponse, context);
+        }
+
+        @Override
+        public void onPartialThinking(final PartialThinking partialThinking) {
+            delegate.onPartialThinking(partialThinking);
+        }
+
+        @Override
+        public void onPartialThinking(final PartialThinking partialThinking, final PartialThinkingContext context) {
+            delegate.onPartialThinking(partialThinking, context);
+        }
+
+        @Override
+        public void onPartialToolCall(final PartialToolCall partialToolCall) {
+            delegate.onPartialToolCall(partialToolCall);
+        }
+
+        @Override
+        public void onPartialToolCall(final PartialToolCall partialToolCall, final PartialToolCallContext context) {
+            delegate.onPartialToolCall(partialToolCall, context);
+        }
+
+        @Override
+        public void onCompleteToolCall(final CompleteToolCall completeToolCall) {
+            delegate.onCompleteToolCall(completeToolCall);
+        }
+
+        @Override
+        public void onCompleteResponse(final ChatResponse response) {
+            response(request, response, startNanos);
+            delegate.onCompleteResponse(response);
+        }
+
+        @Override
+        public void onError(final Throwable error) {
+            error(request, error, startNanos);
+            delegate.onError(error);
+        }
+    }
+
+    private class RecordingExecutor implements ToolExecutor {
+
+        private final ToolExecutor delegate;
+
+        private RecordingExecutor(final ToolExecutor delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String execute(final ToolExecutionRequest request, final Object memoryId) {
+            return executeWithContext(request, InvocationContext.builder().chatMemoryId(memoryId).build()).resultText();
+        }
+
+        @Override
+        public ToolExecutionResult executeWithContext(final ToolExecutionRequest request, final InvocationContext context) {
+            final long id = calls.incrementAndGet();
+            write(TOOL_CALL, new JSONObject()
+                .put("id", id)
+                .put("name", request.name())
+                .put("toolCallId", String.valueOf(request.id()))
+                .put("arguments", String.valueOf(request.arguments()))
+            );
+            final long startNanos = System.nanoTime();
+            try {
+                final ToolExecutionResult result = delegate.executeWithContext(request, context);
+                write(TOOL_RESULT, new JSONObject()
+                    .put("id", id)
+                    .put("duration", millis(startNanos))
+                    .put("error", result.isError())
+                    .put("result", String.valueOf(result.resultText()))
+                );
+                return result;
+            } catch (RuntimeException x) {
+                write(TOOL_RESULT, new JSONObject()
+                    .put("id", id)
+                    .put("duration", millis(startNanos))
+                    .put("error", true)
+                    .put("result", String.valueOf(x.getMessage()))
+                );
+                throw x;
+            }
+        }
+    }
+}
@@ -0,0 +1,231 @@
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.ai.agent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * An edit session of a build file: a batch of dependency, plugin and property
+ * changes applied in memory, one after the other, to the text of the file, so
+ * that the file is written, and the project model reloaded, only once.
+ * <p>
+ * Changes are given one per line (or separated by {@code ;}) as
+ * {@code <action> <target> <arguments>}, where action is one of
+ * {@code add}, {@code remove}, {@code update} and {@code set} and target one
+ * of {@code dependency}, {@code plugin} and {@code property} (properties are
+ * always set, whatever action other than remove is given); the arguments
+ * depend on the build system. The session is transactional: if a change can
+ * not be applied (e.g. it removes a dependency that is not there) no change is
+ * applied at all. Edits touch only the text they change, so formatting and
+ * comments of the rest of the file are kept.
+ */
+public abstract class BuildFileEdit {
+
+    public enum Action { ADD, REMOVE, UPDATE, SET }
+
+    public enum Target { DEPENDENCY, PLUGIN, PROPERTY }
+
+    /**
+     * A change of the build file.
+     *
+     * @param action what to do
+     * @param target what to do it to
+     * @param arguments the arguments, as given
+     */
+    public record Change(Action action, Target target, String arguments) {
+
+        @Override
+        public String toString() {
+            return action.name().toLowerCase(Locale.ROOT) + ' '
+                 + target.name().toLowerCase(Locale.ROOT) + ' ' + arguments;
+        }
+    }
+
+    /**
+     * The outcome of a change.
+     *
+     * @param text the text of the build file after the change
+     * @param message what has been done
+     */
+    public record Step(String text, String message) {}
+
+    /**
+     * The outcome of a session.
+     *
+     * @param text the text of the build file after all changes
+     * @param messages what has been done, one message per change
+     */
+    public record Result(String text, List<String> messages) {
+
+        public boolean changed(final String original) {
+            return !text.equals(original);
+        }
+    }
+
+    /**
+     * Parses a batch of changes.
+     *
+     * @param changes the changes, one per line or separated by {@code ;}
+     *
+     * @return the changes in the given order
+     *
+     * @throws IllegalArgumentException if a change is malformed
+     */
+    public static List<Change> parse(final String changes) {
+        final List<Change> result = new ArrayList<>();
+        for (String line : changes.split("\\r?\\n|\\r|;")) {
+            line = line.strip();
+            if (line.isEmpty()) {
+                continue;
+            }
+            final String[] words = line.split("\\s+", 3);
+            if (words.length < 3) {
+                throw new IllegalArgumentException("malformed change '" + line + "': expected <action> <target> <arguments>");
+            }
+            Action action = value(Action.class, words[0], line);
+            final Target target = value(Target.class, words[1], line);
+            if (target == Target.PROPERTY && action != Action.REMOVE) {
+                action = Action.SET;
+            } else if (action == Action.SET) {
+                throw new IllegalArgumentException(
+                    "malformed change '" + line + "': use add or update for dependencies and plugins"
+                );
+            }
+            result.add(new Change(action, target, words[2].strip()));
+        }
+        if (result.isEmpty()) {
+            throw new IllegalArgumentException("no changes given");
+        }
+        return result;
+    }
+
+    /**
+     * Applies the given changes to the text of the build file.
+     *
+     * @param text the text of the build file
+     * @param changes the changes
+     *
+     * @return the changed text and what has been done
+     *
+     * @throws IllegalArgumentException if any change can not be applied; its
+     * message tells which one
+     */
+    public Result apply(final String text, final List<Change> changes) {
+        String current = text;
+        final List<String> messages = new ArrayList<>();
+        for (Change change : changes) {
+            final Step step;
+            try {
+                step = apply(current, change);
+            } catch (IllegalArgumentException x) {
+                throw new IllegalArgumentException(
+                    (changes.size() > 1) ? change + ": " + x.getMessage() + "; no changes applied" : x.getMessage(), x
+                );
+            }
+            current = step.text();
+            messages.add(step.message());
+        }
+        return new Result(current, messages);
+    }
+
+    /**
+     * Applies a change to the text of the build file.
+     *
+     * @param text the text of the build file
+     * @param change the change
+     *
+     * @return the changed text and what has been done
+     *
+     * @throws IllegalArgumentException if the change can not be applied
+     */
+    protected abstract Step apply(String text, Change change);
+
+    // --------------------------------------------------------- helper methods
+
+    /**
+     * @return the line separator used in the text
+     */
+    protected static String newline(final String text) {
+        return text.contains("\r\n") ? "\r\n" : "\n";
+    }
+
+    /**
+     * @return the offset of the beginning of the line containing the offset
+     */
+    protected static int lineStart(final String text, final int offset) {
+        int i = offset;
+        while (i > 0 && text.charAt(i - 1) != '\n' && text.charAt(i - 1) != '\r') {
+            --i;
+        }
+        return i;
+    }
+
+    /**
+     * @return the offset after the end of the line containing the offset,
+     * line separator included
+     */
+    protected static int lineEnd(final String text, final int offset) {
+        int i = offset;
+        while (i < text.length() && text.charAt(i) != '\n' && text.charAt(i) != '\r') {
+            ++i;
+        }
+        if (i < text.length() && text.charAt(i) == '\r') {
+            ++i;
+        }
+        if (i < text.length() && text.charAt(i) == '\n') {
+            ++i;
+        }
+        return i;
+    }
+
+    /**
+     * @return the leading white spaces of the line containing the offset
+     */
+    protected static String indentation(final String text, final int offset) {
+        final int start = lineStart(text, offset);
+        int i = start;
+        while (i < text.length() && (text.charAt(i) == ' ' || text.charAt(i) == '\t')) {
+            ++i;
+        }
+        return text.substring(start, i);
+    }
+
+    /**
+     * Removes the given range and, if nothing else is on its lines, the
+     * lines too.
+     */
+    protected static String remove(final String text, int start, int end) {
+        final int lineStart = lineStart(text, start);
+        final int lineEnd = lineEnd(text, end);
+        if (text.substring(lineStart, start).isBlank() && text.substring(end, lineEnd).isBlank()) {
+            start = lineStart;
+            end = lineEnd;
+        }
+        return text.substring(0, start) + text.substring(end);
+    }
+
+    // --------------------------------------------------------- private methods
+
+    private static <E extends Enum<E>> E value(final Class<E> type, final String word, final String line) {
+        try {
+            return Enum.valueOf(type, word.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException x) {
+            throw new IllegalArgumentException("malformed change '" + line + "': unknown " + type.getSimpleName().toLowerCase(Locale.ROOT) + " '" + word + "'");
+        }
+    }
+}
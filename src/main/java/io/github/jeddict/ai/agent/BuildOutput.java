@@ -0,0 +1,302 @@
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.ai.agent;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Collects the output of a Maven or Gradle build line by line, in bounded
+ * memory, and turns it into a digest for the model: the compilation errors,
+ * the failing tests, why the build failed, the stack traces and the first and
+ * last lines of the output.
+ * <p>
+ * Only the first {@code headLines} and the last {@code tailLines} lines are
+ * kept (the latter in a ring buffer), together with at most
+ * {@link #MAX_ITEMS} entries of each kind, so that a build printing hundred
+ * thousands of lines does not fill the context window.
+ */
+public class BuildOutput {
+
+    /**
+     * the maximum number of entries of each kind (errors, tests, ...) and
+     * the maximum length of a line in the digest
+     */
+    public static final int MAX_ITEMS = 30, MAX_LINE_LENGTH = 300;
+
+    /**
+     * the maximum number of stack traces and of frames of each in the digest
+     */
+    public static final int MAX_TRACES = 5, MAX_FRAMES = 6;
+
+    /**
+     * Maven: [ERROR] /src/A.java:[12,5] cannot find symbol; javac and
+     * Gradle: /src/A.java:12: error: cannot find symbol; Kotlin:
+     * e: file:///src/A.kt:12:5 unresolved reference
+     */
+    private static final Pattern COMPILATION_ERROR = Pattern.compile(
+        "^(?:\\[ERROR\\] |e: )?(?:file://)?(\\S+\\.(?:java|kt|groovy|scala))(?::\\[\\d+,\\d+\\]|:\\d+(?::\\d+)?:?( error:)?) .+$"
+    );
+
+    /**
+     * Surefire: [ERROR] a.FooTest.test -- Time elapsed: 0.1 s <<< FAILURE!
+     * (or test(a.FooTest) Time elapsed: ...)
+     */
+    private static final Pattern SUREFIRE_TEST = Pattern.compile(
+        "^\\[ERROR\\] (?!Tests run:)(\\S+?)(?:\\s+--)?\\s+Time elapsed: .*<<< (?:FAILURE|ERROR)!$"
+    );
+
+    /**
+     * Gradle: FooTest > test() FAILED
+     */
+    private static final Pattern GRADLE_TEST = Pattern.compile("^(\\S+ > .+) FAILED$");
+
+    /**
+     * an exception: a.b.SomeException: message, or Caused by: ...
+     */
+    private static final Pattern EXCEPTION = Pattern.compile(
+        "^(?:\\[ERROR\\] )?\\s*(?:Caused by: )?(?:[\\w$]+\\.)+[\\w$]*(?:Exception|Error|Throwable)(?::.*)?$"
+    );
+
+    private static final Pattern FRAME = Pattern.compile("^\\s+at .+$");
+
+    private final int headLines, tailLines;
+    private final List<String> head = new ArrayList<>();
+    private final Deque<String> tail = new ArrayDeque<>();
+    private final Items errors = new Items(), tests = new Items(), failures = new Items();
+    private final List<List<String>> traces = new ArrayList<>();
+    private final Set<String> traceHeaders = new LinkedHashSet<>();
+    private int lines;
+
+    /**
+     * true while in the Failures: and Errors: summary of Surefire, or in the
+     * "What went wrong:" section of Gradle
+     */
+    private boolean inTestSummary, inGradleFailure;
+    private List<String> trace;
+
+    /**
+     * @param headLines the number of first lines to keep
+     * @param tailLines the number of last lines to keep
+     */
+    public BuildOutput(final int headLines, final int tailLines) {
+        this.headLines = Math.max(0, headLines);
+        this.tailLines = Math.max(0, tailLines);
+    }
+
+    /**
+     * @param line the next line of the output
+     */
+    public void add(final String line) {
+        ++lines;
+        if (head.size() < headLines) {
+            head.add(line);
+        } else if (tailLines > 0) {
+            if (tail.size() == tailLines) {
+                tail.removeFirst();
+            }
+            tail.addLast(line);
+        }
+        extract(line);
+    }
+
+    public int lines() {
+        return lines;
+    }
+
+    public List<String> errors() {
+        return new ArrayList<>(errors.items);
+    }
+
+    public List<String> tests() {
+        return new ArrayList<>(tests.items);
+    }
+
+    public List<String> failures() {
+        return new ArrayList<>(failures.items);
+    }
+
+    /**
+     * @param status the outcome of the build, e.g. "Build failed with exit
+     * code 1"
+     * @param where where the full output can be seen
+     *
+     * @return the digest of the output
+     */
+    public String digest(final String status, final String where) {
+        endTrace(); // a trace at the end of the output
+
+        final StringBuilder digest = new StringBuilder(status).append('\n');
+        if (lines > headLines + tailLines) {
+            digest.append(String.format("%,d lines of output, ", lines)).append(where).append('\n');
+        }
+
+        section(digest, "Compilation errors", errors);
+        section(digest, "Failing tests", tests);
+        section(digest, "Failures", failures);
+        if (!traces.isEmpty()) {
+            digest.append("\nStack traces:\n");
+            for (List<String> t : traces) {
+                for (String l : t) {
+                    digest.append("  ").append(cut(l.strip().startsWith("at ") ? "    " + l.strip() : l.strip())).append('\n');
+                }
+            }
+        }
+
+        if (lines <= headLines + tailLines) {
+            digest.append("\nOutput:\n");
+            head.forEach(l -> digest.append(cut(l)).append('\n'));
+            tail.forEach(l -> digest.append(cut(l)).append('\n'));
+        } else {
+            if (!head.isEmpty()) {
+                digest.append("\nFirst ").append(head.size()).append(" lines:\n");
+                head.forEach(l -> digest.append(cut(l)).append('\n'));
+            }
+            digest.append(String.format("[%,d lines omitted]%n", lines - head.size() - tail.size()));
+            if (!tail.isEmpty()) {
+                digest.append("Last ").append(tail.size()).append(" lines:\n");
+                tail.forEach(l -> digest.append(cut(l)).append('\n'));
+            }
+        }
+        return digest.toString();
+    }
+
+    // --------------------------------------------------------- private methods
+
+    private void extract(final String line) {
+        //
+        // stack traces: an exception followed by frames
+        //
+        if (trace != null) {
+            if (FRAME.matcher(line).matches() || line.strip().startsWith("...")) {
+                if (trace.size() <= MAX_FRAMES) {
+                    trace.add(line);
+                }
+                return;
+            }
+            endTrace();
+        }
+        if (traces.size() < MAX_TRACES && EXCEPTION.matcher(line).matches()) {
+            trace = new ArrayList<>();
+            trace.add(line);
+        }
+
+        final String message = line.startsWith("[ERROR] ") ? line.substring(8) : line;
+
+        Matcher m = COMPILATION_ERROR.matcher(line);
+        if (m.matches() && (line.startsWith("[ERROR] ") || line.startsWith("e: ") || m.group(2) != null)) {
+            errors.add(message);
+            return;
+        }
+
+        m = SUREFIRE_TEST.matcher(line);
+        if (!m.matches()) {
+            m = GRADLE_TEST.matcher(line);
+        }
+        if (m.matches()) {
+            tests.add(m.group(1));
+            return;
+        }
+
+        //
+        // the Surefire summary: [ERROR] Failures: followed by
+        // [ERROR]   FooTest.test:42 expected...
+        //
+        if (message.strip().equals("Failures:") || message.strip().equals("Errors:")) {
+            inTestSummary = line.startsWith("[ERROR] ");
+            return;
+        }
+        if (inTestSummary) {
+            if (line.startsWith("[ERROR]   ")) {
+                failures.add(line.substring(10));
+                return;
+            }
+            inTestSummary = false;
+        }
+
+        //
+        // why the build failed
+        //
+        if (line.startsWith("[ERROR] Failed to execute goal")) {
+            failures.add(message);
+        } else if (line.equals("* What went wrong:")) {
+            inGradleFailure = true;
+        } else if (inGradleFailure) {
+            if (line.isBlank() || line.startsWith("* ")) {
+                inGradleFailure = false;
+            } else {
+                failures.add(line.strip());
+            }
+        }
+    }
+
+    /**
+     * Keeps the current stack trace, if it has frames and is not a repeat.
+     */
+    private void endTrace() {
+        if (trace != null && trace.size() > 1 && traceHeaders.add(trace.get(0).strip())) {
+            traces.add(trace);
+        }
+        trace = null;
+    }
+
+    private static void section(final StringBuilder digest, final String title, final Items items) {
+        if (items.items.isEmpty()) {
+            return;
+        }
+        digest.append('\n').append(title).append(" (").append(items.count).append("):\n");
+        items.items.forEach(i -> digest.append("  ").append(i).append('\n'));
+        if (items.count > items.items.size()) {
+            digest.append("  ... and ").append(items.count - items.items.size()).append(" more\n");
+        }
+    }
+
+    private static String cut(final String line) {
+        return (line.length() <= MAX_LINE_LENGTH) ? line : line.substring(0, MAX_LINE_LENGTH) + "...";
+    }
+
+    /**
+     * the first {@link #MAX_ITEMS} distinct entries of a kind and how many
+     * distinct ones there are in all; only the hash codes of the others are
+     * kept
+     */
+    private static class Items {
+
+        private final Set<String> items = new LinkedHashSet<>();
+        private final Set<Integer> others = new HashSet<>();
+        private int count;
+
+        private void add(final String item) {
+            final String cut = cut(item);
+            if (items.contains(cut)) {
+                return;
+            }
+            if (items.size() < MAX_ITEMS) {
+                items.add(cut);
+                ++count;
+            } else if (others.add(cut.hashCode())) {
+                ++count;
+            }
+        }
+    }
+}
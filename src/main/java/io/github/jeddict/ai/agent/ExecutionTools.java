@@ -16,13 +16,31 @@
 package io.github.jeddict.ai.agent;
 
 import dev.langchain4j.agent.tool.Tool;
+import io.github.jeddict.ai.index.ProjectLexicalIndex;
+import io.github.jeddict.ai.settings.PreferencesManager;
 import java.io.BufferedReader;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.netbeans.api.progress.ProgressHandle;
+import org.openide.filesystems.FileObject;
+import org.openide.filesystems.FileUtil;
+import org.openide.util.Lookup;
+import org.openide.util.RequestProcessor;
 
 /**
  * This class provides tools to execute build and test commands in a project,
- * streaming output and returning the full log of the command.
+ * streaming output and returning a digest of the log of the command.
  *
  * It supports different commands based on the operating system (Windows or Unix/Mac).
  * The execution logs are streamed to a JeddictStreamHandler if available.
@@ -31,53 +49,169 @@ import java.io.InputStreamReader;
  * - Create an instance with the target project and a stream handler.
  * - Invoke buildProject() to run the build command.
  * - Invoke testProject() to run the test command.
+ * - Invoke testAffected() to run only the tests affected by some changes.
  *
  * @author Gaurav Gupta
  */
 public class ExecutionTools extends AbstractTool {
 
+    private static final Logger LOG = Logger.getLogger(ExecutionTools.class.getName());
+
+    /**
+     * the maximum number of affected tests run by name, beyond which all the
+     * tests are run
+     */
+    public static final int MAX_SELECTED_TESTS = 100;
+
+    private static final RequestProcessor RP = new RequestProcessor(ExecutionTools.class.getName(), 1);
+
+    /**
+     * lets the test tasks of the Gradle projects without any of the selected
+     * tests succeed
+     */
+    private static final String GRADLE_INIT_SCRIPT
+        = "allprojects {\n    tasks.withType(Test).configureEach {\n        filter.failOnNoMatchingTests = false\n    }\n}\n";
+
+    private static Path gradleInitScript;
+
     private final LogPrinter log;
     private final String projectName, buildCommand, testCommand;
+    private final SymbolIndex symbols;
 
 
     public ExecutionTools(
         final String basedir, final String projectName,
         final String buildCommand, final String testCommand
+    ) {
+        this(basedir, projectName, buildCommand, testCommand, null);
+    }
+
+    /**
+     * @param lookup the lookup of the project, whose class index tells the
+     * tests affected by changes; null to find them lexically only
+     */
+    public ExecutionTools(
+        final String basedir, final String projectName,
+        final String buildCommand, final String testCommand, final Lookup lookup
     ) {
         super(basedir);
 
         this.projectName = projectName;
         this.buildCommand = buildCommand;
         this.testCommand = testCommand;
+        this.symbols = (lookup != null) ? new SymbolIndex(basepath, lookup) : null;
 
         log = new LogPrinter(projectName);
     }
 
-    @Tool("Build the project and return full log")
+    @Tool("Build the project and return a digest of the log: errors, failing tests, stack traces, first and last lines")
     public String buildProject() {
         return runCommand(buildCommand, "Building");
     }
 
-    @Tool("Run project tests and return full log")
+    @Tool("Run project tests and return a digest of the log: errors, failing tests, stack traces, first and last lines")
     public String testProject() {
         return runCommand(testCommand, "Testing");
     }
 
     /**
-     * Runs a command in the project directory, streams output, and returns the
-     * full log.
+     * Runs only the tests affected by changes of the given files (see
+     * {@link TestImpact}), selected by name on the test command of Maven
+     * ({@code -Dtest}) or Gradle ({@code --tests}); all the tests if no
+     * files are given, if the tests can not be selected with the test
+     * command or if more than {@link #MAX_SELECTED_TESTS} are affected.
+     *
+     * @param changedPaths the changed files, comma separated paths relative
+     * to the project
+     * @return the tests run and the digest of the log
+     */
+    @Tool("Run only the tests affected by changes of the given source files (comma separated paths relative to the project): their tests and the tests of the classes using them; much faster than testProject while fixing, an empty list runs all tests")
+    public String testAffected(String changedPaths) {
+        final List<String> paths = new ArrayList<>();
+        for (String path : changedPaths.split(",")) {
+            if (!path.isBlank()) {
+                paths.add(path.strip());
+            }
+        }
+        if (paths.isEmpty()) {
+            return testProject();
+        }
+
+        final FileObject dir = FileUtil.toFileObject(FileUtil.normalizeFile(new File(basedir)));
+        if (dir == null) {
+            return "Project directory not found: " + basedir;
+        }
+        final Set<String> tests = new TestImpact(ProjectLexicalIndex.forDirectory(dir), symbols)
+            .affectedTests(paths, MAX_SELECTED_TESTS);
+        if (tests.isEmpty()) {
+            progress("No tests affected by " + String.join(", ", paths));
+            return "No tests are affected by " + String.join(", ", paths) + "; use testProject to run all the tests";
+        }
+
+        final String command = selectedTestCommand(testCommand, tests);
+        if (command == null) {
+            return "Running all the tests, they can not be selected with '" + testCommand + "'\n" + testProject();
+        }
+        if (tests.size() > MAX_SELECTED_TESTS) {
+            return "Running all the tests, " + tests.size() + " are affected\n" + testProject();
+        }
+        return "Running the " + tests.size() + " tests affected: " + String.join(", ", tests) + "\n"
+             + runCommand(command, "Testing");
+    }
+
+    /**
+     * @param command the command running all the tests
+     * @param tests the qualified names of the test classes to run
+     *
+     * @return the command running only the given tests, null if not a Maven
+     * or Gradle command
+     */
+    static String selectedTestCommand(final String command, final Collection<String> tests) {
+        if (command.contains("gradle")) { // gradle or gradlew
+            final StringBuilder selected = new StringBuilder(command);
+            //
+            // subprojects without any of the tests must not fail
+            //
+            final Path script = gradleInitScript();
+            if (script != null) {
+                selected.append(" --init-script \"").append(script).append('"');
+            }
+            tests.forEach(test -> selected.append(" --tests ").append(test));
+            return selected.toString();
+        }
+        if (command.contains("mvn")) { // mvn or mvnw
+            //
+            // modules without any of the tests must not fail
+            //
+            return command + " -Dtest=" + String.join(",", tests)
+                 + " -Dsurefire.failIfNoSpecifiedTests=false -DfailIfNoTests=false";
+        }
+        return null;
+    }
+
+    /**
+     * Runs a command in the project directory, streams the output to the
+     * output window and returns a digest of it (see {@link BuildOutput}).
+     * The command is stopped after the configured timeout or when cancelled
+     * from its progress bar.
      *
      * @param goals the Maven goals to run (e.g., "clean install" or "test")
      * @param actionLabel the label to show in the AI stream ("Building",
      * "Testing", etc.)
-     * @return full log of the Maven command
+     * @return the digest of the log of the command
      */
     private String runCommand(String goals, String actionLabel) {
         progress(actionLabel + " " + projectName);
-        StringBuilder fullLog = new StringBuilder();
+        final PreferencesManager pm = PreferencesManager.getInstance();
+        final BuildOutput output = new BuildOutput(pm.getBuildOutputHeadLines(), pm.getBuildOutputTailLines());
+        final AtomicReference<String> stopped = new AtomicReference<>();
+        String result;
 
         log.show();
 
+        Process process = null;
+        ProgressHandle handle = null;
+        RequestProcessor.Task timeout = null;
         try {
             ProcessBuilder pb;
 
@@ -93,29 +227,80 @@ public class ExecutionTools extends AbstractTool {
                         .redirectErrorStream(true);
             }
 
-            Process process = pb.start();
+            final Process started = process = pb.start();
+
+            handle = ProgressHandle.createHandle(actionLabel + " " + projectName, () -> {
+                stopped.compareAndSet(null, "cancelled");
+                destroy(started);
+                return true;
+            });
+            handle.start();
+            final int minutes = pm.getBuildTimeoutMinutes();
+            if (minutes > 0) {
+                timeout = RP.post(() -> {
+                    stopped.compareAndSet(null, "timed out after " + minutes + " minutes");
+                    destroy(started);
+                }, (int) TimeUnit.MINUTES.toMillis(minutes));
+            }
 
             try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
                 String line;
                 while ((line = reader.readLine()) != null) {
-                    fullLog.append(line).append("\n");
+                    output.add(line);
                     log.print(line);
                 }
             }
 
             int exitCode = process.waitFor();
-            String result = (exitCode == 0 ? actionLabel + " successful"
+            result = (stopped.get() != null) ? actionLabel + " " + stopped.get()
+                   : (exitCode == 0 ? actionLabel + " successful"
                     : actionLabel + " failed with exit code " + exitCode);
             progress(actionLabel + " finished " + result);
-            fullLog.append(result).append("\n");
 
         } catch (Exception e) {
-            String error = actionLabel + " failed: " + e.getMessage();
-            progress(actionLabel + " error " + error);
-            fullLog.append(error).append("\n");
+            result = actionLabel + " failed: " + e.getMessage();
+            progress(actionLabel + " error " + result);
+            if (process != null) {
+                destroy(process);
+            }
+        } finally {
+            if (timeout != null) {
+                timeout.cancel();
+            }
+            if (handle != null) {
+                handle.finish();
+            }
         }
+        log.print(result);
 
-        return fullLog.toString();
+        return output.digest(result, "the full log is in the '" + projectName + "' output window");
+    }
+
+    /**
+     * @return the init script of {@link #GRADLE_INIT_SCRIPT}, written once in
+     * a temporary file; null if it can not be written
+     */
+    private static synchronized Path gradleInitScript() {
+        if (gradleInitScript == null) {
+            try {
+                final Path script = Files.createTempFile("jeddict-tests", ".gradle");
+                Files.writeString(script, GRADLE_INIT_SCRIPT);
+                script.toFile().deleteOnExit();
+                gradleInitScript = script;
+            } catch (IOException x) {
+                LOG.log(Level.INFO, "unable to write the Gradle init script of the selected tests", x);
+            }
+        }
+        return gradleInitScript;
+    }
+
+    /**
+     * Stops a command and the processes it started (e.g. the JVM of the
+     * build run by a shell).
+     */
+    private static void destroy(final Process process) {
+        process.descendants().forEach(ProcessHandle::destroyForcibly);
+        process.destroyForcibly();
     }
 
 }
\ No newline at end of file
@@ -16,28 +16,27 @@
 package io.github.jeddict.ai.agent;
 
 import dev.langchain4j.agent.tool.Tool;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.util.ElementFilter;
-import org.netbeans.api.java.source.ClassIndex;
 import org.netbeans.api.java.source.ElementHandle;
 import org.netbeans.api.java.source.JavaSource;
-import org.netbeans.api.project.SourceGroup;
-import org.netbeans.api.project.Sources;
-import org.netbeans.modules.refactoring.api.RefactoringSession;
+import org.openide.filesystems.FileObject;
 import org.openide.util.Lookup;
-import org.openide.util.lookup.Lookups;
 
 /**
  * Tools for code-level operations in NetBeans projects.
  *
  * <p>
  * This class offers various methods for AI assistants to explore and analyze Java source code
- * within a NetBeans project. It uses NetBeans JavaSource and Refactoring APIs to facilitate
- * operations such as listing classes and methods, searching for symbols, and finding usages.
+ * within a NetBeans project. It uses the NetBeans JavaSource API to list classes and methods,
+ * and a {@link SymbolIndex} over the NetBeans class index, cached for the session, to search
+ * for symbols and find usages.
  * These tools can be integrated into AI workflows to enhance automated code understanding,
  * navigation, and refactoring assistance.
  * </p>
@@ -46,8 +45,8 @@ import org.openide.util.lookup.Lookups;
  * <ul>
  *   <li>Listing all top-level classes declared in a Java file.</li>
  *   <li>Listing all method signatures declared in a Java file.</li>
- *   <li>Searching the entire project for a symbol by name (class, method, or field).</li>
- *   <li>Finding all usages of a specified class, method, or field within the codebase.</li>
+ *   <li>Searching the entire project for symbols by name (class, method, or field).</li>
+ *   <li>Finding all usages of specified classes, methods, or fields within the codebase.</li>
  * </ul>
  *
  * <p><b>Example usage by an AI assistant:</b></p>
@@ -61,11 +60,11 @@ import org.openide.util.lookup.Lookups;
  */
 public class ExplorationTools extends AbstractCodeTool {
 
-    private final Lookup lookup;
+    private final SymbolIndex index;
 
     public ExplorationTools(final String basedir, Lookup lookup) {
         super(basedir);
-        this.lookup = lookup;
+        this.index = new SymbolIndex(basepath, lookup);
     }
 
     /**
@@ -81,6 +80,7 @@ public class ExplorationTools extends AbstractCodeTool {
      * @param path relative path to the Java file
      * @return names of all top-level classes, or a message if none found
      */
+    @ReadOnlyTool(pathScoped = true)
     @Tool("List all classes declared in a given Java file by path")
     public String listClassesInFile(String path) throws Exception {
         progress("Listing classes in " + path);
@@ -110,6 +110,7 @@ public class ExplorationTools extends AbstractCodeTool {
      * @param path relative path to the Java file
      * @return method signatures, or a message if none found
      */
+    @ReadOnlyTool(pathScoped = true)
     @Tool("List all methods of a class in a given Java file by path")
     public String listMethodsInFile(String path) throws Exception {
         progress("Listing methods in " + path);
@@ -129,78 +130,102 @@ public class ExplorationTools extends AbstractCodeTool {
     }
 
     /**
-     * Search for a symbol (class, method, or field) in the whole project.
+     * Search for one or more symbols (classes, methods, or fields) in the whole
+     * project, answering from the session {@link SymbolIndex}.
      *
      * <p>
      * <b>Example:</b></p>
      * <pre>
-     * searchSymbol("UserService");
-     * // -> "Found in: src/main/java/com/example/service/UserService.java"
+     * searchSymbol("UserService, findUser");
+     * // -> "[UserService]
+     * //     Found: class com.example.service.UserService at src/main/java/com/example/service/UserService.java:12
+     * //     [findUser]
+     * //     Found: method com.example.service.UserService.findUser at src/main/java/com/example/service/UserService.java:30"
      * </pre>
+     *
+     * @param symbolNames comma separated simple names
+     * @return the declarations with their file:line positions
      */
-    @Tool("Search for a symbol (class, method, or field) in the whole project")
-    public String searchSymbol(String symbolName)
+    @ReadOnlyTool
+    @Tool("Search the whole project for the declarations of one or more symbols (class, method, or field) by simple name; accepts a comma separated list of names and returns file:line positions")
+    public String searchSymbol(String symbolNames)
     throws Exception {
-        progress("Searching symbol " + symbolName);
+        progress("Searching symbol " + symbolNames);
 
-        StringBuilder result = new StringBuilder();
-        Sources sources = lookup.lookup(Sources.class);
-        if (sources == null) {
+        if (!index.hasSources()) {
             return "No sources found in project.";
         }
 
-        for (SourceGroup sg : sources.getSourceGroups(Sources.TYPE_GENERIC)) {
-            JavaSource javaSource = JavaSource.forFileObject(sg.getRootFolder());
-            if (javaSource == null) {
-                continue;
+        final List<String> names = names(symbolNames);
+        final StringBuilder result = new StringBuilder();
+        for (String name : names) {
+            if (names.size() > 1) {
+                result.append('[').append(name).append("]\n");
             }
-
-            javaSource.runUserActionTask(cc -> {
-                cc.toPhase(JavaSource.Phase.ELEMENTS_RESOLVED);
-                ClassIndex idx = cc.getClasspathInfo().getClassIndex();
-                Set<ElementHandle<TypeElement>> handles
-                        = idx.getDeclaredTypes(symbolName, ClassIndex.NameKind.SIMPLE_NAME,
-                                Set.of(ClassIndex.SearchScope.SOURCE));
-
-                for (ElementHandle<TypeElement> h : handles) {
-                    result.append("Found: ").append(h.getQualifiedName()).append("\n");
-                }
-            }, true);
+            final List<SymbolIndex.Declaration> declarations = index.declarations(name);
+            if (declarations.isEmpty()) {
+                result.append("No matches found.\n");
+            }
+            declarations.forEach(d -> result.append("Found: ").append(d).append('\n'));
         }
 
-        return result.length() == 0 ? "No matches found." : result.toString();
+        return result.toString();
     }
 
-    @Tool("Find all usages of a class, method, or field")
-    public String findUsages(String path, String symbolName)
+    /**
+     * Find the usages of one or more classes, methods, or fields declared in a
+     * file, answering from the session {@link SymbolIndex}.
+     *
+     * <p>
+     * <b>Example:</b></p>
+     * <pre>
+     * findUsages("src/main/java/com/example/MyClass.java", "sayHello");
+     * // -> "Usage: src/main/java/com/example/Main.java:10: new MyClass().sayHello();"
+     * </pre>
+     *
+     * @param path relative path to the Java file declaring the symbols
+     * @param symbolNames comma separated simple names of the classes or
+     * members declared in the file
+     * @return the usages with their file:line positions
+     */
+    @ReadOnlyTool
+    @Tool("Find all usages of one or more classes, methods, or fields declared in a given Java file; accepts a comma separated list of names and returns file:line positions")
+    public String findUsages(String path, String symbolNames)
     throws Exception {
-        String jr = withJavaSource(path, javaSource -> {
+        progress("Finding usages of " + symbolNames + " in " + path);
+        return withJavaSource(path, javaSource -> {
+            final FileObject file = javaSource.getFileObjects().iterator().next();
+            final List<ElementHandle<TypeElement>> types = index.typesIn(file);
+            final List<String> names = names(symbolNames);
             final StringBuilder result = new StringBuilder();
-            javaSource.runUserActionTask(cc -> {
-                cc.toPhase(JavaSource.Phase.ELEMENTS_RESOLVED);
-                for (TypeElement type : ElementFilter.typesIn(cc.getTopLevelElements())) {
-                    for (Element member : type.getEnclosedElements()) {
-                        if (member.getSimpleName().toString().equals(symbolName)
-                                || type.getSimpleName().toString().equals(symbolName)) {
-
-                            ElementHandle<Element> handle = ElementHandle.create(member);
-                            org.netbeans.modules.refactoring.api.WhereUsedQuery query
-                                    = new org.netbeans.modules.refactoring.api.WhereUsedQuery(Lookups.singleton(handle));
-
-                            RefactoringSession session = RefactoringSession.create("Find Usages");
-                            query.prepare(session);
-                            session.doRefactoring(true);
-
-                            session.getRefactoringElements().forEach(elem
-                                    -> result.append("Usage: ").append(elem.getDisplayText()).append("\n")
-                            );
-                        }
+            for (String name : names) {
+                if (names.size() > 1) {
+                    result.append('[').append(name).append("]\n");
+                }
+                final Set<SymbolIndex.Position> usages = new LinkedHashSet<>();
+                for (ElementHandle<TypeElement> type : types) {
+                    final String binaryName = type.getBinaryName();
+                    if (binaryName.equals(name) || binaryName.endsWith("." + name) || binaryName.endsWith("$" + name)) {
+                        usages.addAll(index.references(type));
+                    } else {
+                        usages.addAll(index.references(type, name));
                     }
                 }
-            }, true);
-            return result.length() == 0 ? "No usages found." : result.toString();
-        }, false).toString();
-        return jr;
+                if (usages.isEmpty()) {
+                    result.append("No usages found.\n");
+                }
+                usages.stream().limit(SymbolIndex.MAX_POSITIONS).forEach(
+                    u -> result.append("Usage: ").append(u).append('\n')
+                );
+            }
+            return result.toString();
+        }, false);
     }
 
+    // --------------------------------------------------------- private methods
+
+    private static List<String> names(final String symbolNames) {
+        return Arrays.stream(symbolNames.split(","))
+            .map(String::strip).filter(n -> !n.isEmpty()).distinct().toList();
+    }
 }
\ No newline at end of file
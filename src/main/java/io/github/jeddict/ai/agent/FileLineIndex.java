@@ -0,0 +1,157 @@
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.ai.agent;
+
+import io.github.jeddict.ai.util.CacheManager;
+import io.github.jeddict.ai.util.CacheManager.Region;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Start offsets of the lines of a file, so that windows of lines (or bytes)
+ * are read with positional reads instead of loading the whole file.
+ * <p>
+ * Indexes are kept in the "file-line-indexes" region of {@link CacheManager}
+ * and built again when the file changes size or last-modified time. Lines are
+ * split at '\n', which holds for UTF-8 and any ASCII compatible charset.
+ */
+class FileLineIndex {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final Region<Path, FileLineIndex> CACHE = CacheManager.getInstance().region(
+        "file-line-indexes", false, (file, index) -> 8L * index.offsets.length
+    );
+
+    private final long size, lastModified;
+    private final long[] offsets; // start of each line, then the size of the file
+
+    private FileLineIndex(final long size, final long lastModified, final long[] offsets) {
+        this.size = size;
+        this.lastModified = lastModified;
+        this.offsets = offsets;
+    }
+
+    /**
+     * @return the index of the given file, built if not cached or if the file
+     * changed
+     *
+     * @throws IOException if the file can not be read
+     */
+    static FileLineIndex of(final Path file) throws IOException {
+        final long size = Files.size(file);
+        final long lastModified = Files.getLastModifiedTime(file).toMillis();
+
+        FileLineIndex index = CACHE.get(file);
+        if (index == null || index.size != size || index.lastModified != lastModified) {
+            index = build(file, size, lastModified);
+            CACHE.put(file, index);
+        }
+        return index;
+    }
+
+    /**
+     * @return the number of lines, a last line without terminator included
+     */
+    int lines() {
+        return offsets.length - 1;
+    }
+
+    long size() {
+        return size;
+    }
+
+    /**
+     * @param line the line, 0-based; {@link #lines()} for the end of the file
+     *
+     * @return the offset in bytes of the start of the line
+     */
+    long offset(final int line) {
+        return offsets[line];
+    }
+
+    /**
+     * @return the line, 0-based, the byte at the given offset belongs to
+     */
+    int lineAt(final long offset) {
+        final int i = Arrays.binarySearch(offsets, 0, lines(), offset);
+        return (i >= 0) ? i : Math.max(0, -i - 2);
+    }
+
+    /**
+     * @return the text of the lines {@code from} (inclusive) to {@code to}
+     * (exclusive), 0-based, with their line terminators, cut after
+     * {@code maxBytes} bytes
+     */
+    String read(final Path file, final int from, final int to, final int maxBytes, final Charset charset) throws IOException {
+        return read(file, offsets[from], (int) Math.min(offsets[to] - offsets[from], maxBytes), charset);
+    }
+
+    /**
+     * Reads a window of bytes; a character split at its bounds is decoded as
+     * replacement character.
+     */
+    static String read(final Path file, final long position, final int length, final Charset charset) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(length);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    break;
+                }
+            }
+        }
+        buffer.flip();
+        return charset.decode(buffer).toString();
+    }
+
+    // --------------------------------------------------------- private methods
+
+    private static FileLineIndex build(final Path file, final long size, final long lastModified) throws IOException {
+        long[] offsets = new long[1024];
+        int lines = 0;
+        if (size > 0) {
+            offsets[lines++] = 0;
+        }
+
+        final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long position = 0;
+            int n;
+            while (position < size && (n = channel.read(buffer.clear(), position)) > 0) {
+                for (int i = 0; i < n; ++i) {
+                    if (buffer.get(i) == '\n' && position + i + 1 < size) {
+                        if (lines == offsets.length) {
+                            offsets = Arrays.copyOf(offsets, lines * 2);
+                        }
+                        offsets[lines++] = position + i + 1;
+                    }
+                }
+                position += n;
+            }
+        }
+
+        offsets = Arrays.copyOf(offsets, lines + 1);
+        offsets[lines] = size;
+
+        return new FileLineIndex(size, lastModified, offsets);
+    }
+}
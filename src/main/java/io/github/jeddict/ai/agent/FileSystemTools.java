@@ -16,15 +16,34 @@
 package io.github.jeddict.ai.agent;
 
 import dev.langchain4j.agent.tool.Tool;
+import io.github.jeddict.ai.index.ProjectLexicalIndex;
+import io.github.jeddict.ai.index.TrigramIndex;
+import io.github.jeddict.ai.util.FileContentCache;
+import io.github.jeddict.ai.util.TextPatch;
 import java.io.IOException;
+import java.io.Reader;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
 import javax.swing.text.Element;
+import javax.swing.text.StyledDocument;
 import org.apache.commons.io.file.PathUtils;
+import org.openide.filesystems.FileObject;
+import org.openide.filesystems.FileUtil;
+import org.openide.text.NbDocument;
+import org.openide.util.RequestProcessor;
 
 /**
  * Collection of tools that expose file system and editor operations inside
@@ -40,23 +59,214 @@ public class FileSystemTools extends AbstractCodeTool {
     }
 
     /**
-     * Reads the raw content of a file on disk.
+     * Maximum number of lines and bytes returned by a read; larger files are
+     * read in windows.
+     */
+    public static final int MAX_READ_LINES = 1000, MAX_READ_BYTES = 64 * 1024;
+
+    /**
+     * Maximum number of matches shown by {@link #readAroundMatch(String, String, int)}.
+     */
+    public static final int MAX_MATCHES = 20;
+
+    /**
+     * Matches collected by {@link #searchInProject(String, boolean, int)} and
+     * returned per page; longer lines are cut.
+     */
+    public static final int MAX_SEARCH_MATCHES = 1000, SEARCH_PAGE_SIZE = 50, MAX_MATCH_LENGTH = 200;
+
+    private static final RequestProcessor SEARCH_RP = new RequestProcessor(
+        FileSystemTools.class.getName(), Runtime.getRuntime().availableProcessors()
+    );
+
+    /**
+     * Reads the raw content of a file on disk. Files larger than
+     * {@link #MAX_READ_LINES} lines or {@link #MAX_READ_BYTES} bytes are not
+     * returned whole: the first lines are returned instead, with their size
+     * and how to read further.
      *
      * @param path the file path relative to the project
      * @return the file content, or an error message if it could not be read
      */
-    @Tool("Read the content of a file by path")
+    @ReadOnlyTool(pathScoped = true)
+    @Tool("Read the content of a file by path; large files are returned in part, with line numbers and how to read the rest")
     public String readFile(String path) throws Exception {
         progress("📖 Reading file " + path);
         try {
-            String content = PathUtils.readString(fullPath(path), Charset.defaultCharset());
-            return content;
+            final Path file = fullPath(path);
+            final FileLineIndex index = FileLineIndex.of(file);
+            if (index.lines() <= MAX_READ_LINES && index.size() <= MAX_READ_BYTES) {
+                return index.read(file, 0, index.lines(), MAX_READ_BYTES, Charset.defaultCharset());
+            }
+            return lines(path, file, index, 0, MAX_READ_LINES);
         } catch (IOException e) {
             progress("❌ Failed to read file: " + e.getMessage());
             throw e;
         }
     }
 
+    /**
+     * Reads a window of lines of a file.
+     *
+     * @param path the file path relative to the project
+     * @param startLine the first line to read, 1-based
+     * @param lineCount the number of lines to read, at most {@link #MAX_READ_LINES}
+     * @return the lines with their numbers, preceded by the size of the file
+     */
+    @ReadOnlyTool(pathScoped = true)
+    @Tool("Read lines of a file by path, from startLine (1-based) for lineCount lines; use it to page through large files")
+    public String readFileLines(String path, int startLine, int lineCount) throws Exception {
+        progress("📖 Reading lines " + startLine + "-" + (startLine + lineCount - 1) + " of file " + path);
+        return withIndex(path, (file, index) -> {
+            final int from = Math.max(0, Math.min(startLine - 1, index.lines()));
+            return lines(path, file, index, from, from + Math.max(0, lineCount));
+        });
+    }
+
+    /**
+     * Reads the first lines of a file.
+     *
+     * @param path the file path relative to the project
+     * @param lineCount the number of lines to read
+     * @return the lines with their numbers, preceded by the size of the file
+     */
+    @ReadOnlyTool(pathScoped = true)
+    @Tool("Read the first lineCount lines of a file by path")
+    public String readFileHead(String path, int lineCount) throws Exception {
+        progress("📖 Reading the first " + lineCount + " lines of file " + path);
+        return withIndex(path, (file, index) -> lines(path, file, index, 0, Math.max(0, lineCount)));
+    }
+
+    /**
+     * Reads the last lines of a file, e.g. of a log.
+     *
+     * @param path the file path relative to the project
+     * @param lineCount the number of lines to read
+     * @return the lines with their numbers, preceded by the size of the file
+     */
+    @ReadOnlyTool(pathScoped = true)
+    @Tool("Read the last lineCount lines of a file by path, e.g. of a log")
+    public String readFileTail(String path, int lineCount) throws Exception {
+        progress("📖 Reading the last " + lineCount + " lines of file " + path);
+        return withIndex(path, (file, index) -> {
+            final int count = Math.min(Math.max(0, lineCount), MAX_READ_LINES);
+            return lines(path, file, index, Math.max(0, index.lines() - count), index.lines());
+        });
+    }
+
+    /**
+     * Reads a window of bytes of a file, e.g. of a file with very long lines.
+     *
+     * @param path the file path relative to the project
+     * @param offset the offset of the first byte, 0-based
+     * @param length the number of bytes to read, at most {@link #MAX_READ_BYTES}
+     * @return the text, preceded by the size of the file and the lines the
+     * window spans
+     */
+    @ReadOnlyTool(pathScoped = true)
+    @Tool("Read length bytes of a file by path starting at byte offset (0-based); use it for files with very long lines")
+    public String readFileBytes(String path, long offset, int length) throws Exception {
+        progress("📖 Reading " + length + " bytes at " + offset + " of file " + path);
+        return withIndex(path, (file, index) -> {
+            final long from = Math.max(0, Math.min(offset, index.size()));
+            final int count = (int) Math.min(Math.min(Math.max(0, length), MAX_READ_BYTES), index.size() - from);
+            final StringBuilder result = header(path, index)
+                .append("bytes ").append(from).append('-').append(from + count)
+                .append(" (lines ").append(index.lineAt(from) + 1).append('-')
+                .append(index.lineAt(Math.max(from, from + count - 1)) + 1).append("):\n")
+                .append(FileLineIndex.read(file, from, count, Charset.defaultCharset()));
+            if (from + count < index.size()) {
+                result.append("\n[").append(index.size() - from - count)
+                      .append(" more bytes, continue at offset ").append(from + count).append(']');
+            }
+            return result.toString();
+        });
+    }
+
+    /**
+     * Reads the lines matching a regular expression together with the lines
+     * around them.
+     *
+     * @param path the file path relative to the project
+     * @param pattern the regex pattern to search for in each line
+     * @param contextLines the number of lines to show before and after each
+     * matching line
+     * @return the matching lines, marked with '>', and their context, with
+     * line numbers; at most {@link #MAX_MATCHES} matches and
+     * {@link #MAX_READ_BYTES} bytes
+     */
+    @ReadOnlyTool(pathScoped = true)
+    @Tool("Read the lines of a file by path matching a regex pattern, with contextLines lines before and after each match")
+    public String readAroundMatch(String path, String pattern, int contextLines) throws Exception {
+        progress("🔎 Reading around '" + pattern + "' inside '" + path + "'");
+        final Pattern regex = Pattern.compile(pattern);
+        return withIndex(path, (file, index) -> {
+            final List<Integer> matches = new ArrayList<>();
+            int total = 0, n = 0;
+            //
+            // lines split at '\n' only, as in the index
+            //
+            try (Reader reader = Files.newBufferedReader(file, Charset.defaultCharset())) {
+                final StringBuilder line = new StringBuilder();
+                int c;
+                do {
+                    c = reader.read();
+                    if (c == '\n' || (c < 0 && !line.isEmpty())) {
+                        final int end = line.length() - ((!line.isEmpty() && line.charAt(line.length() - 1) == '\r') ? 1 : 0);
+                        if (regex.matcher(line).region(0, end).find()) {
+                            if (matches.size() < MAX_MATCHES) {
+                                matches.add(n);
+                            }
+                            ++total;
+                        }
+                        line.setLength(0);
+                        ++n;
+                    } else if (c >= 0) {
+                        line.append((char) c);
+                    }
+                } while (c >= 0);
+            }
+            final StringBuilder result = header(path, index)
+                .append(total).append(" matching lines");
+            if (total > matches.size()) {
+                result.append(", first ").append(matches.size()).append(" shown");
+            }
+            result.append(":\n");
+
+            final int context = Math.max(0, contextLines);
+            long budget = MAX_READ_BYTES;
+            int i = 0;
+            while (i < matches.size()) {
+                //
+                // merge the windows of matches closer than two contexts
+                //
+                final int from = Math.max(0, matches.get(i) - context);
+                int last = i;
+                while (last + 1 < matches.size() && matches.get(last + 1) - context <= matches.get(last) + context + 1) {
+                    ++last;
+                }
+                final int to = Math.min(index.lines(), matches.get(last) + context + 1);
+                if (i > 0) {
+                    result.append("--\n");
+                }
+                final List<Integer> marked = matches.subList(i, last + 1);
+                final long read = appendLines(result, file, index, from, to, budget, marked::contains);
+                budget -= read;
+                i = last + 1;
+                final boolean truncated = read < index.offset(to) - index.offset(from);
+                if (budget == 0 && (truncated || i < matches.size())) {
+                    final int next = truncated
+                                   ? index.lineAt(index.offset(from) + read)
+                                   : Math.max(0, matches.get(i) - context);
+                    result.append("[read limited to ").append(MAX_READ_BYTES)
+                          .append(" bytes, continue with readFileLines at startLine ").append(next + 1).append("]\n");
+                    break;
+                }
+            }
+            return result.toString();
+        });
+    }
+
     /**
      * Searches for a regular expression inside a file.
      *
@@ -64,6 +274,7 @@ public class FileSystemTools extends AbstractCodeTool {
      * @param pattern the regex pattern to search for
      * @return all matches with their offsets, or a message if none were found
      */
+    @ReadOnlyTool(pathScoped = true)
     @Tool("Search for a regex pattern in a file by path")
     public String searchInFile(String path, String pattern) throws Exception {
         progress("🔎 Looking for '" + pattern + "' inside '" + path + "'");
@@ -77,6 +288,75 @@ public class FileSystemTools extends AbstractCodeTool {
         return result.length() > 0 ? result.toString() : "No matches found";
     }
 
+    /**
+     * Searches the source files of the project (as indexed by
+     * {@link ProjectLexicalIndex}) for a text or a regular expression. The
+     * trigram index narrows the files to read, which are then searched in
+     * parallel; at most {@link #MAX_SEARCH_MATCHES} matches are collected and
+     * returned {@link #SEARCH_PAGE_SIZE} at a time.
+     *
+     * @param pattern the text or regex pattern to search for in each line
+     * @param regex true if the pattern is a regular expression
+     * @param page the page of matches to return, 1-based
+     * @return the matches as path:line: text, sorted by path and line
+     */
+    @ReadOnlyTool
+    @Tool("Search all the source files of the project for a text (or a regex pattern if regex is true); returns path:line: text of the matching lines, a page at a time (page 1 first)")
+    public String searchInProject(String pattern, boolean regex, int page) throws Exception {
+        progress("🔎 Looking for '" + pattern + "' in the project");
+        final FileObject dir = FileUtil.toFileObject(FileUtil.normalizeFile(basepath.toFile()));
+        if (dir == null) {
+            return "Project directory not found: " + basedir;
+        }
+        final Pattern compiled = Pattern.compile(regex ? pattern : Pattern.quote(pattern));
+        final ProjectLexicalIndex index = ProjectLexicalIndex.forDirectory(dir);
+        final Set<String> candidates = index.getTrigramIndex().candidates(
+            regex ? TrigramIndex.literals(pattern) : List.of(pattern)
+        );
+
+        final List<String> paths = new ArrayList<>(candidates); // sorted by path
+        final SearchResults results = new SearchResults(paths.size());
+        final List<Callable<List<String>>> tasks = new ArrayList<>(paths.size());
+        for (int i = 0; i < paths.size(); ++i) {
+            final int file = i;
+            tasks.add(() -> results.add(file, results.isFull(file) ? List.of() : searchFile(dir, paths.get(file), compiled)));
+        }
+        final List<String> matches = new ArrayList<>();
+        int files = 0;
+        boolean truncated = false;
+        for (Future<List<String>> result : SEARCH_RP.invokeAll(tasks)) {
+            final List<String> fileMatches = result.get();
+            if (fileMatches.isEmpty()) {
+                continue;
+            }
+            if (matches.size() >= MAX_SEARCH_MATCHES) {
+                truncated = true;
+                break;
+            }
+            ++files;
+            matches.addAll(fileMatches);
+        }
+        if (matches.size() > MAX_SEARCH_MATCHES) {
+            truncated = true;
+            matches.subList(MAX_SEARCH_MATCHES, matches.size()).clear();
+        }
+
+        final int pages = Math.max(1, (matches.size() + SEARCH_PAGE_SIZE - 1) / SEARCH_PAGE_SIZE);
+        final int current = Math.min(Math.max(1, page), pages);
+        final StringBuilder result = new StringBuilder()
+            .append(matches.size()).append(truncated ? "+" : "").append(" matches in ").append(files)
+            .append(" files (").append(candidates.size()).append(" of ").append(index.getTrigramIndex().files())
+            .append(" files searched); page ").append(current).append(" of ").append(pages).append(":\n");
+        for (String match : matches.subList((current - 1) * SEARCH_PAGE_SIZE, Math.min(matches.size(), current * SEARCH_PAGE_SIZE))) {
+            result.append(match).append('\n');
+        }
+        if (current < pages) {
+            result.append("[more matches, continue with page ").append(current + 1).append("]\n");
+        }
+        progress("✅ Found " + matches.size() + " matches in " + files + " files");
+        return result.toString();
+    }
+
     /**
      * Find a line number to insert code after the end of a Java method or
      * constructor. This method heuristically scans the file content lines to
@@ -128,6 +408,7 @@ public class FileSystemTools extends AbstractCodeTool {
      * @param lineText the text to insert as a new line
      * @return status message
      */
+    @FileWriteTool
     @Tool("Insert a line of code at a given line number (0-based) in a file by path")
     public String insertLineAfterMethod(String path, String methodName, String lineText)
     throws Exception {
@@ -172,6 +453,7 @@ public class FileSystemTools extends AbstractCodeTool {
      * @param replacement the replacement text
      * @return a status message
      */
+    @FileWriteTool
     @Tool("Replace parts of a file content by regex pattern with replacement text")
     public String replaceSnippetByRegex(String path, String regexPattern, String replacement)
     throws Exception {
@@ -179,17 +461,13 @@ public class FileSystemTools extends AbstractCodeTool {
 
         return withDocument(path, doc -> {
             try {
-                String original = doc.getText(0, doc.getLength());
-                String modified = original.replaceAll(regexPattern, replacement);
+                final int edits = edit(doc, original -> replacement(original, original.replaceAll(regexPattern, replacement)));
 
-                if (original.equals(modified)) {
+                if (edits == 0) {
                     progress("⚠️ No matches found for regex '" + regexPattern + "' in file: " + path);
                     return "No matches found for pattern.";
                 }
 
-                doc.remove(0, doc.getLength());
-                doc.insertString(0, modified, null);
-
                 progress("✅ Replacement completed in file: " + path);
                 return "File snippet replaced successfully.";
             } catch (Exception e) {
@@ -206,6 +484,7 @@ public class FileSystemTools extends AbstractCodeTool {
      * @param newContent the new content to write
      * @return a status message
      */
+    @FileWriteTool
     @Tool("Replace the full content of a file by path with new text")
     public String replaceFileContent(String path, String newContent)
     throws Exception {
@@ -213,8 +492,7 @@ public class FileSystemTools extends AbstractCodeTool {
 
         return withDocument(path, doc -> {
             try {
-                doc.remove(0, doc.getLength());
-                doc.insertString(0, newContent, null);
+                edit(doc, original -> replacement(original, newContent));
 
                 progress("✅ File content replaced successfully: " + path);
                 return "File updated";
@@ -225,6 +503,35 @@ public class FileSystemTools extends AbstractCodeTool {
         }, true);
     }
 
+    /**
+     * Applies a patch to a file: a unified diff or search/replace blocks (see
+     * {@link TextPatch}). Only the text that differs is edited, as one atomic
+     * and undoable change of the document; if any hunk is stale (its lines
+     * are not in the file) nothing is changed.
+     *
+     * @param path the file path relative to the project
+     * @param patch the unified diff or search/replace blocks
+     * @return a status message
+     */
+    @FileWriteTool
+    @Tool("Apply a patch to a file by path, either a unified diff or search/replace blocks (<<<<<<< SEARCH, the lines to find, =======, the lines to replace them with, >>>>>>> REPLACE); the whole patch is rejected if any hunk does not match the file. Prefer it to replacing the whole file")
+    public String applyPatch(String path, String patch)
+    throws Exception {
+        progress("🩹 Applying patch to file: " + path);
+
+        return withDocument(path, doc -> {
+            try {
+                final int edits = edit(doc, original -> TextPatch.edits(original, patch));
+
+                progress("✅ Patch applied with " + edits + " edits in file: " + path);
+                return (edits == 0) ? "Patch applied, nothing changed" : "Patch applied with " + edits + " edits";
+            } catch (IllegalArgumentException e) {
+                progress("❌ Patch rejected: " + e.getMessage() + " in file: " + path);
+                return "Patch rejected, nothing changed: " + e.getMessage();
+            }
+        }, true);
+    }
+
     /**
      * Inserts a line at the given line number (0-based).
      *
@@ -233,6 +540,7 @@ public class FileSystemTools extends AbstractCodeTool {
      * @param lineText the text of the new line
      * @return a status message
      */
+    @FileWriteTool
     @Tool("Insert a line of code at a given line number (0-based) in a file by path")
     public String insertLineInFile(String path, int lineNumber, String lineText)
     throws Exception {
@@ -268,6 +576,7 @@ public class FileSystemTools extends AbstractCodeTool {
      * @param content optional content to write into the file
      * @return a status message
      */
+    @FileWriteTool
     @Tool("Create a new file at the given path with optional content")
     public String createFile(String path, String content) throws Exception {
         progress("📄 Creating new file: " + path);
@@ -295,6 +604,7 @@ public class FileSystemTools extends AbstractCodeTool {
      * @param path the file path relative to the project
      * @return a status message
      */
+    @FileWriteTool
     @Tool("Delete a file at the given path")
     public String deleteFile(String path) throws Exception {
         progress("🗑️ Attempting to delete file: " + path);
@@ -320,6 +630,7 @@ public class FileSystemTools extends AbstractCodeTool {
      * @param path the directory path relative to the project
      * @return a list of files and directories, or an error message
      */
+    @ReadOnlyTool(pathScoped = true)
     @Tool("List all files and directories inside a given directory path")
     public String listFilesInDirectory(String path) throws Exception {
         progress("📂 Listing contents of directory: " + path);
@@ -351,6 +662,7 @@ public class FileSystemTools extends AbstractCodeTool {
      * @param path the directory path relative to the project
      * @return a status message
      */
+    @FileWriteTool
     @Tool("Create a new directory at the given path")
     public String createDirectory(String path) throws Exception {
         progress("📂 Creating new directory: " + path);
@@ -376,6 +688,7 @@ public class FileSystemTools extends AbstractCodeTool {
      * @param path the directory path relative to the project
      * @return a status message
      */
+    @FileWriteTool
     @Tool("Delete a directory at the given path (must be empty)")
     public String deleteDirectory(String path)
     throws Exception {
@@ -399,4 +712,208 @@ public class FileSystemTools extends AbstractCodeTool {
             throw e;
         }
     }
+
+    // --------------------------------------------------------- private methods
+
+    /**
+     * Applies the edits computed from the text of a document, in one atomic
+     * and undoable change, so that the document is reparsed only where it
+     * changed.
+     *
+     * @param doc the document
+     * @param computation computes the edits from the text, sorted by offset;
+     * it may throw an {@link IllegalArgumentException} to change nothing
+     *
+     * @return the number of edits applied
+     */
+    private static int edit(final Document doc, final Function<String, List<TextPatch.Edit>> computation)
+    throws BadLocationException {
+        final List<TextPatch.Edit> applied = new ArrayList<>();
+        final List<IllegalArgumentException> rejected = new ArrayList<>();
+        final Runnable edit = () -> {
+            try {
+                final List<TextPatch.Edit> edits;
+                try {
+                    edits = computation.apply(doc.getText(0, doc.getLength()));
+                } catch (IllegalArgumentException x) {
+                    rejected.add(x);
+                    return;
+                }
+                for (int i = edits.size() - 1; i >= 0; --i) {
+                    final TextPatch.Edit e = edits.get(i);
+                    if (e.length() > 0) {
+                        doc.remove(e.offset(), e.length());
+                    }
+                    if (!e.text().isEmpty()) {
+                        doc.insertString(e.offset(), e.text(), null);
+                    }
+                }
+                applied.addAll(edits);
+            } catch (BadLocationException x) {
+                throw new IllegalStateException(x);
+            }
+        };
+
+        if (doc instanceof StyledDocument styled) {
+            NbDocument.runAtomicAsUser(styled, edit);
+        } else {
+            edit.run();
+        }
+        if (!rejected.isEmpty()) {
+            throw rejected.get(0);
+        }
+        return applied.size();
+    }
+
+    /**
+     * @return the edit replacing the original text with the modified one,
+     * none if they are the same
+     */
+    private static List<TextPatch.Edit> replacement(final String original, final String modified) {
+        final TextPatch.Edit edit = TextPatch.minimal(0, original, modified);
+        return (edit == null) ? List.of() : List.of(edit);
+    }
+
+    /**
+     * @return the matching lines of the file as path:line: text, up to one
+     * more than {@link #MAX_SEARCH_MATCHES}
+     */
+    private static List<String> searchFile(final FileObject dir, final String path, final Pattern pattern) {
+        final List<String> matches = new ArrayList<>();
+        final FileObject file = dir.getFileObject(path);
+        if (file == null) {
+            return matches;
+        }
+        final String content = FileContentCache.read(file); // not cached, see ProjectLexicalIndex
+        if (content == null) {
+            return matches;
+        }
+        final Matcher matcher = pattern.matcher("");
+        int n = 0;
+        for (String line : (Iterable<String>) content.lines()::iterator) {
+            ++n;
+            if (matcher.reset(line).find()) {
+                String text = line.strip();
+                if (text.length() > MAX_MATCH_LENGTH) {
+                    text = text.substring(0, MAX_MATCH_LENGTH) + "...";
+                }
+                matches.add(path + ':' + n + ": " + text);
+                if (matches.size() > MAX_SEARCH_MATCHES) {
+                    break;
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * The number of matches of the files searched in parallel, in the order
+     * of the files. A file is not searched once the files before it have more
+     * than {@link #MAX_SEARCH_MATCHES} matches, as its matches would be
+     * dropped anyway: the matches kept do not depend on which files are
+     * searched first.
+     */
+    private static final class SearchResults {
+
+        private final int[] counts;
+        private final boolean[] done;
+        private int searched, searchedMatches; // the files searched from the first one
+
+        private SearchResults(final int files) {
+            counts = new int[files];
+            done = new boolean[files];
+        }
+
+        private synchronized boolean isFull(final int file) {
+            return searched <= file && searchedMatches > MAX_SEARCH_MATCHES;
+        }
+
+        private synchronized List<String> add(final int file, final List<String> matches) {
+            counts[file] = matches.size();
+            done[file] = true;
+            while (searched < done.length && done[searched]) {
+                searchedMatches += counts[searched++];
+            }
+            return matches;
+        }
+    }
+
+    @FunctionalInterface
+    private interface IndexAction {
+
+        String apply(Path file, FileLineIndex index) throws IOException;
+    }
+
+    private String withIndex(final String path, final IndexAction action) throws IOException {
+        try {
+            final Path file = fullPath(path);
+            return action.apply(file, FileLineIndex.of(file));
+        } catch (IOException e) {
+            progress("❌ Failed to read file: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    private static StringBuilder header(final String path, final FileLineIndex index) {
+        return new StringBuilder("File: ").append(path)
+            .append(" (").append(index.lines()).append(" lines, ")
+            .append(index.size()).append(" bytes); ");
+    }
+
+    /**
+     * Appends the lines from (inclusive) to (exclusive), 0-based, with their
+     * numbers, reading at most the given number of bytes: a line not read
+     * whole is truncated, with the offset to read the rest from.
+     *
+     * @param marked the lines to mark with '>' instead of ':'
+     *
+     * @return the number of bytes read
+     */
+    private static long appendLines(
+        final StringBuilder result, final Path file, final FileLineIndex index,
+        final int from, final int to, final long budget, final IntPredicate marked
+    ) throws IOException {
+        final long start = index.offset(from);
+        final int length = (int) Math.min(index.offset(to) - start, budget);
+        final String[] lines = index.read(file, from, to, length, Charset.defaultCharset()).split("\n", -1);
+        for (int l = from; l < to && index.offset(l) < start + length; ++l) {
+            String line = lines[l - from];
+            if (line.endsWith("\r")) {
+                line = line.substring(0, line.length() - 1);
+            }
+            result.append(l + 1).append(marked.test(l) ? "> " : ": ").append(line);
+            if (index.offset(l + 1) > start + length) {
+                result.append(" [line truncated, read it with readFileBytes at offset ").append(index.offset(l)).append(']');
+            }
+            result.append('\n');
+        }
+        return length;
+    }
+
+    /**
+     * @return the lines from (inclusive) to (exclusive), 0-based, at most
+     * {@link #MAX_READ_LINES} lines and about {@link #MAX_READ_BYTES} bytes,
+     * with their numbers
+     */
+    private static String lines(
+        final String path, final Path file, final FileLineIndex index, final int from, int to
+    ) throws IOException {
+        to = Math.min(Math.min(to, index.lines()), from + MAX_READ_LINES);
+        while (to > from + 1 && index.offset(to) - index.offset(from) > MAX_READ_BYTES) {
+            --to;
+        }
+
+        final StringBuilder result = header(path, index);
+        if (from == to) {
+            return result.append("no lines from line ").append(from + 1).append('\n').toString();
+        }
+        result.append("lines ").append(from + 1).append('-').append(to).append(":\n");
+
+        appendLines(result, file, index, from, to, MAX_READ_BYTES, l -> false);
+        if (to < index.lines()) {
+            result.append('[').append(index.lines() - to)
+                  .append(" more lines, continue with startLine ").append(to + 1).append("]\n");
+        }
+        return result.toString();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,360 @@
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.ai.agent;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Edit session of a Groovy {@code build.gradle}. Arguments of the changes
+ * are:
+ * <ul>
+ *   <li>dependencies: {@code configuration notation} to add and remove,
+ *       {@code configuration oldNotation newNotation} or
+ *       {@code configuration group:name:newVersion} to update;</li>
+ *   <li>plugins: {@code id [version]} to add, {@code id} to remove and
+ *       {@code id version} to update, in the {@code plugins} block;</li>
+ *   <li>properties: {@code name=value} to set and {@code name} to remove, in
+ *       the {@code ext} block (or as {@code ext.name = value}).</li>
+ * </ul>
+ * <p>
+ * Blocks are located at the top level of the script, ignoring comments and
+ * strings, and only the affected lines are rewritten, indented as their
+ * siblings.
+ */
+public class GradleEdit extends BuildFileEdit {
+
+    private static final String DEFAULT_INDENTATION = "    ";
+
+    /**
+     * A top level block, from the offset of its name to the offset of its
+     * closing brace.
+     */
+    record Block(int start, int open, int close) {}
+
+    @Override
+    protected Step apply(final String text, final Change change) {
+        return switch (change.target()) {
+            case DEPENDENCY -> dependency(text, change);
+            case PLUGIN -> plugin(text, change);
+            case PROPERTY -> property(text, change);
+        };
+    }
+
+    /**
+     * @param text the script
+     * @param name the name of the block
+     *
+     * @return the first top level block with the given name or null
+     */
+    static Block block(final String text, final String name) {
+        final String code = mask(text);
+        final Matcher m = Pattern.compile("(?<![\\w.$])" + Pattern.quote(name) + "\\s*\\{").matcher(code);
+        while (m.find()) {
+            if (depth(code, m.start()) == 0) {
+                final int open = m.end() - 1;
+                int depth = 0;
+                for (int i = open; i < code.length(); ++i) {
+                    final char c = code.charAt(i);
+                    if (c == '{') {
+                        ++depth;
+                    } else if (c == '}' && --depth == 0) {
+                        return new Block(m.start(), open, i);
+                    }
+                }
+                throw new IllegalArgumentException("malformed build.gradle: " + name + " block not closed");
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the text with the content of comments and strings replaced by
+     * spaces, so that offsets are preserved
+     */
+    static String mask(final String text) {
+        final StringBuilder sb = new StringBuilder(text);
+        int i = 0;
+        while (i < text.length()) {
+            final char c = text.charAt(i);
+            int end;
+            if (text.startsWith("//", i)) {
+                end = text.indexOf('\n', i);
+                end = (end < 0) ? text.length() : end;
+            } else if (text.startsWith("/*", i)) {
+                end = text.indexOf("*/", i + 2);
+                end = (end < 0) ? text.length() : end + 2;
+            } else if (text.startsWith("'''", i) || text.startsWith("\"\"\"", i)) {
+                end = text.indexOf(text.substring(i, i + 3), i + 3);
+                end = (end < 0) ? text.length() : end + 3;
+            } else if (c == '\'' || c == '"') {
+                end = i + 1;
+                while (end < text.length() && text.charAt(end) != c && text.charAt(end) != '\n') {
+                    end += (text.charAt(end) == '\\') ? 2 : 1;
+                }
+                end = Math.min(end + 1, text.length());
+            } else {
+                ++i;
+                continue;
+            }
+            for (int j = i; j < end; ++j) {
+                if (text.charAt(j) != '\n' && text.charAt(j) != '\r') {
+                    sb.setCharAt(j, ' ');
+                }
+            }
+            i = end;
+        }
+        return sb.toString();
+    }
+
+    // --------------------------------------------------------- private methods
+
+    private Step dependency(final String text, final Change change) {
+        final String[] args = change.arguments().split("\\s+");
+        final int expected = (change.action() == Action.UPDATE) ? 3 : 2;
+        if (args.length < 2 || args.length > expected) {
+            throw new IllegalArgumentException(
+                "malformed dependency '" + change.arguments() + "': expected configuration "
+                + ((change.action() == Action.UPDATE) ? "[oldNotation] newNotation" : "notation")
+            );
+        }
+        final String configuration = args[0];
+        final String notation = unquote(args[1]);
+        final Block dependencies = block(text, "dependencies");
+        final String dependency = configuration + " '" + notation + "'";
+
+        if (change.action() == Action.UPDATE) {
+            final String newNotation = unquote(args[args.length - 1]);
+            final String oldNotation = (args.length == 3) ? notation : null;
+            final Matcher m = dependency(text, dependencies, configuration, oldNotation, newNotation);
+            if (m == null) {
+                throw new IllegalArgumentException("Dependency not found in build.gradle");
+            }
+            return new Step(
+                text.substring(0, m.start(2)) + newNotation + text.substring(m.end(2)),
+                "Dependency updated successfully in build.gradle"
+            );
+        }
+
+        final Matcher m = dependency(text, dependencies, configuration, notation, null);
+        if (change.action() == Action.REMOVE) {
+            if (m == null) {
+                throw new IllegalArgumentException("Dependency not found in build.gradle");
+            }
+            return new Step(remove(text, m.start(), m.end()), "Dependency removed successfully from build.gradle");
+        }
+        if (m != null) {
+            return new Step(text, "Dependency already exists in build.gradle");
+        }
+        return new Step(
+            (dependencies != null) ? insert(text, dependencies, dependency) : append(text, "dependencies", dependency),
+            "Dependency added successfully to build.gradle"
+        );
+    }
+
+    private Step plugin(final String text, final Change change) {
+        final String[] args = change.arguments().split("\\s+");
+        if (args.length > 2 || (change.action() == Action.UPDATE && args.length != 2)
+            || (change.action() == Action.REMOVE && args.length != 1)) {
+            throw new IllegalArgumentException(
+                "malformed plugin '" + change.arguments() + "': expected id" + ((change.action() == Action.REMOVE) ? "" : " version")
+            );
+        }
+        final String id = unquote(args[0]);
+        final String version = (args.length > 1) ? unquote(args[1]) : null;
+        final Block plugins = block(text, "plugins");
+        final Matcher m = (plugins == null) ? null : Pattern.compile(
+            "(?m)^[ \\t]*id\\s*\\(?\\s*(['\"])" + Pattern.quote(id) + "\\1\\s*\\)?"
+            + "(?:[ \\t]+version\\s*\\(?\\s*(['\"])([^'\"\\n]*)\\2\\s*\\)?)?[ \\t]*$"
+        ).matcher(text).region(plugins.open + 1, plugins.close);
+        final boolean found = (m != null) && m.find();
+
+        switch (change.action()) {
+            case ADD -> {
+                if (found) {
+                    return new Step(text, "Plugin already exists in build.gradle");
+                }
+                final String plugin = "id '" + id + "'" + ((version != null) ? " version '" + version + "'" : "");
+                if (plugins != null) {
+                    return new Step(insert(text, plugins, plugin), "Plugin added successfully to build.gradle");
+                }
+                //
+                // the plugins block must come first, after buildscript
+                //
+                final Block buildscript = block(text, "buildscript");
+                final String nl = newline(text);
+                final int at = (buildscript != null) ? lineEnd(text, buildscript.close) : 0;
+                final String block = "plugins {" + nl + DEFAULT_INDENTATION + plugin + nl + "}" + nl;
+                return new Step(
+                    text.substring(0, at) + ((at > 0) ? nl : "") + block + ((at == 0) ? nl : "") + text.substring(at),
+                    "Plugin added successfully to build.gradle"
+                );
+            }
+            case REMOVE -> {
+                if (!found) {
+                    throw new IllegalArgumentException("Plugin " + id + " not found in build.gradle");
+                }
+                return new Step(remove(text, m.start(), m.end()), "Plugin removed successfully from build.gradle");
+            }
+            default -> {
+                if (!found) {
+                    throw new IllegalArgumentException("Plugin " + id + " not found in build.gradle");
+                }
+                final String updated = (m.group(3) != null)
+                    ? text.substring(0, m.start(3)) + version + text.substring(m.end(3))
+                    : text.substring(0, m.end()) + " version '" + version + "'" + text.substring(m.end());
+                return new Step(updated, "Plugin version updated successfully in build.gradle");
+            }
+        }
+    }
+
+    private Step property(final String text, final Change change) {
+        final boolean remove = change.action() == Action.REMOVE;
+        final int eq = change.arguments().indexOf('=');
+        if (!remove && eq <= 0) {
+            throw new IllegalArgumentException("malformed property '" + change.arguments() + "': expected name=value");
+        }
+        final String name = (remove ? change.arguments() : change.arguments().substring(0, eq)).strip();
+        final Block ext = block(text, "ext");
+
+        Matcher m = null;
+        if (ext != null) {
+            m = Pattern.compile("(?m)^[ \\t]*" + Pattern.quote(name) + "\\s*=\\s*(?<value>.*?)[ \\t]*$")
+                .matcher(text).region(ext.open + 1, ext.close);
+            m = m.find() ? m : null;
+        }
+        if (m == null) {
+            m = Pattern.compile("(?m)^[ \\t]*ext\\." + Pattern.quote(name) + "\\s*=\\s*(?<value>.*?)[ \\t]*$").matcher(text);
+            m = m.find() ? m : null;
+        }
+
+        if (remove) {
+            if (m == null) {
+                throw new IllegalArgumentException("Property " + name + " not found in build.gradle");
+            }
+            return new Step(remove(text, m.start(), m.end()), "Property " + name + " removed successfully from build.gradle");
+        }
+
+        final String value = literal(change.arguments().substring(eq + 1).strip());
+        final String message = "Property " + name + " set successfully in build.gradle";
+        if (m != null) {
+            return new Step(text.substring(0, m.start("value")) + value + text.substring(m.end("value")), message);
+        }
+        final String property = name + " = " + value;
+        if (ext != null) {
+            return new Step(insert(text, ext, property), message);
+        }
+        final Block dependencies = block(text, "dependencies");
+        if (dependencies == null) {
+            return new Step(append(text, "ext", property), message);
+        }
+        final String nl = newline(text);
+        final int at = lineStart(text, dependencies.start);
+        return new Step(
+            text.substring(0, at) + "ext {" + nl + DEFAULT_INDENTATION + property + nl + "}" + nl + nl + text.substring(at),
+            message
+        );
+    }
+
+    /**
+     * Finds a dependency in the given block, by notation or, if no notation
+     * is given, by the group and name of the new notation. Dependencies in
+     * comments are skipped.
+     */
+    private static Matcher dependency(
+        final String text, final Block block, final String configuration,
+        final String notation, final String newNotation
+    ) {
+        if (block == null) {
+            return null;
+        }
+        String coordinates = (notation != null) ? Pattern.quote(notation) : null;
+        if (coordinates == null) {
+            final int colon = newNotation.lastIndexOf(':');
+            if (colon <= 0) {
+                return null;
+            }
+            coordinates = Pattern.quote(newNotation.substring(0, colon + 1)) + "[^'\"]*";
+        }
+        final Matcher m = Pattern.compile(
+            "(?<![\\w.$])" + Pattern.quote(configuration) + "\\s*\\(?\\s*(['\"])(" + coordinates + ")\\1\\s*\\)?"
+        ).matcher(text).region(block.open + 1, block.close);
+        final String code = mask(text);
+        while (m.find()) {
+            if (code.startsWith(configuration, m.start())) {
+                return m;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Inserts a line as last line of the given block, indented as the other
+     * lines of the block.
+     */
+    private static String insert(final String text, final Block block, final String line) {
+        final String nl = newline(text);
+        final String blockIndentation = indentation(text, block.start);
+        String indentation = blockIndentation + DEFAULT_INDENTATION;
+        final int first = lineEnd(text, block.open);
+        for (int i = first; i < block.close; i = lineEnd(text, i)) {
+            final int end = Math.min(lineEnd(text, i), block.close);
+            if (!text.substring(i, end).isBlank()) {
+                indentation = indentation(text, i);
+                break;
+            }
+            if (end == i) {
+                break;
+            }
+        }
+        final int at = lineStart(text, block.close);
+        return (at > block.open && text.substring(at, block.close).isBlank())
+             ? text.substring(0, at) + indentation + line + nl + text.substring(at)
+             : text.substring(0, block.close) + nl + indentation + line + nl + blockIndentation + text.substring(block.close);
+    }
+
+    private static String append(final String text, final String name, final String line) {
+        final String nl = newline(text);
+        final String separator = text.isEmpty() ? "" : (text.endsWith("\n") ? nl : nl + nl);
+        return text + separator + name + " {" + nl + DEFAULT_INDENTATION + line + nl + "}" + nl;
+    }
+
+    private static String literal(final String value) {
+        if (value.matches("'[^']*'|\"[^\"]*\"|-?\\d+(\\.\\d+)?|true|false")) {
+            return value;
+        }
+        return "'" + value.replace("\\", "\\\\").replace("'", "\\'") + "'";
+    }
+
+    private static String unquote(final String value) {
+        return (value.length() > 1 && (value.charAt(0) == '\'' || value.charAt(0) == '"')
+                && value.charAt(value.length() - 1) == value.charAt(0))
+             ? value.substring(1, value.length() - 1) : value;
+    }
+
+    private static int depth(final String code, final int offset) {
+        int depth = 0;
+        for (int i = 0; i < offset; ++i) {
+            final char c = code.charAt(i);
+            if (c == '{') {
+                ++depth;
+            } else if (c == '}') {
+                --depth;
+            }
+        }
+        return depth;
+    }
+}
@@ -16,7 +16,9 @@
 package io.github.jeddict.ai.agent;
 
 import dev.langchain4j.agent.tool.Tool;
-import java.io.OutputStream;
+import io.github.jeddict.ai.agent.BuildFileEdit.Action;
+import io.github.jeddict.ai.agent.BuildFileEdit.Change;
+import io.github.jeddict.ai.agent.BuildFileEdit.Target;
 import java.util.ArrayList;
 import java.util.List;
 import org.openide.filesystems.FileObject;
@@ -24,6 +26,8 @@ import org.openide.filesystems.FileObject;
 /**
  * Tool to manage dependencies in the build.gradle file.
  * Allows adding, removing, updating, and listing dependencies in the project's build.gradle.
+ * Changes are applied by {@link GradleEdit}, which keeps the formatting of the file, and
+ * can be batched with {@link #editBuild(String)} so that the script is written once.
  *
  * Author: Assistant
  */
@@ -41,41 +45,13 @@ public class GradleTools extends AbstractBuildTool {
     throws Exception {
         progress("Adding dependency: " + configuration + ":" + dependencyNotation);
         try {
-            final FileObject gradleFile = buildFile();
-
-            // Read the existing content
-            String content = gradleFile.asText();
-
-            String dependencyString = configuration + " '" + dependencyNotation + "'";
-
-            if (content.contains(dependencyString)) {
-                progress("Dependency already exists: " + dependencyString);
-                return "Dependency already exists in build.gradle";
-            }
-
-            // Find dependencies block and add the dependency inside it
-            String updatedContent;
-            int dependenciesIndex = content.indexOf("dependencies {");
-            if (dependenciesIndex == -1) {
-                // No dependencies block, add one at the end
-                updatedContent = content + "\n\ndependencies {\n    " + dependencyString + "\n}\n";
-            } else {
-                int insertIndex = content.indexOf("}", dependenciesIndex);
-                if (insertIndex == -1) {
-                    // Malformed file? Just append
-                    updatedContent = content + "\n    " + dependencyString + "\n";
-                } else {
-                    updatedContent = content.substring(0, insertIndex) + "    " + dependencyString + "\n" + content.substring(insertIndex);
-                }
-            }
+            final String message = edit(Action.ADD, configuration + " " + dependencyNotation);
 
-            // Write changes back to build.gradle
-            try (OutputStream os = gradleFile.getOutputStream()) {
-                os.write(updatedContent.getBytes());
-            }
-
-            progress("Dependency added successfully: " + dependencyString);
-            return "Dependency added successfully to build.gradle";
+            progress(
+                (message.startsWith("Dependency already exists") ? "Dependency already exists: " : "Dependency added successfully: ")
+                + configuration + " '" + dependencyNotation + "'"
+            );
+            return message;
         } catch (Exception e) {
             progress("Failed to add dependency: " + e.getMessage());
 
@@ -90,30 +66,15 @@ public class GradleTools extends AbstractBuildTool {
     public String removeDependency(String configuration, String dependencyNotation)
     throws Exception {
         progress("Removing dependency: " + configuration + ":" + dependencyNotation);
+        final String dependencyString = configuration + " '" + dependencyNotation + "'";
         try {
-            final FileObject gradleFile = buildFile();
-
-            // Read the existing content
-            String content = new String(gradleFile.asBytes());
-
-            String dependencyString = configuration + " '" + dependencyNotation + "'";
-
-            if (!content.contains(dependencyString)) {
-                progress("Dependency not found: " + dependencyString);
-                return "Dependency not found in build.gradle";
-            }
-
-            // Remove the dependency string
-            String updatedContent = content.replace(dependencyString + "\n", "");
-            updatedContent = updatedContent.replace(dependencyString, "");
-
-            // Write changes back to build.gradle
-            try (OutputStream os = gradleFile.getOutputStream()) {
-                os.write(updatedContent.getBytes());
-            }
+            final String message = edit(Action.REMOVE, configuration + " " + dependencyNotation);
 
             progress("Dependency removed successfully: " + dependencyString);
-            return "Dependency removed successfully from build.gradle";
+            return message;
+        } catch (IllegalArgumentException e) {
+            progress("Dependency not found: " + dependencyString);
+            return e.getMessage();
         } catch (Exception e) {
             progress("Failed to remove dependency: " + e.getMessage());
 
@@ -121,6 +82,7 @@ public class GradleTools extends AbstractBuildTool {
         }
     }
 
+    @ReadOnlyTool
     @Tool(
         name = "listGradleDependencies",
         value = "List all dependencies in the build.gradle file"
@@ -174,31 +136,40 @@ public class GradleTools extends AbstractBuildTool {
     public String updateDependency(String configuration, String oldDependencyNotation, String newDependencyNotation)
     throws Exception {
         progress("Updating dependency: " + configuration + ":" + oldDependencyNotation + " -> " + newDependencyNotation);
+        final String newDependencyString = configuration + " '" + newDependencyNotation + "'";
         try {
-            final FileObject gradleFile = buildFile();
-
-            // Read the existing content
-            String content = new String(gradleFile.asBytes());
+            final String message = edit(Action.UPDATE, configuration + " " + oldDependencyNotation + " " + newDependencyNotation);
 
-            String oldDependencyString = configuration + " '" + oldDependencyNotation + "'";
-            String newDependencyString = configuration + " '" + newDependencyNotation + "'";
-
-            if (!content.contains(oldDependencyString)) {
-                progress("Dependency not found: " + oldDependencyString);
-                return "Dependency not found in build.gradle";
-            }
+            progress("Dependency updated successfully: " + newDependencyString);
+            return message;
+        } catch (IllegalArgumentException e) {
+            progress("Dependency not found: " + configuration + " '" + oldDependencyNotation + "'");
+            return e.getMessage();
+        } catch (Exception e) {
+            progress("Failed to update dependency: " + e.getMessage());
 
-            String updatedContent = content.replace(oldDependencyString, newDependencyString);
+            throw e;
+        }
+    }
 
-            // Write changes back to build.gradle
-            try (OutputStream os = gradleFile.getOutputStream()) {
-                os.write(updatedContent.getBytes());
-            }
+    @Tool(
+        name = "editGradleBuild",
+        value = "Apply a batch of changes to the build.gradle file with a single write and project reload; "
+              + "either all changes are applied or none. Give one change per line: "
+              + "'add dependency configuration group:name:version', 'remove dependency configuration group:name:version', "
+              + "'update dependency configuration group:name:newVersion', 'add plugin id [version]', "
+              + "'remove plugin id', 'update plugin id version', 'set property name=value', 'remove property name'"
+    )
+    public String editBuild(String changes)
+    throws Exception {
+        progress("Editing build.gradle");
+        try {
+            final List<String> messages = edit(new GradleEdit(), BuildFileEdit.parse(changes));
 
-            progress("Dependency updated successfully: " + newDependencyString);
-            return "Dependency updated successfully in build.gradle";
+            progress("build.gradle edited successfully with " + messages.size() + " changes");
+            return String.join("\n", messages);
         } catch (Exception e) {
-            progress("Failed to update dependency: " + e.getMessage());
+            progress("Failed to edit build.gradle: " + e.getMessage());
 
             throw e;
         }
@@ -229,4 +200,7 @@ public class GradleTools extends AbstractBuildTool {
         }
     }
 
-}
\ No newline at end of file
+    private String edit(final Action action, final String arguments) throws Exception {
+        return edit(new GradleEdit(), List.of(new Change(action, Target.DEPENDENCY, arguments))).get(0);
+    }
+}
@@ -16,6 +16,9 @@
 package io.github.jeddict.ai.agent;
 
 import dev.langchain4j.agent.tool.Tool;
+import io.github.jeddict.ai.agent.BuildFileEdit.Action;
+import io.github.jeddict.ai.agent.BuildFileEdit.Change;
+import io.github.jeddict.ai.agent.BuildFileEdit.Target;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
@@ -23,11 +26,6 @@ import java.util.List;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
 import org.openide.filesystems.FileObject;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
@@ -37,6 +35,8 @@ import org.xml.sax.SAXException;
 /**
  * Tool to manage dependencies in the pom.xml file.
  * Allows adding, removing, updating, and listing dependencies in the project's pom.xml.
+ * Changes are applied by {@link PomEdit}, which keeps the formatting of the file, and
+ * can be batched with {@link #editBuild(String)} so that the pom is written once.
  *
  * Author: Assistant
  */
@@ -69,61 +69,17 @@ public class MavenTools extends AbstractBuildTool {
     private String addDependency(String groupId, String artifactId, String version, String scope)
     throws Exception {
         try {
-            final FileObject pomFile = buildFile();
-            final Document pom = pomDocument(pomFile.getInputStream());
-
-            final NodeList dependenciesNodes = pom.getElementsByTagName("dependencies");
-            Element dependenciesElement;
-            if (dependenciesNodes.getLength() == 0) {
-                dependenciesElement = pom.createElement("dependencies");
-                pom.getDocumentElement().appendChild(dependenciesElement);
-            } else {
-                dependenciesElement = (Element) dependenciesNodes.item(0);
-            }
-
-            // Check if dependency already exists
-            NodeList dependencyList = dependenciesElement.getElementsByTagName("dependency");
-            for (int i = 0; i < dependencyList.getLength(); i++) {
-                Element dep = (Element) dependencyList.item(i);
-                String g = dep.getElementsByTagName("groupId").item(0).getTextContent();
-                String a = dep.getElementsByTagName("artifactId").item(0).getTextContent();
-                if (g.equals(groupId) && a.equals(artifactId)) {
-                    progress("Dependency already exists: " + groupId + ":" + artifactId);
-                    return "Dependency already exists in pom.xml";
-                }
-            }
-
-            Element dependency = pom.createElement("dependency");
-
-            Element gId = pom.createElement("groupId");
-            gId.setTextContent(groupId);
-            Element aId = pom.createElement("artifactId");
-            aId.setTextContent(artifactId);
-            Element ver = pom.createElement("version");
-            ver.setTextContent(version);
-
-            dependency.appendChild(gId);
-            dependency.appendChild(aId);
-            dependency.appendChild(ver);
-
-            if (scope != null && !scope.isEmpty()) {
-                Element scopeElement = pom.createElement("scope");
-                scopeElement.setTextContent(scope);
-                dependency.appendChild(scopeElement);
-            }
-
-            dependenciesElement.appendChild(dependency);
-
-            // Write changes back to pom.xml
-            TransformerFactory transformerFactory = TransformerFactory.newInstance();
-            Transformer transformer = transformerFactory.newTransformer();
-            transformer.setOutputProperty(OutputKeys.INDENT, "yes");
-            DOMSource source = new DOMSource(pom);
-            StreamResult result = new StreamResult(pomFile.getOutputStream());
-            transformer.transform(source, result);
-
-            progress("Dependency added successfully: " + groupId + ":" + artifactId + ":" + version);
-            return "Dependency added successfully to pom.xml";
+            final String message = edit(
+                Action.ADD,
+                groupId + ":" + artifactId + ":" + ((version != null) ? version : "")
+                + ((scope != null && !scope.isEmpty()) ? ":" + scope : "")
+            );
+            progress(
+                message.startsWith("Dependency already exists")
+                ? "Dependency already exists: " + groupId + ":" + artifactId
+                : "Dependency added successfully: " + groupId + ":" + artifactId + ":" + version
+            );
+            return message;
         } catch (Exception e) {
             progress("Failed to add dependency: " + e.getMessage());
 
@@ -138,39 +94,17 @@ public class MavenTools extends AbstractBuildTool {
     public String removeDependency(String groupId, String artifactId) throws Exception {
         progress("Removing dependency " + groupId + ": " + artifactId);
         try {
-            final FileObject pomFile = buildFile();
-            final Document pom = pomDocument(pomFile.getInputStream());
-            final NodeList dependenciesNodes = expectedDependencies(pom);
+            final String message = edit(Action.REMOVE, groupId + ":" + artifactId);
 
-            Element dependenciesElement = (Element) dependenciesNodes.item(0);
-            NodeList dependencyList = dependenciesElement.getElementsByTagName("dependency");
-            for (int i = 0; i < dependencyList.getLength(); i++) {
-                Element dep = (Element) dependencyList.item(i);
-                String g = dep.getElementsByTagName("groupId").item(0).getTextContent();
-                String a = dep.getElementsByTagName("artifactId").item(0).getTextContent();
-                if (g.equals(groupId) && a.equals(artifactId)) {
-                    dependenciesElement.removeChild(dep);
-
-                    // Write changes back to pom.xml
-                    TransformerFactory transformerFactory = TransformerFactory.newInstance();
-                    Transformer transformer = transformerFactory.newTransformer();
-                    transformer.setOutputProperty(OutputKeys.INDENT, "yes");
-                    DOMSource source = new DOMSource(pom);
-                    StreamResult result = new StreamResult(pomFile.getOutputStream());
-                    transformer.transform(source, result);
-
-                    progress("Dependency removed successfully " + groupId + ":" + artifactId);
-                    return "Dependency removed successfully from pom.xml";
-                }
-            }
-
-            throw new Exception("Dependency not found " + groupId + ":" + artifactId);
+            progress("Dependency removed successfully " + groupId + ":" + artifactId);
+            return message;
         } catch (Exception e) {
             progress("Failed to remove dependency: " + e.getMessage());
             throw e;
         }
     }
 
+    @ReadOnlyTool
     @Tool(
         name = "MavenListDependenciesTool_listDependencies",
         value = "List all dependencies in the pom.xml file"
@@ -220,35 +154,36 @@ public class MavenTools extends AbstractBuildTool {
     throws Exception {
         progress("Updating dependency version: " + groupId + ":" + artifactId + ":" + newVersion);
         try {
-            final FileObject pomFile = buildFile();
-            final Document pom = pomDocument(pomFile.getInputStream());
-            final NodeList dependenciesNodes = expectedDependencies(pom);
+            final String message = edit(Action.UPDATE, groupId + ":" + artifactId + ":" + newVersion);
 
-            Element dependenciesElement = (Element) dependenciesNodes.item(0);
-            NodeList dependencyList = dependenciesElement.getElementsByTagName("dependency");
-            for (int i = 0; i < dependencyList.getLength(); i++) {
-                Element dep = (Element) dependencyList.item(i);
-                String g = dep.getElementsByTagName("groupId").item(0).getTextContent();
-                String a = dep.getElementsByTagName("artifactId").item(0).getTextContent();
-                if (g.equals(groupId) && a.equals(artifactId)) {
-                    dep.getElementsByTagName("version").item(0).setTextContent(newVersion);
+            progress("Dependency version updated successfully: " + groupId + ":" + artifactId + ":" + newVersion);
+            return message;
+        } catch (Exception e) {
+            progress("Failed to update dependency: " + e.getMessage());
 
-                    // Write changes back to pom.xml
-                    TransformerFactory transformerFactory = TransformerFactory.newInstance();
-                    Transformer transformer = transformerFactory.newTransformer();
-                    transformer.setOutputProperty(OutputKeys.INDENT, "yes");
-                    DOMSource source = new DOMSource(pom);
-                    StreamResult result = new StreamResult(pomFile.getOutputStream());
-                    transformer.transform(source, result);
+            throw e;
+        }
+    }
 
-                    progress("Dependency version updated successfully: " + groupId + ":" + artifactId + ":" + newVersion);
-                    return "Dependency version updated successfully in pom.xml";
-                }
-            }
+    @Tool(
+        name = "editMavenBuild",
+        value = "Apply a batch of changes to the pom.xml file with a single write and project reload; "
+              + "either all changes are applied or none. Give one change per line: "
+              + "'add dependency groupId:artifactId[:version[:scope]]', 'remove dependency groupId:artifactId', "
+              + "'update dependency groupId:artifactId:version', 'add plugin groupId:artifactId[:version]', "
+              + "'remove plugin groupId:artifactId', 'update plugin groupId:artifactId:version', "
+              + "'set property name=value', 'remove property name'"
+    )
+    public String editBuild(String changes)
+    throws Exception {
+        progress("Editing pom.xml");
+        try {
+            final List<String> messages = edit(new PomEdit(), BuildFileEdit.parse(changes));
 
-            throw new Exception("Dependency " + groupId + ":" + artifactId + " not found");
+            progress("pom.xml edited successfully with " + messages.size() + " changes");
+            return String.join("\n", messages);
         } catch (Exception e) {
-            progress("Failed to update dependency: " + e.getMessage());
+            progress("Failed to edit pom.xml: " + e.getMessage());
 
             throw e;
         }
@@ -299,23 +234,7 @@ public class MavenTools extends AbstractBuildTool {
         return doc;
     }
 
-    /**
-     * Checks if the <dependencies> section exists and returns the list of
-     * dependencies. If the section does not exist, or no there dependencies are
-     * there, an exception is thrown.
-     *
-     * @param pom the pom document
-     *
-     * @return the list of exceptions if any
-     *
-     * @throws Exception if the section does not exist
-     */
-    private NodeList expectedDependencies(final org.w3c.dom.Document pom) throws Exception {
-        final NodeList dependencies = pom.getElementsByTagName("dependencies");
-        if (dependencies.getLength() == 0) {
-            throw new Exception("No dependencies section found in pom.xml");
-        }
-
-        return dependencies;
+    private String edit(final Action action, final String coordinates) throws Exception {
+        return edit(new PomEdit(), List.of(new Change(action, Target.DEPENDENCY, coordinates))).get(0);
     }
-}
\ No newline at end of file
+}
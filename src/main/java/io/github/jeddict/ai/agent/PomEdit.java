@@ -0,0 +1,419 @@
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.ai.agent;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Edit session of a {@code pom.xml}. Arguments of the changes are:
+ * <ul>
+ *   <li>dependencies: {@code groupId:artifactId[:version[:scope]]} to add,
+ *       {@code groupId:artifactId} to remove and
+ *       {@code groupId:artifactId:version} to update;</li>
+ *   <li>plugins: {@code groupId:artifactId[:version]} to add,
+ *       {@code groupId:artifactId} to remove and
+ *       {@code groupId:artifactId:version} to update;</li>
+ *   <li>properties: {@code name=value} to set and {@code name} to remove.</li>
+ * </ul>
+ * <p>
+ * The pom is not parsed into a DOM and serialized back: its elements are
+ * located by a light scan of the text and only the affected elements are
+ * rewritten, indented as their siblings.
+ */
+public class PomEdit extends BuildFileEdit {
+
+    private static final String DEFAULT_PLUGIN_GROUP = "org.apache.maven.plugins";
+    private static final String DEFAULT_INDENTATION = "    ";
+
+    /**
+     * An element of the pom with its offsets in the text.
+     */
+    static final class Element {
+
+        final String name;
+        final Element parent;
+        final List<Element> children = new ArrayList<>();
+        final int start;
+        int contentStart = -1, contentEnd = -1, end = -1;
+
+        Element(final String name, final Element parent, final int start) {
+            this.name = name;
+            this.parent = parent;
+            this.start = start;
+        }
+
+        boolean isEmpty() {
+            return contentStart < 0;
+        }
+
+        Element child(final String name) {
+            for (Element child : children) {
+                if (child.name.equals(name)) {
+                    return child;
+                }
+            }
+            return null;
+        }
+
+        String text(final String xml, final String name) {
+            final Element child = child(name);
+            return (child == null || child.isEmpty()) ? null : xml.substring(child.contentStart, child.contentEnd).strip();
+        }
+    }
+
+    /**
+     * An element to write, with either a value or children.
+     */
+    private record Xml(String name, String value, List<Xml> children) {
+
+        Xml(final String name, final String value) {
+            this(name, value, List.of());
+        }
+
+        String render(final String indentation, final String unit, final String newline) {
+            if (value != null) {
+                return '<' + name + '>' + escape(value) + "</" + name + '>';
+            }
+            final StringBuilder sb = new StringBuilder().append('<').append(name).append('>');
+            for (Xml child : children) {
+                sb.append(newline).append(indentation).append(unit).append(child.render(indentation + unit, unit, newline));
+            }
+            return sb.append(newline).append(indentation).append("</").append(name).append('>').toString();
+        }
+    }
+
+    @Override
+    protected Step apply(final String text, final Change change) {
+        final Element project = elements(text);
+        return switch (change.target()) {
+            case DEPENDENCY -> dependency(text, project, change);
+            case PLUGIN -> plugin(text, project, change);
+            case PROPERTY -> property(text, project, change);
+        };
+    }
+
+    /**
+     * Scans the elements of a pom.
+     *
+     * @param text the pom
+     *
+     * @return the document element
+     *
+     * @throws IllegalArgumentException if the pom is not well formed
+     */
+    static Element elements(final String text) {
+        final Deque<Element> open = new ArrayDeque<>();
+        Element root = null;
+        int i = 0;
+        while ((i = text.indexOf('<', i)) >= 0) {
+            if (text.startsWith("<!--", i)) {
+                i = after(text, "-->", i);
+            } else if (text.startsWith("<![CDATA[", i)) {
+                i = after(text, "]]>", i);
+            } else if (text.startsWith("<?", i)) {
+                i = after(text, "?>", i);
+            } else if (text.startsWith("<!", i)) {
+                i = after(text, ">", i);
+            } else {
+                final int close = tagEnd(text, i);
+                if (text.charAt(i + 1) == '/') {
+                    final String name = text.substring(i + 2, close).strip();
+                    final Element element = open.poll();
+                    if (element == null || !element.name.equals(name)) {
+                        throw new IllegalArgumentException("malformed pom.xml: unexpected </" + name + ">");
+                    }
+                    element.contentEnd = i;
+                    element.end = close + 1;
+                } else {
+                    int n = i + 1;
+                    while (n < close && !Character.isWhitespace(text.charAt(n)) && text.charAt(n) != '/') {
+                        ++n;
+                    }
+                    final Element element = new Element(text.substring(i + 1, n), open.peek(), i);
+                    if (element.parent != null) {
+                        element.parent.children.add(element);
+                    } else if (root == null) {
+                        root = element;
+                    } else {
+                        throw new IllegalArgumentException("malformed pom.xml: more than one root element");
+                    }
+                    if (text.charAt(close - 1) == '/') {
+                        element.end = close + 1;
+                    } else {
+                        element.contentStart = close + 1;
+                        open.push(element);
+                    }
+                }
+                i = close + 1;
+            }
+        }
+        if (root == null || !open.isEmpty()) {
+            throw new IllegalArgumentException("malformed pom.xml: " + ((root == null) ? "no root element" : "<" + open.peek().name + "> not closed"));
+        }
+        return root;
+    }
+
+    // --------------------------------------------------------- private methods
+
+    private Step dependency(String text, final Element project, final Change change) {
+        final String[] gav = coordinates(change, (change.action() == Action.UPDATE) ? 3 : 2, 4);
+        final Element dependencies = project.child("dependencies");
+        final Element dependency = find(text, dependencies, "dependency", gav[0], gav[1], null);
+        final String ga = gav[0] + ':' + gav[1];
+
+        switch (change.action()) {
+            case ADD -> {
+                if (dependency != null) {
+                    return new Step(text, "Dependency already exists in pom.xml");
+                }
+                final List<Xml> children = new ArrayList<>(List.of(new Xml("groupId", gav[0]), new Xml("artifactId", gav[1])));
+                if (gav.length > 2 && !gav[2].isEmpty()) {
+                    children.add(new Xml("version", gav[2]));
+                }
+                if (gav.length > 3 && !gav[3].isEmpty()) {
+                    children.add(new Xml("scope", gav[3]));
+                }
+                final Xml element = new Xml("dependency", null, children);
+                text = (dependencies != null)
+                     ? insert(text, project, dependencies, null, element)
+                     : insert(text, project, project, before(project, "build", "reporting", "profiles"), new Xml("dependencies", null, List.of(element)));
+                return new Step(text, "Dependency added successfully to pom.xml");
+            }
+            case REMOVE -> {
+                if (dependency == null) {
+                    throw new IllegalArgumentException("Dependency not found " + ga);
+                }
+                return new Step(remove(text, dependency.start, dependency.end), "Dependency removed successfully from pom.xml");
+            }
+            default -> {
+                if (dependency == null) {
+                    throw new IllegalArgumentException("Dependency " + ga + " not found");
+                }
+                return new Step(version(text, project, dependency, gav[2]), "Dependency version updated successfully in pom.xml");
+            }
+        }
+    }
+
+    private Step plugin(String text, final Element project, final Change change) {
+        final String[] gav = coordinates(change, (change.action() == Action.UPDATE) ? 3 : 2, 3);
+        final Element build = project.child("build");
+        final Element plugins = (build != null) ? build.child("plugins") : null;
+        final Element plugin = find(text, plugins, "plugin", gav[0], gav[1], DEFAULT_PLUGIN_GROUP);
+        final String ga = gav[0] + ':' + gav[1];
+
+        switch (change.action()) {
+            case ADD -> {
+                if (plugin != null) {
+                    return new Step(text, "Plugin already exists in pom.xml");
+                }
+                final List<Xml> children = new ArrayList<>(List.of(new Xml("groupId", gav[0]), new Xml("artifactId", gav[1])));
+                if (gav.length > 2 && !gav[2].isEmpty()) {
+                    children.add(new Xml("version", gav[2]));
+                }
+                final Xml element = new Xml("plugin", null, children);
+                if (plugins != null) {
+                    text = insert(text, project, plugins, null, element);
+                } else if (build != null) {
+                    text = insert(text, project, build, before(build, "pluginManagement", "resources", "testResources"), new Xml("plugins", null, List.of(element)));
+                } else {
+                    text = insert(text, project, project, before(project, "reporting", "profiles"),
+                        new Xml("build", null, List.of(new Xml("plugins", null, List.of(element))))
+                    );
+                }
+                return new Step(text, "Plugin added successfully to pom.xml");
+            }
+            case REMOVE -> {
+                if (plugin == null) {
+                    throw new IllegalArgumentException("Plugin not found " + ga);
+                }
+                return new Step(remove(text, plugin.start, plugin.end), "Plugin removed successfully from pom.xml");
+            }
+            default -> {
+                if (plugin == null) {
+                    throw new IllegalArgumentException("Plugin " + ga + " not found");
+                }
+                return new Step(version(text, project, plugin, gav[2]), "Plugin version updated successfully in pom.xml");
+            }
+        }
+    }
+
+    private Step property(final String text, final Element project, final Change change) {
+        final Element properties = project.child("properties");
+        if (change.action() == Action.REMOVE) {
+            final String name = change.arguments();
+            final Element property = (properties != null) ? properties.child(name) : null;
+            if (property == null) {
+                throw new IllegalArgumentException("Property " + name + " not found in pom.xml");
+            }
+            return new Step(remove(text, property.start, property.end), "Property " + name + " removed successfully from pom.xml");
+        }
+
+        final int eq = change.arguments().indexOf('=');
+        if (eq <= 0) {
+            throw new IllegalArgumentException("malformed property '" + change.arguments() + "': expected name=value");
+        }
+        final String name = change.arguments().substring(0, eq).strip();
+        final String value = change.arguments().substring(eq + 1).strip();
+        final Element property = (properties != null) ? properties.child(name) : null;
+        final String message = "Property " + name + " set successfully in pom.xml";
+        if (property != null) {
+            return new Step(content(text, property, value), message);
+        }
+        final Xml element = new Xml(name, value);
+        return new Step(
+            (properties != null)
+            ? insert(text, project, properties, null, element)
+            : insert(text, project, project, before(project, "dependencyManagement", "dependencies", "build", "reporting", "profiles"),
+                new Xml("properties", null, List.of(element))),
+            message
+        );
+    }
+
+    private String version(final String text, final Element project, final Element element, final String version) {
+        final Element current = element.child("version");
+        return (current != null)
+             ? content(text, current, version)
+             : insert(text, project, element, null, new Xml("version", version));
+    }
+
+    private static Element find(
+        final String text, final Element parent, final String name,
+        final String groupId, final String artifactId, final String defaultGroupId
+    ) {
+        if (parent == null) {
+            return null;
+        }
+        for (Element child : parent.children) {
+            if (child.name.equals(name) && artifactId.equals(child.text(text, "artifactId"))) {
+                final String g = child.text(text, "groupId");
+                if (groupId.equals((g != null) ? g : defaultGroupId)) {
+                    return child;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static Element before(final Element parent, final String... names) {
+        for (Element child : parent.children) {
+            for (String name : names) {
+                if (child.name.equals(name)) {
+                    return child;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Inserts an element as last child of the given parent or before the
+     * given sibling, indented as the other children.
+     */
+    private static String insert(
+        final String text, final Element project, final Element parent, final Element before, final Xml element
+    ) {
+        final String nl = newline(text);
+        final String unit = unit(text, project);
+        final String parentIndentation = indentation(text, parent.start);
+        final String indentation = parent.children.isEmpty()
+                                 ? parentIndentation + unit
+                                 : indentation(text, parent.children.get(0).start);
+        final String rendered = element.render(indentation, unit, nl);
+
+        if (parent.isEmpty()) {
+            return text.substring(0, parent.start)
+                 + '<' + parent.name + '>' + nl + indentation + rendered + nl + parentIndentation + "</" + parent.name + '>'
+                 + text.substring(parent.end);
+        }
+        if (before != null) {
+            final int at = lineStart(text, before.start);
+            return text.substring(at, before.start).isBlank()
+                 ? text.substring(0, at) + indentation + rendered + nl + text.substring(at)
+                 : text.substring(0, before.start) + rendered + nl + indentation + text.substring(before.start);
+        }
+        final int at = lineStart(text, parent.contentEnd);
+        return (at > parent.contentStart && text.substring(at, parent.contentEnd).isBlank())
+             ? text.substring(0, at) + indentation + rendered + nl + text.substring(at)
+             : text.substring(0, parent.contentEnd) + nl + indentation + rendered + nl + parentIndentation + text.substring(parent.contentEnd);
+    }
+
+    private static String content(final String text, final Element element, final String value) {
+        return element.isEmpty()
+             ? text.substring(0, element.start) + new Xml(element.name, value).render("", "", "") + text.substring(element.end)
+             : text.substring(0, element.contentStart) + escape(value) + text.substring(element.contentEnd);
+    }
+
+    /**
+     * @return the indentation of the children of the project relative to it
+     */
+    private static String unit(final String text, final Element project) {
+        if (!project.children.isEmpty()) {
+            final String child = indentation(text, project.children.get(0).start);
+            final String parent = indentation(text, project.start);
+            if (child.length() > parent.length() && child.startsWith(parent)) {
+                return child.substring(parent.length());
+            }
+        }
+        return DEFAULT_INDENTATION;
+    }
+
+    private static String[] coordinates(final Change change, final int min, final int max) {
+        final String[] parts = change.arguments().split(":", -1);
+        for (int i = 0; i < parts.length; ++i) {
+            parts[i] = parts[i].strip();
+        }
+        if (parts.length < min || parts.length > max || parts[0].isEmpty() || parts[1].isEmpty()
+            || (min > 2 && parts[2].isEmpty())) {
+            throw new IllegalArgumentException(
+                "malformed coordinates '" + change.arguments() + "': expected groupId:artifactId"
+                + ((min > 2) ? ":version" : "") + " with at most " + max + " parts"
+            );
+        }
+        return parts;
+    }
+
+    private static int after(final String text, final String end, final int from) {
+        final int i = text.indexOf(end, from);
+        if (i < 0) {
+            throw new IllegalArgumentException("malformed pom.xml: '" + end + "' missing");
+        }
+        return i + end.length();
+    }
+
+    private static int tagEnd(final String text, final int from) {
+        char quote = 0;
+        for (int i = from + 1; i < text.length(); ++i) {
+            final char c = text.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == '>') {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("malformed pom.xml: tag not closed");
+    }
+
+    private static String escape(final String value) {
+        return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+}
@@ -0,0 +1,535 @@
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.ai.agent;
+
+import io.github.jeddict.ai.util.FileContentCache;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.lang.model.element.TypeElement;
+import org.netbeans.api.java.source.ClassIndex;
+import org.netbeans.api.java.source.ClassIndexListener;
+import org.netbeans.api.java.source.ClasspathInfo;
+import org.netbeans.api.java.source.ElementHandle;
+import org.netbeans.api.java.source.RootsEvent;
+import org.netbeans.api.java.source.SourceUtils;
+import org.netbeans.api.java.source.TypesEvent;
+import org.netbeans.api.project.SourceGroup;
+import org.netbeans.api.project.Sources;
+import static org.netbeans.api.java.project.JavaProjectConstants.SOURCES_TYPE_JAVA;
+import org.openide.filesystems.FileObject;
+import org.openide.filesystems.FileUtil;
+import org.openide.util.Lookup;
+import org.openide.util.WeakListeners;
+
+/**
+ * Symbol and usage index of the Java sources of a project, answering
+ * declared-type, member and reference lookups from the NetBeans
+ * {@link ClassIndex} of its source groups.
+ * <p>
+ * Index results are cached for the lifetime of the instance, which is an agent
+ * session, and kept up to date incrementally: when the IDE reindexes some
+ * types only the declared types with the same simple names are looked up
+ * again, while member and reference results, which any change may affect, are
+ * dropped. Line positions are found lexically in the file contents served by
+ * {@link FileContentCache}, so no file is parsed or attributed; a reference is
+ * a line of a file that the index reports as referencing the type and that
+ * uses the name of the symbol.
+ */
+public class SymbolIndex {
+
+    private static final Logger LOG = Logger.getLogger(SymbolIndex.class.getName());
+
+    /**
+     * maximum number of positions returned by a lookup
+     */
+    public static final int MAX_POSITIONS = 100;
+
+    private static final Set<ClassIndex.SearchScope> SCOPE = EnumSet.of(ClassIndex.SearchScope.SOURCE);
+    private static final Set<ClassIndex.SearchKind> TYPE_REFERENCES = EnumSet.of(
+        ClassIndex.SearchKind.TYPE_REFERENCES, ClassIndex.SearchKind.IMPLEMENTORS
+    );
+    private static final Set<ClassIndex.SearchKind> MEMBER_REFERENCES = EnumSet.of(
+        ClassIndex.SearchKind.METHOD_REFERENCES, ClassIndex.SearchKind.FIELD_REFERENCES
+    );
+    private static final Pattern TYPE_DECLARATION = Pattern.compile(
+        "\\b(?:class|interface|enum|record)\\s+([A-Za-z_$][\\w$]*)"
+    );
+    private static final Set<String> NOT_A_TYPE = Set.of(
+        "return", "new", "throw", "else", "case", "yield", "assert", "package", "import"
+    );
+
+    /**
+     * A position in a file of the project.
+     *
+     * @param path the path of the file, relative to the project if inside it
+     * @param line the line number, starting from 1
+     * @param text the stripped text of the line
+     */
+    public record Position(String path, int line, String text) {
+
+        @Override
+        public String toString() {
+            return path + ':' + line + ": " + text;
+        }
+    }
+
+    /**
+     * A declared type or member.
+     *
+     * @param kind the kind of the declaration (class, interface, enum,
+     * annotation, record, method or field)
+     * @param name the qualified name of the type or member
+     * @param position where it is declared or null if unknown
+     */
+    public record Declaration(String kind, String name, Position position) {
+
+        @Override
+        public String toString() {
+            return kind + ' ' + name + ((position != null) ? " at " + position.path + ':' + position.line : "");
+        }
+    }
+
+    private final Path basepath;
+    private final Lookup lookup;
+
+    private final Map<String, Set<ElementHandle<TypeElement>>> types = new ConcurrentHashMap<>();
+    private final Map<String, Set<ElementHandle<TypeElement>>> members = new ConcurrentHashMap<>();
+    private final Map<ElementHandle<TypeElement>, Set<FileObject>> typeReferences = new ConcurrentHashMap<>();
+    private final Map<ElementHandle<TypeElement>, Set<FileObject>> memberReferences = new ConcurrentHashMap<>();
+    private final Map<ElementHandle<TypeElement>, FileObject> files = new ConcurrentHashMap<>();
+    private final ClassIndexListener listener = new Listener();
+
+    private volatile List<ClasspathInfo> infos;
+
+    /**
+     * @param basepath the project directory, positions are relative to it
+     * @param lookup the lookup of the project, providing its {@link Sources}
+     */
+    public SymbolIndex(final Path basepath, final Lookup lookup) {
+        this.basepath = basepath;
+        this.lookup = lookup;
+    }
+
+    /**
+     * @return true if the project has sources to look symbols up into
+     */
+    public boolean hasSources() {
+        return !infos().isEmpty();
+    }
+
+    /**
+     * Looks up the types and members declared with the given simple name.
+     *
+     * @param name the simple name
+     *
+     * @return the declarations, types first
+     */
+    public List<Declaration> declarations(final String name) {
+        final List<Declaration> result = new ArrayList<>();
+        for (ElementHandle<TypeElement> type : declaredTypes(name)) {
+            final FileObject file = file(type);
+            final String text = text(file);
+            final int line = (text != null) ? typeDeclarationLine(text, name) : 0;
+            result.add(new Declaration(kind(type), type.getQualifiedName(), position(file, text, line)));
+        }
+        for (ElementHandle<TypeElement> type : members.computeIfAbsent(name, this::queryMembers)) {
+            final FileObject file = file(type);
+            final String text = text(file);
+            final int line = (text != null) ? memberDeclarationLine(text, name) : 0;
+            final Position position = position(file, text, line);
+            final String kind = (position == null) ? "member"
+                              : isMethodDeclaration(position.text, name) ? "method" : "field";
+            result.add(new Declaration(kind, type.getQualifiedName() + '.' + name, position));
+        }
+        return result;
+    }
+
+    /**
+     * @param file a Java source file
+     *
+     * @return the types, including nested ones, declared in the given file
+     */
+    public List<ElementHandle<TypeElement>> typesIn(final FileObject file) {
+        final String text = text(file);
+        if (text == null) {
+            return List.of();
+        }
+        final List<ElementHandle<TypeElement>> result = new ArrayList<>();
+        for (String name : typeDeclarations(text)) {
+            for (ElementHandle<TypeElement> type : declaredTypes(name)) {
+                if (file.equals(file(type))) {
+                    result.add(type);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param type a type of the project
+     *
+     * @return the lines using the type in the files that reference it
+     */
+    public List<Position> references(final ElementHandle<TypeElement> type) {
+        return positions(referencingFiles(type), simpleName(type), null, 0);
+    }
+
+    /**
+     * @param type a type of the project
+     *
+     * @return the files referencing or implementing the type
+     */
+    public Set<FileObject> referencingFiles(final ElementHandle<TypeElement> type) {
+        return typeReferences.computeIfAbsent(type, t -> queryResources(t, TYPE_REFERENCES));
+    }
+
+    /**
+     * @param type a type of the project
+     * @param name the simple name of a method or field of the type
+     *
+     * @return the lines using the member in the files that reference members
+     * of the type and in the file of the type, besides the declaration
+     */
+    public List<Position> references(final ElementHandle<TypeElement> type, final String name) {
+        final FileObject own = file(type);
+        final Set<FileObject> referencing = new LinkedHashSet<>();
+        if (own != null) {
+            referencing.add(own);
+        }
+        referencing.addAll(memberReferences.computeIfAbsent(type, t -> queryResources(t, MEMBER_REFERENCES)));
+
+        final String text = text(own);
+        return positions(referencing, name, own, (text != null) ? memberDeclarationLine(text, name) : 0);
+    }
+
+    /**
+     * Drops all cached results.
+     */
+    public void clear() {
+        types.clear();
+        members.clear();
+        typeReferences.clear();
+        memberReferences.clear();
+        files.clear();
+    }
+
+    /**
+     * @param text the content of a Java file
+     *
+     * @return the simple names of the types declared in the text, in order
+     */
+    static List<String> typeDeclarations(final String text) {
+        final Set<String> names = new LinkedHashSet<>();
+        final Matcher m = TYPE_DECLARATION.matcher(text);
+        while (m.find()) {
+            if (!isComment(line(text, m.start()))) {
+                names.add(m.group(1));
+            }
+        }
+        return new ArrayList<>(names);
+    }
+
+    /**
+     * @return the number of the first line declaring the type with the given
+     * simple name or 0 if not found
+     */
+    static int typeDeclarationLine(final String text, final String name) {
+        final Matcher m = TYPE_DECLARATION.matcher(text);
+        while (m.find()) {
+            if (m.group(1).equals(name) && !isComment(line(text, m.start()))) {
+                return lineNumber(text, m.start());
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * A member is declared where its name follows a type or modifier and is
+     * followed by a parameter list, an initializer or the end of the
+     * declaration.
+     *
+     * @return the number of the first line declaring a method or field with
+     * the given name or 0 if not found
+     */
+    static int memberDeclarationLine(final String text, final String name) {
+        final Matcher m = Pattern.compile(
+            "([\\w$>\\]]+)[ \\t]+" + Pattern.quote(name) + "\\s*[(=;,]"
+        ).matcher(text);
+        while (m.find()) {
+            if (!NOT_A_TYPE.contains(m.group(1)) && !isComment(line(text, m.start()))) {
+                return lineNumber(text, m.start(1));
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @return the numbers of the lines using the given name as a whole word,
+     * comment lines excluded
+     */
+    static List<Integer> referenceLines(final String text, final String name) {
+        final List<Integer> result = new ArrayList<>();
+        final Pattern word = Pattern.compile("(?<![\\w$])" + Pattern.quote(name) + "(?![\\w$])");
+        final String[] lines = text.split("\r?\n|\r", -1);
+        for (int i = 0; i < lines.length; ++i) {
+            if (!isComment(lines[i]) && word.matcher(lines[i]).find()) {
+                result.add(i + 1);
+            }
+        }
+        return result;
+    }
+
+    // --------------------------------------------------------- private methods
+
+    private List<ClasspathInfo> infos() {
+        List<ClasspathInfo> result = infos;
+        if (result == null) {
+            synchronized (this) {
+                result = infos;
+                if (result == null) {
+                    infos = result = createInfos();
+                }
+            }
+        }
+        return result;
+    }
+
+    private List<ClasspathInfo> createInfos() {
+        final Sources sources = (lookup != null) ? lookup.lookup(Sources.class) : null;
+        if (sources == null) {
+            return List.of();
+        }
+        SourceGroup[] groups = sources.getSourceGroups(SOURCES_TYPE_JAVA);
+        if (groups.length == 0) {
+            groups = sources.getSourceGroups(Sources.TYPE_GENERIC);
+        }
+        final List<ClasspathInfo> result = new ArrayList<>();
+        for (SourceGroup group : groups) {
+            try {
+                final ClasspathInfo info = ClasspathInfo.create(group.getRootFolder());
+                final ClassIndex index = info.getClassIndex();
+                index.addClassIndexListener(WeakListeners.create(ClassIndexListener.class, listener, index));
+                result.add(info);
+            } catch (RuntimeException x) {
+                LOG.log(Level.FINE, "no class index for " + group.getRootFolder().getPath(), x);
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    private Set<ElementHandle<TypeElement>> declaredTypes(final String name) {
+        return types.computeIfAbsent(name, n -> {
+            final Set<ElementHandle<TypeElement>> result = new LinkedHashSet<>();
+            for (ClasspathInfo info : infos()) {
+                final Set<ElementHandle<TypeElement>> found
+                    = info.getClassIndex().getDeclaredTypes(n, ClassIndex.NameKind.SIMPLE_NAME, SCOPE);
+                if (found != null) {
+                    result.addAll(found);
+                }
+            }
+            return result;
+        });
+    }
+
+    private Set<ElementHandle<TypeElement>> queryMembers(final String name) {
+        final Set<ElementHandle<TypeElement>> result = new LinkedHashSet<>();
+        for (ClasspathInfo info : infos()) {
+            final Iterable<ClassIndex.Symbols> found
+                = info.getClassIndex().getDeclaredSymbols(name, ClassIndex.NameKind.SIMPLE_NAME, SCOPE);
+            if (found == null) {
+                continue;
+            }
+            for (ClassIndex.Symbols symbols : found) {
+                for (String symbol : symbols.getSymbols()) {
+                    //
+                    // symbols may come with their signature
+                    //
+                    if (symbol.split("[(\\s;]", 2)[0].equals(name)) {
+                        result.add(symbols.getEnclosingType());
+                        break;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private Set<FileObject> queryResources(
+        final ElementHandle<TypeElement> type, final Set<ClassIndex.SearchKind> kinds
+    ) {
+        final Set<FileObject> result = new LinkedHashSet<>();
+        for (ClasspathInfo info : infos()) {
+            final Set<FileObject> found = info.getClassIndex().getResources(type, kinds, SCOPE);
+            if (found != null) {
+                result.addAll(found);
+            }
+        }
+        return result;
+    }
+
+    private FileObject file(final ElementHandle<TypeElement> type) {
+        FileObject file = files.get(type);
+        if (file == null || !file.isValid()) {
+            file = null;
+            for (ClasspathInfo info : infos()) {
+                file = SourceUtils.getFile(type, info);
+                if (file != null) {
+                    files.put(type, file);
+                    break;
+                }
+            }
+        }
+        return file;
+    }
+
+    private List<Position> positions(
+        final Collection<FileObject> files, final String name, final FileObject skipFile, final int skipLine
+    ) {
+        final List<Position> result = new ArrayList<>();
+        for (FileObject file : files) {
+            final String text = text(file);
+            if (text == null) {
+                continue;
+            }
+            for (int line : referenceLines(text, name)) {
+                if (line == skipLine && file.equals(skipFile)) {
+                    continue;
+                }
+                result.add(position(file, text, line));
+                if (result.size() >= MAX_POSITIONS) {
+                    return result;
+                }
+            }
+        }
+        return result;
+    }
+
+    private Position position(final FileObject file, final String text, final int line) {
+        if (file == null || text == null || line <= 0) {
+            return null;
+        }
+        String path = file.getPath();
+        final Path filePath = FileUtil.toPath(file);
+        if (filePath != null && filePath.startsWith(basepath)) {
+            path = basepath.relativize(filePath).toString().replace('\\', '/');
+        }
+        final String[] lines = text.split("\r?\n|\r", -1);
+        return new Position(path, line, (line <= lines.length) ? lines[line - 1].strip() : "");
+    }
+
+    private static String text(final FileObject file) {
+        if (file == null) {
+            return null;
+        }
+        final FileContentCache.Content content = FileContentCache.getInstance().get(file, false);
+        return (content != null) ? content.text() : null;
+    }
+
+    private static String kind(final ElementHandle<TypeElement> type) {
+        return switch (type.getKind()) {
+            case INTERFACE -> "interface";
+            case ENUM -> "enum";
+            case ANNOTATION_TYPE -> "annotation";
+            case RECORD -> "record";
+            default -> "class";
+        };
+    }
+
+    private static String simpleName(final ElementHandle<TypeElement> type) {
+        final String binaryName = type.getBinaryName();
+        return binaryName.substring(Math.max(binaryName.lastIndexOf('.'), binaryName.lastIndexOf('$')) + 1);
+    }
+
+    private static boolean isMethodDeclaration(final String line, final String name) {
+        return Pattern.compile(Pattern.quote(name) + "\\s*\\(").matcher(line).find();
+    }
+
+    private static boolean isComment(final String line) {
+        final String l = line.stripLeading();
+        return l.startsWith("//") || l.startsWith("*") || l.startsWith("/*");
+    }
+
+    private static String line(final String text, final int offset) {
+        final int start = text.lastIndexOf('\n', offset - 1) + 1;
+        final int end = text.indexOf('\n', offset);
+        return text.substring(start, (end < 0) ? text.length() : end);
+    }
+
+    private static int lineNumber(final String text, final int offset) {
+        int line = 1;
+        for (int i = 0; i < offset; ++i) {
+            if (text.charAt(i) == '\n') {
+                ++line;
+            }
+        }
+        return line;
+    }
+
+    /**
+     * Keeps the cached results in sync with the class index.
+     */
+    private class Listener implements ClassIndexListener {
+
+        @Override
+        public void typesAdded(final TypesEvent event) {
+            changed(event);
+        }
+
+        @Override
+        public void typesRemoved(final TypesEvent event) {
+            changed(event);
+        }
+
+        @Override
+        public void typesChanged(final TypesEvent event) {
+            changed(event);
+        }
+
+        @Override
+        public void rootsAdded(final RootsEvent event) {
+            infos = null;
+            clear();
+        }
+
+        @Override
+        public void rootsRemoved(final RootsEvent event) {
+            infos = null;
+            clear();
+        }
+
+        private void changed(final TypesEvent event) {
+            for (ElementHandle<TypeElement> type : event.getTypes()) {
+                types.remove(simpleName(type));
+                files.remove(type);
+            }
+            members.clear();
+            typeReferences.clear();
+            memberReferences.clear();
+        }
+    }
+}
@@ -0,0 +1,263 @@
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.ai.agent;
+
+import io.github.jeddict.ai.index.ProjectLexicalIndex;
+import io.github.jeddict.ai.index.TrigramIndex;
+import io.github.jeddict.ai.util.FileContentCache;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.lang.model.element.TypeElement;
+import org.netbeans.api.java.source.ElementHandle;
+import org.openide.filesystems.FileObject;
+import org.openide.filesystems.FileUtil;
+
+/**
+ * Finds the test classes affected by changes of some source files: the
+ * changed test classes and the test classes referencing a changed class,
+ * directly or through any number of classes referencing each other. Test
+ * classes are named as Surefire expects by default ({@code Test*},
+ * {@code *Test}, {@code *Tests}, {@code *TestCase}) or as failsafe
+ * ({@code *IT}).
+ * <p>
+ * The files referencing the types of a Java file are asked to the
+ * {@link SymbolIndex}, i.e. the NetBeans class index, when the project has
+ * Java sources indexed. Otherwise (e.g. other languages or no index yet) they
+ * are found lexically: the files containing the simple name of a class are
+ * looked up in the {@link TrigramIndex} of the project and among the test
+ * sources (under {@code src/test} of each module, which the index usually
+ * excludes), then a file references the class if it uses its simple name and
+ * either is in the same package, imports the class or its package, or uses
+ * its qualified name.
+ */
+public class TestImpact {
+
+    private static final Pattern PACKAGE = Pattern.compile("^\\s*package\\s+([\\w.]+)", Pattern.MULTILINE);
+    private static final Pattern TEST_NAME = Pattern.compile("Test\\w*|\\w*(?:Test|Tests|TestCase|IT)");
+    private static final Set<String> EXTENSIONS = Set.of("java", "kt", "groovy", "scala");
+    private static final Set<String> OUTPUT_DIRS = Set.of("target", "build", "bin", "out", "node_modules");
+
+    /**
+     * a class, named as its file
+     */
+    private record Type(String packageName, String name) {
+
+        String qualifiedName() {
+            return packageName.isEmpty() ? name : packageName + '.' + name;
+        }
+    }
+
+    private final FileObject root;
+    private final TrigramIndex index;
+    private final SymbolIndex symbols;
+    private List<String> testSources;
+
+    /**
+     * @param index the index of the project
+     */
+    public TestImpact(final ProjectLexicalIndex index) {
+        this(index, null);
+    }
+
+    /**
+     * @param index the index of the project
+     * @param symbols the class index of the project, null to find references
+     * lexically only
+     */
+    public TestImpact(final ProjectLexicalIndex index, final SymbolIndex symbols) {
+        this(index.getRoot(), index.getTrigramIndex(), symbols);
+    }
+
+    TestImpact(final FileObject root, final TrigramIndex index, final SymbolIndex symbols) {
+        this.root = root;
+        this.index = index;
+        this.symbols = symbols;
+    }
+
+    /**
+     * @param changed the paths of the changed files, relative to the project
+     * directory
+     *
+     * @return the qualified names of the affected test classes, sorted
+     */
+    public Set<String> affectedTests(final Collection<String> changed) {
+        return affectedTests(changed, Integer.MAX_VALUE);
+    }
+
+    /**
+     * As {@link #affectedTests(Collection)}, stopping as soon as more than the
+     * given number of tests are found (e.g. when all the tests would be run
+     * anyway).
+     *
+     * @param changed the paths of the changed files, relative to the project
+     * directory
+     * @param limit the number of tests beyond which to stop
+     *
+     * @return the qualified names of the affected test classes, sorted; more
+     * than limit if stopped
+     */
+    public Set<String> affectedTests(final Collection<String> changed, final int limit) {
+        final Set<String> tests = new TreeSet<>();
+        final Set<String> visited = new HashSet<>();
+
+        final Deque<String> pending = new ArrayDeque<>();
+        for (String path : changed) {
+            pending.add(normalize(path));
+        }
+        while (!pending.isEmpty() && tests.size() <= limit) {
+            final String path = pending.poll();
+            if (!isSource(path) || !visited.add(path)) {
+                continue;
+            }
+            final Type type = type(path);
+            if (type == null) {
+                continue;
+            }
+            if (isTest(type)) {
+                tests.add(type.qualifiedName());
+            }
+            pending.addAll(referencing(path, type, visited)); // tests too, e.g. the subclasses of a base test
+        }
+
+        return tests;
+    }
+
+    // --------------------------------------------------------- private methods
+
+    /**
+     * @return the paths of the sources not visited yet referencing the types
+     * of the given file, from the class index if it knows them
+     */
+    private Collection<String> referencing(final String path, final Type type, final Set<String> visited) {
+        final FileObject file = (symbols != null && path.endsWith(".java")) ? root.getFileObject(path) : null;
+        if (file != null && symbols.hasSources()) {
+            final List<ElementHandle<TypeElement>> types = symbols.typesIn(file);
+            if (!types.isEmpty()) {
+                final Set<String> result = new LinkedHashSet<>();
+                for (ElementHandle<TypeElement> declared : types) {
+                    for (FileObject referencing : symbols.referencingFiles(declared)) {
+                        final String referencingPath = FileUtil.getRelativePath(root, referencing);
+                        if (referencingPath != null && !visited.contains(referencingPath) && isSource(referencingPath)) {
+                            result.add(referencingPath);
+                        }
+                    }
+                }
+                return result;
+            }
+        }
+
+        final Set<String> candidates = index.candidates(List.of(type.name));
+        candidates.addAll(testSources());
+        final List<String> result = new ArrayList<>();
+        for (String candidate : candidates) {
+            if (!visited.contains(candidate) && isSource(candidate) && references(candidate, type)) {
+                result.add(candidate);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the paths of the sources under the src/test directories of the
+     * project and of its modules
+     */
+    private List<String> testSources() {
+        if (testSources == null) {
+            testSources = new ArrayList<>();
+            collectTestSources(root);
+        }
+        return testSources;
+    }
+
+    private void collectTestSources(final FileObject folder) {
+        for (FileObject child : folder.getChildren()) {
+            if (!child.isFolder() || child.getName().startsWith(".") || OUTPUT_DIRS.contains(child.getNameExt())) {
+                continue;
+            }
+            if (child.getNameExt().equals("src")) {
+                final FileObject test = child.getFileObject("test");
+                if (test != null) {
+                    final Enumeration<? extends FileObject> files = test.getChildren(true);
+                    while (files.hasMoreElements()) {
+                        final String path = FileUtil.getRelativePath(root, files.nextElement());
+                        if (path != null && isSource(path)) {
+                            testSources.add(path);
+                        }
+                    }
+                }
+            } else {
+                collectTestSources(child);
+            }
+        }
+    }
+
+    private Type type(final String path) {
+        final String text = text(path);
+        if (text == null) {
+            return null;
+        }
+        final Matcher m = PACKAGE.matcher(text);
+        final String fileName = path.substring(path.lastIndexOf('/') + 1);
+        return new Type(m.find() ? m.group(1) : "", fileName.substring(0, fileName.lastIndexOf('.')));
+    }
+
+    private boolean references(final String path, final Type type) {
+        final String text = text(path);
+        if (text == null || !Pattern.compile("\\b" + Pattern.quote(type.name) + "\\b").matcher(text).find()) {
+            return false;
+        }
+        final Matcher m = PACKAGE.matcher(text);
+        final String packageName = m.find() ? m.group(1) : "";
+        return packageName.equals(type.packageName)
+            || text.contains(type.qualifiedName())
+            || (!type.packageName.isEmpty() && text.contains("import " + type.packageName + ".*"));
+    }
+
+    private String text(final String path) {
+        final FileObject file = root.getFileObject(path);
+        if (file == null) {
+            return null;
+        }
+        return FileContentCache.read(file); // not cached, see ProjectLexicalIndex
+    }
+
+    private static boolean isSource(final String path) {
+        final int dot = path.lastIndexOf('.');
+        return dot > path.lastIndexOf('/') && EXTENSIONS.contains(path.substring(dot + 1));
+    }
+
+    private static boolean isTest(final Type type) {
+        return TEST_NAME.matcher(type.name).matches();
+    }
+
+    private static String normalize(final String path) {
+        String p = path.strip().replace('\\', '/');
+        while (p.startsWith("./")) {
+            p = p.substring(2);
+        }
+        return p;
+    }
+}
@@ -0,0 +1,367 @@
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.ai.agent;
+
+import dev.langchain4j.agent.tool.Tool;
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.agent.tool.ToolSpecifications;
+import dev.langchain4j.invocation.InvocationContext;
+import dev.langchain4j.service.tool.DefaultToolExecutor;
+import dev.langchain4j.service.tool.ToolExecutionResult;
+import dev.langchain4j.service.tool.ToolExecutor;
+import java.io.File;
+import java.lang.reflect.Method;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.openide.filesystems.FileAttributeEvent;
+import org.openide.filesystems.FileChangeListener;
+import org.openide.filesystems.FileEvent;
+import org.openide.filesystems.FileRenameEvent;
+import org.openide.filesystems.FileUtil;
+
+/**
+ * Caches the results of the {@link ReadOnlyTool read-only tools} for the
+ * duration of an agent session, keyed by tool name and arguments, so that
+ * reading the same file or searching the same symbol again does not read the
+ * disk or run a {@code JavaSource} task again.
+ * <p>
+ * A {@link FileWriteTool} invalidates the entries depending on the path it
+ * changes, any other tool that is not read-only clears the cache, as it may
+ * change any file (e.g. a refactoring); a recursive file listener on the
+ * project directory, one for all the open caches of the project, invalidates
+ * the entries of the files changed otherwise. Caches not closed (e.g. of a
+ * response stream that never completed) are dropped from the listener once
+ * garbage collected. An entry scoped to a path (see
+ * {@link ReadOnlyTool#pathScoped()}) is invalidated by changes of that path or
+ * below it, the others by any change.
+ * <p>
+ * Hits and misses are logged when the session is closed.
+ */
+public class ToolResultCache {
+
+    private static final Logger LOG = Logger.getLogger(ToolResultCache.class.getName());
+
+    private static final Map<Path, Listener> LISTENERS = new HashMap<>(); // by project directory, guarded by itself
+
+    /**
+     * @param path the path the result depends on, relative to the project
+     * directory; null if it may depend on any file
+     */
+    private record Entry(String path, ToolExecutionResult result) {}
+
+    private final Path basepath;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicInteger hits = new AtomicInteger(), misses = new AtomicInteger();
+    private final AtomicLong savedChars = new AtomicLong();
+    private boolean listening;
+
+    /**
+     * @param basepath the project directory, the base of the paths given to
+     * the tools
+     */
+    public ToolResultCache(final Path basepath) {
+        this.basepath = basepath.toAbsolutePath().normalize();
+    }
+
+    /**
+     * Returns the specifications and executors of the given tools, the
+     * executors going through this cache; to be given to
+     * {@code AiServices.tools(Map)} instead of the tools.
+     *
+     * @param tools the tools
+     *
+     * @return the tools specifications and executors
+     */
+    public Map<ToolSpecification, ToolExecutor> executors(final List<? extends AbstractTool> tools) {
+        final Map<ToolSpecification, ToolExecutor> executors = new LinkedHashMap<>();
+        for (AbstractTool tool : tools) {
+            for (Method method : tool.getClass().getMethods()) {
+                if (method.isAnnotationPresent(Tool.class)) {
+                    final ToolSpecification specification = ToolSpecifications.toolSpecificationFrom(method);
+                    executors.put(specification, new CachingExecutor(
+                        new DefaultToolExecutor(tool, method),
+                        method.getAnnotation(ReadOnlyTool.class), pathArgument(specification, method)
+                    ));
+                }
+            }
+        }
+        return executors;
+    }
+
+    /**
+     * Starts listening to changes of the files of the project.
+     */
+    public synchronized void open() {
+        if (!listening) {
+            synchronized (LISTENERS) {
+                LISTENERS.computeIfAbsent(basepath, Listener::new).caches.add(this);
+            }
+            listening = true;
+        }
+    }
+
+    /**
+     * Stops listening to file changes, clears the cache and logs its hit
+     * rate.
+     */
+    public synchronized void close() {
+        if (listening) {
+            synchronized (LISTENERS) {
+                final Listener listener = LISTENERS.get(basepath);
+                if (listener != null) {
+                    listener.caches.remove(this);
+                    listener.caches();
+                }
+            }
+            listening = false;
+        }
+        entries.clear();
+        final int h = hits.get(), m = misses.get();
+        if (h + m > 0) {
+            LOG.info(() -> String.format(
+                "tool result cache: %d hits, %d misses (%.0f%% hits), %,d characters not read again",
+                h, m, 100.0 * h / (h + m), savedChars.get()
+            ));
+        }
+    }
+
+    /**
+     * Invalidates the entries that depend on the given file or directory.
+     *
+     * @param path the path, absolute or relative to the project directory
+     */
+    public void invalidate(final String path) {
+        final String changed = relativize(path);
+        if (changed == null) {
+            return;
+        }
+        entries.values().removeIf(e ->
+            e.path == null || e.path.isEmpty()
+            || e.path.equals(changed) || changed.startsWith(e.path + '/') || e.path.startsWith(changed + '/')
+        );
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int hits() {
+        return hits.get();
+    }
+
+    public int misses() {
+        return misses.get();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return true if the files of the given directory are listened to
+     */
+    static boolean isListening(final Path dir) {
+        synchronized (LISTENERS) {
+            return LISTENERS.containsKey(dir.toAbsolutePath().normalize());
+        }
+    }
+
+    /**
+     * @param specification the specification of a tool
+     * @param method the method of the tool
+     *
+     * @return the name of the argument with the path a tool reads (if a
+     * {@link ReadOnlyTool#pathScoped() path scoped} read-only tool) or
+     * changes (if a {@link FileWriteTool}), its first one; null if the tool
+     * may read or change any file
+     */
+    static String pathArgument(final ToolSpecification specification, final Method method) {
+        final ReadOnlyTool readOnly = method.getAnnotation(ReadOnlyTool.class);
+        if (((readOnly == null || !readOnly.pathScoped()) && !method.isAnnotationPresent(FileWriteTool.class))
+            || specification.parameters() == null || specification.parameters().properties().isEmpty()) {
+            return null;
+        }
+        return specification.parameters().properties().keySet().iterator().next();
+    }
+
+    // --------------------------------------------------------- private methods
+
+    /**
+     * @return the path relative to the project directory with '/' as
+     * separator, null if outside the project
+     */
+    private String relativize(final String path) {
+        final Path full = basepath.resolve(path).normalize();
+        if (!full.startsWith(basepath)) {
+            return null;
+        }
+        return basepath.relativize(full).toString().replace(File.separatorChar, '/');
+    }
+
+    /**
+     * @return the arguments by name, sorted so that the same arguments in
+     * another order give the same key; null if not valid JSON
+     */
+    private static Map<String, Object> arguments(final String json) {
+        try {
+            return new TreeMap<>(new JSONObject((json == null || json.isBlank()) ? "{}" : json).toMap());
+        } catch (JSONException x) {
+            return null;
+        }
+    }
+
+    private class CachingExecutor implements ToolExecutor {
+
+        private final ToolExecutor delegate;
+        private final ReadOnlyTool readOnly;
+        private final String pathArgument;
+
+        private CachingExecutor(final ToolExecutor delegate, final ReadOnlyTool readOnly, final String pathArgument) {
+            this.delegate = delegate;
+            this.readOnly = readOnly;
+            this.pathArgument = pathArgument;
+        }
+
+        @Override
+        public String execute(final ToolExecutionRequest request, final Object memoryId) {
+            return executeWithContext(request, InvocationContext.builder().chatMemoryId(memoryId).build()).resultText();
+        }
+
+        @Override
+        public ToolExecutionResult executeWithContext(final ToolExecutionRequest request, final InvocationContext context) {
+            return execute(request, () -> delegate.executeWithContext(request, context));
+        }
+
+        private ToolExecutionResult execute(final ToolExecutionRequest request, final Supplier<ToolExecutionResult> execution) {
+            final Map<String, Object> arguments = arguments(request.arguments());
+            final Object path = (arguments != null && pathArgument != null) ? arguments.get(pathArgument) : null;
+
+            if (readOnly == null) {
+                try {
+                    return execution.get();
+                } finally {
+                    if (path != null) {
+                        invalidate(path.toString());
+                    } else {
+                        entries.clear();
+                    }
+                }
+            }
+            if (arguments == null) {
+                return execution.get();
+            }
+
+            final String key = request.name() + arguments;
+            final Entry cached = entries.get(key);
+            if (cached != null) {
+                hits.incrementAndGet();
+                savedChars.addAndGet(cached.result.resultText().length());
+                return cached.result;
+            }
+            misses.incrementAndGet();
+
+            final ToolExecutionResult result = execution.get();
+            if (!result.isError() && result.resultText() != null) {
+                final String scope = (path != null) ? relativize(path.toString()) : null;
+                entries.put(key, new Entry(scope, result));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Invalidates the entries of the files changed, created, deleted or
+     * renamed in a project directory, in all the open caches of the project.
+     */
+    private static class Listener implements FileChangeListener {
+
+        private final Path dir;
+        private final Set<ToolResultCache> caches = Collections.newSetFromMap(new WeakHashMap<>());
+
+        private Listener(final Path dir) {
+            this.dir = dir;
+            FileUtil.addRecursiveListener(this, dir.toFile());
+        }
+
+        @Override
+        public void fileFolderCreated(final FileEvent fe) {
+            changed(fe);
+        }
+
+        @Override
+        public void fileDataCreated(final FileEvent fe) {
+            changed(fe);
+        }
+
+        @Override
+        public void fileChanged(final FileEvent fe) {
+            changed(fe);
+        }
+
+        @Override
+        public void fileDeleted(final FileEvent fe) {
+            changed(fe);
+        }
+
+        @Override
+        public void fileRenamed(final FileRenameEvent fe) {
+            caches().forEach(ToolResultCache::clear); // the old path is not at hand
+        }
+
+        @Override
+        public void fileAttributeChanged(final FileAttributeEvent fe) {
+        }
+
+        private void changed(final FileEvent fe) {
+            final File file = FileUtil.toFile(fe.getFile());
+            for (ToolResultCache cache : caches()) {
+                if (file != null) {
+                    cache.invalidate(file.getAbsolutePath());
+                } else {
+                    cache.clear();
+                }
+            }
+        }
+
+        /**
+         * @return the open caches; if none is left, stops listening
+         */
+        private List<ToolResultCache> caches() {
+            synchronized (LISTENERS) {
+                if (caches.isEmpty() && LISTENERS.remove(dir, this)) {
+                    FileUtil.removeRecursiveListener(this, dir.toFile());
+                }
+                return new ArrayList<>(caches);
+            }
+        }
+    }
+}
@@ -0,0 +1,301 @@
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.ai.agent;
+
+import dev.langchain4j.agent.tool.Tool;
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.agent.tool.ToolSpecifications;
+import dev.langchain4j.invocation.InvocationContext;
+import dev.langchain4j.service.tool.ToolExecutionResult;
+import dev.langchain4j.service.tool.ToolExecutor;
+import java.io.File;
+import java.lang.reflect.Method;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.openide.util.RequestProcessor;
+
+/**
+ * Lets the tool calls the model makes in one turn run concurrently (see
+ * {@code AiServices.executeToolsConcurrently(Executor)}) on the bounded
+ * {@link #executor()}, the results being still returned in the order of the
+ * calls.
+ * <p>
+ * The executors returned by {@link #executors(Map, List)} take the locks that
+ * keep it safe:
+ * <ul>
+ * <li>any number of {@link ReadOnlyTool read-only tools} run at the same
+ * time;</li>
+ * <li>a {@link FileWriteTool} runs while other files are read, but not while
+ * the file it changes is read, nor while a read-only tool that is not
+ * {@link ReadOnlyTool#pathScoped() path scoped} (e.g. a search) runs, nor
+ * with another write;</li>
+ * <li>any other tool (e.g. a refactoring or a build) locks the whole project
+ * and runs alone.</li>
+ * </ul>
+ * Calls submitted to {@link #executor()} also keep the order in which they
+ * were submitted, i.e. the order of the calls in the turn, when they conflict
+ * over the same file (e.g. two inserts in a file, or a write and a read of
+ * it) or when one of them locks the whole project; a call waits for the
+ * earlier conflicting ones to complete before taking its locks. Calls not
+ * conflicting run in any order.
+ */
+public class ToolScheduler {
+
+    /**
+     * the maximum number of tools running at the same time
+     */
+    public static final int MAX_CONCURRENT_TOOLS = Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors()));
+
+    public static final Executor EXECUTOR = new RequestProcessor(ToolScheduler.class.getName(), MAX_CONCURRENT_TOOLS);
+
+    /**
+     * the ticket, i.e. the submission order, of the call running in the
+     * current thread, if submitted to {@link #executor()}
+     */
+    private static final ThreadLocal<Long> TICKET = new ThreadLocal<>();
+
+    private final Path basepath;
+    private final ReadWriteLock project = new ReentrantReadWriteLock(), writes = new ReentrantReadWriteLock();
+    private final Map<String, ReadWriteLock> paths = new ConcurrentHashMap<>();
+
+    private final AtomicLong tickets = new AtomicLong();
+    /**
+     * the calls submitted and not completed by ticket, with what they access
+     * once started (null until then)
+     */
+    private final TreeMap<Long, Access> calls = new TreeMap<>();
+
+    /**
+     * @param basepath the project directory, the base of the paths given to
+     * the tools
+     */
+    public ToolScheduler(final Path basepath) {
+        this.basepath = basepath.toAbsolutePath().normalize();
+    }
+
+    /**
+     * Calls are started by {@link #EXECUTOR} in the order they are submitted,
+     * which is the order of the calls of the turn.
+     *
+     * @return the executor to run the tool calls on, so that calls of the same
+     * file keep their order
+     */
+    public Executor executor() {
+        return (command) -> {
+            final long ticket = tickets.getAndIncrement();
+            synchronized (calls) {
+                calls.put(ticket, null);
+            }
+            EXECUTOR.execute(() -> {
+                TICKET.set(ticket);
+                try {
+                    command.run();
+                } finally {
+                    TICKET.remove();
+                    synchronized (calls) {
+                        calls.remove(ticket);
+                        calls.notifyAll();
+                    }
+                }
+            });
+        };
+    }
+
+    /**
+     * Wraps the given executors into executors taking the locks of the tools
+     * they execute.
+     *
+     * @param executors the specifications and executors of the tools
+     * @param tools the tools, whose annotations tell what they lock
+     *
+     * @return the specifications and the wrapped executors, in the same order
+     */
+    public Map<ToolSpecification, ToolExecutor> executors(
+        final Map<ToolSpecification, ToolExecutor> executors, final List<? extends AbstractTool> tools
+    ) {
+        //
+        // by the name of the tool, which is not the name of the method when
+        // given in @Tool (e.g. MavenListDependenciesTool_listDependencies)
+        //
+        final Map<String, Method> methods = new HashMap<>();
+        for (AbstractTool tool : tools) {
+            for (Method method : tool.getClass().getMethods()) {
+                if (method.isAnnotationPresent(Tool.class)) {
+                    methods.put(ToolSpecifications.toolSpecificationFrom(method).name(), method);
+                }
+            }
+        }
+
+        final Map<ToolSpecification, ToolExecutor> scheduled = new LinkedHashMap<>();
+        for (Map.Entry<ToolSpecification, ToolExecutor> e : executors.entrySet()) {
+            final Method method = methods.get(e.getKey().name());
+            if (method == null) {
+                scheduled.put(e.getKey(), new LockingExecutor(e.getValue(), false, false, null));
+            } else {
+                scheduled.put(e.getKey(), new LockingExecutor(
+                    e.getValue(),
+                    method.isAnnotationPresent(ReadOnlyTool.class), method.isAnnotationPresent(FileWriteTool.class),
+                    ToolResultCache.pathArgument(e.getKey(), method)
+                ));
+            }
+        }
+        return scheduled;
+    }
+
+    // --------------------------------------------------------- private methods
+
+    /**
+     * @return a path as given to a tool, relative to the project directory
+     * with '/' as separator; null if it can not be told (e.g. outside the
+     * project)
+     */
+    private String relativize(final Object path) {
+        if (path == null) {
+            return null;
+        }
+        final Path full = basepath.resolve(path.toString()).normalize();
+        if (!full.startsWith(basepath)) {
+            return null;
+        }
+        return basepath.relativize(full).toString().replace(File.separatorChar, '/');
+    }
+
+    /**
+     * Waits, if the current call was submitted to {@link #executor()}, for the
+     * calls submitted before it to be started and the ones conflicting with it
+     * to be completed.
+     */
+    private void await(final Access access) {
+        final Long ticket = TICKET.get();
+        if (ticket == null) {
+            return;
+        }
+        synchronized (calls) {
+            calls.put(ticket, access);
+            calls.notifyAll(); // the later calls waiting for this one to start
+            while (calls.headMap(ticket).values().stream().anyMatch(earlier -> earlier == null || earlier.conflicts(access))) {
+                try {
+                    calls.wait();
+                } catch (InterruptedException x) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private static Object argument(final ToolExecutionRequest request, final String name) {
+        if (name == null) {
+            return null;
+        }
+        try {
+            final String json = request.arguments();
+            return new JSONObject((json == null || json.isBlank()) ? "{}" : json).opt(name);
+        } catch (JSONException x) {
+            return null;
+        }
+    }
+
+    private static <T> T locked(final Lock lock, final Supplier<T> execution) {
+        lock.lock();
+        try {
+            return execution.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private class LockingExecutor implements ToolExecutor {
+
+        private final ToolExecutor delegate;
+        private final boolean readOnly, fileWrite;
+        private final String pathArgument;
+
+        private LockingExecutor(
+            final ToolExecutor delegate, final boolean readOnly, final boolean fileWrite, final String pathArgument
+        ) {
+            this.delegate = delegate;
+            this.readOnly = readOnly;
+            this.fileWrite = fileWrite;
+            this.pathArgument = pathArgument;
+        }
+
+        @Override
+        public String execute(final ToolExecutionRequest request, final Object memoryId) {
+            return execute(request, () -> delegate.execute(request, memoryId));
+        }
+
+        @Override
+        public ToolExecutionResult executeWithContext(final ToolExecutionRequest request, final InvocationContext context) {
+            return execute(request, () -> delegate.executeWithContext(request, context));
+        }
+
+        private <T> T execute(final ToolExecutionRequest request, final Supplier<T> execution) {
+            final String file = (readOnly || fileWrite) ? relativize(argument(request, pathArgument)) : null;
+            final Access access = new Access(readOnly, fileWrite && (file != null), file);
+            await(access);
+
+            if (!readOnly && !fileWrite) {
+                return locked(project.writeLock(), execution);
+            }
+            final ReadWriteLock path = (file == null) ? null : paths.computeIfAbsent(file, p -> new ReentrantReadWriteLock());
+            if (readOnly) {
+                //
+                // locks in the order project, writes, path
+                //
+                return (path == null)
+                     ? locked(project.readLock(), () -> locked(writes.readLock(), execution))
+                     : locked(project.readLock(), () -> locked(path.readLock(), execution));
+            }
+            if (path == null) {
+                return locked(project.writeLock(), execution); // a file that can not be told
+            }
+            return locked(project.readLock(), () -> locked(writes.writeLock(), () -> locked(path.writeLock(), execution)));
+        }
+    }
+
+    /**
+     * What a call accesses: it reads (readOnly) or writes (fileWrite) the
+     * given file, or any file if the file is null; a call neither reading nor
+     * writing files locks the whole project.
+     */
+    private record Access(boolean readOnly, boolean fileWrite, String file) {
+
+        private boolean conflicts(final Access other) {
+            if (!(readOnly || fileWrite) || !(other.readOnly || other.fileWrite)) {
+                return true;
+            }
+            if (readOnly && other.readOnly) {
+                return false;
+            }
+            return (file == null) || (other.file == null) || file.equals(other.file);
+        }
+    }
+}
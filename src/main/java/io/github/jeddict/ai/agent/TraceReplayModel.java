@@ -0,0 +1,226 @@
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.ai.agent;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessageDeserializer;
+import dev.langchain4j.data.message.ChatMessageSerializer;
+import dev.langchain4j.model.ModelProvider;
+import dev.langchain4j.model.chat.Capability;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.StreamingChatModel;
+import dev.langchain4j.model.chat.listener.ChatModelListener;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.request.ChatRequestParameters;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.chat.response.StreamingChatResponseHandler;
+import dev.langchain4j.model.output.FinishReason;
+import dev.langchain4j.model.output.TokenUsage;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * A model answering with the responses recorded in an {@link AgentTrace}, in
+ * the order they were recorded, whatever the request; tool calls in the
+ * recorded responses are executed by the real tools, so a session can be
+ * replayed offline and repeatably to benchmark the tool layer or to catch
+ * behaviour changes.
+ * <p>
+ * Each request is compared with the recorded one: a difference (e.g. a tool
+ * returning something else than when the trace was recorded) is logged and
+ * collected in {@link #mismatches()}, but does not stop the replay. Recorded
+ * errors are thrown again; a request beyond the end of the trace fails with
+ * an {@link IllegalStateException}.
+ */
+public class TraceReplayModel implements ChatModel, StreamingChatModel {
+
+    private static final Logger LOG = Logger.getLogger(TraceReplayModel.class.getName());
+
+    private static final int MAX_MISMATCH_LENGTH = 200;
+
+    /**
+     * A recorded request with its response or error.
+     */
+    private record Exchange(JSONObject request, JSONObject outcome) {}
+
+    private final List<Exchange> exchanges;
+    private final AtomicInteger next = new AtomicInteger();
+    private final List<String> mismatches = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * @param trace the trace file
+     *
+     * @throws IOException if the trace can not be read
+     * @throws IllegalArgumentException if the trace has no model responses
+     */
+    public TraceReplayModel(final Path trace) throws IOException {
+        this(AgentTrace.read(trace));
+    }
+
+    /**
+     * @param events the events of a trace
+     *
+     * @throws IllegalArgumentException if the trace has no model responses
+     */
+    public TraceReplayModel(final List<JSONObject> events) {
+        final Map<Long, JSONObject> requests = new TreeMap<>(), outcomes = new TreeMap<>();
+        for (JSONObject event : events) {
+            switch (event.getString("type")) {
+                case AgentTrace.REQUEST -> requests.put(event.getLong("request"), event);
+                case AgentTrace.RESPONSE, AgentTrace.ERROR -> outcomes.put(event.getLong("request"), event);
+                default -> {}
+            }
+        }
+        final List<Exchange> list = new ArrayList<>();
+        outcomes.forEach((id, outcome) -> list.add(new Exchange(requests.get(id), outcome)));
+        if (list.isEmpty()) {
+            throw new IllegalArgumentException("no model responses in the trace");
+        }
+        this.exchanges = List.copyOf(list);
+    }
+
+    /**
+     * @return the differences between the requests made and the recorded
+     * ones, in order
+     */
+    public List<String> mismatches() {
+        synchronized (mismatches) {
+            return List.copyOf(mismatches);
+        }
+    }
+
+    /**
+     * @return the number of recorded responses not replayed yet
+     */
+    public int remaining() {
+        return Math.max(0, exchanges.size() - next.get());
+    }
+
+    @Override
+    public ChatResponse chat(final ChatRequest request) {
+        return doChat(request);
+    }
+
+    @Override
+    public ChatResponse doChat(final ChatRequest request) {
+        final int i = next.getAndIncrement();
+        if (i >= exchanges.size()) {
+            throw new IllegalStateException(
+                "trace exhausted: request " + (i + 1) + " but only " + exchanges.size() + " responses recorded"
+            );
+        }
+        final Exchange exchange = exchanges.get(i);
+        compare(i + 1, exchange.request, request);
+
+        final JSONObject outcome = exchange.outcome;
+        if (AgentTrace.ERROR.equals(outcome.getString("type"))) {
+            throw new IllegalStateException(outcome.optString("error", "recorded error"));
+        }
+
+        final AiMessage message = (AiMessage) ChatMessageDeserializer.messageFromJson(outcome.getJSONObject("message").toString());
+        final ChatResponse.Builder response = ChatResponse.builder().aiMessage(message);
+        if (outcome.has("finishReason")) {
+            response.finishReason(FinishReason.valueOf(outcome.getString("finishReason")));
+        }
+        if (outcome.has("inputTokens") || outcome.has("outputTokens")) {
+            response.tokenUsage(new TokenUsage(
+                outcome.has("inputTokens") ? outcome.getInt("inputTokens") : null,
+                outcome.has("outputTokens") ? outcome.getInt("outputTokens") : null
+            ));
+        }
+        return response.build();
+    }
+
+    @Override
+    public void chat(final ChatRequest request, final StreamingChatResponseHandler handler) {
+        doChat(request, handler);
+    }
+
+    @Override
+    public void doChat(final ChatRequest request, final StreamingChatResponseHandler handler) {
+        final ChatResponse response;
+        try {
+            response = doChat(request);
+        } catch (RuntimeException x) {
+            handler.onError(x);
+            return;
+        }
+        final String text = response.aiMessage().text();
+        if (text != null && !text.isEmpty()) {
+            handler.onPartialResponse(text);
+        }
+        handler.onCompleteResponse(response);
+    }
+
+    @Override
+    public ChatRequestParameters defaultRequestParameters() {
+        return ChatModel.super.defaultRequestParameters();
+    }
+
+    @Override
+    public List<ChatModelListener> listeners() {
+        return List.of();
+    }
+
+    @Override
+    public ModelProvider provider() {
+        return ModelProvider.OTHER;
+    }
+
+    @Override
+    public Set<Capability> supportedCapabilities() {
+        return ChatModel.super.supportedCapabilities();
+    }
+
+    // --------------------------------------------------------- private methods
+
+    private void compare(final int number, final JSONObject recorded, final ChatRequest request) {
+        if (recorded == null) {
+            return;
+        }
+        final JSONArray expected = recorded.getJSONArray("messages");
+        final JSONArray actual = new JSONArray(ChatMessageSerializer.messagesToJson(request.messages()));
+        if (expected.similar(actual)) {
+            return;
+        }
+        String mismatch = "request " + number + ": " + expected.length() + " messages recorded, " + actual.length() + " sent";
+        for (int m = 0; m < Math.min(expected.length(), actual.length()); ++m) {
+            if (!expected.getJSONObject(m).similar(actual.getJSONObject(m))) {
+                mismatch = "request " + number + ", message " + (m + 1) + ": recorded "
+                         + abbreviate(expected.getJSONObject(m).toString()) + ", sent "
+                         + abbreviate(actual.getJSONObject(m).toString());
+                break;
+            }
+        }
+        final String message = mismatch;
+        LOG.info(() -> "replay mismatch at " + message);
+        mismatches.add(message);
+    }
+
+    private static String abbreviate(final String text) {
+        return (text.length() <= MAX_MISMATCH_LENGTH) ? text : text.substring(0, MAX_MISMATCH_LENGTH) + "...";
+    }
+}
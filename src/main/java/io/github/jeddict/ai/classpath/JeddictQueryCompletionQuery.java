@@ -15,6 +15,8 @@
  */
 package io.github.jeddict.ai.classpath;
 
+import io.github.jeddict.ai.util.CacheManager;
+import io.github.jeddict.ai.util.CacheManager.Region;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Consumer;
@@ -32,11 +34,20 @@ import org.openide.util.Exceptions;
 
 public class JeddictQueryCompletionQuery extends AsyncCompletionQuery {
 
-    private static List<String> cachedClassNames = null;
-    private static long lastScanTimestamp = 0;
     private static final long CACHE_EXPIRY_MS = 60 * 1000;
     public static final String JEDDICT_EDITOR_CALLBACK = "jeddict-editor-callback";
 
+    /**
+     * class names found scanning a compile class path, or all open projects
+     * if the document has none
+     */
+    private record ClassNames(List<String> names, long scanned) {}
+
+    private static final Region<Object, ClassNames> CLASS_NAMES = CacheManager.getInstance().region(
+        "query-class-names", true,
+        (key, classNames) -> classNames.names.stream().mapToLong(CacheManager::weigh).sum()
+    );
+
     @Override
     protected void query(CompletionResultSet resultSet, Document doc, int caretOffset) {
         Consumer<FileObject> callback = (Consumer<FileObject>) doc.getProperty(JEDDICT_EDITOR_CALLBACK);
@@ -49,34 +60,32 @@ public class JeddictQueryCompletionQuery extends AsyncCompletionQuery {
             resultSet.finish();
             return;
         }
-        if (System.currentTimeMillis() - lastScanTimestamp > CACHE_EXPIRY_MS) {
-            cachedClassNames = null;
-        }
-        if (cachedClassNames == null) {
-            cachedClassNames = new ArrayList<>();
-            FileObject file = NbEditorUtilities.getFileObject(doc);
+        FileObject file = NbEditorUtilities.getFileObject(doc);
+        ClassPath classPath = (file != null) ? ClassPath.getClassPath(file, ClassPath.COMPILE) : null;
+        Object key = (classPath != null) ? classPath : OpenProjects.getDefault();
+        ClassNames cached = CLASS_NAMES.get(key);
+        if (cached == null || System.currentTimeMillis() - cached.scanned > CACHE_EXPIRY_MS) {
+            List<String> classNames = new ArrayList<>();
             boolean found = false;
-            if (file != null) {
-                ClassPath classPath = ClassPath.getClassPath(file, ClassPath.COMPILE);
-                if (classPath != null) {
-                    for (ClassPath.Entry entry : classPath.entries()) {
-                        FileObject root = entry.getRoot();
-                        if (root != null) {
-                            collectClassNames(root, "", cachedClassNames);
-                            found = true;
-                        }
+            if (classPath != null) {
+                for (ClassPath.Entry entry : classPath.entries()) {
+                    FileObject root = entry.getRoot();
+                    if (root != null) {
+                        collectClassNames(root, "", classNames);
+                        found = true;
                     }
                 }
             }
 
             if (!found) {
-                scanAllProjects(cachedClassNames);
+                scanAllProjects(classNames);
             }
 
-            lastScanTimestamp = System.currentTimeMillis();
+            cached = new ClassNames(classNames, System.currentTimeMillis());
+            CLASS_NAMES.put(key, cached);
         }
 
-        for (String fqcn : cachedClassNames) {
+        for (String fqcn : cached.names) {
             if (prefix.isEmpty() || fqcn.toLowerCase().contains(prefix.toLowerCase())) {
                 resultSet.addItem(new JeddictQueryCompletionItem(fqcn, caretOffset, prefix, callback));
             }
@@ -0,0 +1,430 @@
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.ai.completion;
+
+import io.github.jeddict.ai.settings.PreferencesManager;
+import io.github.jeddict.ai.util.CacheManager;
+import io.github.jeddict.ai.util.CacheManager.Region;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Schema metadata of database connections, as sent to the AI for SQL
+ * completion and database chats.
+ * <p>
+ * Tables and columns of a connection are read with one bulk query each and
+ * kept for a time to live (see
+ * {@link PreferencesManager#getSchemaCacheTtlMinutes()}) or until explicitly
+ * refreshed; keys and indexes, which take a query per table, are read only for
+ * the tables actually described, then kept with them.
+ * <p>
+ * When an SQL text (or a question) is given, only the tables it refers to are
+ * described, matching names case insensitively and tolerating plurals and
+ * small typos; tables that only have a referenced column contribute that
+ * column and their primary key. Other tables are listed by name. A schema of
+ * at most {@value #MAX_TABLES} tables is described in full when no table is
+ * referenced.
+ * <p>
+ * Schemas are kept in the "schema-metadata" region of {@link CacheManager},
+ * weakly keyed by connection.
+ */
+public class SchemaMetadataCache {
+
+    private static final Logger LOG = Logger.getLogger(SchemaMetadataCache.class.getName());
+
+    private static final SchemaMetadataCache INSTANCE = new SchemaMetadataCache();
+
+    public static final int MAX_TABLES = 30;
+
+    public static final String HEADER = "Table Name,Column Name,Column Type,Nullable,Default Value,Primary Key,Unique,Index,Auto Increment,Column Size,Decimal Digits,Foreign Key,Remarks\n";
+
+    public record Column(
+        String name, String type, boolean nullable, String defaultValue,
+        boolean autoIncrement, int size, int decimalDigits, String remarks
+    ) {}
+
+    /**
+     * @param foreign referenced table and column by foreign key column
+     */
+    public record Keys(Set<String> primary, Set<String> unique, Set<String> indexed, Map<String, String> foreign) {}
+
+    public static final class Table {
+
+        private final String name;
+        private final List<Column> columns = new ArrayList<>();
+        private volatile Keys keys;
+
+        public Table(final String name) {
+            this.name = name;
+        }
+
+        Table(final String name, final List<Column> columns, final Keys keys) {
+            this(name);
+            this.columns.addAll(columns);
+            this.keys = keys;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public List<Column> columns() {
+            return Collections.unmodifiableList(columns);
+        }
+    }
+
+    /**
+     * Snapshot of the tables of a schema.
+     */
+    public static final class Schema {
+
+        private final String product, version, schema;
+        private final Map<String, Table> tables; // by lowercase name
+        private final long loaded;
+
+        Schema(final String product, final String version, final String schema, final List<Table> tables, final long loaded) {
+            this.product = product;
+            this.version = version;
+            this.schema = schema;
+            this.tables = new LinkedHashMap<>();
+            for (Table t : tables) {
+                this.tables.put(t.name.toLowerCase(Locale.ROOT), t);
+            }
+            this.loaded = loaded;
+        }
+
+        public int size() {
+            return tables.size();
+        }
+    }
+
+    private final Region<Object, Schema> cache = CacheManager.getInstance().region(
+        "schema-metadata", true, (key, schema) -> weigh(schema)
+    );
+    /**
+     * the locks reading the schemas, weakly keyed by connection
+     */
+    private final Map<Object, Object> locks = Collections.synchronizedMap(new WeakHashMap<>());
+
+    public static SchemaMetadataCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @param key the connection the schema belongs to (e.g. the NetBeans
+     * {@code DatabaseConnection}), weakly referenced
+     * @param connection the JDBC connection to read the schema from
+     * @param sql the SQL text or question to select relevant tables for; null
+     * or blank to describe all tables
+     *
+     * @return the schema description
+     *
+     * @throws SQLException if the schema can not be read
+     */
+    public String getMetaData(final Object key, final Connection connection, final String sql) throws SQLException {
+        final Schema schema = get(key, connection);
+        return describe(schema, connection, sql);
+    }
+
+    /**
+     * @return the schema of the given connection, read if not cached or
+     * expired
+     */
+    public Schema get(final Object key, final Connection connection) throws SQLException {
+        final long ttl = PreferencesManager.getInstance().getSchemaCacheTtlMinutes() * 60_000L;
+        synchronized (locks.computeIfAbsent(key, k -> new Object())) {
+            Schema schema = cache.get(key);
+            if (schema == null || (ttl > 0 && System.currentTimeMillis() - schema.loaded > ttl)) {
+                schema = load(connection);
+                cache.put(key, schema);
+            }
+            return schema;
+        }
+    }
+
+    /**
+     * Forgets the schema of the given connection, so that it is read again
+     * when next needed.
+     */
+    public void refresh(final Object key) {
+        cache.remove(key);
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+
+    // --------------------------------------------------------- private methods
+
+    /**
+     * @return the estimated size of the tables and columns of a schema; keys,
+     * read later, are not accounted for
+     */
+    private static long weigh(final Schema schema) {
+        long size = 0;
+        for (Table table : schema.tables.values()) {
+            size += CacheManager.ENTRY_OVERHEAD + CacheManager.weigh(table.name);
+            for (Column column : table.columns) {
+                size += CacheManager.ENTRY_OVERHEAD + CacheManager.weigh(column.name())
+                      + CacheManager.weigh(column.type()) + CacheManager.weigh(column.defaultValue())
+                      + CacheManager.weigh(column.remarks());
+            }
+        }
+        return size;
+    }
+
+    private static Schema load(final Connection connection) throws SQLException {
+        final long start = System.currentTimeMillis();
+        final DatabaseMetaData metaData = connection.getMetaData();
+        final String schemaName = connection.getSchema();
+
+        final Map<String, Table> tables = new LinkedHashMap<>();
+        try (ResultSet rs = metaData.getTables(null, schemaName, "%", new String[]{"TABLE"})) {
+            while (rs.next()) {
+                final String name = rs.getString("TABLE_NAME");
+                tables.put(name, new Table(name));
+            }
+        }
+        try (ResultSet rs = metaData.getColumns(null, schemaName, "%", "%")) {
+            while (rs.next()) {
+                final Table table = tables.get(rs.getString("TABLE_NAME"));
+                if (table == null) {
+                    continue; // a view or another kind of table
+                }
+                table.columns.add(new Column(
+                    rs.getString("COLUMN_NAME"),
+                    rs.getString("TYPE_NAME"),
+                    "1".equals(rs.getString("NULLABLE")),
+                    rs.getString("COLUMN_DEF"),
+                    "YES".equals(rs.getString("IS_AUTOINCREMENT")),
+                    rs.getInt("COLUMN_SIZE"),
+                    rs.getInt("DECIMAL_DIGITS"),
+                    rs.getString("REMARKS")
+                ));
+            }
+        }
+
+        final Schema schema = new Schema(
+            metaData.getDatabaseProductName(), metaData.getDatabaseProductVersion(),
+            schemaName, new ArrayList<>(tables.values()), System.currentTimeMillis()
+        );
+        LOG.fine(() -> "read " + tables.size() + " tables in " + (System.currentTimeMillis() - start) + " ms");
+
+        return schema;
+    }
+
+    /**
+     * Reads primary keys, indexes and foreign keys of a table, once.
+     */
+    private static Keys keys(final Table table, final Connection connection, final String schemaName) {
+        Keys keys = table.keys;
+        if (keys != null || connection == null) {
+            return keys;
+        }
+        synchronized (table) {
+            if (table.keys != null) {
+                return table.keys;
+            }
+            final Set<String> primary = new HashSet<>(), unique = new HashSet<>(), indexed = new HashSet<>();
+            final Map<String, String> foreign = new HashMap<>();
+            try {
+                final DatabaseMetaData metaData = connection.getMetaData();
+                try (ResultSet rs = metaData.getPrimaryKeys(null, schemaName, table.name)) {
+                    while (rs.next()) {
+                        primary.add(rs.getString("COLUMN_NAME"));
+                    }
+                }
+                //
+                // one query for all indexes, unique ones tell by NON_UNIQUE
+                //
+                try (ResultSet rs = metaData.getIndexInfo(null, schemaName, table.name, false, true)) {
+                    while (rs.next()) {
+                        final String column = rs.getString("COLUMN_NAME");
+                        if (column != null) {
+                            indexed.add(column);
+                            if (!rs.getBoolean("NON_UNIQUE")) {
+                                unique.add(column);
+                            }
+                        }
+                    }
+                }
+                try (ResultSet rs = metaData.getImportedKeys(null, schemaName, table.name)) {
+                    while (rs.next()) {
+                        foreign.put(rs.getString("FKCOLUMN_NAME"), rs.getString("PKTABLE_NAME") + '.' + rs.getString("PKCOLUMN_NAME"));
+                    }
+                }
+            } catch (SQLException x) {
+                LOG.log(Level.FINE, "unable to read the keys of " + table.name, x);
+            }
+            return table.keys = new Keys(primary, unique, indexed, foreign);
+        }
+    }
+
+    static String describe(final Schema schema, final Connection connection, final String sql) {
+        final StringBuilder info = new StringBuilder();
+        info.append("DB Name:").append(schema.product).append("\n");
+        info.append("DB Version:").append(schema.version).append("\n");
+
+        final Map<Table, Set<String>> selected = select(schema, sql); // null set: all columns
+        final StringBuilder csv = new StringBuilder(HEADER);
+        for (Map.Entry<Table, Set<String>> e : selected.entrySet()) {
+            final Table table = e.getKey();
+            final Keys keys = keys(table, connection, schema.schema);
+            for (Column c : table.columns) {
+                final boolean primary = keys != null && keys.primary.contains(c.name);
+                if (e.getValue() != null && !primary && !e.getValue().contains(c.name.toLowerCase(Locale.ROOT))) {
+                    continue;
+                }
+                csv.append(String.format("%s,%s,%s,%s,%s,%s,%s,%s,%s,%d,%d,%s,%s\n",
+                    table.name, c.name, c.type,
+                    c.nullable ? "YES" : "NO",
+                    (c.defaultValue == null) ? "" : c.defaultValue,
+                    primary ? "YES" : "NO",
+                    (keys != null && keys.unique.contains(c.name)) ? "YES" : "NO",
+                    (keys != null && keys.indexed.contains(c.name)) ? "YES" : "NO",
+                    c.autoIncrement ? "YES" : "NO",
+                    c.size, c.decimalDigits,
+                    (keys != null && keys.foreign.containsKey(c.name)) ? keys.foreign.get(c.name) : "NO",
+                    (c.remarks == null) ? "" : c.remarks
+                ));
+            }
+        }
+        info.append("DB Structure:").append(csv).append("\n");
+
+        if (selected.size() < schema.tables.size()) {
+            info.append("Other Tables:").append(
+                schema.tables.values().stream()
+                    .filter(t -> !selected.containsKey(t))
+                    .map(t -> t.name)
+                    .collect(Collectors.joining(","))
+            ).append("\n");
+        }
+
+        return info.toString();
+    }
+
+    /**
+     * @return the tables to describe, with the (lowercase) columns to include
+     * or null for all of them; all tables of a small schema if none is
+     * referenced
+     */
+    static Map<Table, Set<String>> select(final Schema schema, final String sql) {
+        final Map<Table, Set<String>> selected = (sql == null || sql.isBlank()) ? new LinkedHashMap<>() : referenced(schema, sql);
+        if (selected.isEmpty() && schema.tables.size() <= MAX_TABLES) {
+            schema.tables.values().forEach(t -> selected.put(t, null));
+        }
+        return selected;
+    }
+
+    /**
+     * @return the tables referenced by the given text, with the (lowercase)
+     * columns to include or null for all of them
+     */
+    private static Map<Table, Set<String>> referenced(final Schema schema, final String sql) {
+        final Map<Table, Set<String>> selected = new LinkedHashMap<>();
+
+        final Set<String> words = new HashSet<>();
+        for (String word : sql.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}_$#]+")) {
+            if (word.length() > 1) {
+                words.add(word);
+            }
+        }
+
+        for (Table table : schema.tables.values()) {
+            if (selected.size() >= MAX_TABLES) {
+                break;
+            }
+            final String name = table.name.toLowerCase(Locale.ROOT);
+            for (String word : words) {
+                if (matches(name, word)) {
+                    selected.put(table, null);
+                    break;
+                }
+            }
+        }
+        for (Table table : schema.tables.values()) {
+            if (selected.size() >= MAX_TABLES) {
+                break;
+            }
+            if (selected.containsKey(table)) {
+                continue;
+            }
+            final Set<String> columns = new HashSet<>();
+            for (Column c : table.columns) {
+                final String name = c.name.toLowerCase(Locale.ROOT);
+                if (name.length() > 3 && words.contains(name)) {
+                    columns.add(name);
+                }
+            }
+            if (!columns.isEmpty()) {
+                selected.put(table, columns);
+            }
+        }
+
+        return selected;
+    }
+
+    /**
+     * @return true if the word is the name, its singular or plural or, for
+     * longer names, differs by one character
+     */
+    static boolean matches(final String name, final String word) {
+        if (name.equals(word)
+            || name.equals(word + "s") || word.equals(name + "s")
+            || name.equals(word + "es") || word.equals(name + "es")) {
+            return true;
+        }
+        if (name.length() < 5 || Math.abs(name.length() - word.length()) > 1) {
+            return false;
+        }
+        //
+        // edit distance of at most one
+        //
+        int i = 0, j = 0, edits = 0;
+        while (i < name.length() && j < word.length()) {
+            if (name.charAt(i) == word.charAt(j)) {
+                ++i; ++j;
+                continue;
+            }
+            if (++edits > 1) {
+                return false;
+            }
+            if (name.length() > word.length()) {
+                ++i;
+            } else if (name.length() < word.length()) {
+                ++j;
+            } else {
+                ++i; ++j;
+            }
+        }
+        return edits + (name.length() - i) + (word.length() - j) <= 1;
+    }
+}
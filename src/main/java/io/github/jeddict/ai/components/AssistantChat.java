@@ -136,9 +136,27 @@ public class AssistantChat extends TopComponent {
         parentPanel.remove(parentPanel.getComponentCount() - 1);
     }
 
+    /**
+     * Removes the rendered response and releases the Swing state attached to
+     * it. Only the response being shown is realised as components; the others
+     * stay lightweight {@code Response} models in the chat history and are
+     * rendered again when navigated to, so every reference to the removed
+     * panes (context menus, per-editor menu items, query pane) must be dropped
+     * here or it would keep their documents alive for the whole session.
+     */
     public void clear() {
+        for (JPopupMenu menu : menus.values()) {
+            menu.setVisible(false);
+            menu.removeAll();
+        }
         parentPanel.removeAll();
         menus.clear();
+        menuItems.clear();
+        submenuItems.clear();
+        queryPane = null;
+        filePanel = null;
+        filePanelAdapter = null;
+        copyButton = editButton = saveButton = cancelButton = null;
     }
 
     private JButton copyButton, editButton, saveButton, cancelButton;
@@ -287,6 +305,12 @@ public class AssistantChat extends TopComponent {
         return editorPane;
     }
 
+    public StreamingMarkdownPane createStreamingMarkdownPane() {
+        StreamingMarkdownPane markdownPane = new StreamingMarkdownPane(this);
+        parentPanel.add(markdownPane);
+        return markdownPane;
+    }
+
     private void addEditorPaneRespectingTextArea(JComponent component) {
         int count = parentPanel.getComponentCount();
         if (count > 0) {
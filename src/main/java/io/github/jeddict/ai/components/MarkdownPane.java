@@ -45,8 +45,6 @@ import javax.swing.plaf.basic.BasicTabbedPaneUI;
 import javax.swing.text.EditorKit;
 import javax.swing.text.html.HTMLEditorKit;
 import org.apache.batik.swing.JSVGCanvas;
-import org.commonmark.parser.Parser;
-import org.commonmark.renderer.html.HtmlRenderer;
 
 /**
  *
@@ -86,14 +84,9 @@ public class MarkdownPane extends JTabbedPane {
         Color backgroundColor = getBackgroundColorFromMimeType(MIME_PLAIN_TEXT);
         Color textColor = getTextColorFromMimeType(MIME_PLAIN_TEXT);
         JTabbedPane tabbedPane = this;
-        
-        
-        Parser parser = Parser.builder().build();
-        HtmlRenderer renderer = HtmlRenderer.builder().build();
-        String html = renderer.render(parser.parse(content.getContent()));
 
-        JEditorPane viewPane = new JEditorPane();
-        createHtmlPane(viewPane, html, component);
+        StreamingMarkdownPane viewPane = new StreamingMarkdownPane(component);
+        viewPane.append(content.getContent());
         tabbedPane.addTab("View", viewPane);
 
         JEditorPane editorPane = new JEditorPane();
@@ -134,8 +127,7 @@ public class MarkdownPane extends JTabbedPane {
             String mdContent = editorPane.getText();
             if (reRender[0] == true) {
                 reRender[0] = false;
-                String newhtml = renderer.render(parser.parse(mdContent));
-                viewPane.setText(getHTMLContent(getHtmlWrapWidth(component), newhtml));
+                viewPane.update(mdContent);
             }
         };
 
@@ -0,0 +1,115 @@
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.ai.components;
+
+import static io.github.jeddict.ai.components.MarkdownPane.getHtmlWrapWidth;
+import static io.github.jeddict.ai.util.EditorUtil.getHTMLContent;
+import io.github.jeddict.ai.util.IncrementalMarkdownRenderer;
+import java.io.IOException;
+import java.util.List;
+import java.util.function.UnaryOperator;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.JComponent;
+import javax.swing.JEditorPane;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Element;
+import javax.swing.text.html.HTMLDocument;
+
+/**
+ * HTML pane showing markdown that grows over time (e.g. a streamed answer).
+ * Closed markdown chunks are inserted into the existing HTMLDocument and only
+ * the open tail element is replaced, so the document is never rebuilt while
+ * text is appended.
+ *
+ * @see IncrementalMarkdownRenderer
+ */
+public class StreamingMarkdownPane extends JEditorPane {
+
+    private static final Logger LOG = Logger.getLogger(StreamingMarkdownPane.class.getName());
+    private static final String TAIL_ID = "jeddict-markdown-tail";
+
+    private final IncrementalMarkdownRenderer markdown;
+    private final JComponent widthReference;
+
+    public StreamingMarkdownPane(final JComponent widthReference) {
+        this(widthReference, UnaryOperator.identity());
+    }
+
+    public StreamingMarkdownPane(final JComponent widthReference, final UnaryOperator<String> postProcessor) {
+        this.markdown = new IncrementalMarkdownRenderer(postProcessor);
+        this.widthReference = widthReference;
+        MarkdownPane.createHtmlPane(this, tailContainer(""), widthReference);
+    }
+
+    /**
+     * Appends markdown text; must be called on the EDT.
+     *
+     * @param text the text to append
+     */
+    public void append(final String text) {
+        apply(markdown.append(text));
+    }
+
+    /**
+     * Shows the given markdown, appending to the current view when the text
+     * only grew and reloading it otherwise; must be called on the EDT.
+     *
+     * @param text the full markdown text
+     */
+    public void update(final String text) {
+        final List<String> fragments = markdown.update(text);
+        if (fragments == null) {
+            reload();
+        } else {
+            apply(fragments);
+        }
+    }
+
+    public String getMarkdown() {
+        return markdown.getSource();
+    }
+
+    private void apply(final List<String> fragments) {
+        final HTMLDocument doc = (HTMLDocument) getDocument();
+        final Element tail = doc.getElement(TAIL_ID);
+        if (tail == null) {
+            reload();
+            return;
+        }
+        try {
+            for (String fragment : fragments) {
+                doc.insertBeforeStart(tail, fragment);
+            }
+            final String html = markdown.tail();
+            doc.setInnerHTML(tail, html.isEmpty() ? "<p></p>" : html);
+        } catch (BadLocationException | IOException x) {
+            LOG.log(Level.FINE, "incremental update failed, reloading the content", x);
+            reload();
+        }
+    }
+
+    private void reload() {
+        setText(getHTMLContent(
+            getHtmlWrapWidth(widthReference),
+            markdown.getCommittedHtml() + tailContainer(markdown.tail())
+        ));
+    }
+
+    private static String tailContainer(final String html) {
+        return "<div id=\"" + TAIL_ID + "\">" + html + "</div>";
+    }
+}
@@ -25,6 +25,7 @@ import static com.sun.source.tree.Tree.Kind.INTERFACE;
 import static com.sun.source.tree.Tree.Kind.METHOD;
 import com.sun.source.util.TreePath;
 import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.model.chat.ChatModel;
 import dev.langchain4j.model.chat.response.ChatResponse;
 import io.github.jeddict.ai.JeddictUpdateManager;
 import io.github.jeddict.ai.agent.AbstractTool;
@@ -53,8 +54,13 @@ import io.github.jeddict.ai.components.MessageContextComponentAdapter;
 import static io.github.jeddict.ai.components.QueryPane.createIconButton;
 import static io.github.jeddict.ai.components.QueryPane.createStyledComboBox;
 import io.github.jeddict.ai.components.TokenUsageChartDialog;
+import io.github.jeddict.ai.index.ProjectLexicalIndex;
+import io.github.jeddict.ai.index.SemanticIndex;
+import io.github.jeddict.ai.lang.ConversationMemory;
+import io.github.jeddict.ai.lang.DeltaContext;
 import io.github.jeddict.ai.lang.JeddictBrain;
 import io.github.jeddict.ai.lang.JeddictBrainListener;
+import io.github.jeddict.ai.lang.JeddictChatModelBuilder;
 import io.github.jeddict.ai.response.Block;
 import io.github.jeddict.ai.response.Response;
 import io.github.jeddict.ai.review.Review;
@@ -109,9 +115,12 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 import java.util.logging.Logger;
 import java.util.prefs.Preferences;
 import javax.swing.AbstractAction;
@@ -185,6 +194,12 @@ public class AssistantChatManager extends JavaFix {
     private FileObject fileObject;
     private String commitChanges;
     private final PreferencesManager pm = PreferencesManager.getInstance();
+    private final ConversationMemory conversationMemory = new ConversationMemory(
+        pm::getConversationContext, pm::getConversationTokenLimit, this::conversationSummarizer
+    );
+    private ChatModel summaryModel;
+    private String summaryModelKey;
+    private final DeltaContext deltaContext = new DeltaContext();
     private Tree leaf;
     private final Map<String, String> params = new HashMap();
 
@@ -426,6 +441,28 @@ public class AssistantChatManager extends JavaFix {
 
     // --------------------------------------------------------- private methods
 
+    /**
+     * @return the summarizer of older conversation turns, backed by the hints
+     * model, or null if summaries are disabled
+     */
+    private UnaryOperator<String> conversationSummarizer() {
+        return pm.isConversationSummaryEnabled() ? (prompt -> summaryModel().chat(prompt)) : null;
+    }
+
+    /**
+     * @return the hints model, built on first use and again only when the
+     * provider or the model change
+     */
+    private synchronized ChatModel summaryModel() {
+        final String modelName = pm.getModelName();
+        final String key = pm.getProvider() + ":" + modelName;
+        if (summaryModel == null || !key.equals(summaryModelKey)) {
+            summaryModel = new JeddictChatModelBuilder(modelName).build();
+            summaryModelKey = key;
+        }
+        return summaryModel;
+    }
+
     private static final String HOME_PAGE = "<div style='margin:20px; padding:20px; border-radius:10px;'>"
             + "<div style='text-align:center;'>"
             + "👋 <strong>Welcome!</strong><br><br>"
@@ -757,6 +794,11 @@ public class AssistantChatManager extends JavaFix {
             topComponent.repaint();
             initialMessage();
             responseHistory.clear(); // TODO: to be removed once all agents will use buit-in memory
+            conversationMemory.reset();
+            deltaContext.reset();
+            if (sqlCompletion != null) {
+                sqlCompletion.refreshMetaData();
+            }
             questionPane.setText("");
             clearFileTab();
             currentResponseIndex = -1;
@@ -940,7 +982,7 @@ public class AssistantChatManager extends JavaFix {
             fileObjects.addAll(getProjectContextList());
         }
         if (sessionContext != null) {
-            fileObjects.addAll(getFilesContextList(sessionContext));
+            fileObjects.addAll(getFilesContextList(sessionContext, getProject()));
         }
         return fileObjects;
     }
@@ -989,16 +1031,13 @@ public class AssistantChatManager extends JavaFix {
                     currentResponseIndex = currentResponseIndex - 1;
                 }
 
-                final int historySize = pm.getConversationContext();
-                List<Response> prevChatResponses;
-                if (historySize == -1) {
-                    // Entire conversation
-                    prevChatResponses = new ArrayList<>(responseHistory);
-                } else {
-                    int startIndex = Math.max(0, responseHistory.size() - historySize);
-                    prevChatResponses = responseHistory.subList(startIndex, responseHistory.size());
-                }
+                //
+                // the last replies are replayed verbatim, older ones are folded
+                // into a summary (see ConversationMemory)
+                //
+                final List<Response> prevChatResponses = conversationMemory.compact(responseHistory);
                 Set<FileObject> messageContextCopy = new HashSet<>(messageContext);
+                final AtomicReference<String> sentContext = new AtomicReference<>();
                 handler = new JeddictBrainListener(topComponent) {
                     @Override
                     public void onCompleteResponse(ChatResponse response) {
@@ -1012,6 +1051,10 @@ public class AssistantChatManager extends JavaFix {
                             textResponse.insert(0, "```tooling\n" + toolingResponse.toString() + "\n```\n");
                         }
                         final Response r = new Response(question, textResponse.toString(), messageContextCopy);
+                        if (sentContext.get() != null) {
+                            r.setContext(sentContext.get());
+                            deltaContext.commit(r);
+                        }
                         // TODO: to be removed once all agents will use buit-in memory
                         if (responseHistory.isEmpty() || !textResponse.equals(responseHistory.get(responseHistory.size() - 1))) {
                             responseHistory.add(r);
@@ -1039,7 +1082,7 @@ public class AssistantChatManager extends JavaFix {
                 String response;
                 boolean agentEnabled = actionComboBox.getSelectedItem() == AssistantAction.BUILD;
                 if (sqlCompletion != null) {
-                    String context = sqlCompletion.getMetaData();
+                    String context = sqlCompletion.getMetaData(question);
                     String messageScopeContent = getTextFilesContext(messageContext, getProject(), agentEnabled);
                     if (messageScopeContent != null && !messageScopeContent.isEmpty()) {
                         context = context + "\n\n Files:\n" + messageScopeContent;
@@ -1074,24 +1117,59 @@ public class AssistantChatManager extends JavaFix {
                 } else if (projectContext != null || sessionContext != null) {
                     Set<FileObject> mainSessionContext;
                     String sessionScopeContent;
+                    //
+                    // only the parts of the project or of the selected
+                    // packages relevant to the question, once the project is
+                    // indexed (see ProjectLexicalIndex and SemanticIndex)
+                    //
+                    final Project indexedProject = (agentEnabled || pm.getProjectContextTokenBudget() <= 0) ? null
+                                                 : (projectContext != null) ? projectContext
+                                                 : sessionContext.stream().anyMatch(FileObject::isFolder) ? getProject()
+                                                 : null;
+                    final ProjectLexicalIndex index = (indexedProject != null) ? ProjectLexicalIndex.ifBuilt(indexedProject) : null;
+                    final Predicate<String> indexScope = (index == null) ? null
+                                                       : (projectContext != null) ? (path -> true)
+                                                       : index.scope(sessionContext);
+                    final boolean useIndex = indexScope != null;
+                    //
+                    // files already sent in this conversation are sent again
+                    // as diff or referenced by name, the context of previous
+                    // turns being replayed with them
+                    //
+                    final DeltaContext delta = (!agentEnabled && !useIndex && pm.isDeltaContextEnabled()) ? deltaContext : null;
+                    if (delta != null) {
+                        delta.begin(prevChatResponses);
+                    }
                     if (projectContext != null) {
                         mainSessionContext = getProjectContextList();
-                        sessionScopeContent = getProjectContext(mainSessionContext, getProject(), agentEnabled);
                     } else {
                         mainSessionContext = this.sessionContext;
-                        sessionScopeContent = getTextFilesContext(mainSessionContext, getProject(), agentEnabled);
                     }
-                    List<String> sessionScopeImages = getImageFilesContext(mainSessionContext);
+                    if (useIndex) {
+                        sessionScopeContent = index.getContext(
+                            question, pm.getProjectContextTokenBudget(),
+                            SemanticIndex.search(indexedProject, question, 50), indexScope
+                        );
+                    } else if (projectContext != null) {
+                        sessionScopeContent = getProjectContext(mainSessionContext, getProject(), agentEnabled, delta);
+                    } else {
+                        sessionScopeContent = getTextFilesContext(mainSessionContext, getProject(), agentEnabled, delta);
+                    }
+                    List<String> sessionScopeImages = getImageFilesContext(mainSessionContext, getProject());
 
                     Set<FileObject> fitleredMessageContext = new HashSet<>(messageContext);
                     fitleredMessageContext.removeAll(mainSessionContext);
-                    String messageScopeContent = getTextFilesContext(fitleredMessageContext, getProject(), agentEnabled);
-                    List<String> messageScopeImages = getImageFilesContext(fitleredMessageContext);
+                    String messageScopeContent = getTextFilesContext(fitleredMessageContext, getProject(), agentEnabled, delta);
+                    List<String> messageScopeImages = getImageFilesContext(fitleredMessageContext, getProject());
                     List<String> images = new ArrayList<>();
                     images.addAll(sessionScopeImages);
                     images.addAll(messageScopeImages);
+                    final String context = sessionScopeContent + '\n' + messageScopeContent;
+                    if (delta != null) {
+                        sentContext.set(context);
+                    }
                     response = newJeddictBrain(handler, getModelName())
-                        .generateDescription(getProject(), agentEnabled, sessionScopeContent + '\n' + messageScopeContent, null, images, prevChatResponses, question, pm.getSessionRules());
+                        .generateDescription(getProject(), agentEnabled, context, null, images, prevChatResponses, question, pm.getSessionRules());
                 } else if (treePath == null) {
                     response = newJeddictBrain(handler, getModelName())
                         .generateDescription(getProject(), null, null, null, prevChatResponses, question, pm.getSessionRules());
@@ -1219,7 +1297,7 @@ public class AssistantChatManager extends JavaFix {
         final List<AbstractTool> toolsList = List.of(
             new ExecutionTools(
                 basedir, project.getProjectDirectory().getName(),
-                pm.getBuildCommand(project), pm.getTestCommand(project)
+                pm.getBuildCommand(project), pm.getTestCommand(project), project.getLookup()
             ),
             new ExplorationTools(basedir, project.getLookup()),
             new FileSystemTools(basedir),
@@ -0,0 +1,469 @@
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.ai.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * In-memory inverted index ranking chunks of text files with Okapi BM25.
+ * <p>
+ * Each file is split into chunks of a few dozen lines; a chunk is indexed with
+ * the terms of its text and of its file path. Terms are identifiers and words
+ * split at camelCase and snake_case boundaries and lowercased, so that a
+ * question about "user repository" matches {@code UserRepository} and
+ * {@code user_repository}; composite identifiers are indexed as a whole too.
+ * <p>
+ * Files can be added, replaced and removed at any time: removed chunks are
+ * only marked as deleted and skipped by the search, postings and chunk slots
+ * are reclaimed once deleted chunks outnumber the live ones. The index is
+ * thread safe; searches run concurrently with each other.
+ */
+public class Bm25Index {
+
+    public static final double K1 = 1.2;
+    public static final double B = 0.75;
+
+    private static final int MIN_TERM_LENGTH = 2;
+    private static final int MAX_TERM_LENGTH = 64;
+    private static final int MIN_COMPACTION = 1024;
+
+    /**
+     * A range of lines of a file; lines are 1-based and inclusive.
+     */
+    public record Chunk(String path, int startLine, int endLine, String text) {}
+
+    public record Hit(Chunk chunk, double score) {}
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final List<Doc> docs = new ArrayList<>();           // by doc id, null if deleted
+    private final Map<String, int[]> byPath = new HashMap<>();  // doc ids of each path
+    private final Map<String, Postings> postings = new HashMap<>();
+    private int live;
+    private long totalLength;
+
+    /**
+     * Indexes the given file, replacing its previous chunks if any.
+     *
+     * @param path the path of the file, used as key and indexed as well
+     * @param text the content of the file
+     * @param maxLines the maximum number of lines of a chunk
+     */
+    public void put(final String path, final String text, final int maxLines) {
+        final List<Chunk> chunks = chunk(path, text, maxLines);
+        final List<String> pathTerms = tokenize(path);
+
+        //
+        // tokenize outside the lock, it is the expensive part
+        //
+        final List<Doc> added = new ArrayList<>(chunks.size());
+        for (Chunk chunk : chunks) {
+            final Map<String, Integer> tf = new HashMap<>();
+            int length = 0;
+            for (String term : pathTerms) {
+                tf.merge(term, 1, Integer::sum);
+                ++length;
+            }
+            for (String term : tokenize(chunk.text())) {
+                tf.merge(term, 1, Integer::sum);
+                ++length;
+            }
+            final String[] terms = tf.keySet().toArray(String[]::new);
+            final int[] freqs = new int[terms.length];
+            for (int i = 0; i < terms.length; ++i) {
+                freqs[i] = tf.get(terms[i]);
+            }
+            added.add(new Doc(chunk, terms, freqs, length));
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(path);
+            final int[] ids = new int[added.size()];
+            for (int i = 0; i < ids.length; ++i) {
+                ids[i] = addLocked(added.get(i));
+            }
+            byPath.put(path, ids);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the chunks of the given file.
+     *
+     * @param path the path of the file
+     *
+     * @return true if the file was indexed
+     */
+    public boolean remove(final String path) {
+        lock.writeLock().lock();
+        try {
+            final boolean removed = removeLocked(path);
+            compactIfNeeded();
+            return removed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes all files whose path matches the given predicate (e.g. all files
+     * of a deleted folder).
+     *
+     * @param filter the paths to remove
+     */
+    public void removeIf(final Predicate<String> filter) {
+        lock.writeLock().lock();
+        try {
+            for (String path : new ArrayList<>(byPath.keySet())) {
+                if (filter.test(path)) {
+                    removeLocked(path);
+                }
+            }
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            docs.clear();
+            byPath.clear();
+            postings.clear();
+            live = 0;
+            totalLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of indexed files
+     */
+    public int files() {
+        lock.readLock().lock();
+        try {
+            return byPath.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of indexed chunks
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return live;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the chunks most relevant to the given query, best first.
+     *
+     * @param query free text
+     * @param k the maximum number of hits
+     *
+     * @return the hits, possibly empty
+     */
+    public List<Hit> search(final String query, final int k) {
+        final Set<String> terms = new LinkedHashSet<>(tokenize(query));
+        if (terms.isEmpty() || k <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            if (live == 0) {
+                return List.of();
+            }
+            final double avgLength = (double) totalLength / live;
+            final Map<Integer, double[]> scores = new HashMap<>();
+            for (String term : terms) {
+                final Postings p = postings.get(term);
+                if (p == null || p.live == 0) {
+                    continue;
+                }
+                final double idf = Math.log(1 + (live - p.live + 0.5) / (p.live + 0.5));
+                for (int i = 0; i < p.size; ++i) {
+                    final Doc doc = docs.get(p.docs[i]);
+                    if (doc == null) {
+                        continue;
+                    }
+                    final int tf = p.freqs[i];
+                    final double norm = K1 * (1 - B + B * doc.length / avgLength);
+                    scores.computeIfAbsent(p.docs[i], id -> new double[1])[0]
+                        += idf * tf * (K1 + 1) / (tf + norm);
+                }
+            }
+
+            final PriorityQueue<Hit> top = new PriorityQueue<>(k + 1,
+                (h1, h2) -> Double.compare(h1.score(), h2.score())
+            );
+            for (Map.Entry<Integer, double[]> e : scores.entrySet()) {
+                final double score = e.getValue()[0];
+                if (top.size() < k || score > top.peek().score()) {
+                    top.add(new Hit(docs.get(e.getKey()).chunk, score));
+                    if (top.size() > k) {
+                        top.poll();
+                    }
+                }
+            }
+
+            final List<Hit> hits = new ArrayList<>(top);
+            hits.sort((h1, h2) -> Double.compare(h2.score(), h1.score()));
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Splits text into terms: runs of letters and digits, split further at
+     * underscores and camelCase boundaries ({@code parseHTTPResponse} gives
+     * {@code parse}, {@code http}, {@code response} and
+     * {@code parsehttpresponse}). Terms are lowercased; one letter terms and
+     * numbers are dropped.
+     *
+     * @param text the text to split
+     *
+     * @return the terms in order of appearance, with repetitions
+     */
+    public static List<String> tokenize(final CharSequence text) {
+        final List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        final int length = text.length();
+        int i = 0;
+        while (i < length) {
+            if (!isWordChar(text.charAt(i))) {
+                ++i;
+                continue;
+            }
+            final int start = i;
+            while (i < length && isWordChar(text.charAt(i))) {
+                ++i;
+            }
+            word(text, start, i, terms);
+        }
+        return terms;
+    }
+
+    /**
+     * Splits text into chunks of at most {@code maxLines} lines, preferring to
+     * end a chunk at a blank line once it has three quarters of the lines.
+     *
+     * @param path the path of the file
+     * @param text the content of the file
+     * @param maxLines the maximum number of lines of a chunk
+     *
+     * @return the chunks, empty for blank text
+     */
+    public static List<Chunk> chunk(final String path, final String text, final int maxLines) {
+        final List<Chunk> chunks = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return chunks;
+        }
+        final int max = Math.max(1, maxLines);
+        final int soft = Math.max(1, max * 3 / 4);
+
+        int line = 1, chunkLine = 1, chunkStart = 0, lineStart = 0;
+        final int length = text.length();
+        while (lineStart < length) {
+            int lineEnd = text.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                lineEnd = length;
+            }
+            final int lines = line - chunkLine + 1;
+            if (lines >= max || (lines >= soft && text.substring(lineStart, lineEnd).isBlank())) {
+                addChunk(chunks, path, text, chunkStart, Math.min(lineEnd + 1, length), chunkLine, line);
+                chunkStart = lineEnd + 1;
+                chunkLine = line + 1;
+            }
+            lineStart = lineEnd + 1;
+            ++line;
+        }
+        if (chunkStart < length) {
+            addChunk(chunks, path, text, chunkStart, length, chunkLine, line - 1);
+        }
+        return chunks;
+    }
+
+    // --------------------------------------------------------- private methods
+
+    private int addLocked(final Doc doc) {
+        final int id = docs.size();
+        docs.add(doc);
+        for (int i = 0; i < doc.terms.length; ++i) {
+            postings.computeIfAbsent(doc.terms[i], t -> new Postings()).add(id, doc.freqs[i]);
+        }
+        ++live;
+        totalLength += doc.length;
+        return id;
+    }
+
+    private boolean removeLocked(final String path) {
+        final int[] ids = byPath.remove(path);
+        if (ids == null) {
+            return false;
+        }
+        for (int id : ids) {
+            final Doc doc = docs.set(id, null);
+            for (String term : doc.terms) {
+                final Postings p = postings.get(term);
+                if (--p.live == 0) {
+                    postings.remove(term);
+                }
+            }
+            --live;
+            totalLength -= doc.length;
+        }
+        return true;
+    }
+
+    /**
+     * Renumbers the live chunks and rebuilds the postings once deleted chunks
+     * take more room than the live ones.
+     */
+    private void compactIfNeeded() {
+        final int deleted = docs.size() - live;
+        if (deleted < MIN_COMPACTION || deleted < live) {
+            return;
+        }
+
+        final List<Doc> old = new ArrayList<>(docs);
+        final Map<String, int[]> oldByPath = new HashMap<>(byPath);
+        docs.clear();
+        byPath.clear();
+        postings.clear();
+        live = 0;
+        totalLength = 0;
+        for (Map.Entry<String, int[]> e : oldByPath.entrySet()) {
+            final int[] ids = e.getValue();
+            for (int i = 0; i < ids.length; ++i) {
+                ids[i] = addLocked(old.get(ids[i]));
+            }
+            byPath.put(e.getKey(), ids);
+        }
+    }
+
+    private static void addChunk(
+        final List<Chunk> chunks, final String path, final String text,
+        final int start, final int end, final int startLine, final int endLine
+    ) {
+        final String chunk = text.substring(start, end);
+        if (!chunk.isBlank()) {
+            chunks.add(new Chunk(path, startLine, endLine, chunk));
+        }
+    }
+
+    private static void word(final CharSequence text, final int start, final int end, final List<String> terms) {
+        int parts = 0, partStart = start;
+        for (int i = start; i <= end; ++i) {
+            boolean split = (i == end);
+            if (!split) {
+                final char c = text.charAt(i);
+                if (c == '_') {
+                    parts += part(text, partStart, i, terms);
+                    partStart = i + 1;
+                    continue;
+                }
+                if (i > partStart && Character.isUpperCase(c)) {
+                    final char prev = text.charAt(i - 1);
+                    //
+                    // fooBar -> foo|Bar, HTTPResponse -> HTTP|Response
+                    //
+                    split = Character.isLowerCase(prev) || Character.isDigit(prev)
+                         || (Character.isUpperCase(prev) && i + 1 < end && Character.isLowerCase(text.charAt(i + 1)));
+                }
+            }
+            if (split) {
+                parts += part(text, partStart, i, terms);
+                partStart = i;
+            }
+        }
+        if (parts > 1) {
+            term(text.subSequence(start, end).toString().replace("_", ""), terms);
+        }
+    }
+
+    private static int part(final CharSequence text, final int start, final int end, final List<String> terms) {
+        return (end > start && term(text.subSequence(start, end).toString(), terms)) ? 1 : 0;
+    }
+
+    private static boolean term(final String s, final List<String> terms) {
+        if (s.length() < MIN_TERM_LENGTH || s.length() > MAX_TERM_LENGTH || isNumber(s)) {
+            return false;
+        }
+        terms.add(s.toLowerCase());
+        return true;
+    }
+
+    private static boolean isNumber(final String s) {
+        for (int i = 0; i < s.length(); ++i) {
+            if (!Character.isDigit(s.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isWordChar(final char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    private record Doc(Chunk chunk, String[] terms, int[] freqs, int length) {}
+
+    /**
+     * Doc ids and term frequencies of a term, in insertion order; postings of
+     * deleted chunks stay until the next compaction.
+     */
+    private static final class Postings {
+
+        private int[] docs = new int[4];
+        private int[] freqs = new int[4];
+        private int size;
+        private int live;
+
+        private void add(final int doc, final int freq) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            docs[size] = doc;
+            freqs[size++] = freq;
+            ++live;
+        }
+    }
+}
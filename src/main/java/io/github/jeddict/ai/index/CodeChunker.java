@@ -0,0 +1,141 @@
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.ai.index;
+
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.LineMap;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.util.SourcePositions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.netbeans.api.java.source.CompilationController;
+import org.netbeans.api.java.source.JavaSource;
+import org.openide.filesystems.FileObject;
+
+/**
+ * Splits source files into chunks to embed: for java files one chunk per
+ * method or constructor and one per class with its declaration and fields (as
+ * {@code ProjectClassScanner} sees classes), for any other file or if the java
+ * file can not be parsed, windows of lines as {@link Bm25Index#chunk}.
+ * <p>
+ * Chunks longer than twice the maximum number of lines are split further in
+ * windows of lines, so that no chunk is too long for the embedding model.
+ */
+public class CodeChunker {
+
+    private static final Logger LOG = Logger.getLogger(CodeChunker.class.getName());
+
+    private final int maxLines;
+
+    public CodeChunker(final int maxLines) {
+        this.maxLines = Math.max(1, maxLines);
+    }
+
+    /**
+     * @param file the file
+     * @param path the path of the file used in the chunks
+     * @param text the content of the file
+     *
+     * @return the chunks of the file, in order of lines
+     */
+    public List<Bm25Index.Chunk> chunk(final FileObject file, final String path, final String text) {
+        if ("java".equals(file.getExt())) {
+            try {
+                final JavaSource javaSource = JavaSource.forFileObject(file);
+                if (javaSource != null) {
+                    final List<Bm25Index.Chunk> chunks = new ArrayList<>();
+                    javaSource.runUserActionTask((CompilationController cc) -> {
+                        cc.toPhase(JavaSource.Phase.PARSED);
+                        final CompilationUnitTree cu = cc.getCompilationUnit();
+                        final SourcePositions positions = cc.getTrees().getSourcePositions();
+                        for (Tree type : cu.getTypeDecls()) {
+                            if (type instanceof ClassTree classTree) {
+                                chunkClass(cu, positions, cc.getText(), path, classTree, chunks);
+                            }
+                        }
+                    }, true);
+                    if (!chunks.isEmpty()) {
+                        chunks.sort((c1, c2) -> Integer.compare(c1.startLine(), c2.startLine()));
+                        return chunks;
+                    }
+                }
+            } catch (Exception x) {
+                LOG.log(Level.FINE, "unable to parse " + path + ", splitting it by lines", x);
+            }
+        }
+        return Bm25Index.chunk(path, text, maxLines);
+    }
+
+    // --------------------------------------------------------- private methods
+
+    private void chunkClass(
+        final CompilationUnitTree cu, final SourcePositions positions, final String text,
+        final String path, final ClassTree classTree, final List<Bm25Index.Chunk> chunks
+    ) {
+        final long classStart = positions.getStartPosition(cu, classTree);
+        long headerEnd = positions.getEndPosition(cu, classTree);
+
+        for (Tree member : classTree.getMembers()) {
+            if (member instanceof MethodTree || member instanceof ClassTree) {
+                final long start = positions.getStartPosition(cu, member);
+                if (start < 0) {
+                    continue; // generated, e.g. the default constructor
+                }
+                final LineMap lines = cu.getLineMap();
+                headerEnd = Math.min(headerEnd, lines.getStartPosition(lines.getLineNumber(start)) - 1);
+                if (member instanceof ClassTree inner) {
+                    chunkClass(cu, positions, text, path, inner, chunks);
+                } else {
+                    add(cu, text, path, start, positions.getEndPosition(cu, member), chunks);
+                }
+            }
+        }
+        add(cu, text, path, classStart, headerEnd, chunks);
+    }
+
+    private void add(
+        final CompilationUnitTree cu, final String text, final String path,
+        final long start, final long end, final List<Bm25Index.Chunk> chunks
+    ) {
+        if (start < 0 || end <= start) {
+            return;
+        }
+        final LineMap lines = cu.getLineMap();
+        final int startLine = (int) lines.getLineNumber(start);
+        final int endLine = (int) lines.getLineNumber(end);
+        final int from = (int) lines.getStartPosition(startLine);
+        final int to = (endLine < lines.getLineNumber(text.length()))
+                     ? (int) lines.getStartPosition(endLine + 1) : text.length();
+
+        final String chunk = text.substring(from, to);
+        if (chunk.isBlank()) {
+            return;
+        }
+        if (endLine - startLine + 1 <= 2 * maxLines) {
+            chunks.add(new Bm25Index.Chunk(path, startLine, endLine, chunk));
+        } else {
+            for (Bm25Index.Chunk c : Bm25Index.chunk(path, chunk, maxLines)) {
+                chunks.add(new Bm25Index.Chunk(
+                    path, c.startLine() + startLine - 1, c.endLine() + startLine - 1, c.text()
+                ));
+            }
+        }
+    }
+}
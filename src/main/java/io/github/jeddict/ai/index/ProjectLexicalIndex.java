@@ -0,0 +1,487 @@
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.ai.index;
+
+import io.github.jeddict.ai.response.TokenHandler;
+import io.github.jeddict.ai.settings.PreferencesManager;
+import io.github.jeddict.ai.util.FileContentCache;
+import io.github.jeddict.ai.util.ProjectUtil;
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.function.Predicate;
+import java.util.logging.Logger;
+import org.netbeans.api.project.Project;
+import org.openide.filesystems.FileAttributeEvent;
+import org.openide.filesystems.FileChangeListener;
+import org.openide.filesystems.FileEvent;
+import org.openide.filesystems.FileObject;
+import org.openide.filesystems.FileRenameEvent;
+import org.openide.filesystems.FileUtil;
+import org.openide.util.RequestProcessor;
+
+/**
+ * Keeps a {@link Bm25Index} of the source files of a project (as selected by
+ * {@code getFileExtensionListToInclude()} and {@code getExcludeDirs()}) and
+ * picks the chunks most relevant to a question within a token budget. A
+ * {@link TrigramIndex} of the same files is kept too, for text searches.
+ * <p>
+ * The index is built in background on first use and then kept up to date by a
+ * recursive file listener on the project directory, so only created, changed,
+ * renamed and deleted files are read again. Build and updates run one after
+ * the other in the same thread, the updates fired while building being done
+ * after it. There is one index per project directory; it is rebuilt if the
+ * included extensions or excluded directories change.
+ */
+public class ProjectLexicalIndex {
+
+    private static final Logger LOG = Logger.getLogger(ProjectLexicalIndex.class.getName());
+
+    public static final int CHUNK_LINES = 60;
+
+    private static final int MAX_HITS = 200;
+    private static final int RRF_K = 60;
+    private static final RequestProcessor RP = new RequestProcessor(ProjectLexicalIndex.class.getName(), 1);
+    private static final Map<FileObject, ProjectLexicalIndex> INDEXES = new WeakHashMap<>();
+
+    private final Reference<FileObject> root;
+    private final Set<String> extensions;
+    private final Set<String> excludes;
+    private final Bm25Index index = new Bm25Index();
+    private final TrigramIndex trigrams = new TrigramIndex();
+    private final FileChangeListener listener = new Listener();
+
+    private RequestProcessor.Task building;
+    private volatile boolean built;
+    private boolean closed;
+
+    ProjectLexicalIndex(final FileObject root, final Set<String> extensions, final Set<String> excludes) {
+        this.root = new WeakReference<>(root); // the map of indexes is weakly keyed by root
+        this.extensions = extensions;
+        this.excludes = excludes;
+    }
+
+    /**
+     * Returns the index of the given project, built and listening to changes;
+     * waits for the index to be built.
+     *
+     * @param project the project
+     *
+     * @return the index
+     */
+    public static ProjectLexicalIndex forProject(final Project project) {
+        return forDirectory(project.getProjectDirectory());
+    }
+
+    /**
+     * Returns the index of the given project directory, built and listening
+     * to changes; waits for the index to be built.
+     *
+     * @param dir the project directory
+     *
+     * @return the index
+     */
+    public static ProjectLexicalIndex forDirectory(final FileObject dir) {
+        final ProjectLexicalIndex projectIndex = index(dir);
+        projectIndex.build().waitFinished();
+
+        return projectIndex;
+    }
+
+    /**
+     * Returns the index of the given project if already built, otherwise
+     * starts building it in background.
+     *
+     * @param project the project
+     *
+     * @return the index or null if not built yet
+     */
+    public static ProjectLexicalIndex ifBuilt(final Project project) {
+        final ProjectLexicalIndex projectIndex = index(project.getProjectDirectory());
+        projectIndex.build();
+
+        return projectIndex.built ? projectIndex : null;
+    }
+
+    /**
+     * Returns the index of the given project directory, a new one if none or
+     * if the included extensions or excluded directories changed.
+     *
+     * @param dir the project directory
+     *
+     * @return the index, possibly not built
+     */
+    private static ProjectLexicalIndex index(final FileObject dir) {
+        final PreferencesManager pm = PreferencesManager.getInstance();
+        final Set<String> extensions = new HashSet<>(pm.getFileExtensionListToInclude());
+        final Set<String> excludes = new HashSet<>(pm.getExcludeDirs());
+
+        ProjectLexicalIndex projectIndex;
+        synchronized (INDEXES) {
+            projectIndex = INDEXES.get(dir);
+            if (projectIndex == null
+                || !projectIndex.extensions.equals(extensions)
+                || !projectIndex.excludes.equals(excludes)) {
+                if (projectIndex != null) {
+                    projectIndex.close();
+                }
+                projectIndex = new ProjectLexicalIndex(dir, extensions, excludes);
+                INDEXES.put(dir, projectIndex);
+            }
+        }
+
+        return projectIndex;
+    }
+
+    /**
+     * Returns the chunks most relevant to the question, formatted as context
+     * for the AI, as many as fit in the given number of tokens. Chunks are
+     * grouped by file, files in order of relevance and chunks in order of
+     * lines.
+     *
+     * @param question the question of the user
+     * @param tokenBudget the maximum number of tokens of the context
+     *
+     * @return the context, empty if nothing is relevant or if the project
+     * directory has been collected
+     */
+    public String getContext(final String question, final int tokenBudget) {
+        return getContext(question, tokenBudget, List.of());
+    }
+
+    /**
+     * As {@link #getContext(String, int)}, ranking chunks by both the lexical
+     * index and the given hits (e.g. of a {@link SemanticIndex}) with
+     * reciprocal rank fusion. A chunk mostly covered by a chunk already
+     * selected is skipped.
+     *
+     * @param question the question of the user
+     * @param tokenBudget the maximum number of tokens of the context
+     * @param otherHits hits of another search for the same question, best
+     * first
+     *
+     * @return the context, empty if nothing is relevant or if the project
+     * directory has been collected
+     */
+    public String getContext(final String question, final int tokenBudget, final List<Bm25Index.Hit> otherHits) {
+        return getContext(question, tokenBudget, otherHits, path -> true);
+    }
+
+    /**
+     * As {@link #getContext(String, int, List)}, with chunks of the files
+     * accepted by the given filter only (e.g. of a {@link #scope(Collection)}).
+     *
+     * @param question the question of the user
+     * @param tokenBudget the maximum number of tokens of the context
+     * @param otherHits hits of another search for the same question, best
+     * first
+     * @param paths the filter of the paths, relative to the project directory
+     *
+     * @return the context, empty if nothing is relevant or if the project
+     * directory has been collected
+     */
+    public String getContext(
+        final String question, final int tokenBudget,
+        final List<Bm25Index.Hit> otherHits, final Predicate<String> paths
+    ) {
+        if (root.get() == null) {
+            return "";
+        }
+        final Map<String, List<Bm25Index.Chunk>> selected = new LinkedHashMap<>();
+        int tokens = 0;
+        for (Bm25Index.Chunk chunk : fuse(filter(index.search(question, MAX_HITS), paths), filter(otherHits, paths))) {
+            final List<Bm25Index.Chunk> fileChunks = selected.getOrDefault(chunk.path(), List.of());
+            if (isCovered(chunk, fileChunks)) {
+                continue;
+            }
+            final int chunkTokens = TokenHandler.countTokens(chunk.text()) + 16; // plus header
+            if (tokens + chunkTokens > tokenBudget) {
+                continue; // a smaller chunk may still fit
+            }
+            tokens += chunkTokens;
+            selected.computeIfAbsent(chunk.path(), p -> new ArrayList<>()).add(chunk);
+        }
+
+        final StringBuilder context = new StringBuilder();
+        for (List<Bm25Index.Chunk> chunks : selected.values()) {
+            chunks.sort((c1, c2) -> Integer.compare(c1.startLine(), c2.startLine()));
+            for (Bm25Index.Chunk chunk : chunks) {
+                context.append("File: ").append(chunk.path())
+                       .append(" (lines ").append(chunk.startLine()).append('-').append(chunk.endLine()).append(")\n")
+                       .append(chunk.text());
+                if (!chunk.text().endsWith("\n")) {
+                    context.append('\n');
+                }
+                context.append('\n');
+            }
+        }
+
+        final int total = tokens;
+        LOG.finest(() -> "selected " + total + " tokens from " + selected.size() + " files");
+
+        return context.toString();
+    }
+
+    /**
+     * Returns a filter of the paths of the given files and of the files in
+     * the given folders.
+     *
+     * @param files the files and folders
+     *
+     * @return the filter or null if none of the files is in the project or
+     * if the project directory has been collected
+     */
+    public Predicate<String> scope(final Collection<FileObject> files) {
+        final Set<String> paths = new HashSet<>();
+        for (FileObject file : files) {
+            final String path = relativePath(file);
+            if (path != null) {
+                paths.add(path);
+            }
+        }
+        if (paths.isEmpty()) {
+            return null;
+        }
+        if (paths.contains("")) {
+            return path -> true; // the whole project
+        }
+        return path -> {
+            for (String p : paths) {
+                if (path.equals(p) || (path.startsWith(p) && path.charAt(p.length()) == '/')) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+
+    public Bm25Index getIndex() {
+        return index;
+    }
+
+    public TrigramIndex getTrigramIndex() {
+        return trigrams;
+    }
+
+    /**
+     * @return the project directory, null if collected
+     */
+    public FileObject getRoot() {
+        return root.get();
+    }
+
+    /**
+     * @return true once the index is built
+     */
+    public boolean isBuilt() {
+        return built;
+    }
+
+    /**
+     * Stops listening to file changes; the index is not updated any more.
+     */
+    public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+        final FileObject dir = root.get();
+        if (dir != null) {
+            dir.removeRecursiveListener(listener);
+        }
+    }
+
+    // --------------------------------------------------------- private methods
+
+    /**
+     * Reciprocal rank fusion: a chunk scores the sum of 1 / (60 + rank) over
+     * the rankings it appears in.
+     */
+    private static List<Bm25Index.Chunk> fuse(final List<Bm25Index.Hit> hits1, final List<Bm25Index.Hit> hits2) {
+        if (hits2.isEmpty()) {
+            return hits1.stream().map(Bm25Index.Hit::chunk).toList();
+        }
+        final Map<String, Bm25Index.Chunk> chunks = new HashMap<>();
+        final Map<String, Double> scores = new HashMap<>();
+        for (List<Bm25Index.Hit> hits : List.of(hits1, hits2)) {
+            for (int rank = 0; rank < hits.size(); ++rank) {
+                final Bm25Index.Chunk chunk = hits.get(rank).chunk();
+                final String key = chunk.path() + ':' + chunk.startLine() + '-' + chunk.endLine();
+                chunks.putIfAbsent(key, chunk);
+                scores.merge(key, 1.0 / (RRF_K + rank + 1), Double::sum);
+            }
+        }
+        return scores.entrySet().stream()
+            .sorted((e1, e2) -> Double.compare(e2.getValue(), e1.getValue()))
+            .map(e -> chunks.get(e.getKey()))
+            .toList();
+    }
+
+    private static List<Bm25Index.Hit> filter(final List<Bm25Index.Hit> hits, final Predicate<String> paths) {
+        return hits.stream().filter(hit -> paths.test(hit.chunk().path())).toList();
+    }
+
+    /**
+     * @return true if at least half of the lines of the chunk are in the
+     * given chunks of the same file
+     */
+    private static boolean isCovered(final Bm25Index.Chunk chunk, final List<Bm25Index.Chunk> others) {
+        final int lines = chunk.endLine() - chunk.startLine() + 1;
+        int covered = 0;
+        for (Bm25Index.Chunk other : others) {
+            covered += Math.max(0,
+                Math.min(chunk.endLine(), other.endLine()) - Math.max(chunk.startLine(), other.startLine()) + 1
+            );
+        }
+        return 2 * covered >= lines;
+    }
+
+    /**
+     * Starts building the index in the indexing thread, if not started yet.
+     *
+     * @return the build task
+     */
+    private synchronized RequestProcessor.Task build() {
+        if (building == null) {
+            building = RP.post(this::doBuild);
+        }
+        return building;
+    }
+
+    private void doBuild() {
+        final FileObject dir = root.get();
+        synchronized (this) {
+            if (closed || dir == null) {
+                return;
+            }
+            //
+            // listen first so that no change gets lost while building: the
+            // updates are queued in this thread after the build
+            //
+            dir.addRecursiveListener(listener);
+        }
+        final long start = System.currentTimeMillis();
+
+        final Set<FileObject> files = new HashSet<>();
+        ProjectUtil.collectFiles(dir, dir, files, extensions, excludes);
+        for (FileObject file : files) {
+            update(file);
+        }
+        built = true;
+
+        LOG.fine(() -> "indexed " + index.files() + " files (" + index.size() + " chunks) of "
+                + dir.getPath() + " in " + (System.currentTimeMillis() - start) + "ms");
+    }
+
+    private void update(final FileObject file) {
+        final String path = relativePath(file);
+        if (path == null || !file.isValid()) {
+            return;
+        }
+        if (file.isFolder()) {
+            if (!ProjectUtil.isExcluded(path, excludes)) {
+                final Set<FileObject> files = new HashSet<>();
+                ProjectUtil.collectFiles(root.get(), file, files, extensions, excludes);
+                files.forEach(this::update);
+            }
+            return;
+        }
+        if (!extensions.contains(file.getExt()) || ProjectUtil.isExcluded(path, excludes)) {
+            return;
+        }
+        //
+        // read past the cache of contents: a whole project would evict the
+        // other caches
+        //
+        final String text = FileContentCache.read(file);
+        if (text == null) {
+            index.remove(path);
+            trigrams.remove(path);
+        } else {
+            index.put(path, text, CHUNK_LINES);
+            trigrams.put(path, text);
+        }
+    }
+
+    private void remove(final String path) {
+        if (path != null) {
+            final String folder = path + '/';
+            index.removeIf(p -> p.equals(path) || p.startsWith(folder));
+            trigrams.removeIf(p -> p.equals(path) || p.startsWith(folder));
+        }
+    }
+
+    private String relativePath(final FileObject file) {
+        final FileObject dir = root.get();
+        return (dir != null) ? FileUtil.getRelativePath(dir, file) : null;
+    }
+
+    /**
+     * Updates the index in a background thread, one event at a time in the
+     * order they are fired.
+     */
+    private class Listener implements FileChangeListener {
+
+        @Override
+        public void fileFolderCreated(final FileEvent fe) {
+            RP.post(() -> update(fe.getFile()));
+        }
+
+        @Override
+        public void fileDataCreated(final FileEvent fe) {
+            RP.post(() -> update(fe.getFile()));
+        }
+
+        @Override
+        public void fileChanged(final FileEvent fe) {
+            RP.post(() -> update(fe.getFile()));
+        }
+
+        @Override
+        public void fileDeleted(final FileEvent fe) {
+            final String path = relativePath(fe.getFile());
+            RP.post(() -> remove(path));
+        }
+
+        @Override
+        public void fileRenamed(final FileRenameEvent fe) {
+            final FileObject file = fe.getFile();
+            final String path = relativePath(file);
+            if (path == null) {
+                return;
+            }
+            final String ext = fe.getExt();
+            final String oldName = fe.getName() + ((ext == null || ext.isEmpty()) ? "" : "." + ext);
+            final int slash = path.lastIndexOf('/');
+            final String oldPath = (slash < 0) ? oldName : path.substring(0, slash + 1) + oldName;
+            RP.post(() -> {
+                remove(oldPath);
+                update(file);
+            });
+        }
+
+        @Override
+        public void fileAttributeChanged(final FileAttributeEvent fe) {
+        }
+    }
+}
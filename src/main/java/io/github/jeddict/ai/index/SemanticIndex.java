@@ -0,0 +1,738 @@
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.ai.index;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import io.github.jeddict.ai.lang.JeddictEmbeddingModelBuilder;
+import io.github.jeddict.ai.settings.PreferencesManager;
+import io.github.jeddict.ai.util.FileContentCache;
+import io.github.jeddict.ai.util.ProjectUtil;
+import java.beans.PropertyChangeListener;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import org.netbeans.api.project.Project;
+import org.netbeans.api.project.ui.OpenProjects;
+import org.openide.filesystems.FileAttributeEvent;
+import org.openide.filesystems.FileChangeListener;
+import org.openide.filesystems.FileEvent;
+import org.openide.filesystems.FileObject;
+import org.openide.filesystems.FileRenameEvent;
+import org.openide.filesystems.FileUtil;
+import org.openide.modules.Places;
+import org.openide.util.RequestProcessor;
+
+/**
+ * Semantic search of the sources of a project: files are split into classes
+ * and methods by {@link CodeChunker}, each chunk is embedded with the
+ * configured {@link EmbeddingModel} and the vectors are kept in a
+ * {@link VectorStore} on disk, next to a list of the chunks they belong to.
+ * <p>
+ * {@link #update} is incremental: files with the same digest as at the last
+ * update are skipped and, in changed files, only chunks whose text changed
+ * are embedded again (moved chunks keep their vector). New chunks are sent to
+ * the embedding model in batches of {@value #BATCH_SIZE}.
+ * <p>
+ * The index of a project is built in a background thread, searches giving no
+ * hits until it is ready, and then kept up to date by a recursive file
+ * listener on the project directory: the files created, changed, renamed or
+ * deleted are indexed together {@value #REFRESH_DELAY}ms after the last
+ * change. The index is closed when the project is closed.
+ */
+public class SemanticIndex implements Closeable {
+
+    private static final Logger LOG = Logger.getLogger(SemanticIndex.class.getName());
+
+    public static final int BATCH_SIZE = 32;
+    public static final int REFRESH_DELAY = 1000;
+
+    private static final String VECTORS = "vectors.bin";
+    private static final String CHUNKS = "chunks.tsv";
+    private static final Map<String, SemanticIndex> INDEXES = new HashMap<>(); // guarded by itself
+    private static final PropertyChangeListener PROJECTS = e -> {
+        if (OpenProjects.PROPERTY_OPEN_PROJECTS.equals(e.getPropertyName())) {
+            retain(Stream.of(OpenProjects.getDefault().getOpenProjects()).map(Project::getProjectDirectory).toList());
+        }
+    };
+    private static boolean listening; // guarded by INDEXES
+    private static final RequestProcessor RP = new RequestProcessor(SemanticIndex.class.getName(), 1);
+
+    private record Entry(int slot, String path, int startLine, int endLine, String digest) {}
+
+    private final Path directory;
+    private final EmbeddingModel model;
+    private final CodeChunker chunker = new CodeChunker(ProjectLexicalIndex.CHUNK_LINES);
+
+    private final Object updating = new Object();
+    private VectorStore store;
+    private FileObject root;
+    private boolean closed;
+    private final Map<String, List<Entry>> entries = new HashMap<>();   // by path
+    private final Map<String, String> fileDigests = new HashMap<>();    // by path
+
+    //
+    // the watched directory and its changes not indexed yet, guarded by changed
+    //
+    private final FileChangeListener listener = new Listener();
+    private final RequestProcessor.Task refresh = RP.create(this::refresh);
+    private final Set<FileObject> changed = new HashSet<>();
+    private final Set<String> removed = new HashSet<>();
+    private FileObject watched;
+    private Set<String> extensions, excludes;
+    private int generation;
+    private volatile boolean ready;
+
+    /**
+     * @param directory where vectors and chunks are stored
+     * @param model the embedding model
+     *
+     * @throws IOException if the stored index can not be read
+     */
+    public SemanticIndex(final Path directory, final EmbeddingModel model) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.model = model;
+        load();
+    }
+
+    /**
+     * Returns the chunks of the project sources semantically closest to the
+     * question; the index of the project is built in the background at the
+     * first search, which gives no hits until it is ready. Any failure (e.g.
+     * the embedding endpoint not reachable) is logged and gives no hits.
+     *
+     * @param project the project
+     * @param question the question of the user
+     * @param k the maximum number of hits
+     *
+     * @return the hits, empty if no embedding model is configured or the
+     * index is not ready yet
+     */
+    public static List<Bm25Index.Hit> search(final Project project, final String question, final int k) {
+        final PreferencesManager pm = PreferencesManager.getInstance();
+        final String modelName = pm.getEmbeddingModel();
+        if (modelName == null || modelName.isBlank()) {
+            return List.of();
+        }
+        try {
+            final FileObject dir = project.getProjectDirectory();
+            final String key = FileContentCache.digest(dir.getPath() + '\n' + pm.getProvider() + '\n' + modelName);
+            SemanticIndex index;
+            synchronized (INDEXES) {
+                if (!listening) {
+                    OpenProjects.getDefault().addPropertyChangeListener(PROJECTS);
+                    listening = true;
+                }
+                index = INDEXES.get(key);
+                if (index == null) {
+                    final EmbeddingModel model = new JeddictEmbeddingModelBuilder(modelName).build();
+                    if (model == null) {
+                        return List.of();
+                    }
+                    index = new SemanticIndex(Places.getCacheSubdirectory("jeddict/embeddings/" + key).toPath(), model);
+                    INDEXES.put(key, index);
+                }
+            }
+            index.watch(
+                dir, new HashSet<>(pm.getFileExtensionListToInclude()), new HashSet<>(pm.getExcludeDirs())
+            );
+            if (!index.isReady()) {
+                LOG.fine(() -> "semantic index of " + dir.getPath() + " not ready yet");
+                return List.of();
+            }
+            return index.search(question, k);
+        } catch (Exception x) {
+            LOG.log(Level.WARNING, "semantic search not available: " + x.getMessage(), x);
+            return List.of();
+        }
+    }
+
+    /**
+     * Closes the indexes of the projects not in the given directories, e.g.
+     * when projects are closed, so that their stores are unmapped and their
+     * directories not watched any more.
+     *
+     * @param dirs the directories of the projects still open
+     */
+    static void retain(final Collection<FileObject> dirs) {
+        final List<SemanticIndex> closing = new ArrayList<>();
+        synchronized (INDEXES) {
+            for (Iterator<SemanticIndex> i = INDEXES.values().iterator(); i.hasNext();) {
+                final SemanticIndex index = i.next();
+                if (!dirs.contains(index.watched())) {
+                    closing.add(index);
+                    i.remove();
+                }
+            }
+        }
+        for (SemanticIndex index : closing) {
+            try {
+                index.close();
+            } catch (IOException x) {
+                LOG.log(Level.INFO, "semantic index not closed: " + x.getMessage(), x);
+            }
+        }
+    }
+
+    /**
+     * Brings the index in line with the given files: chunks of new and
+     * changed files are embedded, chunks of files not given any more are
+     * removed.
+     *
+     * @param root the root of the files (e.g. the project directory)
+     * @param files the files to index
+     *
+     * @throws IOException if the index can not be saved
+     */
+    public void update(final FileObject root, final Set<FileObject> files) throws IOException {
+        final Set<String> paths;
+        synchronized (this) {
+            paths = new HashSet<>(entries.keySet());
+        }
+        for (FileObject file : files) {
+            final String path = FileUtil.getRelativePath(root, file);
+            if (path != null) {
+                paths.remove(path);
+            }
+        }
+        update(root, files, paths);
+    }
+
+    /**
+     * Starts watching the given directory and builds its index in a
+     * background thread, unless already done for the same files; if the
+     * build fails, it is started again at the next call.
+     *
+     * @param dir the directory
+     * @param extensions the extensions of the files to index
+     * @param excludes the excluded directories, as in
+     * {@code PreferencesManager.getExcludeDirs()}
+     */
+    void watch(final FileObject dir, final Set<String> extensions, final Set<String> excludes) {
+        final int build;
+        synchronized (changed) {
+            if (dir.equals(watched) && extensions.equals(this.extensions) && excludes.equals(this.excludes)) {
+                return;
+            }
+            if (watched != null) {
+                watched.removeRecursiveListener(listener);
+            }
+            watched = dir;
+            this.extensions = extensions;
+            this.excludes = excludes;
+            build = ++generation;
+            ready = false;
+            changed.clear();
+            removed.clear();
+            //
+            // listen first so that no change gets lost while building
+            //
+            dir.addRecursiveListener(listener);
+        }
+        RP.post(() -> build(dir, extensions, excludes, build));
+    }
+
+    /**
+     * @return the watched directory, null if none
+     */
+    FileObject watched() {
+        synchronized (changed) {
+            return watched;
+        }
+    }
+
+    /**
+     * @return true if the watched directory has been indexed
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Returns the chunks semantically closest to the given query, best first.
+     *
+     * @param query free text
+     * @param k the maximum number of hits
+     *
+     * @return the hits with the current text of the chunks
+     */
+    public List<Bm25Index.Hit> search(final String query, final int k) {
+        if (size() == 0 || query == null || query.isBlank()) {
+            return List.of();
+        }
+        final float[] vector = model.embed(query).content().vector(); // not holding the lock
+
+        final List<Entry> found = new ArrayList<>();
+        final List<Double> scores = new ArrayList<>();
+        final FileObject dir;
+        synchronized (this) {
+            if (store == null) {
+                return List.of();
+            }
+            final Map<Integer, Entry> bySlot = new HashMap<>();
+            entries.values().forEach(list -> list.forEach(e -> bySlot.put(e.slot(), e)));
+            for (VectorStore.Neighbour n : store.search(vector, k)) {
+                final Entry e = bySlot.get(n.slot());
+                if (e != null) {
+                    found.add(e);
+                    scores.add(n.score());
+                }
+            }
+            dir = root;
+        }
+
+        final List<Bm25Index.Hit> hits = new ArrayList<>();
+        for (int i = 0; i < found.size(); ++i) {
+            final Entry e = found.get(i);
+            final FileObject file = (dir != null) ? dir.getFileObject(e.path()) : null;
+            final FileContentCache.Content content = (file != null) ? FileContentCache.getInstance().get(file, false) : null;
+            if (content != null) {
+                hits.add(new Bm25Index.Hit(
+                    new Bm25Index.Chunk(e.path(), e.startLine(), e.endLine(), lines(content.text(), e.startLine(), e.endLine())),
+                    scores.get(i)
+                ));
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * @return the number of embedded chunks
+     */
+    public synchronized int size() {
+        return (store != null) ? store.size() : 0;
+    }
+
+    /**
+     * Stops watching the directory and closes the store; the index can not
+     * be used any more.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (changed) {
+            if (watched != null) {
+                watched.removeRecursiveListener(listener);
+                watched = null;
+            }
+            ++generation;
+            ready = false;
+            changed.clear();
+            removed.clear();
+        }
+        refresh.cancel();
+        synchronized (this) {
+            closed = true;
+            if (store != null) {
+                store.close();
+                store = null;
+            }
+        }
+    }
+
+    // --------------------------------------------------------- private methods
+
+    /**
+     * Indexes the given files and removes the given paths (of files or
+     * folders) from the index. Files are read and chunks embedded without
+     * holding the lock of the index, so that searches are not blocked by the
+     * embedding model; only the resulting entries are swapped in under it.
+     * Updates run one at a time.
+     */
+    private void update(
+        final FileObject root, final Collection<FileObject> files, final Set<String> removedPaths
+    ) throws IOException {
+        synchronized (updating) {
+            final Map<String, String> known;
+            synchronized (this) {
+                known = new HashMap<>(fileDigests);
+            }
+
+            //
+            // the chunks of the new and changed files
+            //
+            final Map<String, String> digests = new HashMap<>();
+            final Map<String, List<Bm25Index.Chunk>> chunks = new HashMap<>();
+            for (FileObject file : files) {
+                final String path = FileUtil.getRelativePath(root, file);
+                if (path == null) {
+                    continue;
+                }
+                final String text = FileContentCache.read(file); // not cached, see ProjectLexicalIndex
+                if (text == null) {
+                    continue;
+                }
+                final String digest = FileContentCache.digest(text);
+                if (!digest.equals(known.get(path))) {
+                    chunks.put(path, chunker.chunk(file, path, text));
+                    digests.put(path, digest);
+                }
+            }
+
+            //
+            // only chunks whose text is not in the index yet are embedded:
+            // moved chunks keep their vector
+            //
+            final Map<String, String> texts = new LinkedHashMap<>(); // by digest of the chunk
+            synchronized (this) {
+                for (Map.Entry<String, List<Bm25Index.Chunk>> file : chunks.entrySet()) {
+                    final Set<String> embedded = new HashSet<>();
+                    entries.getOrDefault(file.getKey(), List.of()).forEach(e -> embedded.add(e.digest()));
+                    for (Bm25Index.Chunk chunk : file.getValue()) {
+                        final String digest = FileContentCache.digest(chunk.text());
+                        if (!embedded.contains(digest)) {
+                            texts.putIfAbsent(digest, embeddingText(chunk));
+                        }
+                    }
+                }
+            }
+            final List<String> keys = new ArrayList<>(texts.keySet());
+            final Map<String, float[]> vectors = new HashMap<>();
+            for (int start = 0; start < keys.size(); start += BATCH_SIZE) {
+                final List<String> batch = keys.subList(start, Math.min(start + BATCH_SIZE, keys.size()));
+                final List<Embedding> embeddings = model.embedAll(
+                    batch.stream().map(key -> TextSegment.from(texts.get(key))).toList()
+                ).content();
+                for (int i = 0; i < batch.size(); ++i) {
+                    vectors.put(batch.get(i), embeddings.get(i).vector());
+                }
+            }
+            if (!keys.isEmpty()) {
+                final int embedded = keys.size();
+                LOG.fine(() -> "embedded " + embedded + " chunks in " + ((embedded + BATCH_SIZE - 1) / BATCH_SIZE) + " requests");
+            }
+
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                apply(root, chunks, vectors, removedPaths);
+
+                //
+                // only now the files are up to date: if embedding fails, they
+                // are processed again at the next update
+                //
+                fileDigests.putAll(digests);
+                if (!chunks.isEmpty() || !removedPaths.isEmpty()) {
+                    save();
+                }
+            }
+        }
+    }
+
+    /**
+     * Swaps the entries of the given files and paths, called with the lock of
+     * the index held.
+     */
+    private void apply(
+        final FileObject root, final Map<String, List<Bm25Index.Chunk>> chunks,
+        final Map<String, float[]> vectors, final Set<String> removedPaths
+    ) throws IOException {
+        this.root = root;
+
+        for (Iterator<Map.Entry<String, List<Entry>>> i = entries.entrySet().iterator(); i.hasNext();) {
+            final Map.Entry<String, List<Entry>> e = i.next();
+            if (removedPaths.stream().anyMatch(p -> e.getKey().equals(p) || e.getKey().startsWith(p + '/'))) {
+                e.getValue().forEach(entry -> store.remove(entry.slot()));
+                fileDigests.remove(e.getKey());
+                i.remove();
+            }
+        }
+
+        for (Map.Entry<String, List<Bm25Index.Chunk>> file : chunks.entrySet()) {
+            final String path = file.getKey();
+            //
+            // keep the vectors of the chunks with the same text, wherever
+            // they are now in the file
+            //
+            final Map<String, List<Entry>> previous = new HashMap<>();
+            for (Entry e : entries.getOrDefault(path, List.of())) {
+                previous.computeIfAbsent(e.digest(), d -> new ArrayList<>()).add(e);
+            }
+            final List<Entry> current = new ArrayList<>();
+            for (Bm25Index.Chunk chunk : file.getValue()) {
+                final String digest = FileContentCache.digest(chunk.text());
+                final List<Entry> same = previous.getOrDefault(digest, List.of());
+                if (!same.isEmpty()) {
+                    current.add(new Entry(same.remove(0).slot(), path, chunk.startLine(), chunk.endLine(), digest));
+                    continue;
+                }
+                float[] vector = vectors.get(digest);
+                if (vector == null) {
+                    //
+                    // one more copy of a chunk already in the file
+                    //
+                    vector = current.stream().filter(e -> e.digest().equals(digest)).findFirst()
+                        .map(e -> store.get(e.slot())).orElseThrow();
+                }
+                if (store == null) {
+                    store = new VectorStore(directory.resolve(VECTORS), vector.length);
+                }
+                current.add(new Entry(store.add(vector), path, chunk.startLine(), chunk.endLine(), digest));
+            }
+            previous.values().forEach(left -> left.forEach(e -> store.remove(e.slot())));
+            entries.put(path, current);
+        }
+    }
+
+    private void build(final FileObject dir, final Set<String> extensions, final Set<String> excludes, final int build) {
+        final long start = System.currentTimeMillis();
+        final Set<FileObject> files = new HashSet<>();
+        ProjectUtil.collectFiles(dir, dir, files, extensions, excludes);
+        try {
+            update(dir, files);
+        } catch (IOException | RuntimeException x) {
+            LOG.log(Level.WARNING, "semantic index not built: " + x.getMessage(), x);
+            synchronized (changed) {
+                if (build == generation) {
+                    dir.removeRecursiveListener(listener);
+                    watched = null; // built again at the next search
+                }
+            }
+            return;
+        }
+        synchronized (changed) {
+            ready = (build == generation);
+        }
+        LOG.fine(() -> "semantic index of " + dir.getPath() + " built in " + (System.currentTimeMillis() - start) + "ms");
+    }
+
+    /**
+     * Indexes the files changed since the last refresh; if it fails, they are
+     * indexed at the next one.
+     */
+    private void refresh() {
+        final FileObject dir;
+        final Set<FileObject> files;
+        final Set<String> paths;
+        synchronized (changed) {
+            if (!ready || watched == null) {
+                return; // the build in progress reads them
+            }
+            dir = watched;
+            files = new HashSet<>(changed);
+            paths = new HashSet<>(removed);
+            changed.clear();
+            removed.clear();
+        }
+        try {
+            update(dir, files, paths);
+        } catch (IOException | RuntimeException x) {
+            LOG.log(Level.INFO, "semantic index not updated: " + x.getMessage(), x);
+            synchronized (changed) {
+                changed.addAll(files);
+                removed.addAll(paths);
+            }
+        }
+    }
+
+    /**
+     * Records a file, or the files of a folder, to index at the next refresh.
+     */
+    private void changed(final FileObject file) {
+        synchronized (changed) {
+            if (watched == null || !file.isValid()) {
+                return;
+            }
+            final String path = FileUtil.getRelativePath(watched, file);
+            if (path == null || ProjectUtil.isExcluded(path, excludes)) {
+                return;
+            }
+            if (file.isFolder()) {
+                ProjectUtil.collectFiles(watched, file, changed, extensions, excludes);
+            } else if (extensions.contains(file.getExt())) {
+                changed.add(file);
+            }
+        }
+        refresh.schedule(REFRESH_DELAY);
+    }
+
+    private void removed(final String path) {
+        if (path == null) {
+            return;
+        }
+        synchronized (changed) {
+            removed.add(path);
+        }
+        refresh.schedule(REFRESH_DELAY);
+    }
+
+    private String relativePath(final FileObject file) {
+        synchronized (changed) {
+            return (watched != null) ? FileUtil.getRelativePath(watched, file) : null;
+        }
+    }
+
+    /**
+     * The text to embed: the chunk prefixed with its file path, which often
+     * says what the code is about.
+     */
+    private static String embeddingText(final Bm25Index.Chunk chunk) {
+        return chunk.path() + '\n' + chunk.text();
+    }
+
+    /**
+     * Reads the list of chunks, a line per chunk with slot, start line, end
+     * line, digest and path separated by tabs; a slot of -1 gives the digest
+     * of the whole file. If the list does not match the vectors, the index is
+     * emptied and rebuilt at the next update.
+     */
+    private void load() throws IOException {
+        final Path chunks = directory.resolve(CHUNKS);
+        final Path vectors = directory.resolve(VECTORS);
+        if (!Files.exists(chunks) || !Files.exists(vectors)) {
+            return;
+        }
+
+        final List<String> lines = Files.readAllLines(chunks, StandardCharsets.UTF_8);
+        if (lines.isEmpty()) {
+            return;
+        }
+        try {
+            store = new VectorStore(vectors, Integer.parseInt(lines.get(0)));
+            for (String line : lines.subList(1, lines.size())) {
+                final String[] fields = line.split("\t", 5);
+                final int slot = Integer.parseInt(fields[0]);
+                if (slot < 0) {
+                    fileDigests.put(fields[4], fields[3]);
+                } else if (store.isLive(slot)) {
+                    entries.computeIfAbsent(fields[4], p -> new ArrayList<>()).add(new Entry(
+                        slot, fields[4], Integer.parseInt(fields[1]), Integer.parseInt(fields[2]), fields[3]
+                    ));
+                } else {
+                    throw new IOException("no vector for chunk " + line);
+                }
+            }
+
+            //
+            // vectors added after the last save, e.g. if the IDE was killed
+            //
+            final Set<Integer> referenced = new HashSet<>();
+            entries.values().forEach(list -> list.forEach(e -> referenced.add(e.slot())));
+            for (int slot : store.slots()) {
+                if (!referenced.contains(slot)) {
+                    store.remove(slot);
+                }
+            }
+        } catch (IOException | RuntimeException x) {
+            LOG.log(Level.INFO, "discarding the semantic index in " + directory, x);
+            entries.clear();
+            fileDigests.clear();
+            if (store != null) {
+                store.close();
+                store = null;
+            }
+            Files.deleteIfExists(vectors);
+        }
+    }
+
+    private void save() throws IOException {
+        if (store == null) {
+            return;
+        }
+        store.force();
+
+        final StringBuilder text = new StringBuilder().append(store.dimension()).append('\n');
+        for (Map.Entry<String, String> file : fileDigests.entrySet()) {
+            text.append("-1\t0\t0\t").append(file.getValue()).append('\t').append(file.getKey()).append('\n');
+        }
+        for (List<Entry> list : entries.values()) {
+            for (Entry e : list) {
+                text.append(e.slot()).append('\t').append(e.startLine()).append('\t').append(e.endLine())
+                    .append('\t').append(e.digest()).append('\t').append(e.path()).append('\n');
+            }
+        }
+
+        final Path tmp = directory.resolve(CHUNKS + ".tmp");
+        Files.writeString(tmp, text, StandardCharsets.UTF_8);
+        Files.move(tmp, directory.resolve(CHUNKS), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static String lines(final String text, final int startLine, final int endLine) {
+        int start = 0;
+        for (int line = 1; line < startLine; ++line) {
+            start = text.indexOf('\n', start) + 1;
+            if (start == 0) {
+                return "";
+            }
+        }
+        int end = start;
+        for (int line = startLine; line <= endLine && end < text.length(); ++line) {
+            final int nl = text.indexOf('\n', end);
+            end = (nl < 0) ? text.length() : nl + 1;
+        }
+        return text.substring(start, end);
+    }
+
+    /**
+     * Records the changes of the watched directory, indexed at the next
+     * refresh.
+     */
+    private class Listener implements FileChangeListener {
+
+        @Override
+        public void fileFolderCreated(final FileEvent fe) {
+            changed(fe.getFile());
+        }
+
+        @Override
+        public void fileDataCreated(final FileEvent fe) {
+            changed(fe.getFile());
+        }
+
+        @Override
+        public void fileChanged(final FileEvent fe) {
+            changed(fe.getFile());
+        }
+
+        @Override
+        public void fileDeleted(final FileEvent fe) {
+            removed(relativePath(fe.getFile()));
+        }
+
+        @Override
+        public void fileRenamed(final FileRenameEvent fe) {
+            final String path = relativePath(fe.getFile());
+            if (path == null) {
+                return;
+            }
+            final String ext = fe.getExt();
+            final String oldName = fe.getName() + ((ext == null || ext.isEmpty()) ? "" : "." + ext);
+            final int slash = path.lastIndexOf('/');
+            removed((slash < 0) ? oldName : path.substring(0, slash + 1) + oldName);
+            changed(fe.getFile());
+        }
+
+        @Override
+        public void fileAttributeChanged(final FileAttributeEvent fe) {
+        }
+    }
+}
@@ -0,0 +1,378 @@
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.ai.index;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * In-memory index of the trigrams (sequences of three characters, lowercased)
+ * of text files, to find the files that may contain a string or match a
+ * regular expression without reading all of them.
+ * <p>
+ * The index only narrows the files to search: a file containing all the
+ * trigrams of a string does not necessarily contain the string, so candidate
+ * files must be verified. The index is thread safe; lookups run concurrently
+ * with each other.
+ * <p>
+ * The index is kept compact: files are numbered and each trigram, packed in
+ * an {@code int}, has a sorted array of the numbers of the files containing
+ * it. Trigrams of characters beyond {@code U+03FF} are hashed, which may only
+ * add candidates.
+ */
+public class TrigramIndex {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Integer> ids = new HashMap<>();       // by path
+    private final List<String> paths = new ArrayList<>();           // by id, null if free
+    private final List<int[]> trigramsOf = new ArrayList<>();       // by id
+    private final Deque<Integer> free = new ArrayDeque<>();
+    private final Map<Integer, Postings> postings = new HashMap<>(); // by trigram
+
+    /**
+     * The numbers of the files containing a trigram, sorted.
+     */
+    private static final class Postings {
+        int[] ids = new int[2];
+        int size;
+
+        void add(final int id) {
+            int i = Arrays.binarySearch(ids, 0, size, id);
+            if (i >= 0) {
+                return;
+            }
+            i = -i - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+            }
+            System.arraycopy(ids, i, ids, i + 1, size - i);
+            ids[i] = id;
+            ++size;
+        }
+
+        void remove(final int id) {
+            final int i = Arrays.binarySearch(ids, 0, size, id);
+            if (i >= 0) {
+                System.arraycopy(ids, i + 1, ids, i, size - i - 1);
+                --size;
+            }
+        }
+    }
+
+    /**
+     * Indexes the given file, replacing its previous trigrams if any.
+     *
+     * @param path the path of the file, used as key
+     * @param text the content of the file
+     */
+    public void put(final String path, final String text) {
+        final int[] trigrams = trigrams(text); // outside the lock, it is the expensive part
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(path);
+            final int id;
+            if (free.isEmpty()) {
+                id = paths.size();
+                paths.add(path);
+                trigramsOf.add(trigrams);
+            } else {
+                id = free.pop();
+                paths.set(id, path);
+                trigramsOf.set(id, trigrams);
+            }
+            ids.put(path, id);
+            for (int trigram : trigrams) {
+                postings.computeIfAbsent(trigram, t -> new Postings()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return true if the file was indexed
+     */
+    public boolean remove(final String path) {
+        lock.writeLock().lock();
+        try {
+            return removeLocked(path);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes all files whose path matches the given predicate (e.g. all files
+     * of a deleted folder).
+     */
+    public void removeIf(final Predicate<String> filter) {
+        lock.writeLock().lock();
+        try {
+            for (String path : new ArrayList<>(ids.keySet())) {
+                if (filter.test(path)) {
+                    removeLocked(path);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of indexed files
+     */
+    public int files() {
+        lock.readLock().lock();
+        try {
+            return ids.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the files that may contain all the given strings.
+     *
+     * @param strings strings required in the files; strings shorter than three
+     * characters do not narrow the search
+     *
+     * @return the paths of the candidate files, sorted
+     */
+    public Set<String> candidates(final List<String> strings) {
+        final Set<Integer> required = new HashSet<>();
+        for (String s : strings) {
+            for (int trigram : trigrams(s)) {
+                required.add(trigram);
+            }
+        }
+
+        lock.readLock().lock();
+        try {
+            if (required.isEmpty()) {
+                return new TreeSet<>(ids.keySet());
+            }
+            //
+            // intersect starting from the rarest trigram
+            //
+            final List<Postings> lists = new ArrayList<>();
+            for (Integer trigram : required) {
+                final Postings files = postings.get(trigram);
+                if (files == null) {
+                    return new TreeSet<>();
+                }
+                lists.add(files);
+            }
+            lists.sort((p1, p2) -> Integer.compare(p1.size, p2.size));
+            int[] result = Arrays.copyOf(lists.get(0).ids, lists.get(0).size);
+            for (int i = 1; i < lists.size() && result.length > 0; ++i) {
+                result = intersect(result, lists.get(i));
+            }
+            final Set<String> candidates = new TreeSet<>();
+            for (int id : result) {
+                candidates.add(paths.get(id));
+            }
+            return candidates;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Extracts from a regular expression strings that any match must contain,
+     * to look up candidate files; conservative: an empty list (no narrowing)
+     * is returned for alternations and anything not understood.
+     *
+     * @param regex the regular expression
+     *
+     * @return the required strings, possibly empty
+     */
+    public static List<String> literals(final String regex) {
+        final List<String> literals = new ArrayList<>();
+        StringBuilder run = new StringBuilder();
+        int depth = 0;
+        for (int i = 0; i < regex.length(); ++i) {
+            final char c = regex.charAt(i);
+            if (c == '\\') {
+                if (i + 1 == regex.length()) {
+                    return List.of();
+                }
+                final char next = regex.charAt(++i);
+                if (Character.isLetterOrDigit(next)) {
+                    //
+                    // a class (\w, \d...), a back reference or \Q: ends the run
+                    //
+                    if (next == 'Q') {
+                        return List.of();
+                    }
+                    run = flush(literals, run);
+                } else {
+                    run.append(next);
+                }
+                continue;
+            }
+            switch (c) {
+                case '|' -> {
+                    return List.of(); // a match needs only one of the alternatives
+                }
+                case '?', '*' -> {
+                    dropLast(run);
+                    run = flush(literals, run);
+                }
+                case '{' -> {
+                    dropLast(run);
+                    run = flush(literals, run);
+                    final int end = regex.indexOf('}', i);
+                    if (end < 0) {
+                        return List.of();
+                    }
+                    i = end;
+                }
+                case '+' -> run = flush(literals, run); // the last character is still required
+                case '[' -> {
+                    run = flush(literals, run);
+                    int end = i + 1;
+                    if (end < regex.length() && regex.charAt(end) == '^') {
+                        ++end;
+                    }
+                    if (end < regex.length() && regex.charAt(end) == ']') {
+                        ++end;
+                    }
+                    while (end < regex.length() && regex.charAt(end) != ']') {
+                        end += (regex.charAt(end) == '\\') ? 2 : 1;
+                    }
+                    if (end >= regex.length()) {
+                        return List.of();
+                    }
+                    i = end;
+                }
+                case '(' -> {
+                    ++depth;
+                    run = flush(literals, run);
+                    if (i + 1 < regex.length() && regex.charAt(i + 1) == '?') {
+                        return List.of(); // flags, lookarounds, named groups: not worth it
+                    }
+                }
+                case ')' -> {
+                    --depth;
+                    run = flush(literals, run);
+                    if (i + 1 < regex.length() && "?*{".indexOf(regex.charAt(i + 1)) >= 0) {
+                        return List.of(); // an optional group: its literals are not required
+                    }
+                }
+                case '.', '^', '$' -> run = flush(literals, run);
+                default -> run.append(c);
+            }
+        }
+        flush(literals, run);
+
+        return (depth == 0) ? literals : List.of();
+    }
+
+    // --------------------------------------------------------- private methods
+
+    private boolean removeLocked(final String path) {
+        final Integer id = ids.remove(path);
+        if (id == null) {
+            return false;
+        }
+        for (int trigram : trigramsOf.get(id)) {
+            final Postings files = postings.get(trigram);
+            if (files != null) {
+                files.remove(id);
+                if (files.size == 0) {
+                    postings.remove(trigram);
+                }
+            }
+        }
+        paths.set(id, null);
+        trigramsOf.set(id, null);
+        free.push(id);
+        return true;
+    }
+
+    private static int[] intersect(final int[] ids, final Postings files) {
+        final int[] result = new int[ids.length];
+        int n = 0;
+        for (int i = 0, j = 0; i < ids.length && j < files.size;) {
+            if (ids[i] < files.ids[j]) {
+                ++i;
+            } else if (ids[i] > files.ids[j]) {
+                ++j;
+            } else {
+                result[n++] = ids[i];
+                ++i;
+                ++j;
+            }
+        }
+        return Arrays.copyOf(result, n);
+    }
+
+    /**
+     * @return the distinct trigrams of the lowercased text, sorted
+     */
+    static int[] trigrams(final String text) {
+        final String lower = text.toLowerCase(Locale.ROOT);
+        final Set<Integer> trigrams = new HashSet<>();
+        for (int i = 0; i + 3 <= lower.length(); ++i) {
+            trigrams.add(trigram(lower.charAt(i), lower.charAt(i + 1), lower.charAt(i + 2)));
+        }
+        final int[] result = new int[trigrams.size()];
+        int i = 0;
+        for (Integer trigram : trigrams) {
+            result[i++] = trigram;
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * Packs three characters in 30 bits, or hashes them with bit 30 set if
+     * any is beyond {@code U+03FF}.
+     */
+    private static int trigram(final char c1, final char c2, final char c3) {
+        if ((c1 | c2 | c3) < 0x400) {
+            return (c1 << 20) | (c2 << 10) | c3;
+        }
+        return (((c1 * 31 + c2) * 31 + c3) & 0x3FFFFFFF) | 0x40000000;
+    }
+
+    private static StringBuilder flush(final List<String> literals, final StringBuilder run) {
+        if (run.length() >= 3) {
+            literals.add(run.toString());
+        }
+        return new StringBuilder();
+    }
+
+    private static void dropLast(final StringBuilder run) {
+        if (!run.isEmpty()) {
+            run.setLength(run.length() - 1);
+        }
+    }
+}
@@ -0,0 +1,381 @@
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.ai.index;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * Fixed dimension float vectors stored in a memory-mapped file, with
+ * approximate nearest neighbour search by cosine similarity.
+ * <p>
+ * Vectors are normalized when added and stored in slots; removed slots are
+ * reused. The search is approximate: vectors are bucketed by a locality
+ * sensitive hash (the signs of their projections on {@value #BITS} random
+ * hyperplanes, the same for all stores of the same dimension) and only the
+ * vectors of the buckets close to the one of the query, within a Hamming
+ * distance of two, are compared to it; if they are fewer than the requested
+ * hits, all vectors are.
+ * <p>
+ * File layout: magic, version, dimension and number of slots as ints, then
+ * for each slot a live flag (int) followed by the vector. The slots are mapped
+ * in segments of at most {@value #SEGMENT_BYTES} bytes, so that the file can
+ * grow past the 2GB of a single mapping.
+ */
+public class VectorStore implements Closeable {
+
+    private static final Logger LOG = Logger.getLogger(VectorStore.class.getName());
+
+    public static final int BITS = 12;
+
+    private static final int MAGIC = 0x4A564543; // JVEC
+    private static final int VERSION = 1;
+    private static final int HEADER = 16;
+    private static final int INITIAL_SLOTS = 256;
+    private static final int SEGMENT_BYTES = 1 << 30;
+
+    public record Neighbour(int slot, double score) {}
+
+    private final FileChannel channel;
+    private final int dimension;
+    private final int recordSize;
+    private final int segmentSlots;
+    private final float[][] planes;
+
+    private final MappedByteBuffer header;
+    private List<MappedByteBuffer> segments = List.of();
+    private int capacity;
+    private int slots;
+    private final BitSet live = new BitSet();
+    private final Deque<Integer> free = new ArrayDeque<>();
+    private int[] signatures = new int[INITIAL_SLOTS];
+    private final Map<Integer, Set<Integer>> buckets = new HashMap<>();
+
+    /**
+     * Opens the store in the given file, creating it if it does not exist; an
+     * existing file with another dimension or format is emptied.
+     *
+     * @param file the file
+     * @param dimension the dimension of the vectors
+     *
+     * @throws IOException if the file can not be opened or mapped
+     */
+    public VectorStore(final Path file, final int dimension) throws IOException {
+        this(file, dimension, SEGMENT_BYTES);
+    }
+
+    VectorStore(final Path file, final int dimension, final int segmentBytes) throws IOException {
+        if (dimension <= 0) {
+            throw new IllegalArgumentException("dimension must be positive");
+        }
+        this.dimension = dimension;
+        this.recordSize = 4 + 4 * dimension;
+        this.segmentSlots = Math.max(1, segmentBytes / recordSize);
+        this.planes = planes(dimension);
+        this.channel = FileChannel.open(file,
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE
+        );
+
+        final long size = channel.size();
+        header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER);
+        if (size >= HEADER) {
+            if (header.getInt(0) == MAGIC && header.getInt(4) == VERSION && header.getInt(8) == dimension) {
+                map((int) Math.max(1, Math.min(Integer.MAX_VALUE, (size - HEADER) / recordSize)));
+                load(Math.min(header.getInt(12), capacity));
+                return;
+            }
+            LOG.fine(() -> file + " has another format or dimension, emptying it");
+        }
+        channel.truncate(HEADER);
+        map(INITIAL_SLOTS);
+        header.putInt(0, MAGIC).putInt(4, VERSION).putInt(8, dimension).putInt(12, 0);
+    }
+
+    public int dimension() {
+        return dimension;
+    }
+
+    /**
+     * @param vector the vector to add, with the dimension of the store
+     *
+     * @return the slot of the vector
+     */
+    public synchronized int add(final float[] vector) {
+        if (vector.length != dimension) {
+            throw new IllegalArgumentException("expected a vector of " + dimension + " dimensions, got " + vector.length);
+        }
+        final float[] normalized = normalize(vector);
+
+        final int slot;
+        if (!free.isEmpty()) {
+            slot = free.pop();
+        } else {
+            slot = slots++;
+            if (slot >= capacity) {
+                try {
+                    map(capacity * 2);
+                } catch (IOException x) {
+                    --slots;
+                    throw new IllegalStateException("unable to grow the vector store", x);
+                }
+            }
+            header.putInt(12, slots);
+        }
+
+        final MappedByteBuffer segment = segment(slot);
+        final int offset = offset(slot);
+        for (int i = 0; i < dimension; ++i) {
+            segment.putFloat(offset + 4 + 4 * i, normalized[i]);
+        }
+        segment.putInt(offset, 1);
+        index(slot, signature(normalized));
+
+        return slot;
+    }
+
+    public synchronized void remove(final int slot) {
+        if (slot < 0 || !live.get(slot)) {
+            return;
+        }
+        segment(slot).putInt(offset(slot), 0);
+        live.clear(slot);
+        final Set<Integer> bucket = buckets.get(signatures[slot]);
+        bucket.remove(slot);
+        if (bucket.isEmpty()) {
+            buckets.remove(signatures[slot]);
+        }
+        free.push(slot);
+    }
+
+    public synchronized boolean isLive(final int slot) {
+        return slot >= 0 && live.get(slot);
+    }
+
+    /**
+     * @return the normalized vector in the given slot
+     */
+    public synchronized float[] get(final int slot) {
+        if (!isLive(slot)) {
+            throw new IllegalArgumentException("no vector in slot " + slot);
+        }
+        return vector(slot);
+    }
+
+    public synchronized int size() {
+        return live.cardinality();
+    }
+
+    /**
+     * @return the slots holding a vector
+     */
+    public synchronized int[] slots() {
+        return live.stream().toArray();
+    }
+
+    /**
+     * Returns the vectors most similar to the given one, best first.
+     *
+     * @param query the vector to compare to
+     * @param k the maximum number of hits
+     *
+     * @return the slots and cosine similarities
+     */
+    public synchronized List<Neighbour> search(final float[] query, final int k) {
+        if (query.length != dimension) {
+            throw new IllegalArgumentException("expected a vector of " + dimension + " dimensions, got " + query.length);
+        }
+        if (k <= 0 || live.isEmpty()) {
+            return List.of();
+        }
+        final float[] q = normalize(query);
+
+        final int signature = signature(q);
+        final Set<Integer> candidates = new HashSet<>();
+        addBucket(signature, candidates);
+        for (int i = 0; i < BITS; ++i) {
+            addBucket(signature ^ (1 << i), candidates);
+            for (int j = i + 1; j < BITS; ++j) {
+                addBucket(signature ^ (1 << i) ^ (1 << j), candidates);
+            }
+        }
+
+        final PriorityQueue<Neighbour> top = new PriorityQueue<>(k + 1,
+            (n1, n2) -> Double.compare(n1.score(), n2.score())
+        );
+        if (candidates.size() >= k) {
+            for (int slot : candidates) {
+                offer(top, slot, q, k);
+            }
+        } else {
+            for (int slot = live.nextSetBit(0); slot >= 0; slot = live.nextSetBit(slot + 1)) {
+                offer(top, slot, q, k);
+            }
+        }
+
+        final List<Neighbour> neighbours = new ArrayList<>(top);
+        neighbours.sort((n1, n2) -> Double.compare(n2.score(), n1.score()));
+        return neighbours;
+    }
+
+    /**
+     * Writes the changes to the disk.
+     */
+    public synchronized void force() {
+        header.force();
+        segments.forEach(MappedByteBuffer::force);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    // --------------------------------------------------------- private methods
+
+    /**
+     * Maps the given number of slots, in segments of {@code segmentSlots}.
+     */
+    private void map(final int newCapacity) throws IOException {
+        final List<MappedByteBuffer> mapped = new ArrayList<>();
+        for (long first = 0; first < newCapacity; first += segmentSlots) {
+            final long count = Math.min(segmentSlots, newCapacity - first);
+            mapped.add(channel.map(FileChannel.MapMode.READ_WRITE, HEADER + first * recordSize, count * recordSize));
+        }
+        segments = mapped;
+        capacity = newCapacity;
+    }
+
+    private void load(final int count) {
+        slots = count;
+        for (int slot = 0; slot < count; ++slot) {
+            if (segment(slot).getInt(offset(slot)) != 0) {
+                index(slot, signature(vector(slot)));
+            } else {
+                free.push(slot);
+            }
+        }
+    }
+
+    private void index(final int slot, final int signature) {
+        if (slot >= signatures.length) {
+            signatures = Arrays.copyOf(signatures, Math.max(slot + 1, signatures.length * 2));
+        }
+        signatures[slot] = signature;
+        live.set(slot);
+        buckets.computeIfAbsent(signature, s -> new HashSet<>()).add(slot);
+    }
+
+    private void addBucket(final int signature, final Set<Integer> candidates) {
+        final Set<Integer> bucket = buckets.get(signature);
+        if (bucket != null) {
+            candidates.addAll(bucket);
+        }
+    }
+
+    private void offer(final PriorityQueue<Neighbour> top, final int slot, final float[] q, final int k) {
+        final MappedByteBuffer segment = segment(slot);
+        final int offset = offset(slot) + 4;
+        double score = 0;
+        for (int i = 0; i < dimension; ++i) {
+            score += q[i] * segment.getFloat(offset + 4 * i);
+        }
+        if (top.size() < k || score > top.peek().score()) {
+            top.add(new Neighbour(slot, score));
+            if (top.size() > k) {
+                top.poll();
+            }
+        }
+    }
+
+    private float[] vector(final int slot) {
+        final float[] vector = new float[dimension];
+        final MappedByteBuffer segment = segment(slot);
+        final int offset = offset(slot) + 4;
+        for (int i = 0; i < dimension; ++i) {
+            vector[i] = segment.getFloat(offset + 4 * i);
+        }
+        return vector;
+    }
+
+    private int signature(final float[] vector) {
+        int signature = 0;
+        for (int b = 0; b < BITS; ++b) {
+            double dot = 0;
+            for (int i = 0; i < dimension; ++i) {
+                dot += planes[b][i] * vector[i];
+            }
+            if (dot >= 0) {
+                signature |= 1 << b;
+            }
+        }
+        return signature;
+    }
+
+    private MappedByteBuffer segment(final int slot) {
+        return segments.get(slot / segmentSlots);
+    }
+
+    /**
+     * @return the offset of the slot in its segment
+     */
+    private int offset(final int slot) {
+        return (slot % segmentSlots) * recordSize;
+    }
+
+    private static float[] normalize(final float[] vector) {
+        double norm = 0;
+        for (float v : vector) {
+            norm += v * v;
+        }
+        norm = Math.sqrt(norm);
+        final float[] normalized = new float[vector.length];
+        if (norm > 0) {
+            for (int i = 0; i < vector.length; ++i) {
+                normalized[i] = (float) (vector[i] / norm);
+            }
+        }
+        return normalized;
+    }
+
+    private static float[][] planes(final int dimension) {
+        final Random random = new Random(31L * dimension + BITS);
+        final float[][] planes = new float[BITS][dimension];
+        for (float[] plane : planes) {
+            for (int i = 0; i < dimension; ++i) {
+                plane[i] = (float) random.nextGaussian();
+            }
+        }
+        return planes;
+    }
+}
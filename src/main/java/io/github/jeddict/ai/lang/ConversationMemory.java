@@ -0,0 +1,331 @@
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.ai.lang;
+
+import io.github.jeddict.ai.response.Block;
+import io.github.jeddict.ai.response.Response;
+import io.github.jeddict.ai.response.TokenHandler;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.openide.util.RequestProcessor;
+
+/**
+ * Keeps the conversation history replayed to the model bounded.
+ * <p>
+ * The last {@code verbatimTurns} responses are replayed as they are (minus
+ * code blocks superseded by a newer version of the same class in a later
+ * turn) as long as they fit in {@code maxTokens}; all older responses are
+ * folded into a rolling summary produced by the given summarizer, usually a
+ * cheap model. Each response is folded only once, so the summarizer is called
+ * at most once per turn and only when responses leave the verbatim window.
+ * Folding runs on the given executor, off the request path: until the summary
+ * is updated, the responses being folded are still replayed verbatim.
+ * <p>
+ * Window, ceiling and summarizer are read on each turn, so that changes to the
+ * settings apply to the ongoing conversation.
+ * <p>
+ * The compacted history is returned as a list of {@code Response} so that it
+ * can be passed as is to {@code JeddictBrain}; the summary, if any, is the
+ * first element, with {@link #SUMMARY_QUERY} as query.
+ */
+public class ConversationMemory {
+
+    private static final Logger LOG = Logger.getLogger(ConversationMemory.class.getName());
+
+    public static final String SUMMARY_QUERY = "Summary of the earlier conversation";
+    public static final String SUPERSEDED = "(superseded by a later version in the conversation, omitted)";
+
+    private static final Pattern DECLARATION = Pattern.compile("\\b(?:class|interface|enum|record)\\s+(\\w+)");
+    private static final int MAX_FALLBACK_QUERY_LENGTH = 200;
+
+    private static final String SUMMARY_PROMPT = """
+        Update the running summary of a conversation between a developer and an
+        AI coding assistant with the new turns below. Keep requirements,
+        decisions, names of files, classes and methods and any open issue;
+        leave out code and pleasantries. Answer with the updated summary only,
+        in at most %d words.
+
+        Current summary:
+        %s
+
+        New turns:
+        %s
+        """;
+
+    private static final RequestProcessor RP = new RequestProcessor(ConversationMemory.class.getName(), 1);
+
+    private final IntSupplier verbatimTurns;
+    private final IntSupplier maxTokens;
+    private final Supplier<UnaryOperator<String>> summarizer;
+    private final Executor executor;
+
+    private String summary = "";
+    private int summarized;          // number of history responses in summary
+    private Response lastSummarized; // to detect when history is rewritten
+    private boolean folding;         // a summary update is running
+    private int generation;          // to discard updates started before a reset
+
+    /**
+     * Memory with fixed settings, folding responses in the calling thread.
+     *
+     * @param verbatimTurns number of most recent responses replayed verbatim;
+     * negative for all of them
+     * @param maxTokens token ceiling of the verbatim responses; 0 or negative
+     * for no ceiling
+     * @param summarizer turns a summarization prompt into the summary; if
+     * null, older responses are just dropped
+     */
+    public ConversationMemory(
+        final int verbatimTurns, final int maxTokens,
+        final UnaryOperator<String> summarizer
+    ) {
+        this(() -> verbatimTurns, () -> maxTokens, () -> summarizer, Runnable::run);
+    }
+
+    /**
+     * Memory with settings read on each turn, folding responses in background.
+     *
+     * @param verbatimTurns number of most recent responses replayed verbatim;
+     * negative for all of them
+     * @param maxTokens token ceiling of the verbatim responses; 0 or negative
+     * for no ceiling
+     * @param summarizer the function turning a summarization prompt into the
+     * summary; if it supplies null, older responses are just dropped
+     */
+    public ConversationMemory(
+        final IntSupplier verbatimTurns, final IntSupplier maxTokens,
+        final Supplier<UnaryOperator<String>> summarizer
+    ) {
+        this(verbatimTurns, maxTokens, summarizer, RP);
+    }
+
+    ConversationMemory(
+        final IntSupplier verbatimTurns, final IntSupplier maxTokens,
+        final Supplier<UnaryOperator<String>> summarizer, final Executor executor
+    ) {
+        this.verbatimTurns = verbatimTurns;
+        this.maxTokens = maxTokens;
+        this.summarizer = summarizer;
+        this.executor = executor;
+    }
+
+    /**
+     * Compacts the given history.
+     *
+     * @param history the whole conversation, oldest first
+     *
+     * @return the responses to replay to the model, oldest first
+     */
+    public synchronized List<Response> compact(final List<Response> history) {
+        if (history == null || history.isEmpty()) {
+            reset();
+            return List.of();
+        }
+        if (summarized > history.size()
+            || (summarized > 0 && history.get(summarized - 1) != lastSummarized)) {
+            //
+            // the history has been rewritten (e.g. a response regenerated):
+            // the summary may contain turns that do not exist any more
+            //
+            reset();
+        }
+
+        final int turns = verbatimTurns.getAsInt();
+        final int window = (turns < 0) ? Integer.MAX_VALUE : turns;
+        final int tokenLimit = maxTokens.getAsInt();
+        final int ceiling = (tokenLimit <= 0) ? Integer.MAX_VALUE : tokenLimit;
+
+        final int start = summarized;
+        final List<Response> recent = dropSupersededCode(
+            history.subList(start, history.size())
+        );
+
+        //
+        // walk back from the newest response keeping what fits in the window
+        // and in the token ceiling; the latest response is always kept
+        //
+        int keep = 0, tokens = 0;
+        for (int i = recent.size() - 1; i >= 0 && keep < window; --i) {
+            final Response r = recent.get(i);
+            //
+            // the context replayed with a response is not counted: it stands
+            // for the files that would otherwise be sent again with the new
+            // question (see DeltaContext)
+            //
+            tokens += TokenHandler.countTokens(r.getQuery()) + TokenHandler.countTokens(r.toString());
+            if (keep > 0 && tokens > ceiling) {
+                break;
+            }
+            ++keep;
+        }
+
+        final int fold = recent.size() - keep;
+        if (fold > 0 && !folding) {
+            final UnaryOperator<String> function = summarizer.get();
+            if (function == null) {
+                summarized += fold;
+                lastSummarized = history.get(summarized - 1);
+            } else {
+                folding = true;
+                final List<Response> folded = List.copyOf(history.subList(start, start + fold));
+                final String current = summary;
+                final int words = Math.max(100, Math.min(ceiling, 4000) / 4);
+                final int expected = generation;
+                executor.execute(() -> fold(folded, current, function, words, expected));
+            }
+        }
+
+        //
+        // responses still being folded are replayed verbatim
+        //
+        final List<Response> compacted = new ArrayList<>(keep + 1);
+        if (!summary.isEmpty()) {
+            compacted.add(new Response(SUMMARY_QUERY, summary, null));
+        }
+        compacted.addAll(recent.subList(Math.min(summarized - start, recent.size()), recent.size()));
+
+        return compacted;
+    }
+
+    public synchronized String getSummary() {
+        return summary;
+    }
+
+    public synchronized void reset() {
+        summary = "";
+        summarized = 0;
+        lastSummarized = null;
+        folding = false;
+        ++generation;
+    }
+
+    // --------------------------------------------------------- private methods
+
+    /**
+     * Folds the given responses into the summary, calling the summarizer
+     * without holding the lock; the result is dropped if the memory has been
+     * reset in the meantime.
+     */
+    private void fold(
+        final List<Response> turns, final String current,
+        final UnaryOperator<String> summarizer, final int words, final int expected
+    ) {
+        final String updated = summarize(turns, current, summarizer, words);
+        synchronized (this) {
+            if (generation != expected) {
+                return;
+            }
+            summary = updated;
+            summarized += turns.size();
+            lastSummarized = turns.get(turns.size() - 1);
+            folding = false;
+        }
+    }
+
+    private static String summarize(
+        final List<Response> turns, final String summary,
+        final UnaryOperator<String> summarizer, final int words
+    ) {
+        final StringBuilder text = new StringBuilder();
+        for (Response r : turns) {
+            text.append("User: ").append(query(r)).append('\n')
+                .append("Assistant: ").append(r).append("\n\n");
+        }
+
+        try {
+            final String updated = summarizer.apply(
+                String.format(SUMMARY_PROMPT, words, summary.isEmpty() ? "(none)" : summary, text)
+            );
+            if (updated != null && !updated.isBlank()) {
+                return updated.trim();
+            }
+        } catch (Exception x) {
+            LOG.log(Level.FINE, "conversation summary failed, keeping the queries only", x);
+        }
+
+        //
+        // no summary from the model: at least keep track of what was asked
+        //
+        final StringBuilder fallback = new StringBuilder(summary);
+        for (Response r : turns) {
+            final String q = query(r);
+            fallback.append((fallback.length() == 0) ? "" : "\n").append("- Asked: ")
+                    .append(q, 0, Math.min(q.length(), MAX_FALLBACK_QUERY_LENGTH));
+        }
+        return fallback.toString();
+    }
+
+    /**
+     * Replaces code blocks that declare a class also declared by a code block
+     * of a later response with a short note. Responses are copied only when
+     * something is dropped, the history is never modified.
+     */
+    private static List<Response> dropSupersededCode(final List<Response> responses) {
+        final List<Response> result = new ArrayList<>(responses);
+        final Set<String> seen = new HashSet<>();
+
+        for (int i = result.size() - 1; i >= 0; --i) {
+            final Response r = result.get(i);
+            final List<Block> blocks = new ArrayList<>(r.getBlocks().size());
+            final Set<String> declared = new HashSet<>();
+            boolean changed = false;
+            for (Block block : r.getBlocks()) {
+                final String key = declarationKey(block);
+                if (key != null && seen.contains(key)) {
+                    blocks.add(new Block(block.getType(), SUPERSEDED + '\n'));
+                    changed = true;
+                } else {
+                    blocks.add(block);
+                    if (key != null) {
+                        declared.add(key);
+                    }
+                }
+            }
+            seen.addAll(declared);
+            if (changed) {
+                final Response copy = new Response(r.getQuery(), null, r.getMessageContext());
+                copy.setBlocks(blocks);
+                copy.setContext(r.getContext());
+                result.set(i, copy);
+            }
+        }
+
+        return result;
+    }
+
+    private static String declarationKey(final Block block) {
+        final String type = block.getType();
+        if ("text".equals(type) || "tooling".equals(type) || "web".equals(type) || block.getContent() == null) {
+            return null;
+        }
+        final Matcher m = DECLARATION.matcher(block.getContent());
+        return m.find() ? type + ':' + m.group(1) : null;
+    }
+
+    private static String query(final Response r) {
+        return (r.getQuery() != null) ? r.getQuery() : JeddictBrain.UNSAVED_PROMPT;
+    }
+}
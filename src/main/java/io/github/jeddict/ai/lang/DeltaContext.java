@@ -0,0 +1,143 @@
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.ai.lang;
+
+import io.github.jeddict.ai.response.Response;
+import io.github.jeddict.ai.util.FileContentCache;
+import io.github.jeddict.ai.util.UnifiedDiff;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.openide.filesystems.FileObject;
+
+/**
+ * Keeps track of the file versions a conversation has already seen, so that
+ * context files are sent in full only once: afterwards a file is referenced by
+ * name if unchanged, or sent as a unified diff against the version the model
+ * has seen if changed.
+ * <p>
+ * The model knows a file only through the context replayed with the earlier
+ * turns (see {@link Response#getContext()}); a version is therefore known as
+ * long as all the turns needed to rebuild it (the one with the full text and
+ * those with the following diffs) are replayed. When any of them is not (e.g.
+ * folded by {@link ConversationMemory} or regenerated), the file is sent in
+ * full again.
+ * <p>
+ * A turn is used as follows:
+ * <pre>
+ * delta.begin(replayedResponses);
+ * String context = ... delta.render(file, content) for each file ...;
+ * // when the response arrives
+ * response.setContext(context);
+ * delta.commit(response);
+ * </pre>
+ */
+public class DeltaContext {
+
+    public static final String UNCHANGED = "(unchanged, as sent earlier in the conversation)";
+    public static final String CHANGED = "(changed since sent earlier in the conversation, unified diff)";
+
+    private static final int DIFF_CONTEXT_LINES = 3;
+
+    /**
+     * a version seen by the model and the contexts of the turns needed to
+     * rebuild it
+     */
+    private record Seen(String digest, String text, List<String> turns) {}
+
+    private final Map<FileObject, Seen> seen = new HashMap<>();
+    private final Map<FileObject, Seen> pending = new HashMap<>();
+    private final Set<String> replayed = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * Starts a turn.
+     *
+     * @param history the responses replayed to the model with this turn
+     */
+    public synchronized void begin(final List<Response> history) {
+        pending.clear();
+        replayed.clear();
+        if (history != null) {
+            for (Response r : history) {
+                if (r.getContext() != null) {
+                    replayed.add(r.getContext());
+                }
+            }
+        }
+    }
+
+    /**
+     * @param file the file
+     * @param content its content as sent to the model
+     *
+     * @return the file as it shall be sent in this turn: the whole content, a
+     * diff or just the name, always preceded by a "File: " header line
+     */
+    public synchronized String render(final FileObject file, final FileContentCache.Content content) {
+        final String header = "File: " + file.getNameExt();
+        final Seen known = seen.get(file);
+
+        if (known != null && replayed.containsAll(known.turns)) {
+            if (known.digest.equals(content.digest())) {
+                return header + ' ' + UNCHANGED + '\n';
+            }
+            //
+            // a diff is worth it only if much smaller than the text
+            //
+            final String text = content.text();
+            final String diff = UnifiedDiff.diff(
+                file.getNameExt(), file.getNameExt(), known.text, text,
+                DIFF_CONTEXT_LINES, (int) Math.max(1, text.lines().count() / 4)
+            );
+            if (diff != null && diff.length() < text.length() / 2) {
+                pending.put(file, new Seen(content.digest(), text, known.turns));
+                return header + ' ' + CHANGED + '\n' + diff;
+            }
+        }
+
+        pending.put(file, new Seen(content.digest(), content.text(), List.of()));
+        return header + '\n' + content.text();
+    }
+
+    /**
+     * Records the versions rendered since {@link #begin(List)} as seen with
+     * the given turn.
+     *
+     * @param turn the response of the turn, with the context it was sent with
+     */
+    public synchronized void commit(final Response turn) {
+        if (turn.getContext() == null) {
+            pending.clear();
+            return;
+        }
+        for (Map.Entry<FileObject, Seen> e : pending.entrySet()) {
+            final List<String> turns = new ArrayList<>(e.getValue().turns);
+            turns.add(turn.getContext());
+            seen.put(e.getKey(), new Seen(e.getValue().digest, e.getValue().text, turns));
+        }
+        pending.clear();
+    }
+
+    public synchronized void reset() {
+        seen.clear();
+        pending.clear();
+        replayed.clear();
+    }
+}
@@ -19,6 +19,7 @@ package io.github.jeddict.ai.lang;
  *
  * @author Shiwani Gupta
  */
+import dev.langchain4j.agent.tool.ToolSpecification;
 import dev.langchain4j.agentic.AgenticServices;
 import dev.langchain4j.agentic.agent.AgentBuilder;
 import dev.langchain4j.data.message.AiMessage;
@@ -34,8 +35,13 @@ import dev.langchain4j.model.chat.StreamingChatModel;
 import dev.langchain4j.model.chat.response.ChatResponse;
 import dev.langchain4j.model.chat.response.StreamingChatResponseHandler;
 import dev.langchain4j.service.AiServices;
+import dev.langchain4j.service.tool.ToolExecutor;
 import io.github.jeddict.ai.agent.AbstractTool;
+import io.github.jeddict.ai.agent.AgentTrace;
 import io.github.jeddict.ai.agent.Assistant;
+import io.github.jeddict.ai.agent.ToolResultCache;
+import io.github.jeddict.ai.agent.ToolScheduler;
+import io.github.jeddict.ai.agent.TraceReplayModel;
 import io.github.jeddict.ai.agent.pair.PairProgrammer;
 import io.github.jeddict.ai.response.Response;
 import io.github.jeddict.ai.response.TokenHandler;
@@ -44,8 +50,11 @@ import io.github.jeddict.ai.settings.PreferencesManager;
 import io.github.jeddict.ai.util.PropertyChangeEmitter;
 import io.github.jeddict.ai.util.Utilities;
 import java.beans.PropertyChangeListener;
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.logging.Logger;
@@ -80,6 +89,11 @@ public class JeddictBrain implements PropertyChangeEmitter {
     public final Optional<StreamingChatModel> streamingChatModel;
     protected final List<AbstractTool> tools;
 
+    /**
+     * records the model requests and the tool calls, null if not recording
+     */
+    private final AgentTrace trace;
+
     public final String modelName;
 
     public JeddictBrain(
@@ -98,14 +112,25 @@ public class JeddictBrain implements PropertyChangeEmitter {
         }
         this.modelName = modelName;
 
+        final PreferencesManager pm = PreferencesManager.getInstance();
+        final String traceFile = pm.getAgentTraceFile();
+        this.trace = traceFile.isBlank() ? null : new AgentTrace(Paths.get(traceFile));
+
+        //
+        // in replay mode the responses recorded in a trace are fed back
+        // instead of asking the configured model
+        //
+        final TraceReplayModel replay = replayModel(pm.getAgentReplayFile());
         final JeddictChatModelBuilder builder =
             new JeddictChatModelBuilder(this.modelName);
 
         if (streaming) {
-            this.streamingChatModel = Optional.of(builder.buildStreaming());
+            final StreamingChatModel model = (replay != null) ? replay : builder.buildStreaming();
+            this.streamingChatModel = Optional.of((trace != null) ? trace.record(model) : model);
             this.chatModel = Optional.empty();
         } else {
-            this.chatModel = Optional.of(builder.build());
+            final ChatModel model = (replay != null) ? replay : builder.build();
+            this.chatModel = Optional.of((trace != null) ? trace.record(model) : model);
             this.streamingChatModel = Optional.empty();
         }
         this.tools = (tools != null)
@@ -179,6 +204,9 @@ public class JeddictBrain implements PropertyChangeEmitter {
         if (project != null) {
             prompt = prompt + "\n" + ProjectMetadataInfo.get(project);
         }
+        if (trace != null) {
+            trace.session(modelName, agentEnabled);
+        }
         String systemMessage = null;
         String globalRules = PreferencesManager.getInstance().getGlobalRules();
         if (globalRules != null) {
@@ -205,7 +233,13 @@ public class JeddictBrain implements PropertyChangeEmitter {
             for (Response res : responseHistory) {
                 final String q = (res.getQuery() != null)
                                ? res.getQuery() : UNSAVED_PROMPT;
-                messages.add(UserMessage.from(q));
+                //
+                // context sent with the query, if kept for replay (see
+                // DeltaContext)
+                //
+                messages.add(UserMessage.from(
+                    (res.getContext() != null) ? "Source:\n" + res.getContext() + "\n\nUser Query:\n" + q : q
+                ));
                 messages.add(AiMessage.from(res.toString()));
             }
         }
@@ -225,28 +259,41 @@ public class JeddictBrain implements PropertyChangeEmitter {
 
             if (streamingChatModel.isPresent()) {
                 if(agentEnabled) {
-                    final Assistant assistant = AiServices.builder(Assistant.class)
-                        .streamingChatModel(streamingChatModel.get())
-                        .tools(tools.toArray())
-                        .build();
-
-                    assistant.stream(messages)
-                        .onCompleteResponse(complete -> {
-                            fireEvent(EventProperty.CHAT_COMPLETED, complete);
-                            //handler.onCompleteResponse(partial);
-                        })
-                        .onPartialResponse(partial -> {
-                            fireEvent(EventProperty.CHAT_PARTIAL, partial);
-                            //handler.onPartialResponse(partial);
-                        })
-                        .onIntermediateResponse(intermediate -> fireEvent(EventProperty.CHAT_INTERMEDIATE, intermediate))
-                        .beforeToolExecution(execution -> fireEvent(EventProperty.TOOL_BEFORE_EXECUTION, execution))
-                        .onToolExecuted(execution -> fireEvent(EventProperty.TOOL_EXECUTED, execution))
-                        .onError(error -> {
-                            fireEvent(EventProperty.CHAT_ERROR, error);
-                            //handler.onError(error);
-                        })
-                        .start();
+                    final ToolResultCache toolCache = toolResultCache();
+                    boolean streaming = false;
+                    try {
+                        final ToolScheduler scheduler = toolScheduler();
+                        final Assistant assistant = AiServices.builder(Assistant.class)
+                            .streamingChatModel(streamingChatModel.get())
+                            .tools(toolExecutors(toolCache, scheduler))
+                            .executeToolsConcurrently(scheduler.executor())
+                            .build();
+
+                        assistant.stream(messages)
+                            .onCompleteResponse(complete -> {
+                                toolCache.close();
+                                fireEvent(EventProperty.CHAT_COMPLETED, complete);
+                                //handler.onCompleteResponse(partial);
+                            })
+                            .onPartialResponse(partial -> {
+                                fireEvent(EventProperty.CHAT_PARTIAL, partial);
+                                //handler.onPartialResponse(partial);
+                            })
+                            .onIntermediateResponse(intermediate -> fireEvent(EventProperty.CHAT_INTERMEDIATE, intermediate))
+                            .beforeToolExecution(execution -> fireEvent(EventProperty.TOOL_BEFORE_EXECUTION, execution))
+                            .onToolExecuted(execution -> fireEvent(EventProperty.TOOL_EXECUTED, execution))
+                            .onError(error -> {
+                                toolCache.close();
+                                fireEvent(EventProperty.CHAT_ERROR, error);
+                                //handler.onError(error);
+                            })
+                            .start();
+                        streaming = true;
+                    } finally {
+                        if (!streaming) {
+                            toolCache.close(); // closed by the handlers otherwise
+                        }
+                    }
                 } else {
                     streamingChatModel.get().chat(messages, new StreamingChatResponseHandler() {
                         @Override
@@ -270,11 +317,18 @@ public class JeddictBrain implements PropertyChangeEmitter {
 
                 ChatResponse chatResponse = null;
                 if (agentEnabled) {
+                    final ToolResultCache toolCache = toolResultCache();
+                    final ToolScheduler scheduler = toolScheduler();
                     Assistant assistant = AiServices.builder(Assistant.class)
                             .chatModel(model)
-                            .tools(tools.toArray())
+                            .tools(toolExecutors(toolCache, scheduler))
+                            .executeToolsConcurrently(scheduler.executor())
                             .build();
-                    chatResponse = assistant.chat(messages);
+                    try {
+                        chatResponse = assistant.chat(messages);
+                    } finally {
+                        toolCache.close();
+                    }
 
                 } else {
                     chatResponse = model.chat(messages);
@@ -367,4 +421,53 @@ public class JeddictBrain implements PropertyChangeEmitter {
         firePropertyChange(property.name, null, value);
     }
 
+    /**
+     * @return a cache of the results of the read-only tools for one agent
+     * session, listening to changes of the project files with the other open
+     * caches of the project; to be closed at the end of the session
+     */
+    private ToolResultCache toolResultCache() {
+        if (tools.isEmpty()) {
+            return new ToolResultCache(Paths.get(""));
+        }
+        final ToolResultCache cache = new ToolResultCache(tools.get(0).fullPath(""));
+        cache.open();
+        return cache;
+    }
+
+    /**
+     * @return the scheduler of the tool calls of one agent session
+     */
+    private ToolScheduler toolScheduler() {
+        return new ToolScheduler(tools.isEmpty() ? Paths.get("") : tools.get(0).fullPath(""));
+    }
+
+    /**
+     * @return the executors of the tools, going through the given cache and
+     * taking the locks of the given scheduler that let the tool calls of a
+     * turn run concurrently; calls are recorded if a trace is being recorded
+     */
+    private Map<ToolSpecification, ToolExecutor> toolExecutors(
+        final ToolResultCache cache, final ToolScheduler scheduler
+    ) {
+        final Map<ToolSpecification, ToolExecutor> executors = cache.executors(tools);
+        return scheduler.executors((trace != null) ? trace.record(executors) : executors, tools);
+    }
+
+    /**
+     * @return the model replaying the given trace or null if no trace is given
+     *
+     * @throws IllegalStateException if the trace can not be read
+     */
+    private static TraceReplayModel replayModel(final String traceFile) {
+        if (traceFile.isBlank()) {
+            return null;
+        }
+        try {
+            return new TraceReplayModel(Paths.get(traceFile));
+        } catch (IOException x) {
+            throw new IllegalStateException("unable to read agent trace " + traceFile, x);
+        }
+    }
+
 }
@@ -22,6 +22,7 @@ import dev.langchain4j.model.chat.response.ChatResponse;
 import io.github.jeddict.ai.JeddictUpdateManager;
 import io.github.jeddict.ai.agent.AbstractTool;
 import io.github.jeddict.ai.components.AssistantChat;
+import io.github.jeddict.ai.components.StreamingMarkdownPane;
 import static io.github.jeddict.ai.lang.JeddictChatModelBuilder.pm;
 import io.github.jeddict.ai.response.TokenHandler;
 import io.github.jeddict.ai.util.Utilities;
@@ -37,7 +38,6 @@ import javax.swing.BoxLayout;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
-import javax.swing.JTextArea;
 import javax.swing.JTextField;
 import javax.swing.SwingUtilities;
 import org.netbeans.api.progress.ProgressHandle;
@@ -58,15 +58,17 @@ public abstract class JeddictBrainListener
 
     private final AssistantChat topComponent;
     private boolean init = true;
-    private JTextArea textArea;
+    private StreamingMarkdownPane markdownPane;
     private final ProgressHandle handle;
     private boolean complete;
+    private final ThrottledTokenRenderer renderer;
     protected final StringBuilder toolingResponse = new StringBuilder();
 
     private static final Logger LOG = Logger.getLogger(JeddictBrainListener.class.getName());
 
     public JeddictBrainListener(AssistantChat topComponent) {
         this.topComponent = topComponent;
+        this.renderer = new ThrottledTokenRenderer(this::render);
 
         handle = ProgressHandle.createHandle(NbBundle.getMessage(JeddictUpdateManager.class, "ProgressHandle", 0));
         handle.start();
@@ -97,25 +99,45 @@ public abstract class JeddictBrainListener
         } else if (name.equals(AbstractTool.PROPERTY_MESSAGE)) {
             final String msg = (String)e.getNewValue() + '\n';
             toolingResponse.append(msg);
-            onPartialResponse(msg);
+            //
+            // an empty line keeps tool messages in separate markdown paragraphs
+            //
+            onPartialResponse(msg + '\n');
         }
     }
 
+    /**
+     * Called for every streamed token, usually from the provider thread. The
+     * token is only queued here; the markdown pane is updated on the EDT at a
+     * bounded frame rate by {@link #render(String)}.
+     *
+     * @param partialResponse the token
+     */
     public void onPartialResponse(String partialResponse) {
         LOG.finest(() -> "partial response: " + partialResponse);
+        renderer.append(partialResponse);
+    }
+
+    /**
+     * Appends the tokens collected since the previous frame to the streamed
+     * markdown, which re-renders only the still open trailing block; always
+     * called on the EDT.
+     *
+     * @param text the joined tokens
+     */
+    protected void render(String text) {
         if (init) {
             topComponent.clear();
-            textArea = topComponent.createTextAreaPane();
-            textArea.setText(partialResponse);
+            markdownPane = topComponent.createStreamingMarkdownPane();
             init = false;
-        } else {
-            textArea.append(partialResponse);
         }
+        markdownPane.append(text);
     }
 
     public void onCompleteResponse(ChatResponse completeResponse) {
         LOG.finest(() -> "complete response received: " + completeResponse);
         complete = true;
+        renderer.flush();
 
         String response = completeResponse.aiMessage().text();
         if (response != null && !response.isEmpty()) {
@@ -0,0 +1,93 @@
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.ai.lang;
+
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.ollama.OllamaEmbeddingModel;
+import dev.langchain4j.model.openai.OpenAiEmbeddingModel;
+import io.github.jeddict.ai.settings.PreferencesManager;
+import java.time.Duration;
+import java.util.logging.Logger;
+
+/**
+ * Builds the embedding model used for semantic search from the settings of
+ * the selected provider (location, headers, timeout, retries) and the
+ * embedding model name.
+ * <p>
+ * Ollama has its own embeddings endpoint; OpenAI and the providers with an
+ * OpenAI compatible API use the OpenAI one. For other providers, or if no
+ * embedding model name is set, there is no embedding model.
+ */
+public class JeddictEmbeddingModelBuilder {
+
+    private static final Logger LOG = Logger.getLogger(JeddictEmbeddingModelBuilder.class.getName());
+
+    protected static PreferencesManager pm = PreferencesManager.getInstance();
+
+    private final String modelName;
+
+    public JeddictEmbeddingModelBuilder() {
+        this(pm.getEmbeddingModel());
+    }
+
+    public JeddictEmbeddingModelBuilder(final String modelName) {
+        this.modelName = modelName;
+    }
+
+    /**
+     * @return the embedding model or null if none is available
+     */
+    public EmbeddingModel build() {
+        if (modelName == null || modelName.isBlank()) {
+            return null;
+        }
+        LOG.finest(() -> "Building embedding model " + modelName);
+
+        final String location = pm.getProviderLocation();
+        final Duration timeout = (pm.getTimeout() != Integer.MIN_VALUE) ? Duration.ofSeconds(pm.getTimeout()) : null;
+        final Integer maxRetries = (pm.getMaxRetries() != Integer.MIN_VALUE) ? pm.getMaxRetries() : null;
+
+        return switch (pm.getProvider()) {
+            case OLLAMA -> {
+                final OllamaEmbeddingModel.OllamaEmbeddingModelBuilder builder = OllamaEmbeddingModel.builder()
+                    .modelName(modelName).timeout(timeout).maxRetries(maxRetries);
+                if (location != null && !location.isEmpty()) {
+                    builder.baseUrl(location);
+                }
+                if (!pm.getCustomHeaders().isEmpty()) {
+                    builder.customHeaders(pm.getCustomHeaders());
+                }
+                yield builder.build();
+            }
+            case OPEN_AI, DEEPINFRA, CUSTOM_OPEN_AI, LM_STUDIO -> {
+                final OpenAiEmbeddingModel.OpenAiEmbeddingModelBuilder builder = OpenAiEmbeddingModel.builder()
+                    .modelName(modelName).timeout(timeout).maxRetries(maxRetries)
+                    .apiKey(pm.getApiKey(true));
+                if (location != null && !location.isEmpty()) {
+                    builder.baseUrl(location);
+                }
+                if (!pm.getCustomHeaders().isEmpty()) {
+                    builder.customHeaders(pm.getCustomHeaders());
+                }
+                yield builder.build();
+            }
+            default -> {
+                LOG.fine(() -> "no embedding model for provider " + pm.getProvider());
+                yield null;
+            }
+        };
+    }
+}
@@ -0,0 +1,137 @@
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.ai.lang;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.SwingUtilities;
+
+/**
+ * Collects streamed tokens from any thread and hands them over to a Swing
+ * component on the EDT at a bounded frame rate.
+ * <p>
+ * Providers may call {@link #append(String)} for every single token; tokens are
+ * queued in a lock-free queue and at most one flush per frame is scheduled on
+ * the EDT, where all queued tokens are joined and passed to the sink in one
+ * call. This way a fast model costs one layout and repaint per frame instead of
+ * one per token.
+ */
+public class ThrottledTokenRenderer {
+
+    private static final Logger LOG = Logger.getLogger(ThrottledTokenRenderer.class.getName());
+
+    public static final int DEFAULT_FRAME_RATE = 30;
+
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(r -> {
+        final Thread t = new Thread(r, "jeddict-token-renderer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final ConcurrentLinkedQueue<String> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final Consumer<String> sink;
+    private final long frameNanos;
+    private volatile long lastFlush;
+
+    /**
+     * @param sink receives the joined tokens; always invoked on the EDT
+     */
+    public ThrottledTokenRenderer(final Consumer<String> sink) {
+        this(sink, DEFAULT_FRAME_RATE);
+    }
+
+    /**
+     * @param sink receives the joined tokens; always invoked on the EDT
+     * @param frameRate maximum number of flushes per second - must be positive
+     */
+    public ThrottledTokenRenderer(final Consumer<String> sink, final int frameRate) {
+        if (sink == null) {
+            throw new IllegalArgumentException("sink can not be null");
+        }
+        if (frameRate <= 0) {
+            throw new IllegalArgumentException("frameRate must be greater than 0");
+        }
+        this.sink = sink;
+        this.frameNanos = TimeUnit.SECONDS.toNanos(1) / frameRate;
+        this.lastFlush = System.nanoTime() - frameNanos; // the first token is not delayed
+    }
+
+    /**
+     * Queues the given token; safe to call from any thread.
+     *
+     * @param token the partial response - null or empty tokens are ignored
+     */
+    public void append(final String token) {
+        if (token == null || token.isEmpty()) {
+            return;
+        }
+        pending.offer(token);
+        if (scheduled.compareAndSet(false, true)) {
+            final long delay = lastFlush + frameNanos - System.nanoTime();
+            if (delay <= 0) {
+                SwingUtilities.invokeLater(this::drain);
+            } else {
+                SCHEDULER.schedule(() -> SwingUtilities.invokeLater(this::drain), delay, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    /**
+     * Hands over whatever is still queued without waiting for the next frame.
+     * The flush runs on the EDT and is done when this method returns, so that
+     * what the caller does next (e.g. replacing the streamed text with the
+     * final answer) is not overwritten by late tokens.
+     */
+    public void flush() {
+        if (SwingUtilities.isEventDispatchThread()) {
+            drain();
+            return;
+        }
+        try {
+            SwingUtilities.invokeAndWait(this::drain);
+        } catch (InterruptedException x) {
+            Thread.currentThread().interrupt();
+        } catch (InvocationTargetException x) {
+            LOG.log(Level.WARNING, "unable to flush the streamed tokens", x.getCause());
+        }
+    }
+
+    private void drain() {
+        //
+        // reset the flag before draining so that tokens arriving while the
+        // sink is busy schedule the next frame instead of being stranded
+        //
+        scheduled.set(false);
+        lastFlush = System.nanoTime();
+
+        final StringBuilder text = new StringBuilder();
+        String token;
+        while ((token = pending.poll()) != null) {
+            text.append(token);
+        }
+        if (text.length() > 0) {
+            sink.accept(text.toString());
+        }
+    }
+}
@@ -15,12 +15,10 @@
  */
 package io.github.jeddict.ai.response;
 
-import java.util.LinkedList;
+import io.github.jeddict.ai.util.MarkdownParser;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Scanner;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import org.openide.filesystems.FileObject;
 
 /**
@@ -32,6 +30,9 @@ public class Response {
     private final String query;
     private List<Block> blocks;
     private final Set<FileObject> messageContext;
+    private String context;
+    private String serialized;
+    private Object[] serializedFrom;
 
     public Response(String query, String response,  Set<FileObject> messageContext) {
         this.query = query;
@@ -62,62 +63,48 @@ public class Response {
         return messageContext;
     }
 
-    private List<Block> parseMarkdown(String text) {
-        List<Block> result = new LinkedList<>();
-        StringBuilder buffer = new StringBuilder();
-        boolean insideCodeBlock = false;
-        String currentFence = null;
-        String blockType = "text"; // block type is text by default to match
-                                   // heading text
-
-        Scanner scanner = new Scanner(text);
-        while (scanner.hasNextLine()) {
-            String line = scanner.nextLine();
-            Matcher fenceMatcher = Pattern.compile("^(```+)(\\s*\\w+)?\\s*$").matcher(line);
-
-            if (fenceMatcher.matches()) {
-                String fence = fenceMatcher.group(1);
-                String lang = fenceMatcher.group(2) != null ? fenceMatcher.group(2).trim() : "";
-
-                if (!insideCodeBlock) {
-                    // Starting code block
-                    if (buffer.length() > 0) {
-                        //
-                        // NOTE: text outside block shall be trimmed
-                        //
-                        result.add(new Block(blockType, buffer.toString().trim()));
-                        buffer.setLength(0);
-                    }
-                    insideCodeBlock = true;
-                    currentFence = fence;
-                    blockType = lang.isEmpty() ? "code" : lang;
-                } else if (line.startsWith(currentFence)) {
-                    // Ending code block
-                    insideCodeBlock = false;
-                    //
-                    // NOTE: content outside blocks should not be trimmed
-                    //
-                    result.add(new Block(blockType, buffer.toString()));
-                    buffer.setLength(0);
-                    blockType = "text";
-                }
-                // Skip the fence line itself
-            } else {
-                buffer.append(line).append("\n");
-            }
-        }
+    /**
+     * @return the context (e.g. files) sent to the model with the query, to
+     * be replayed with it in the following turns; null if not to be replayed
+     */
+    public String getContext() {
+        return context;
+    }
 
-        if (buffer.length() > 0) {
-            result.add(new Block(blockType, buffer.toString().trim()));
-        }
+    public void setContext(String context) {
+        this.context = context;
+    }
+
+    private List<Block> parseMarkdown(String text) {
+        List<Block> result = new ArrayList<>();
+        //
+        // NOTE: text outside blocks shall be trimmed, content of code blocks
+        // should not
+        //
+        new MarkdownParser(
+            (type, content, closed) -> result.add(new Block(type, closed ? content.toString() : MarkdownParser.trim(content)))
+        ).parse(text);
 
         return result;
     }
 
+    /**
+     * Rebuilds the markdown of the response. The result is cached as long as
+     * the blocks do not change (history replay serialises every previous
+     * response for each new question); blocks are mutable, so the cache is
+     * checked against the type and content references it was built from.
+     */
     @Override
     public String toString() {
+        if (serialized != null && isSerializedFrom(blocks)) {
+            return serialized;
+        }
+        final Object[] from = new Object[blocks.size() * 2];
         StringBuilder responseBuilder = new StringBuilder();
+        int i = 0;
         for (Block block : blocks) {
+            from[i++] = block.getType();
+            from[i++] = block.getContent();
             switch (block.getType()) {
                 case "text" -> responseBuilder.append(block.getContent()).append("\n");
                 default -> responseBuilder.append("```").append(block.getType()).append("\n")
@@ -125,7 +112,21 @@ public class Response {
                             .append("```\n");
             }
         }
-        return responseBuilder.toString().trim();
+        serializedFrom = from;
+        return serialized = responseBuilder.toString().trim();
+    }
+
+    private boolean isSerializedFrom(final List<Block> blocks) {
+        if (blocks.size() * 2 != serializedFrom.length) {
+            return false;
+        }
+        int i = 0;
+        for (Block block : blocks) {
+            if (block.getType() != serializedFrom[i++] || block.getContent() != serializedFrom[i++]) {
+                return false;
+            }
+        }
+        return true;
     }
 
 }
@@ -16,6 +16,8 @@
 package io.github.jeddict.ai.response;
 
 import com.knuddels.jtokkit.Encodings;
+import com.knuddels.jtokkit.api.Encoding;
+import com.knuddels.jtokkit.api.EncodingType;
 import dev.langchain4j.data.message.ChatMessage;
 import io.github.jeddict.ai.settings.PreferencesManager;
 import io.github.jeddict.ai.settings.ReportManager;
@@ -31,6 +33,7 @@ public class TokenHandler {
 
     private static final PreferencesManager preferencesManager = PreferencesManager.getInstance();
     private static final ReportManager reportManager = ReportManager.getInstance();
+    private static final Encoding encoding = Encodings.newLazyEncodingRegistry().getEncoding(EncodingType.CL100K_BASE);
 
     public static int saveInputToken(List<ChatMessage> messages) {
         if (messages == null || messages.isEmpty()) {
@@ -60,11 +63,8 @@ public class TokenHandler {
         saveTokenUsage(reportManager.getDailyOutputTokenStats(), tokenCount, false);
     }
 
-    private static int countTokens(String text) {
-        return Encodings.newDefaultEncodingRegistry()
-                .getEncoding("cl100k_base")
-                .map(enc -> enc.encode(text).size())
-                .orElse(0);
+    public static int countTokens(String text) {
+        return (text == null || text.isEmpty()) ? 0 : encoding.countTokens(text);
     }
 
     private static void saveTokenUsage(JSONObject usage, int tokens, boolean isInput) {
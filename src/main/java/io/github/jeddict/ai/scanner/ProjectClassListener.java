@@ -18,6 +18,8 @@ package io.github.jeddict.ai.scanner;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
 import org.netbeans.api.project.Project;
 import org.netbeans.api.project.ProjectUtils;
 import org.netbeans.api.project.SourceGroup;
@@ -32,13 +34,14 @@ import org.openide.loaders.DataObject;
  */
 public class ProjectClassListener {
 
-    private final Project project;
+    private final FileObject javaFolder;
 
     private final Map<FileObject, ClassData> classDatas;
     private final Set<DataObject> pendingDO = new HashSet<>();
+    private final ChangeListener registryListener = this::registryChanged;
 
     public ProjectClassListener(Project project, Map<FileObject, ClassData> classDatas) {
-        this.project = project;
+        this.javaFolder = findJavaFolder(project); // the project is not kept, it is the weak key of the scanner cache
         this.classDatas = classDatas;
     }
 
@@ -47,6 +50,28 @@ public class ProjectClassListener {
     }
 
     public void register() {
+        // Listen for changes in the DataObject Registry
+        DataObject.getRegistry().addChangeListener(registryListener);
+    }
+
+    public void unregister() {
+        DataObject.getRegistry().removeChangeListener(registryListener);
+    }
+
+    private void registryChanged(ChangeEvent e) {
+        if (javaFolder == null) {
+            return;
+        }
+        DataObject[] modifiedObjects = DataObject.getRegistry().getModified();
+        for (DataObject dataObj : modifiedObjects) {
+            if (FileUtil.isParentOf(javaFolder, dataObj.getPrimaryFile())) {
+                pendingDO.add(dataObj);
+                classDatas.remove(dataObj.getPrimaryFile());
+            }
+        }
+    }
+
+    private static FileObject findJavaFolder(Project project) {
         // Get source groups from the project (Java source folders)
         Sources sources = ProjectUtils.getSources(project);
         SourceGroup[] sourceGroups = sources.getSourceGroups(Sources.TYPE_GENERIC);
@@ -65,21 +90,7 @@ public class ProjectClassListener {
                 }
             }
         }
-
-        FileObject javaFolder2 = javaFolder;
-        // Listen for changes in the DataObject Registry
-        DataObject.Registry registry = DataObject.getRegistry();
-        registry.addChangeListener((e) -> {
-            DataObject[] modifiedObjects = registry.getModified();
-            for (DataObject dataObj : modifiedObjects) {
-                if (FileUtil.isParentOf(javaFolder2, dataObj.getPrimaryFile())) {
-                    pendingDO.add(dataObj);
-                    classDatas.remove(dataObj.getPrimaryFile());
-                } else {
-                    System.out.println("");
-                }
-            }
-        });
+        return javaFolder;
     }
 
 }
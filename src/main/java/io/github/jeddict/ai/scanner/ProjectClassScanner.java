@@ -21,17 +21,18 @@ import com.sun.source.tree.MethodTree;
 import com.sun.source.tree.ModifiersTree;
 import com.sun.source.tree.Tree;
 import com.sun.source.tree.VariableTree;
-import io.github.jeddict.ai.lang.JeddictBrain;
 import io.github.jeddict.ai.settings.AIClassContext;
+import io.github.jeddict.ai.util.CacheManager;
+import io.github.jeddict.ai.util.CacheManager.Region;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 import static java.util.stream.Collectors.toList;
@@ -57,7 +58,7 @@ import org.openide.util.Exceptions;
 public class ProjectClassScanner {
 
     public static Map<FileObject, ClassData> scanProjectClasses(Project project) throws IOException {
-        Map<FileObject, ClassData> classList = new HashMap<>();
+        Map<FileObject, ClassData> classList = new ConcurrentHashMap<>(); // updated by ProjectClassListener
 
         if (project != null) {
             // Get source groups from the project (Java source folders)
@@ -222,14 +223,17 @@ public class ProjectClassScanner {
                 .replace("\n\n", "\n");
     }
 
-    private static final Map<String, Map<FileObject, ClassData>> classData = new HashMap<>(); // project is key
-    private static final Map<String, ProjectClassListener> projectClassListeners = new HashMap<>(); // project is key
-    private static final Map<String, JeddictBrain> models = new HashMap<>(); // class file is key
+    /**
+     * scanned classes of a project and the listener keeping them up to date
+     */
+    private record ProjectClasses(Map<FileObject, ClassData> classes, ProjectClassListener listener) {}
+
+    private static final Region<Project, ProjectClasses> classData = CacheManager.getInstance().region(
+        "project-classes", true, ProjectClassScanner::weigh, classes -> classes.listener().unregister()
+    ); // project is (weak) key
 
     public static void clear() {
         classData.clear();
-        projectClassListeners.clear();
-        models.clear();
     }
 
     public static FileObject getFileObjectFromEditor(Document document) {
@@ -260,38 +264,42 @@ public class ProjectClassScanner {
         Project project = FileOwnerQuery.getOwner(fileObject);
         if (project != null) {
             try {
-                String key = project.getProjectDirectory().toString();
-                if (classData.get(key) == null) {
+                ProjectClasses projectClasses = classData.get(project);
+                if (projectClasses == null) {
                     Map<FileObject, ClassData> classDataList = scanProjectClasses(project);
-                    classData.put(key, classDataList);
                     ProjectClassListener projectClassListener = new ProjectClassListener(project, classDataList);
                     projectClassListener.register();
-                    projectClassListeners.put(key, projectClassListener);
+                    projectClasses = new ProjectClasses(classDataList, projectClassListener);
+                    classData.put(project, projectClasses);
                 }
-                if (projectClassListeners.get(key) != null) {
-                    Iterator<DataObject> iterator = projectClassListeners.get(key).getPendingDataObject().iterator();
-                    while (iterator.hasNext()) {
-                        DataObject javaFile = iterator.next();
-                        if (javaFile.getPrimaryFile().equals(fileObject)) {
-                            // Ignore current editor
-                            LOG.finest(() -> "Ignoring " + fileObject.getName());
-                        } else {
-                            // Remove safely using the iterator
-                            iterator.remove();
-                            LOG.finest(() -> "Rescanning " + javaFile.getName());
-                            scanJavaFile(javaFile, classData.get(key));
-                        }
+                Iterator<DataObject> iterator = projectClasses.listener().getPendingDataObject().iterator();
+                boolean rescanned = false;
+                while (iterator.hasNext()) {
+                    DataObject javaFile = iterator.next();
+                    if (javaFile.getPrimaryFile().equals(fileObject)) {
+                        // Ignore current editor
+                        LOG.finest(() -> "Ignoring " + fileObject.getName());
+                    } else {
+                        // Remove safely using the iterator
+                        iterator.remove();
+                        LOG.finest(() -> "Rescanning " + javaFile.getName());
+                        scanJavaFile(javaFile, projectClasses.classes());
+                        rescanned = true;
                     }
                 }
+                if (rescanned) {
+                    classData.put(project, projectClasses); // updates its estimated size
+                }
 
+                final Map<FileObject, ClassData> classes = projectClasses.classes();
                 if (classAnalysisContext == AIClassContext.REFERENCED_CLASSES) {
-                    return classData.get(key).entrySet().stream()
+                    return classes.entrySet().stream()
                             .filter(entry -> !entry.getKey().equals(fileObject))
                             .filter(entry -> findReferencedClasses != null && findReferencedClasses.contains(entry.getKey().getName()))
                             .map(entry -> entry.getValue())
                             .collect(toList());
                 } else if (classAnalysisContext == AIClassContext.CURRENT_PACKAGE) {
-                    return classData.get(key).entrySet().stream()
+                    return classes.entrySet().stream()
                             .filter(entry -> !entry.getKey().equals(fileObject))
                             .filter(entry
                                     -> (findReferencedClasses != null && findReferencedClasses.contains(entry.getKey().getName()))
@@ -300,7 +308,7 @@ public class ProjectClassScanner {
                             .map(entry -> entry.getValue())
                             .collect(toList());
                 } else if (classAnalysisContext == AIClassContext.ENTIRE_PROJECT) {
-                    return classData.get(key).entrySet().stream()
+                    return classes.entrySet().stream()
                             .filter(entry -> !entry.getKey().equals(fileObject))
                             .map(entry -> entry.getValue())
                             .collect(toList());
@@ -312,6 +320,19 @@ public class ProjectClassScanner {
         return Collections.emptyList();
     }
 
+    private static long weigh(Project project, ProjectClasses projectClasses) {
+        long size = 0;
+        for (ClassData data : projectClasses.classes().values()) {
+            size += CacheManager.ENTRY_OVERHEAD + CacheManager.weigh(data.getClassSignature());
+            if (data.getSubtree() != null) {
+                for (String type : data.getSubtree()) {
+                    size += CacheManager.weigh(type);
+                }
+            }
+        }
+        return size;
+    }
+
     public static Set<String> getReferencedClasses(CompilationUnitTree compilationUnit) throws IOException {
         return findReferencedClasses(compilationUnit);
     }
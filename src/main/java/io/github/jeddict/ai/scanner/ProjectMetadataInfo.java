@@ -15,128 +15,289 @@
  */
 package io.github.jeddict.ai.scanner;
 
-import java.io.File;
-import java.util.HashMap;
+import io.github.jeddict.ai.util.CacheManager;
+import io.github.jeddict.ai.util.CacheManager.Region;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.apache.maven.model.Parent;
 import org.apache.maven.model.Plugin;
 import org.apache.maven.project.MavenProject;
 import org.codehaus.plexus.util.xml.Xpp3Dom;
 import org.netbeans.api.project.Project;
 import org.netbeans.modules.maven.api.NbMavenProject;
+import org.openide.filesystems.FileAttributeEvent;
+import org.openide.filesystems.FileChangeListener;
+import org.openide.filesystems.FileEvent;
+import org.openide.filesystems.FileObject;
+import org.openide.filesystems.FileRenameEvent;
+import org.openide.filesystems.FileUtil;
+import org.openide.util.WeakListeners;
 
 /**
+ * Build metadata of a project (build tool, Java version, Jakarta/Java EE
+ * level, frameworks and main dependencies) as added to prompts.
+ * <p>
+ * Metadata is computed from the Maven model or, for Gradle projects, from the
+ * build scripts, and cached per project until the project changes: Maven
+ * projects are invalidated when NetBeans reloads the project model, Gradle
+ * projects when a build script in the project directory changes. So
+ * {@link #get(Project)} costs a map lookup on each completion or chat turn.
+ * Projects are weakly referenced and leave the cache when closed and
+ * collected, or when evicted by {@link CacheManager}.
  *
  * @author Gaurav Gupta
  */
 public class ProjectMetadataInfo {
 
-    private static final Map<Project, CachedResult> cache = new HashMap<>();
+    private static final Logger LOG = Logger.getLogger(ProjectMetadataInfo.class.getName());
 
-    public static String get(Project project) {
-        CachedResult cachedResult = getCachedResult(project);
+    public static final int MAX_DEPENDENCIES = 25;
+
+    private static final Set<String> GRADLE_FILES = Set.of(
+        "build.gradle", "build.gradle.kts", "gradle.properties", "settings.gradle", "settings.gradle.kts"
+    );
+
+    private static final Pattern GRADLE_DEPENDENCY = Pattern.compile(
+        "\\b(\\w+)\\s*\\(?\\s*(?:(?:enforcedPlatform|platform)\\s*\\(\\s*)?[\"']([\\w.\\-]+):([\\w.\\-]+)(?::([^\"'@:]+))?[^\"']*[\"']"
+    );
+    private static final Pattern GRADLE_PLUGIN = Pattern.compile(
+        "\\bid\\s*\\(?\\s*[\"']([\\w.\\-]+)[\"']\\s*\\)?(?:\\s*version\\s*\\(?\\s*[\"']([^\"']+)[\"'])?"
+    );
+    private static final Pattern GRADLE_JAVA_VERSION = Pattern.compile(
+        "(?:sourceCompatibility\\s*=\\s*(?:JavaVersion\\.VERSION_|[\"'])?|JavaLanguageVersion\\.of\\(\\s*|options\\.release(?:\\s*=\\s*|\\.set\\(\\s*)|jvmToolchain\\(\\s*)([\\d._]+)"
+    );
+
+    /**
+     * rough size of the metadata of a project, whose text is bound by
+     * {@link #MAX_DEPENDENCIES}
+     */
+    private static final long METADATA_SIZE = 4096;
+
+    private static final Region<Project, Holder> cache = CacheManager.getInstance().region(
+        "project-metadata", true, (project, holder) -> METADATA_SIZE
+    );
 
-        // Check if cachedResult is null and handle accordingly
-        if (cachedResult == null) {
+    /**
+     * A dependency or, for Gradle, a plugin (with the plugin id as group).
+     */
+    public record Dependency(String groupId, String artifactId, String version, boolean test) {}
+
+    /**
+     * @param buildTool "Maven" or "Gradle"
+     * @param importPrefix "javax" or "jakarta", null if unknown
+     * @param eeVersion version of the Jakarta EE or Java EE platform, null if
+     * unknown
+     * @param jdkVersion Java version the project is compiled for
+     * @param frameworks framework names and versions (null if unknown)
+     * @param dependencies main (non test) dependencies as groupId:artifactId,
+     * at most {@link #MAX_DEPENDENCIES}
+     * @param text the metadata as added to prompts
+     */
+    public record Metadata(
+        String buildTool, String importPrefix, String eeVersion, String jdkVersion,
+        Map<String, String> frameworks, List<String> dependencies, String text
+    ) {}
+
+    public static String get(Project project) {
+        final Metadata metadata = getMetadata(project);
+        if (metadata == null) {
             return "Project Metadata: Unable to retrieve metadata for the specified project.";
         }
+        return metadata.text();
+    }
+
+    /**
+     * @return the metadata of the given project, null if it is neither a Maven
+     * nor a Gradle project or its model can not be read
+     */
+    public static Metadata getMetadata(Project project) {
+        if (project == null) {
+            return null;
+        }
+        return cache.computeIfAbsent(project, Holder::new).get(project);
+    }
 
-        StringBuilder sb = new StringBuilder();
+    // --------------------------------------------------------- private methods
 
-        // Append EE Version with appropriate label if importPrefix is "jakarta"
-        if (cachedResult.getEeVersion() != null) {
-            if ("jakarta".equals(cachedResult.getImportPrefix())) {
-                sb.append("Jakarta EE Version: ").append(cachedResult.getEeVersion()).append("\n");
-            } else {
-                sb.append("EE Version: ").append(cachedResult.getEeVersion()).append("\n");
+    private static Metadata compute(final Project project) {
+        try {
+            final NbMavenProject nbMavenProject = project.getLookup().lookup(NbMavenProject.class);
+            if (nbMavenProject != null) {
+                return maven(nbMavenProject.getMavenProject());
             }
+            final FileObject dir = project.getProjectDirectory();
+            FileObject script = dir.getFileObject("build.gradle");
+            if (script == null) {
+                script = dir.getFileObject("build.gradle.kts");
+            }
+            if (script != null) {
+                return gradle(script.asText());
+            }
+        } catch (Exception x) {
+            LOG.log(Level.FINE, "unable to read the build metadata of " + project.getProjectDirectory(), x);
         }
-        if (cachedResult.getImportPrefix() != null) {
-            sb.append("EE Import Prefix: ").append(cachedResult.getImportPrefix()).append("\n");
+        return null;
+    }
+
+    private static Metadata maven(final MavenProject mavenProject) {
+        final List<Dependency> dependencies = new ArrayList<>();
+        final Parent parent = mavenProject.getModel().getParent();
+        if (parent != null) {
+            dependencies.add(new Dependency(parent.getGroupId(), parent.getArtifactId(), parent.getVersion(), false));
         }
-        if (cachedResult.getJdkVersion() != null) {
-            sb.append("Java Version: ").append(cachedResult.getJdkVersion()).append("\n");
+        if (mavenProject.getDependencyManagement() != null) {
+            //
+            // BOMs (e.g. io.quarkus.platform:quarkus-bom) tell the framework
+            // version, the dependencies using them have none
+            //
+            for (org.apache.maven.model.Dependency d : mavenProject.getDependencyManagement().getDependencies()) {
+                if ("import".equals(d.getScope())) {
+                    dependencies.add(new Dependency(d.getGroupId(), d.getArtifactId(), d.getVersion(), false));
+                }
+            }
         }
-
-        if (!sb.isEmpty()) {
-            sb.insert(0, "Project Metadata:\n");
+        for (org.apache.maven.model.Dependency d : mavenProject.getDependencies()) {
+            dependencies.add(new Dependency(d.getGroupId(), d.getArtifactId(), d.getVersion(), "test".equals(d.getScope())));
         }
-        return sb.toString();
-    }
 
-    public static CachedResult getCachedResult(Project project) {
-        try {
-            // Check if the project is cached
-            CachedResult cachedResult = cache.get(project);
-
-            // Get project modification timestamp
-            NbMavenProject nbMavenProject = project.getLookup().lookup(NbMavenProject.class);
-            if (nbMavenProject == null) {
-                return null; // Not a Maven project
-            }
-
-            // Get the pom.xml FileObject
-            File pomFile = nbMavenProject.getMavenProject().getFile();
-            long lastModified = pomFile.lastModified();
-
-            // Invalidate cache if timestamp has changed
-            if (cachedResult == null || cachedResult.timestamp < lastModified) {
-                // Get the MavenProject
-                MavenProject mavenProject = nbMavenProject.getMavenProject();
-
-                // Determine Jakarta EE version
-                String eeVersion = getEEVersionFromDependencies(mavenProject);
-
-                // Determine JDK version
-                String jdkVersion = getJdkVersionFromPom(mavenProject);
-
-                // Determine the import prefix
-                String importPrefix = null;
-                if (eeVersion != null) {
-                    if (eeVersion.startsWith("jakarta")) {
-                        if (eeVersion.equals("jakarta-8.0.0")) {
-                            importPrefix = "javax"; // Special case for Jakarta EE 8
-                        } else {
-                            importPrefix = "jakarta";
-                        }
-                    } else if (eeVersion.startsWith("javax")) {
-                        importPrefix = "javax";
-                    }
-                }
+        return metadata("Maven", getJdkVersionFromPom(mavenProject), dependencies);
+    }
 
-                // Cache the result
-                CachedResult result = new CachedResult(importPrefix, eeVersion, jdkVersion, lastModified);
-                cache.put(project, result);
+    /**
+     * @param script the content of build.gradle or build.gradle.kts
+     */
+    static Metadata gradle(final String script) {
+        final List<Dependency> dependencies = new ArrayList<>();
 
-                return result;
+        Matcher m = GRADLE_PLUGIN.matcher(script);
+        while (m.find()) {
+            dependencies.add(new Dependency(m.group(1), null, version(m.group(2)), false));
+        }
+        m = GRADLE_DEPENDENCY.matcher(script);
+        while (m.find()) {
+            final String configuration = m.group(1);
+            if ("id".equals(configuration) || "classpath".equals(configuration)) {
+                continue;
             }
+            dependencies.add(new Dependency(
+                m.group(2), m.group(3), version(m.group(4)), configuration.toLowerCase().startsWith("test")
+            ));
+        }
 
-            // Return cached result
-            return cachedResult;
-
-        } catch (Exception e) {
-            e.printStackTrace();
-            return null; // In case of errors
+        String jdkVersion = null;
+        m = GRADLE_JAVA_VERSION.matcher(script);
+        if (m.find()) {
+            jdkVersion = m.group(1).replace('_', '.');
         }
+
+        return metadata("Gradle", jdkVersion, dependencies);
     }
 
-    private static String getEEVersionFromDependencies(MavenProject mavenProject) {
-        // Look for Jakarta EE or Java EE dependencies in the pom.xml
-        for (org.apache.maven.model.Dependency dependency : mavenProject.getDependencies()) {
-            if (dependency.getGroupId().equals("jakarta.platform")) {
-                if (dependency.getVersion().startsWith("8.0")) {
-                    return "jakarta-8.0.0"; // Special case for Jakarta EE 8
-                }
-                return "jakarta"; // Other versions of Jakarta EE
+    private static Metadata metadata(final String buildTool, final String jdkVersion, final List<Dependency> dependencies) {
+        final Map<String, String> frameworks = new LinkedHashMap<>();
+        String importPrefix = null, eeVersion = null, eeName = null;
+
+        for (Dependency d : dependencies) {
+            if (d.test || d.groupId == null) {
+                continue;
+            }
+            final String group = d.groupId;
+            if (group.equals("org.springframework.boot")) {
+                frameworks.putIfAbsent("Spring Boot", d.version);
+            } else if (group.equals("org.springframework") || group.startsWith("org.springframework.")) {
+                frameworks.putIfAbsent("Spring", null);
+            } else if (group.equals("io.quarkus") || group.equals("io.quarkus.platform")) {
+                frameworks.putIfAbsent("Quarkus", d.version);
+            } else if (group.startsWith("io.micronaut")) {
+                frameworks.putIfAbsent("Micronaut", d.version);
+            } else if (group.startsWith("io.helidon")) {
+                frameworks.putIfAbsent("Helidon", d.version);
+            } else if (group.startsWith("org.eclipse.microprofile")) {
+                frameworks.putIfAbsent("MicroProfile", d.version);
+            } else if (group.equals("jakarta.platform")) {
+                eeName = "Jakarta EE";
+                eeVersion = d.version;
+                importPrefix = (d.version != null && d.version.startsWith("8.")) ? "javax" : "jakarta";
+            } else if (group.equals("javax") && d.artifactId != null && d.artifactId.startsWith("javaee")) {
+                eeName = "Java EE";
+                eeVersion = d.version;
+                importPrefix = "javax";
+            } else if (importPrefix == null && group.startsWith("javax.")) {
+                importPrefix = "javax";
+            } else if (importPrefix == null && group.startsWith("jakarta.")) {
+                importPrefix = "jakarta";
             }
-            if (dependency.getGroupId().equals("javax.enterprise")
-                    || dependency.getGroupId().startsWith("javax.")) {
-                return "javax"; // Java EE dependencies
+        }
+        if (frameworks.containsKey("Spring Boot")) {
+            frameworks.remove("Spring");
+        }
+        if (importPrefix == null) {
+            //
+            // Spring Boot 3 and Quarkus 3 moved to the jakarta namespace
+            //
+            final String version = (frameworks.get("Spring Boot") != null) ? frameworks.get("Spring Boot") : frameworks.get("Quarkus");
+            if (version != null && Character.isDigit(version.charAt(0))) {
+                importPrefix = (version.charAt(0) >= '3') ? "jakarta" : "javax";
             }
         }
-        return null; // Return null if no matching dependencies are found
+        if (eeName != null) {
+            frameworks.put(eeName, eeVersion);
+        }
+
+        final List<String> main = dependencies.stream()
+            .filter(d -> !d.test && d.artifactId != null)
+            .map(d -> d.groupId + ':' + d.artifactId)
+            .distinct()
+            .limit(MAX_DEPENDENCIES)
+            .toList();
+
+        final StringBuilder sb = new StringBuilder("Project Metadata:\n");
+        sb.append("Build Tool: ").append(buildTool).append("\n");
+        if (eeVersion != null) {
+            sb.append(eeName).append(" Version: ").append(eeVersion).append("\n");
+        }
+        if (importPrefix != null) {
+            sb.append("EE Import Prefix: ").append(importPrefix).append("\n");
+        }
+        if (jdkVersion != null) {
+            sb.append("Java Version: ").append(jdkVersion).append("\n");
+        }
+        final List<String> named = new ArrayList<>();
+        frameworks.forEach((name, version) -> named.add((version != null) ? name + ' ' + version : name));
+        if (!named.isEmpty()) {
+            sb.append("Frameworks: ").append(String.join(", ", named)).append("\n");
+        }
+        if (!main.isEmpty()) {
+            sb.append("Dependencies: ").append(String.join(", ", main)).append("\n");
+        }
+
+        return new Metadata(
+            buildTool, importPrefix, eeVersion, jdkVersion,
+            Collections.unmodifiableMap(frameworks), main, sb.toString()
+        );
+    }
+
+    /**
+     * @return the version, null if unknown or a property reference
+     */
+    private static String version(final String version) {
+        return (version == null || version.contains("$") || version.isBlank()) ? null : version.trim();
     }
 
     private static String getJdkVersionFromPom(MavenProject mavenProject) {
+        String release = mavenProject.getProperties().getProperty("maven.compiler.release");
+        if (release != null) {
+            return release;
+        }
         // Check for JDK version in Maven properties
         String source = mavenProject.getProperties().getProperty("maven.compiler.source");
         String target = mavenProject.getProperties().getProperty("maven.compiler.target");
@@ -152,9 +313,11 @@ public class ProjectMetadataInfo {
             if ("maven-compiler-plugin".equals(plugin.getArtifactId())) {
                 Object configuration = plugin.getConfiguration();
                 if (configuration instanceof Xpp3Dom dom) {
-                    Xpp3Dom sourceNode = dom.getChild("source");
-                    if (sourceNode != null) {
-                        return sourceNode.getValue();
+                    for (String name : new String[] {"release", "source"}) {
+                        Xpp3Dom node = dom.getChild(name);
+                        if (node != null) {
+                            return node.getValue();
+                        }
                     }
                 }
             }
@@ -164,31 +327,80 @@ public class ProjectMetadataInfo {
         return null;
     }
 
-    // Helper class to store cached result and its timestamp
-    public static class CachedResult {
+    /**
+     * Cached metadata of a project and the listeners that invalidate it; it
+     * must not reference the project, which is the weak key of the cache.
+     */
+    private static final class Holder {
 
-        String importPrefix; // "javax" or "jakarta"
-        String eeVersion; // Jakarta EE or Java EE version
-        String jdkVersion; // JDK version used
-        long timestamp; // Timestamp of cache creation
+        private volatile Metadata metadata;
+        private volatile boolean valid;
 
-        CachedResult(String importPrefix, String eeVersion, String jdkVersion, long timestamp) {
-            this.importPrefix = importPrefix;
-            this.eeVersion = eeVersion;
-            this.jdkVersion = jdkVersion;
-            this.timestamp = timestamp;
-        }
+        // strongly held here, weakly registered
+        private final PropertyChangeListener mavenListener;
+        private final FileChangeListener gradleListener;
 
-        public String getImportPrefix() {
-            return importPrefix;
+        Holder(final Project project) {
+            final NbMavenProject nbMavenProject = project.getLookup().lookup(NbMavenProject.class);
+            if (nbMavenProject != null) {
+                mavenListener = evt -> {
+                    if (NbMavenProject.PROP_PROJECT.equals(evt.getPropertyName())) {
+                        valid = false;
+                    }
+                };
+                nbMavenProject.addPropertyChangeListener(WeakListeners.propertyChange(mavenListener, nbMavenProject));
+                gradleListener = null;
+            } else {
+                mavenListener = null;
+                gradleListener = new BuildScriptListener();
+                final FileObject dir = project.getProjectDirectory();
+                dir.addFileChangeListener(FileUtil.weakFileChangeListener(gradleListener, dir));
+            }
         }
 
-        public String getEeVersion() {
-            return eeVersion;
+        synchronized Metadata get(final Project project) {
+            if (!valid) {
+                valid = true; // before computing, so that changes meanwhile are not lost
+                metadata = compute(project);
+            }
+            return metadata;
         }
 
-        public String getJdkVersion() {
-            return jdkVersion;
+        private final class BuildScriptListener implements FileChangeListener {
+
+            @Override
+            public void fileChanged(FileEvent fe) {
+                invalidate(fe.getFile());
+            }
+
+            @Override
+            public void fileDataCreated(FileEvent fe) {
+                invalidate(fe.getFile());
+            }
+
+            @Override
+            public void fileDeleted(FileEvent fe) {
+                invalidate(fe.getFile());
+            }
+
+            @Override
+            public void fileRenamed(FileRenameEvent fe) {
+                valid = false;
+            }
+
+            @Override
+            public void fileFolderCreated(FileEvent fe) {
+            }
+
+            @Override
+            public void fileAttributeChanged(FileAttributeEvent fe) {
+            }
+
+            private void invalidate(final FileObject file) {
+                if (GRADLE_FILES.contains(file.getNameExt())) {
+                    valid = false;
+                }
+            }
         }
     }
 }
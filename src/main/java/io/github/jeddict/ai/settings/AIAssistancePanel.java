@@ -26,6 +26,7 @@ import io.github.jeddict.ai.models.OpenAIModelFetcher;
 import io.github.jeddict.ai.models.PerplexityModelFetcher;
 import io.github.jeddict.ai.scanner.ProjectClassScanner;
 import static io.github.jeddict.ai.settings.GenAIModel.MODELS;
+import io.github.jeddict.ai.util.CacheManager;
 import io.github.jeddict.ai.util.ColorUtil;
 import static io.github.jeddict.ai.util.ColorUtil.darken;
 import static io.github.jeddict.ai.util.ColorUtil.lighten;
@@ -1140,8 +1141,10 @@ final class AIAssistancePanel extends javax.swing.JPanel {
     }// </editor-fold>//GEN-END:initComponents
 
     private void cleanDataButtonActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_cleanDataButtonActionPerformed
+        final String stats = CacheManager.getInstance().report();
         ProjectClassScanner.clear();
-        JOptionPane.showMessageDialog(this, "Cache has been cleared successfully!", "Information", JOptionPane.INFORMATION_MESSAGE);
+        CacheManager.getInstance().clear();
+        JOptionPane.showMessageDialog(this, "Cache has been cleared successfully!\n\nBefore clearing:\n" + stats, "Information", JOptionPane.INFORMATION_MESSAGE);
     }//GEN-LAST:event_cleanDataButtonActionPerformed
 
     private void showDescriptionCheckBoxActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_showDescriptionCheckBoxActionPerformed
@@ -1678,6 +1681,7 @@ final class AIAssistancePanel extends javax.swing.JPanel {
         enableInlinePromptHintCheckBox.setSelected(preferencesManager.isInlinePromptHintEnabled());
         enableHintsCheckBox.setSelected(preferencesManager.isHintsEnabled());
         enableSmartCodeCheckBox.setSelected(preferencesManager.isSmartCodeEnabled());
+        cleanDataButton.setToolTipText("<html>" + CacheManager.getInstance().report().replace("\n", "<br>") + "</html>");
 
         if (preferencesManager.getTemperature() != Double.MIN_VALUE) {
             temperature.setText(String.valueOf(preferencesManager.getTemperature()));
@@ -557,6 +557,30 @@ public class PreferencesManager {
         preferences.putBoolean("excludeJavadoc", enabled);
     }
 
+    /**
+     * @return true if java sources sent as context shall also be stripped of
+     * license headers, indentation and blank lines, with imports folded
+     */
+    public boolean isMinifySourceEnabled() {
+        return preferences.getBoolean("minifySource", false);
+    }
+
+    public void setMinifySourceEnabled(boolean enabled) {
+        preferences.putBoolean("minifySource", enabled);
+    }
+
+    /**
+     * @return true if context files already sent in the conversation shall be
+     * sent again only as diff, or referenced by name if unchanged
+     */
+    public boolean isDeltaContextEnabled() {
+        return preferences.getBoolean("deltaContext", true);
+    }
+
+    public void setDeltaContextEnabled(boolean enabled) {
+        preferences.putBoolean("deltaContext", enabled);
+    }
+
 
     public String getChatPlacement() {
         return preferences.get("chatPlacement", "Right");
@@ -584,6 +608,124 @@ public class PreferencesManager {
         preferences.putInt("conversationContext", contextValue);
     }
 
+    public int getConversationTokenLimit() {
+        // Default = 8000 tokens of verbatim history, 0 = no limit
+        return preferences.getInt("conversationTokenLimit", 8000);
+    }
+
+    public void setConversationTokenLimit(int tokens) {
+        preferences.putInt("conversationTokenLimit", tokens);
+    }
+
+    public boolean isConversationSummaryEnabled() {
+        // Default = false, older replies are dropped instead of summarized
+        return preferences.getBoolean("conversationSummary", false);
+    }
+
+    public void setConversationSummaryEnabled(boolean enabled) {
+        preferences.putBoolean("conversationSummary", enabled);
+    }
+
+    public int getProjectContextTokenBudget() {
+        // Default = 16000 tokens of the most relevant project sources, 0 = whole project
+        return preferences.getInt("projectContextTokenBudget", 16000);
+    }
+
+    public void setProjectContextTokenBudget(int tokens) {
+        preferences.putInt("projectContextTokenBudget", tokens);
+    }
+
+    public int getContextFilesMaxBytes() {
+        // Default = 1 MB of selected files sent as context, 0 = no limit
+        return preferences.getInt("contextFilesMaxBytes", 1024 * 1024);
+    }
+
+    public void setContextFilesMaxBytes(int bytes) {
+        preferences.putInt("contextFilesMaxBytes", bytes);
+    }
+
+    public int getImageMaxDimension() {
+        // Default = 0, the size the models of the provider make use of;
+        // negative = images are sent as they are
+        return preferences.getInt("imageMaxDimension", 0);
+    }
+
+    public void setImageMaxDimension(int pixels) {
+        preferences.putInt("imageMaxDimension", pixels);
+    }
+
+    public int getSchemaCacheTtlMinutes() {
+        // Default = database schemas are read again after 30 minutes, 0 = only when refreshed
+        return preferences.getInt("schemaCacheTtlMinutes", 30);
+    }
+
+    public void setSchemaCacheTtlMinutes(int minutes) {
+        preferences.putInt("schemaCacheTtlMinutes", minutes);
+    }
+
+    public int getCacheBudgetMb() {
+        // Default = the caches of the plugin use at most about 64 MB of heap
+        return preferences.getInt("cacheBudgetMb", 64);
+    }
+
+    public void setCacheBudgetMb(int megabytes) {
+        preferences.putInt("cacheBudgetMb", megabytes);
+    }
+
+    public int getBuildOutputHeadLines() {
+        // Default = the model gets the first 20 lines of the build output
+        return preferences.getInt("buildOutputHeadLines", 20);
+    }
+
+    public void setBuildOutputHeadLines(int lines) {
+        preferences.putInt("buildOutputHeadLines", lines);
+    }
+
+    public int getBuildOutputTailLines() {
+        // Default = the model gets the last 80 lines of the build output
+        return preferences.getInt("buildOutputTailLines", 80);
+    }
+
+    public void setBuildOutputTailLines(int lines) {
+        preferences.putInt("buildOutputTailLines", lines);
+    }
+
+    public int getBuildTimeoutMinutes() {
+        // Default = builds and tests run by the agent are stopped after 15 minutes, 0 = never
+        return preferences.getInt("buildTimeoutMinutes", 15);
+    }
+
+    public void setBuildTimeoutMinutes(int minutes) {
+        preferences.putInt("buildTimeoutMinutes", minutes);
+    }
+
+    public String getAgentTraceFile() {
+        // Empty = agent sessions are not recorded
+        return preferences.get("agentTraceFile", "");
+    }
+
+    public void setAgentTraceFile(String file) {
+        preferences.put("agentTraceFile", file);
+    }
+
+    public String getAgentReplayFile() {
+        // Empty = the configured model answers, not a recorded trace
+        return preferences.get("agentReplayFile", "");
+    }
+
+    public void setAgentReplayFile(String file) {
+        preferences.put("agentReplayFile", file);
+    }
+
+    public String getEmbeddingModel() {
+        // Empty = no semantic search of the project sources
+        return preferences.get("embeddingModel", "");
+    }
+
+    public void setEmbeddingModel(String modelName) {
+        preferences.put("embeddingModel", modelName);
+    }
+
     public void setFileExtensionToInclude(String exts) {
         if (exts != null) {
             String[] fileExtensionToInclude = exts.split("\\s*,\\s*");
@@ -0,0 +1,460 @@
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.ai.util;
+
+import io.github.jeddict.ai.settings.PreferencesManager;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.logging.Logger;
+
+/**
+ * Central manager of the plugin caches.
+ * <p>
+ * Each cache is a named {@link Region}; entries carry an estimated size in
+ * bytes and all regions share one heap budget (see
+ * {@link PreferencesManager#getCacheBudgetMb()}). When the budget is exceeded,
+ * the least recently used entries are evicted, whatever region they belong
+ * to. Regions may weakly reference their keys (e.g. projects or file
+ * objects), so that entries go away when the key is collected. Hits, misses
+ * and evictions are counted per region (see {@link #getStats()}).
+ * <p>
+ * A region is typically a field of the class owning the cache:
+ * <pre>
+ * private final Region&lt;FileObject, Content&gt; cache = CacheManager.getInstance().region(
+ *     "file-contents", true, (file, content) -&gt; CacheManager.weigh(content.text())
+ * );
+ * </pre>
+ */
+public class CacheManager {
+
+    private static final Logger LOG = Logger.getLogger(CacheManager.class.getName());
+
+    public static final long MB = 1024 * 1024;
+
+    /**
+     * rough size of the map entry holding a key and a value, added to what the
+     * weigher estimates
+     */
+    public static final long ENTRY_OVERHEAD = 64;
+
+    private static final CacheManager INSTANCE = new CacheManager(
+        () -> PreferencesManager.getInstance().getCacheBudgetMb() * MB
+    );
+
+    /**
+     * Estimates the size in bytes of an entry.
+     */
+    @FunctionalInterface
+    public interface Weigher<K, V> {
+
+        long weigh(K key, V value);
+    }
+
+    public record Stats(String name, int entries, long bytes, long hits, long misses, long evictions) {
+
+        /**
+         * @return hits over lookups, 0 if no lookups
+         */
+        public double hitRatio() {
+            return (hits + misses == 0) ? 0 : (double) hits / (hits + misses);
+        }
+    }
+
+    private final Map<String, Region<?, ?>> regions = new LinkedHashMap<>();
+    private final LongSupplier budget;
+    private long size;
+    private long tick;
+
+    public static CacheManager getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @param budget the maximum estimated size of all entries in bytes, read
+     * each time entries are added
+     */
+    CacheManager(final LongSupplier budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * Returns the region with the given name, created if it does not exist.
+     *
+     * @param name the name of the region, as shown in the statistics
+     * @param weakKeys whether keys are weakly referenced; keys are then
+     * compared with {@code equals()} but shall be canonical instances (e.g.
+     * {@code Project} or {@code FileObject}) to stay reachable
+     * @param weigher estimates the size of an entry, excluding
+     * {@link #ENTRY_OVERHEAD}
+     *
+     * @return the region
+     */
+    public <K, V> Region<K, V> region(
+        final String name, final boolean weakKeys, final Weigher<? super K, ? super V> weigher
+    ) {
+        return region(name, weakKeys, weigher, null);
+    }
+
+    /**
+     * @param onRemoval called with the value of each entry leaving the region
+     * other than by being replaced with itself (evicted, removed, cleared or
+     * with its key collected), with the lock of the manager held: it must be
+     * quick and must not use the cache
+     *
+     * @see #region(String, boolean, Weigher)
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <K, V> Region<K, V> region(
+        final String name, final boolean weakKeys,
+        final Weigher<? super K, ? super V> weigher, final Consumer<? super V> onRemoval
+    ) {
+        return (Region<K, V>) regions.computeIfAbsent(
+            name, n -> new Region<K, V>(n, weakKeys, weigher, onRemoval)
+        );
+    }
+
+    /**
+     * @return the statistics of all regions, in order of creation
+     */
+    public synchronized List<Stats> getStats() {
+        final List<Stats> stats = new ArrayList<>();
+        for (Region<?, ?> region : regions.values()) {
+            stats.add(region.stats());
+        }
+        return stats;
+    }
+
+    /**
+     * @return the estimated size of all entries in bytes
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    public long getBudget() {
+        return budget.getAsLong();
+    }
+
+    /**
+     * @return a human readable summary of the statistics, one line per
+     * region
+     */
+    public String report() {
+        final StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Total: %,d KB of %,d KB\n", getSize() / 1024, getBudget() / 1024));
+        for (Stats s : getStats()) {
+            sb.append(String.format(
+                "%s: %,d entries, %,d KB, %.0f%% hits (%,d/%,d), %,d evicted\n",
+                s.name(), s.entries(), s.bytes() / 1024, s.hitRatio() * 100,
+                s.hits(), s.hits() + s.misses(), s.evictions()
+            ));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Removes all entries of all regions; statistics are kept.
+     */
+    public synchronized void clear() {
+        for (Region<?, ?> region : regions.values()) {
+            region.clear();
+        }
+    }
+
+    /**
+     * @return the estimated size in bytes of the given text, 0 if null
+     */
+    public static long weigh(final CharSequence text) {
+        return (text == null) ? 0 : 40 + 2L * text.length();
+    }
+
+    // --------------------------------------------------------- private methods
+
+    /**
+     * Evicts the least recently used entries of all regions until within the
+     * budget; the entry just added is kept, even if larger than the budget.
+     */
+    private void evict(final Region<?, ?> except, final Object exceptKey) {
+        final long max = budget.getAsLong();
+        while (size > max) {
+            Region<?, ?> oldest = null;
+            long oldestTick = Long.MAX_VALUE;
+            for (Region<?, ?> region : regions.values()) {
+                final long t = region.eldestTick(except, exceptKey);
+                if (t < oldestTick) {
+                    oldestTick = t;
+                    oldest = region;
+                }
+            }
+            if (oldest == null) {
+                return;
+            }
+            oldest.evictEldest(except, exceptKey);
+        }
+    }
+
+    private static final class Node<V> {
+
+        private final V value;
+        private final long weight;
+        private long tick;
+
+        private Node(final V value, final long weight, final long tick) {
+            this.value = value;
+            this.weight = weight;
+            this.tick = tick;
+        }
+    }
+
+    /**
+     * Weak key comparing equal to the weak keys of equal referents; a cleared
+     * key is equal only to itself.
+     */
+    private static final class WeakKey<K> extends WeakReference<K> {
+
+        private final int hash;
+
+        private WeakKey(final K key, final ReferenceQueue<? super K> queue) {
+            super(key, queue);
+            this.hash = key.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof WeakKey<?> other) || hash != other.hash) {
+                return false;
+            }
+            final Object referent = get();
+            return referent != null && referent.equals(other.get());
+        }
+    }
+
+    /**
+     * A named cache; all operations synchronize on the manager. Null keys and
+     * values are not supported.
+     */
+    public final class Region<K, V> {
+
+        private final String name;
+        private final boolean weakKeys;
+        private final Weigher<? super K, ? super V> weigher;
+        private final Consumer<? super V> onRemoval;
+        private final ReferenceQueue<K> queue = new ReferenceQueue<>();
+        private final LinkedHashMap<Object, Node<V>> map = new LinkedHashMap<>(16, 0.75f, true); // in access order
+        private long bytes, hits, misses, evictions;
+
+        private Region(
+            final String name, final boolean weakKeys,
+            final Weigher<? super K, ? super V> weigher, final Consumer<? super V> onRemoval
+        ) {
+            this.name = name;
+            this.weakKeys = weakKeys;
+            this.weigher = weigher;
+            this.onRemoval = onRemoval;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return the cached value, null if none
+         */
+        public V get(final K key) {
+            synchronized (CacheManager.this) {
+                purge();
+                final Node<V> node = map.get(lookupKey(key));
+                if (node == null) {
+                    ++misses;
+                    return null;
+                }
+                ++hits;
+                node.tick = ++tick;
+                return node.value;
+            }
+        }
+
+        /**
+         * Adds or replaces an entry, then evicts entries as needed to stay
+         * within the budget. Putting again the cached value updates its
+         * estimated size, e.g. after it has been changed.
+         *
+         * @return the previous value, null if none
+         */
+        public V put(final K key, final V value) {
+            synchronized (CacheManager.this) {
+                purge();
+                final Object k = weakKeys ? new WeakKey<>(key, queue) : key;
+                final long weight = ENTRY_OVERHEAD + weigher.weigh(key, value);
+                final Node<V> previous = map.remove(k);
+                map.put(k, new Node<>(value, weight, ++tick));
+                bytes += weight;
+                size += weight;
+                if (previous != null) {
+                    bytes -= previous.weight;
+                    size -= previous.weight;
+                    if (previous.value != value) {
+                        removed(previous);
+                    }
+                }
+                evict(this, k);
+                return (previous != null) ? previous.value : null;
+            }
+        }
+
+        /**
+         * Returns the cached value or computes and adds it; the computation
+         * runs without holding any lock, so a value may be computed twice
+         * concurrently, in which case the first one added wins.
+         *
+         * @return the cached or computed value, null if computed null
+         */
+        public V computeIfAbsent(final K key, final Function<? super K, ? extends V> function) {
+            V value = get(key);
+            if (value != null) {
+                return value;
+            }
+            value = function.apply(key);
+            if (value == null) {
+                return null;
+            }
+            synchronized (CacheManager.this) {
+                final Node<V> node = map.get(lookupKey(key));
+                if (node != null) {
+                    node.tick = ++tick;
+                    return node.value;
+                }
+                put(key, value);
+                return value;
+            }
+        }
+
+        /**
+         * @return the removed value, null if none
+         */
+        public V remove(final K key) {
+            synchronized (CacheManager.this) {
+                purge();
+                final Node<V> node = map.remove(lookupKey(key));
+                if (node == null) {
+                    return null;
+                }
+                bytes -= node.weight;
+                size -= node.weight;
+                removed(node);
+                return node.value;
+            }
+        }
+
+        public void clear() {
+            synchronized (CacheManager.this) {
+                for (Node<V> node : map.values()) {
+                    removed(node);
+                }
+                size -= bytes;
+                bytes = 0;
+                map.clear();
+                while (queue.poll() != null) {
+                    // nothing left to remove
+                }
+            }
+        }
+
+        public int size() {
+            synchronized (CacheManager.this) {
+                purge();
+                return map.size();
+            }
+        }
+
+        public Stats stats() {
+            synchronized (CacheManager.this) {
+                purge();
+                return new Stats(name, map.size(), bytes, hits, misses, evictions);
+            }
+        }
+
+        // ----------------------------------------------------- private methods
+
+        private Object lookupKey(final K key) {
+            return weakKeys ? new WeakKey<>(key, null) : key;
+        }
+
+        /**
+         * Removes the entries whose key has been collected.
+         */
+        private void purge() {
+            Reference<? extends K> ref;
+            while ((ref = queue.poll()) != null) {
+                final Node<V> node = map.remove(ref);
+                if (node != null) {
+                    bytes -= node.weight;
+                    size -= node.weight;
+                    removed(node);
+                }
+            }
+        }
+
+        private long eldestTick(final Region<?, ?> except, final Object exceptKey) {
+            purge();
+            for (Map.Entry<Object, Node<V>> e : map.entrySet()) {
+                if (this != except || e.getKey() != exceptKey) {
+                    return e.getValue().tick;
+                }
+            }
+            return Long.MAX_VALUE;
+        }
+
+        private void evictEldest(final Region<?, ?> except, final Object exceptKey) {
+            final Iterator<Map.Entry<Object, Node<V>>> i = map.entrySet().iterator();
+            while (i.hasNext()) {
+                final Map.Entry<Object, Node<V>> e = i.next();
+                if (this != except || e.getKey() != exceptKey) {
+                    i.remove();
+                    bytes -= e.getValue().weight;
+                    size -= e.getValue().weight;
+                    ++evictions;
+                    removed(e.getValue());
+                    LOG.finest(() -> "evicted an entry of " + name);
+                    return;
+                }
+            }
+        }
+
+        private void removed(final Node<V> node) {
+            if (onRemoval != null) {
+                onRemoval.accept(node.value);
+            }
+        }
+    }
+}
@@ -15,21 +15,28 @@
  */
 package io.github.jeddict.ai.util;
 
+import io.github.jeddict.ai.lang.DeltaContext;
 import io.github.jeddict.ai.settings.PreferencesManager;
-import static io.github.jeddict.ai.util.FileUtil.getLatestContent;
-import static io.github.jeddict.ai.util.SourceUtil.removeJavadoc;
-import java.io.InputStream;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Base64;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.logging.Logger;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.netbeans.api.project.FileOwnerQuery;
 import org.netbeans.api.project.Project;
 import org.openide.filesystems.FileObject;
-import org.openide.util.Exceptions;
+import org.openide.filesystems.FileUtil;
 
 /**
  *
@@ -37,9 +44,25 @@ import org.openide.util.Exceptions;
  */
 public class ContextHelper {
 
+    private static final Logger LOG = Logger.getLogger(ContextHelper.class.getName());
+
     private final static PreferencesManager pm = PreferencesManager.getInstance();
 
+    /**
+     * Number of files bigger than what is left of the budget after which the
+     * walk of a scope stops.
+     */
+    static final int MAX_SKIPPED_FILES = 10;
+
     public static String getProjectContext(Set<FileObject> projectContext, Project project, boolean agentEnabled) {
+        return getProjectContext(projectContext, project, agentEnabled, null);
+    }
+
+    /**
+     * @param delta if not null, files already sent earlier in the conversation
+     * are sent as diff or referenced by name (see {@link DeltaContext})
+     */
+    public static String getProjectContext(Set<FileObject> projectContext, Project project, boolean agentEnabled, DeltaContext delta) {
         String projectDir = project.getProjectDirectory().getPath();
         Path projectPath = Paths.get(projectDir).toAbsolutePath().normalize();
 
@@ -60,19 +83,7 @@ public class ContextHelper {
                 inputForAI.append(relativePath)
                         .append("\n");
             } else {
-                try {
-                    String text = getLatestContent(file);
-                    if (text != null) {
-                        if ("java".equals(file.getExt()) && pm.isExcludeJavadocEnabled()) {
-                            text = removeJavadoc(text);
-                        }
-                        inputForAI.append("File: ").append(file.getNameExt()).append("\n");
-                        inputForAI.append(text);
-                        inputForAI.append("\n");
-                    }
-                } catch (Exception ex) {
-                    Exceptions.printStackTrace(ex);
-                }
+                appendFileContent(inputForAI, file, "\n", delta);
             }
         }
 
@@ -80,6 +91,14 @@ public class ContextHelper {
     }
 
     public static String getTextFilesContext(Set<FileObject> scope, Project project, boolean agentEnabled) {
+        return getTextFilesContext(scope, project, agentEnabled, null);
+    }
+
+    /**
+     * @param delta if not null, files already sent earlier in the conversation
+     * are sent as diff or referenced by name (see {@link DeltaContext})
+     */
+    public static String getTextFilesContext(Set<FileObject> scope, Project project, boolean agentEnabled, DeltaContext delta) {
         if (project == null) {
             return "";
         }
@@ -92,7 +111,7 @@ public class ContextHelper {
         }
         Path projectPath = Paths.get(projectDir).toAbsolutePath().normalize();
 
-        for (FileObject file : getFilesContextList(scope)) {
+        for (FileObject file : getFilesContextList(scope, project)) {
             if (agentEnabled) {
                 Path filePath = Paths.get(file.getPath()).toAbsolutePath().normalize();
                 Path relativePath;
@@ -105,89 +124,217 @@ public class ContextHelper {
                         .append("\n");
             } else {
                 if (!file.getMIMEType().startsWith("image")) {
-                    try {
-                        String text = getLatestContent(file);
-                        if (text != null) {
-                            if ("java".equals(file.getExt()) && pm.isExcludeJavadocEnabled()) {
-                                text = removeJavadoc(text);
-                            }
-                            inputForAI.append("File: ")
-                                    .append(file.getNameExt())
-                                    .append("\n")
-                                    .append(text)
-                                    .append("\n\n");
-                        }
-                    } catch (Exception ex) {
-                        Exceptions.printStackTrace(ex);
-                    }
+                    appendFileContent(inputForAI, file, "\n\n", delta);
                 }
             }
         }
     return inputForAI.toString();
 }
 
-    public static List<String> getImageFilesContext(Set<FileObject> scope) {
+    /**
+     * Appends the file content as it is in the editor, if open, or on disk.
+     * Contents are taken from {@link FileContentCache}, so files not changed
+     * since the previous turn are not read and processed again. Java sources
+     * are stripped of comments and minified as per preferences.
+     */
+    private static void appendFileContent(StringBuilder inputForAI, FileObject file, String separator, DeltaContext delta) {
+        FileContentCache.Content content = FileContentCache.getInstance().get(file,
+                SourceMinifier.Options.of(pm.isExcludeJavadocEnabled(), pm.isMinifySourceEnabled()));
+        if (content != null) {
+            if (content.tokensSaved() > 0) {
+                LOG.fine(() -> file.getNameExt() + ": " + content.tokensSaved() + " tokens saved");
+            }
+            if (delta != null) {
+                inputForAI.append(delta.render(file, content))
+                        .append(separator);
+                return;
+            }
+            inputForAI.append("File: ")
+                    .append(file.getNameExt())
+                    .append("\n")
+                    .append(content.text())
+                    .append(separator);
+        }
+    }
+
+    /**
+     * @return the images of the scope as data URLs, scaled down to what the
+     * model makes use of (see {@link ImageContextCache})
+     */
+    public static List<String> getImageFilesContext(Set<FileObject> scope, Project project) {
+        int maxDimension = pm.getImageMaxDimension();
+        if (maxDimension == 0) {
+            maxDimension = ImageContextCache.maxDimension(pm.getProvider());
+        }
         List<String> base64ImageUrls = new ArrayList<>();
-        for (FileObject file : getFilesContextList(scope)) {
+        for (FileObject file : getFilesContextList(scope, project)) {
             if (file.getMIMEType().startsWith("image")) {
-                try (InputStream is = file.getInputStream()) {
-                    byte[] imageBytes = is.readAllBytes();
-                    String base64 = Base64.getEncoder().encodeToString(imageBytes);
-                    String mimeType = file.getMIMEType();
-                    String base64Url = "data:" + mimeType + ";base64," + base64;
+                String base64Url = ImageContextCache.getInstance().get(file, maxDimension);
+                if (base64Url != null) {
                     base64ImageUrls.add(base64Url);
-                } catch (Exception ex) {
-                    Exceptions.printStackTrace(ex);
                 }
             }
         }
         return base64ImageUrls;
     }
 
-    public static List<FileObject> getFilesContextList(Set<FileObject> scope) {
-        List<FileObject> sourceFiles = new ArrayList<>();
+    /**
+     * @see #streamFilesContext(Set, Project, long)
+     */
+    public static List<FileObject> getFilesContextList(Set<FileObject> scope, Project project) {
+        return streamFilesContext(scope, project, pm.getContextFilesMaxBytes())
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    /**
+     * Lazily walks the files of the given scope, once each: selected files
+     * and, for selected folders, the files they contain or, if the scope
+     * includes {@code src/main} or {@code src/main/webapp}, the files of their
+     * whole subtree. Only files with an included extension are returned;
+     * files and folders found in selected folders whose path relative to the
+     * project directory starts with an excluded directory are skipped.
+     * <p>
+     * Each folder is listed once and only when the walk gets to it, and the
+     * walk stops as soon as the returned files reach {@code maxBytes}; files
+     * bigger than what is left of the budget are skipped, up to
+     * {@link #MAX_SKIPPED_FILES} after which the walk stops too. The files left
+     * out are logged.
+     *
+     * @param scope the selected files and folders
+     * @param project the project of the scope; if null, the projects owning
+     * the selected files and folders
+     * @param maxBytes the maximum total size of the returned files; 0 or
+     * negative for no limit
+     *
+     * @return the files of the scope
+     */
+    public static Stream<FileObject> streamFilesContext(Set<FileObject> scope, Project project, long maxBytes) {
+        final Set<FileObject> roots = new HashSet<>();
+        if (project != null) {
+            roots.add(project.getProjectDirectory());
+        } else {
+            for (FileObject fo : scope) {
+                final Project owner = FileOwnerQuery.getOwner(fo);
+                if (owner != null) {
+                    roots.add(owner.getProjectDirectory());
+                }
+            }
+        }
         boolean includeNestedFiles = scope.stream()
                 .anyMatch(fo -> fo.getPath().contains("src/main/webapp")
                 || fo.getPath().endsWith("src/main")
                 );
-        // Function to collect files recursively
-        if (includeNestedFiles) {
-            for (FileObject selectedFile : scope) {
-                if (selectedFile.isFolder()) {
-                    collectNestedFiles(selectedFile, sourceFiles);
-                } else if (selectedFile.isData() && pm.getFileExtensionListToInclude().contains(selectedFile.getExt())) {
-                    sourceFiles.add(selectedFile);
+        FileWalker walker = new FileWalker(
+                scope, roots, includeNestedFiles,
+                new HashSet<>(pm.getFileExtensionListToInclude()),
+                pm.getExcludeDirs().stream().map(String::trim).filter(s -> !s.isEmpty()).collect(Collectors.toSet()),
+                (maxBytes > 0) ? maxBytes : Long.MAX_VALUE
+        );
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+                walker, Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Depth first walk of a scope, see {@link #streamFilesContext(Set, Project, long)}.
+     */
+    private static class FileWalker implements Iterator<FileObject> {
+
+        private final Set<FileObject> scope;
+        private final Set<FileObject> roots;
+        private final boolean nested;
+        private final Set<String> extensions;
+        private final Set<String> excludes;
+        private final Deque<FileObject> pending = new ArrayDeque<>();
+        private final Set<FileObject> seen = new HashSet<>();
+        private final List<String> skipped = new ArrayList<>();
+        private long bytesLeft;
+        private FileObject next;
+        private boolean reported;
+
+        FileWalker(Set<FileObject> scope, Set<FileObject> roots, boolean nested, Set<String> extensions, Set<String> excludes, long maxBytes) {
+            this.scope = scope;
+            this.roots = roots;
+            this.nested = nested;
+            this.extensions = extensions;
+            this.excludes = excludes;
+            this.bytesLeft = maxBytes;
+            //
+            // the selected folders are listed even if not nested
+            //
+            for (FileObject fo : scope) {
+                if (fo.isFolder()) {
+                    pending.addLast(fo);
+                }
+            }
+            for (FileObject fo : scope) {
+                if (fo.isData()) {
+                    pending.addFirst(fo);
                 }
             }
-        } else {
-            // Collect only immediate children files
-            sourceFiles.addAll(scope.stream()
-                    .filter(FileObject::isFolder)
-                    .flatMap(packageFolder -> Arrays.stream(packageFolder.getChildren())
-                    .filter(FileObject::isData)
-                    .filter(file -> pm.getFileExtensionListToInclude().contains(file.getExt())))
-                    .collect(Collectors.toSet()));
-
-            sourceFiles.addAll(scope.stream()
-                    .filter(FileObject::isData)
-                    .filter(file -> pm.getFileExtensionListToInclude().contains(file.getExt()))
-                    .collect(Collectors.toSet()));
         }
 
-        return sourceFiles;
-    }
+        @Override
+        public boolean hasNext() {
+            while (next == null && bytesLeft > 0 && skipped.size() < MAX_SKIPPED_FILES && !pending.isEmpty()) {
+                FileObject fo = pending.pop();
+                if (!seen.add(fo) || (!scope.contains(fo) && isExcluded(fo))) {
+                    continue; // what is explicitly selected is never excluded
+                }
+                if (fo.isFolder()) {
+                    FileObject[] children = fo.getChildren();
+                    for (int i = children.length - 1; i >= 0; --i) {
+                        if (children[i].isData() || nested) {
+                            pending.push(children[i]);
+                        }
+                    }
+                } else if (fo.isData() && extensions.contains(fo.getExt())) {
+                    long size = fo.getSize();
+                    if (size <= bytesLeft) {
+                        bytesLeft -= size;
+                        next = fo;
+                    } else {
+                        skipped.add(fo.getPath());
+                    }
+                }
+            }
+            if (next == null && !reported) {
+                reported = true;
+                report();
+            }
+            return next != null;
+        }
+
+        @Override
+        public FileObject next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            FileObject fo = next;
+            next = null;
+            return fo;
+        }
 
-    private static void collectNestedFiles(FileObject folder, List<FileObject> sourceFiles) {
-        // Collect immediate data files
-        Arrays.stream(folder.getChildren())
-                .filter(FileObject::isData)
-                .filter(file -> pm.getFileExtensionListToInclude().contains(file.getExt()))
-                .forEach(sourceFiles::add);
-
-        // Recursively collect from subfolders
-        Arrays.stream(folder.getChildren())
-                .filter(FileObject::isFolder)
-                .forEach(subFolder -> collectNestedFiles(subFolder, sourceFiles));
+        /**
+         * @return true if the path of the file relative to its project
+         * directory starts with an excluded directory
+         */
+        private boolean isExcluded(FileObject fo) {
+            for (FileObject root : roots) {
+                if (FileUtil.isParentOf(root, fo)) {
+                    return ProjectUtil.isExcluded(FileUtil.getRelativePath(root, fo), excludes);
+                }
+            }
+            return false;
+        }
+
+        private void report() {
+            if (skipped.isEmpty() && pending.isEmpty()) {
+                return;
+            }
+            LOG.info(() -> "context size limit reached, left out "
+                    + (skipped.isEmpty() ? "" : String.join(", ", skipped) + (pending.isEmpty() ? "" : " and "))
+                    + (pending.isEmpty() ? "" : pending.size() + " files or folders not walked"));
+        }
     }
 
 }
@@ -47,8 +47,6 @@ import javax.swing.text.AttributeSet;
 import javax.swing.text.BadLocationException;
 import javax.swing.text.Document;
 import javax.swing.text.View;
-import org.commonmark.parser.Parser;
-import org.commonmark.renderer.html.HtmlRenderer;
 import org.netbeans.api.editor.document.LineDocumentUtils;
 import org.netbeans.api.editor.mimelookup.MimeLookup;
 import org.netbeans.api.editor.mimelookup.MimePath;
@@ -65,8 +63,6 @@ import org.openide.util.Exceptions;
  */
 public class EditorUtil {
 
-    private static final Parser parser = Parser.builder().build();
-    private static final HtmlRenderer renderer = HtmlRenderer.builder().build();
     private static final Set<String> TEXT_BLOCK_TYPES = Set.of("text", "web", "html");
     private static final Logger LOG = Logger.getLogger(EditorUtil.class.getName());
 
@@ -113,7 +109,7 @@ public class EditorUtil {
         if (block != null && (TEXT_BLOCK_TYPES.contains(block.getType()))) {
             String html;
             if (block.getType().equals("text")) {
-                html = renderer.render(parser.parse(block.getContent()));
+                html = IncrementalMarkdownRenderer.render(block.getContent());
                 html = wrapClassNamesWithAnchor(html);
             } else {
                 html = String.format("<html><body>%s</body></html>", block.getContent());
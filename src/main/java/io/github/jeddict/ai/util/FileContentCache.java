@@ -0,0 +1,273 @@
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.ai.util;
+
+import io.github.jeddict.ai.response.TokenHandler;
+import io.github.jeddict.ai.util.CacheManager.Region;
+import io.github.jeddict.ai.util.SourceMinifier.Options;
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.text.Document;
+import org.netbeans.lib.editor.util.swing.DocumentUtilities;
+import org.openide.cookies.EditorCookie;
+import org.openide.filesystems.FileObject;
+import org.openide.loaders.DataObject;
+
+/**
+ * Caches the text of files sent to the AI as context, as it is after
+ * processing (e.g. with javadoc removed or minified, see
+ * {@link SourceMinifier}), together with its token count and digest.
+ * <p>
+ * An entry is valid as long as the file has the same last-modified time and
+ * size or, if the file is open in an editor, as long as the document version
+ * does not change; so a chat turn only re-reads the files that changed since
+ * the previous one. A file has an entry per processing options, the one
+ * without processing being kept too when the text is processed, so that
+ * reads of the same file with other options do not evict each other. Entries
+ * are weakly keyed by {@code FileObject} and go away with it; they are kept in
+ * the "file-contents" region of {@link CacheManager} and are evicted when the
+ * caches exceed their budget.
+ */
+public class FileContentCache {
+
+    private static final Logger LOG = Logger.getLogger(FileContentCache.class.getName());
+
+    private static final FileContentCache INSTANCE = new FileContentCache();
+
+    private final Region<FileObject, Map<Options, Content>> cache = CacheManager.getInstance().region(
+        "file-contents", true,
+        (file, contents) -> contents.values().stream().mapToLong(content -> CacheManager.weigh(content.text)).sum()
+    );
+
+    public static FileContentCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the content of the given file, reading and processing it only if
+     * changed since the last call.
+     *
+     * @param file the file
+     * @param excludeJavadoc whether javadoc and comments shall be removed from
+     * java files
+     *
+     * @return the content or null if the file can not be read
+     */
+    public Content get(final FileObject file, final boolean excludeJavadoc) {
+        return get(file, excludeJavadoc ? Options.COMMENTS : Options.NONE);
+    }
+
+    /**
+     * Returns the content of the given file, reading and processing it only if
+     * changed since the last call or if processed with other options.
+     *
+     * @param file the file
+     * @param options what to strip from java files; other files are taken as
+     * they are
+     *
+     * @return the content or null if the file can not be read
+     */
+    public Content get(final FileObject file, Options options) {
+        if (!"java".equals(file.getExt())) {
+            options = Options.NONE;
+        }
+        final Document document = openDocument(file);
+        final long version = (document != null) ? DocumentUtilities.getDocumentVersion(document) : 0;
+        final long lastModified = file.lastModified().getTime();
+        final long size = file.getSize();
+
+        final Map<Options, Content> contents = cache.get(file);
+        final Content cached = (contents != null) ? contents.get(options) : null;
+        if (cached != null && cached.isValid(document, version, lastModified, size)) {
+            return cached;
+        }
+
+        //
+        // keep the contents with other options still valid, the file as it is
+        // first
+        //
+        final Map<Options, Content> updated = new HashMap<>();
+        if (contents != null) {
+            contents.forEach((o, content) -> {
+                if (content.isValid(document, version, lastModified, size)) {
+                    updated.put(o, content);
+                }
+            });
+        }
+        Content original = updated.get(Options.NONE);
+        if (original == null) {
+            final String text = read(file, document);
+            if (text == null) {
+                cache.remove(file);
+                return null;
+            }
+            original = new Content(text, Options.NONE, null, new WeakReference<>(document), version, lastModified, size);
+            updated.put(Options.NONE, original);
+        }
+        Content content = original;
+        if (!options.isNone()) {
+            content = new Content(
+                SourceMinifier.minify(original.text, options), options, original,
+                new WeakReference<>(document), version, lastModified, size
+            );
+            updated.put(options, content);
+        }
+        cache.put(file, Map.copyOf(updated));
+
+        return content;
+    }
+
+    /**
+     * Reads the given file as {@link #get(FileObject, Options)} does, from the
+     * editor if open, but without caching it: for scans of many files that
+     * would evict the other caches (see {@link CacheManager}).
+     *
+     * @param file the file
+     *
+     * @return the text or null if the file can not be read
+     */
+    public static String read(final FileObject file) {
+        return read(file, openDocument(file));
+    }
+
+    public void invalidate(final FileObject file) {
+        cache.remove(file);
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * @param text the text to digest
+     *
+     * @return the SHA-256 digest of the given text as hex string
+     */
+    public static String digest(final String text) {
+        try {
+            return HexFormat.of().formatHex(
+                MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8))
+            );
+        } catch (NoSuchAlgorithmException x) {
+            throw new IllegalStateException(x); // SHA-256 is mandatory in every JRE
+        }
+    }
+
+    private static String read(final FileObject file, final Document document) {
+        try {
+            return (document != null) ? document.getText(0, document.getLength()) : file.asText();
+        } catch (Exception x) {
+            LOG.log(Level.WARNING, "unable to read " + file.getPath(), x);
+            return null;
+        }
+    }
+
+    /**
+     * @return the document of the file if it is open in an editor, null
+     * otherwise (the document is not loaded if not already open)
+     */
+    private static Document openDocument(final FileObject file) {
+        try {
+            final EditorCookie editorCookie = DataObject.find(file).getLookup().lookup(EditorCookie.class);
+            return (editorCookie != null) ? editorCookie.getDocument() : null;
+        } catch (Exception x) {
+            return null;
+        }
+    }
+
+    /**
+     * Processed content of a file; token counts and digest are computed on
+     * first use and then kept with the content.
+     */
+    public static final class Content {
+
+        private final String text;
+        private final Options options;
+        private final Content original;
+        private final Reference<Document> document;
+        private final long version, lastModified, size;
+
+        private volatile int tokens = -1;
+        private volatile String digest;
+
+        private Content(
+            final String text, final Options options, final Content original,
+            final Reference<Document> document, final long version,
+            final long lastModified, final long size
+        ) {
+            this.text = text;
+            this.options = options;
+            this.original = original;
+            this.document = document;
+            this.version = version;
+            this.lastModified = lastModified;
+            this.size = size;
+        }
+
+        public String text() {
+            return text;
+        }
+
+        public int tokens() {
+            if (tokens < 0) {
+                tokens = TokenHandler.countTokens(text);
+            }
+            return tokens;
+        }
+
+        /**
+         * @return the tokens less than in the file as it is, thanks to
+         * stripping javadoc, comments etc.
+         */
+        public int tokensSaved() {
+            return (original != null) ? original.tokens() - tokens() : 0;
+        }
+
+        /**
+         * @return the SHA-256 digest of the text as hex string
+         */
+        public String digest() {
+            if (digest == null) {
+                digest = FileContentCache.digest(text);
+            }
+            return digest;
+        }
+
+        /**
+         * @return true if read from the given document at the given version
+         * or, if none, from the file with the given last-modified time and
+         * size
+         */
+        private boolean isValid(final Document document, final long version, final long lastModified, final long size) {
+            if (document != null) {
+                return version != 0 && this.document.get() == document && this.version == version;
+            }
+            return this.document.get() == null && this.lastModified == lastModified && this.size == size;
+        }
+    }
+}
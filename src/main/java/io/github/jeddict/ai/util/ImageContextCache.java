@@ -0,0 +1,210 @@
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.ai.util;
+
+import io.github.jeddict.ai.settings.GenAIProvider;
+import io.github.jeddict.ai.util.CacheManager.Region;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import org.openide.filesystems.FileObject;
+
+/**
+ * Prepares images sent to the AI as context: images larger than what the
+ * model makes use of are scaled down so that their longest side is at most
+ * the given size, then encoded as JPEG (PNG if transparent); the smaller of
+ * the original and the re-encoded image is sent.
+ * <p>
+ * The resulting data URL is cached per file and valid as long as the file has
+ * the same last-modified time and size and the target size does not change,
+ * so an image attached to a conversation is processed only once. Data URLs
+ * count against the budget of {@link CacheManager} ("image-contexts" region).
+ */
+public class ImageContextCache {
+
+    private static final Logger LOG = Logger.getLogger(ImageContextCache.class.getName());
+
+    private static final ImageContextCache INSTANCE = new ImageContextCache();
+
+    private static final float JPEG_QUALITY = 0.85f;
+
+    private record Entry(long lastModified, long size, int maxDimension, String dataUrl) {}
+
+    private final Region<FileObject, Entry> cache = CacheManager.getInstance().region(
+        "image-contexts", true, (file, entry) -> CacheManager.weigh(entry.dataUrl)
+    );
+
+    public static ImageContextCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * The longest image side the models of the given provider make use of;
+     * larger images are scaled down by the provider anyway, at the cost of
+     * upload time.
+     *
+     * @param provider the provider
+     *
+     * @return the size in pixels
+     */
+    public static int maxDimension(final GenAIProvider provider) {
+        return switch (provider) {
+            case ANTHROPIC -> 1568;
+            case GOOGLE -> 3072;
+            default -> 2048;
+        };
+    }
+
+    /**
+     * @param file the image
+     * @param maxDimension the maximum size of the longest side in pixels; 0 to
+     * keep the original size, negative to send the file as it is
+     *
+     * @return the image as base64 data URL or null if the file can not be
+     * read
+     */
+    public String get(final FileObject file, final int maxDimension) {
+        final long lastModified = file.lastModified().getTime();
+        final long size = file.getSize();
+
+        final Entry cached = cache.get(file);
+        if (cached != null && cached.lastModified == lastModified
+            && cached.size == size && cached.maxDimension == maxDimension) {
+            return cached.dataUrl;
+        }
+
+        final String dataUrl;
+        try {
+            dataUrl = encode(file, maxDimension);
+        } catch (IOException x) {
+            LOG.log(Level.WARNING, "unable to read image " + file.getPath(), x);
+            cache.remove(file);
+            return null;
+        }
+        cache.put(file, new Entry(lastModified, size, maxDimension, dataUrl));
+
+        return dataUrl;
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+
+    // --------------------------------------------------------- private methods
+
+    private static String encode(final FileObject file, final int maxDimension) throws IOException {
+        final byte[] original;
+        try (InputStream is = file.getInputStream()) {
+            original = is.readAllBytes();
+        }
+        if (maxDimension < 0) {
+            return dataUrl(file.getMIMEType(), original);
+        }
+
+        final BufferedImage image = ImageIO.read(new ByteArrayInputStream(original));
+        if (image == null) {
+            //
+            // not a format ImageIO can decode (e.g. svg, webp): send it as is
+            //
+            return dataUrl(file.getMIMEType(), original);
+        }
+
+        final int width = image.getWidth(), height = image.getHeight();
+        final double scale = (maxDimension > 0) ? Math.min(1.0, (double) maxDimension / Math.max(width, height)) : 1.0;
+        final boolean alpha = image.getColorModel().hasAlpha();
+        final BufferedImage scaled = (scale < 1.0)
+                                   ? scale(image, (int) Math.round(width * scale), (int) Math.round(height * scale), alpha)
+                                   : image;
+
+        final byte[] encoded = alpha ? png(scaled) : jpeg(scaled);
+        if (scale == 1.0 && (encoded == null || encoded.length >= original.length)) {
+            return dataUrl(file.getMIMEType(), original);
+        }
+        if (encoded == null) {
+            return dataUrl("image/png", png(scaled));
+        }
+
+        LOG.finest(() -> file.getNameExt() + ": " + width + "x" + height + ", " + original.length + " bytes -> "
+                + scaled.getWidth() + "x" + scaled.getHeight() + ", " + encoded.length + " bytes");
+
+        return dataUrl(alpha ? "image/png" : "image/jpeg", encoded);
+    }
+
+    private static BufferedImage scale(final BufferedImage image, final int width, final int height, final boolean alpha) {
+        final BufferedImage scaled = new BufferedImage(
+            Math.max(1, width), Math.max(1, height),
+            alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB
+        );
+        final Graphics2D g = scaled.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(image, 0, 0, scaled.getWidth(), scaled.getHeight(), null);
+        } finally {
+            g.dispose();
+        }
+        return scaled;
+    }
+
+    private static byte[] png(final BufferedImage image) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    /**
+     * @return the image as JPEG or null if no JPEG writer is available
+     */
+    private static byte[] jpeg(BufferedImage image) throws IOException {
+        final Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpeg");
+        if (!writers.hasNext()) {
+            return null;
+        }
+        if (image.getType() != BufferedImage.TYPE_INT_RGB) {
+            image = scale(image, image.getWidth(), image.getHeight(), false); // JPEG has no alpha
+        }
+
+        final ImageWriter writer = writers.next();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(ios);
+            final ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private static String dataUrl(final String mimeType, final byte[] bytes) {
+        return "data:" + mimeType + ";base64," + Base64.getEncoder().encodeToString(bytes);
+    }
+}
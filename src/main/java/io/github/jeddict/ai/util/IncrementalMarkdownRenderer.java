@@ -0,0 +1,268 @@
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.ai.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.UnaryOperator;
+import org.commonmark.node.Node;
+import org.commonmark.parser.Parser;
+import org.commonmark.renderer.html.HtmlRenderer;
+
+/**
+ * Renders markdown to HTML as it streams in.
+ * <p>
+ * The source is split into top-level chunks at blank lines that can not be
+ * part of the preceding block (i.e. outside code fences and not followed by
+ * an indented line or a list item). Once a chunk is closed it is parsed once,
+ * its node tree is kept and its HTML is handed out as a fragment to be appended
+ * to the view; only the trailing open chunk (the paragraph or list still being
+ * written) is parsed again on every append. Rendering cost per token is
+ * therefore bounded by the size of the open chunk rather than the whole
+ * document.
+ * <p>
+ * Known limitation: link reference definitions only apply to references
+ * within the same chunk.
+ */
+public class IncrementalMarkdownRenderer {
+
+    private static final Parser PARSER = Parser.builder().build();
+    private static final HtmlRenderer RENDERER = HtmlRenderer.builder().build();
+
+    private final UnaryOperator<String> postProcessor;
+    private final StringBuilder source = new StringBuilder();
+    private final List<Node> blocks = new ArrayList<>();
+    private final StringBuilder committedHtml = new StringBuilder();
+
+    private int committed;   // end of the last closed chunk
+    private int scanned;     // start of the first line not scanned yet
+    private boolean previousBlank;
+    private char fenceChar;  // 0 when outside a code fence
+    private int fenceLength;
+    private String tail;
+
+    public IncrementalMarkdownRenderer() {
+        this(UnaryOperator.identity());
+    }
+
+    /**
+     * @param postProcessor applied to every HTML fragment before it is handed
+     * out (e.g. to decorate class names with links)
+     */
+    public IncrementalMarkdownRenderer(final UnaryOperator<String> postProcessor) {
+        this.postProcessor = (postProcessor != null) ? postProcessor : UnaryOperator.identity();
+    }
+
+    /**
+     * Renders the given markdown in one go with the shared parser and renderer.
+     *
+     * @param markdown the markdown text
+     *
+     * @return the HTML
+     */
+    public static String render(final String markdown) {
+        return RENDERER.render(PARSER.parse(markdown));
+    }
+
+    /**
+     * Appends streamed text.
+     *
+     * @param text the new text
+     *
+     * @return the HTML of the chunks closed by this append, in order; they
+     * shall be inserted before the open tail (see {@link #tail()})
+     */
+    public List<String> append(final String text) {
+        if (text == null || text.isEmpty()) {
+            return Collections.emptyList();
+        }
+        source.append(text);
+        tail = null;
+
+        final List<String> fragments = new ArrayList<>();
+        int lineEnd;
+        while ((lineEnd = source.indexOf("\n", scanned)) >= 0) {
+            scanLine(scanned, lineEnd, fragments);
+            scanned = lineEnd + 1;
+        }
+        return fragments;
+    }
+
+    /**
+     * Brings the renderer in line with the given full text. If it extends the
+     * current source, only the difference is rendered; otherwise the state is
+     * rebuilt from scratch.
+     *
+     * @param markdown the full markdown text
+     *
+     * @return the newly closed fragments, or null if the content has been
+     * rebuilt and the view needs a full reload from {@link #getHtml()}
+     */
+    public List<String> update(final String markdown) {
+        final String text = (markdown == null) ? "" : markdown;
+        if (text.length() >= source.length() && text.startsWith(source.toString())) {
+            return append(text.substring(source.length()));
+        }
+        reset();
+        append(text);
+        return null;
+    }
+
+    /**
+     * @return the HTML of the open tail chunk; re-rendered at most once per
+     * append
+     */
+    public String tail() {
+        if (tail == null) {
+            tail = (committed < source.length())
+                 ? postProcessor.apply(render(source.substring(committed)))
+                 : "";
+        }
+        return tail;
+    }
+
+    /**
+     * @return the HTML of the closed chunks
+     */
+    public String getCommittedHtml() {
+        return committedHtml.toString();
+    }
+
+    /**
+     * @return the HTML of the whole document
+     */
+    public String getHtml() {
+        return committedHtml + tail();
+    }
+
+    /**
+     * @return the parsed node trees of the closed chunks
+     */
+    public List<Node> getBlocks() {
+        return Collections.unmodifiableList(blocks);
+    }
+
+    public String getSource() {
+        return source.toString();
+    }
+
+    public void reset() {
+        source.setLength(0);
+        blocks.clear();
+        committedHtml.setLength(0);
+        committed = scanned = 0;
+        previousBlank = false;
+        fenceChar = 0;
+        fenceLength = 0;
+        tail = null;
+    }
+
+    // --------------------------------------------------------- private methods
+
+    private void scanLine(final int start, final int end, final List<String> fragments) {
+        final int indent = indentation(start, end);
+        final boolean blank = (start + indent >= end) || isBlank(start + indent, end);
+
+        if (fenceChar != 0) {
+            if (indent <= 3 && isFence(start + indent, end, true)) {
+                fenceChar = 0;
+            }
+            previousBlank = false;
+            return;
+        }
+
+        if (!blank && previousBlank && indent == 0 && !isListItem(start, end) && start > committed) {
+            close(start, fragments);
+        }
+
+        if (indent <= 3 && isFence(start + indent, end, false)) {
+            fenceChar = source.charAt(start + indent);
+            fenceLength = runLength(start + indent, end, fenceChar);
+        }
+        previousBlank = blank;
+    }
+
+    private void close(final int end, final List<String> fragments) {
+        final Node document = PARSER.parse(source.substring(committed, end));
+        final String html = postProcessor.apply(RENDERER.render(document));
+
+        blocks.add(document);
+        committedHtml.append(html);
+        fragments.add(html);
+        committed = end;
+    }
+
+    private boolean isFence(final int start, final int end, final boolean closing) {
+        if (start >= end) {
+            return false;
+        }
+        final char c = source.charAt(start);
+        if (c != '`' && c != '~') {
+            return false;
+        }
+        final int length = runLength(start, end, c);
+        if (length < 3) {
+            return false;
+        }
+        if (closing) {
+            return c == fenceChar && length >= fenceLength && isBlank(start + length, end);
+        }
+        // a backtick fence info string can not contain backticks
+        final int backtick = source.indexOf("`", start + length);
+        return c == '~' || backtick < 0 || backtick >= end;
+    }
+
+    private boolean isListItem(final int start, final int end) {
+        final char c = source.charAt(start);
+        if (c == '-' || c == '+' || c == '*') {
+            return start + 1 >= end || source.charAt(start + 1) == ' ' || source.charAt(start + 1) == '\t';
+        }
+        int i = start;
+        while (i < end && i - start < 9 && Character.isDigit(source.charAt(i))) {
+            i++;
+        }
+        if (i == start || i >= end || (source.charAt(i) != '.' && source.charAt(i) != ')')) {
+            return false;
+        }
+        return i + 1 >= end || source.charAt(i + 1) == ' ' || source.charAt(i + 1) == '\t';
+    }
+
+    private int indentation(final int start, final int end) {
+        int i = start;
+        while (i < end && (source.charAt(i) == ' ' || source.charAt(i) == '\t')) {
+            i++;
+        }
+        return i - start;
+    }
+
+    private int runLength(final int start, final int end, final char c) {
+        int i = start;
+        while (i < end && source.charAt(i) == c) {
+            i++;
+        }
+        return i - start;
+    }
+
+    private boolean isBlank(final int start, final int end) {
+        for (int i = start; i < end; i++) {
+            if (!Character.isWhitespace(source.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
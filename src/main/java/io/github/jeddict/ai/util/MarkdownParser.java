@@ -1,7 +1,229 @@
-
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
 package io.github.jeddict.ai.util;
 
+/**
+ * Splits markdown into text and fenced code blocks in a single pass.
+ * <p>
+ * Lines are scanned char by char in place (no regular expressions, no per line
+ * strings); a fence line is a run of three or more backticks at the start of
+ * the line, optionally followed by a language word, and nothing else. A code
+ * block is closed by a fence line at least as long as the opening one. Fence
+ * lines themselves are never part of a block.
+ * <p>
+ * The parser can be fed all at once with {@link #parse(CharSequence)} or
+ * incrementally with {@link #append(CharSequence)} and {@link #finish()} (e.g.
+ * while a response is streamed); either way every completed block is handed to
+ * the {@link BlockHandler} as soon as its end is known.
+ */
 public class MarkdownParser {
 
+    public static final String TEXT = "text";
+    public static final String CODE = "code";
+
+    @FunctionalInterface
+    public interface BlockHandler {
+
+        /**
+         * @param type {@link #TEXT} or the code block language ({@link #CODE}
+         * if none is given)
+         * @param content the lines of the block, each terminated by '\n';
+         * only valid during the call
+         * @param closed true if the block is a code block terminated by its
+         * closing fence
+         */
+        void onBlock(String type, CharSequence content, boolean closed);
+    }
+
+    private final BlockHandler handler;
+    private final StringBuilder block = new StringBuilder();
+    private final StringBuilder input = new StringBuilder();
+
+    private String type = TEXT;
+    private int fenceLength;   // 0 when outside a code block
+
+    public MarkdownParser(final BlockHandler handler) {
+        if (handler == null) {
+            throw new IllegalArgumentException("handler can not be null");
+        }
+        this.handler = handler;
+    }
+
+    /**
+     * Parses the given markdown in one go and flushes the last block.
+     *
+     * @param markdown the text to parse
+     */
+    public void parse(final CharSequence markdown) {
+        final int end = scan(markdown, 0, true);
+        if (end < markdown.length()) {
+            line(markdown, end, markdown.length());
+        }
+        finish();
+    }
+
+    /**
+     * Feeds the parser with streamed text; only complete lines are processed,
+     * the rest is kept until the next append or {@link #finish()}.
+     *
+     * @param text the next chunk
+     */
+    public void append(final CharSequence text) {
+        input.append(text);
+        final int end = scan(input, 0, false);
+        input.delete(0, end);
+    }
+
+    /**
+     * Processes the pending partial line, if any, and hands out the block
+     * still open.
+     */
+    public void finish() {
+        if (input.length() > 0) {
+            line(input, 0, input.length());
+            input.setLength(0);
+        }
+        if (block.length() > 0) {
+            handler.onBlock(type, block, false);
+            block.setLength(0);
+        }
+    }
+
+    /**
+     * @return true if the parser is inside a code block
+     */
+    public boolean isInsideCode() {
+        return fenceLength > 0;
+    }
+
+    /**
+     * Trims whitespace from both ends of the given text, like
+     * {@link String#trim()}, copying the characters only once.
+     *
+     * @param text the text to trim
+     *
+     * @return the trimmed text
+     */
+    public static String trim(final CharSequence text) {
+        int start = 0, end = text.length();
+        while (start < end && text.charAt(start) <= ' ') {
+            ++start;
+        }
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            --end;
+        }
+        return text.subSequence(start, end).toString();
+    }
+
+    // --------------------------------------------------------- private methods
+
+    /**
+     * Processes all complete lines from start on.
+     *
+     * @return the start of the first line not processed
+     */
+    private int scan(final CharSequence s, int start, final boolean eof) {
+        final int length = s.length();
+        for (int i = start; i < length; ++i) {
+            final char c = s.charAt(i);
+            if (c == '\n' || c == '\u2028' || c == '\u2029' || c == '\u0085') {
+                line(s, start, i);
+                start = i + 1;
+            } else if (c == '\r') {
+                if (i + 1 < length) {
+                    line(s, start, i);
+                    if (s.charAt(i + 1) == '\n') {
+                        ++i;
+                    }
+                    start = i + 1;
+                } else if (eof) {
+                    line(s, start, i);
+                    start = i + 1;
+                } else {
+                    break; // may be followed by '\n' in the next chunk
+                }
+            }
+        }
+        return start;
+    }
+
+    private void line(final CharSequence s, final int start, final int end) {
+        int i = start;
+        while (i < end && s.charAt(i) == '`') {
+            ++i;
+        }
+        final int ticks = i - start;
+        if (ticks < 3 || !isFenceInfo(s, i, end)) {
+            block.append(s, start, end).append('\n');
+            return;
+        }
+
+        if (fenceLength == 0) {
+            if (block.length() > 0) {
+                handler.onBlock(type, block, false);
+                block.setLength(0);
+            }
+            final String lang = language(s, i, end);
+            type = lang.isEmpty() ? CODE : lang;
+            fenceLength = ticks;
+        } else if (ticks >= fenceLength) {
+            handler.onBlock(type, block, true);
+            block.setLength(0);
+            type = TEXT;
+            fenceLength = 0;
+        }
+        //
+        // a shorter fence inside a code block is dropped as any other fence
+        // line
+        //
+    }
+
+    /**
+     * Checks the rest of a fence line: optional spaces, an optional language
+     * word ([A-Za-z0-9_]) and optional spaces.
+     */
+    private static boolean isFenceInfo(final CharSequence s, int i, final int end) {
+        while (i < end && isSpace(s.charAt(i))) {
+            ++i;
+        }
+        while (i < end && isWord(s.charAt(i))) {
+            ++i;
+        }
+        while (i < end && isSpace(s.charAt(i))) {
+            ++i;
+        }
+        return i == end;
+    }
+
+    private static String language(final CharSequence s, int i, final int end) {
+        while (i < end && isSpace(s.charAt(i))) {
+            ++i;
+        }
+        final int start = i;
+        while (i < end && isWord(s.charAt(i))) {
+            ++i;
+        }
+        return (i > start) ? s.subSequence(start, i).toString() : "";
+    }
+
+    private static boolean isSpace(final char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
 
+    private static boolean isWord(final char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
 }
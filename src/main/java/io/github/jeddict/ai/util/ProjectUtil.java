@@ -80,8 +80,7 @@ public class ProjectUtil {
     public static void collectFiles(FileObject baseDir, FileObject folder, Set<FileObject> sourceFiles, Set<String> fileExtensionListToInclude, Set<String> excludes) {
         for (FileObject file : folder.getChildren()) {
             String relativePath = getRelativePath(baseDir, file);
-            boolean isExcluded = excludes.stream().filter(s -> !s.trim().isEmpty()).anyMatch(relativePath::startsWith);
-            if (isExcluded) {
+            if (isExcluded(relativePath, excludes)) {
                 continue;
             }
             if (file.isFolder()) {
@@ -94,6 +93,16 @@ public class ProjectUtil {
         }
     }
 
+    /**
+     * @param relativePath a path relative to the project directory
+     * @param excludes the excluded directories, as in
+     * {@code PreferencesManager.getExcludeDirs()}
+     * @return true if the path is in one of the excluded directories
+     */
+    public static boolean isExcluded(String relativePath, Set<String> excludes) {
+        return excludes.stream().filter(s -> !s.trim().isEmpty()).anyMatch(relativePath::startsWith);
+    }
+
     private static String getRelativePath(FileObject baseDir, FileObject file) {
         String basePath = baseDir.getPath();
         String filePath = file.getPath();
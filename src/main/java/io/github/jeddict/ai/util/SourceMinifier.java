@@ -0,0 +1,224 @@
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.ai.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.netbeans.api.java.lexer.JavaTokenId;
+import org.netbeans.api.lexer.TokenHierarchy;
+import org.netbeans.api.lexer.TokenSequence;
+
+/**
+ * Shrinks java sources sent to the AI as context, token by token with the
+ * NetBeans java lexer (so that e.g. "//" in a string is left alone):
+ * <ul>
+ * <li>license headers: comments before the package declaration mentioning a
+ * copyright or a license</li>
+ * <li>javadoc comments</li>
+ * <li>block and line comments</li>
+ * <li>whitespace: indentation and blank lines are dropped, runs of spaces
+ * become one</li>
+ * <li>imports: imports of the same package are folded in one line, as in
+ * {@code import java.util.{List, Map};}; this is meant for the AI to read,
+ * it is not valid java</li>
+ * </ul>
+ */
+public class SourceMinifier {
+
+    /**
+     * What to strip; {@link #NONE} leaves the source as it is,
+     * {@link #COMMENTS} strips all comments (what "exclude javadoc" always
+     * did).
+     */
+    public record Options(boolean license, boolean javadoc, boolean comments, boolean whitespace, boolean imports) {
+
+        public static final Options NONE = new Options(false, false, false, false, false);
+        public static final Options COMMENTS = new Options(true, true, true, false, false);
+        public static final Options ALL = new Options(true, true, true, true, true);
+
+        public static Options of(final boolean excludeComments, final boolean minify) {
+            return minify ? ALL : (excludeComments ? COMMENTS : NONE);
+        }
+
+        public boolean isNone() {
+            return equals(NONE);
+        }
+    }
+
+    /**
+     * @param source java source
+     * @param options what to strip
+     *
+     * @return the source without what is stripped
+     */
+    public static String minify(final String source, final Options options) {
+        if (options.isNone() || source.isEmpty()) {
+            return source;
+        }
+
+        final TokenSequence<JavaTokenId> ts = TokenHierarchy.create(source, JavaTokenId.language())
+                                                            .tokenSequence(JavaTokenId.language());
+        final StringBuilder out = new StringBuilder(source.length());
+        final Map<String, List<String>> imports = new LinkedHashMap<>();
+        final StringBuilder statement = new StringBuilder();
+
+        boolean beforeCode = true;   // only comments so far: the license header
+        boolean inImports = false;   // imports are being collected, nothing is written
+        boolean inStatement = false; // between import and ;
+        String whitespace = null;    // pending whitespace, if collapsing
+
+        while (ts.moveNext()) {
+            final JavaTokenId id = ts.token().id();
+            final CharSequence text = ts.token().text();
+
+            if (id == JavaTokenId.WHITESPACE) {
+                if (inImports) {
+                    continue;
+                }
+                if (options.whitespace()) {
+                    whitespace = ("\n".equals(whitespace) || contains(text, '\n')) ? "\n" : " ";
+                } else {
+                    out.append(text);
+                }
+                continue;
+            }
+
+            if (isComment(id)) {
+                final boolean drop = (beforeCode && options.license() && isLicense(text))
+                                  || (isJavadoc(id) ? options.javadoc() : options.comments());
+                if (drop) {
+                    if (!inImports && text.charAt(text.length() - 1) == '\n') {
+                        // line comments end with their new line
+                        if (options.whitespace()) {
+                            whitespace = "\n";
+                        } else {
+                            out.append('\n');
+                        }
+                    }
+                    continue;
+                }
+            } else {
+                beforeCode = false;
+            }
+
+            if (options.imports()) {
+                if (inStatement) {
+                    if (id == JavaTokenId.SEMICOLON) {
+                        addImport(imports, statement.toString());
+                        inStatement = false;
+                    } else if (id == JavaTokenId.STATIC) {
+                        statement.append("static ");
+                    } else if (!isComment(id)) {
+                        statement.append(text);
+                    }
+                    continue;
+                }
+                if (id == JavaTokenId.IMPORT) {
+                    if (!inImports) {
+                        flush(out, whitespace);
+                        whitespace = null;
+                        inImports = true;
+                    }
+                    statement.setLength(0);
+                    inStatement = true;
+                    continue;
+                }
+                if (inImports) {
+                    out.append(foldedImports(imports));
+                    imports.clear();
+                    inImports = false;
+                }
+            }
+
+            flush(out, whitespace);
+            whitespace = null;
+            out.append(text);
+        }
+
+        if (inImports) {
+            out.append(foldedImports(imports));
+        } else if ("\n".equals(whitespace)) {
+            out.append('\n');
+        }
+
+        return out.toString();
+    }
+
+    // --------------------------------------------------------- private methods
+
+    private static void flush(final StringBuilder out, final String whitespace) {
+        if (whitespace != null && out.length() > 0) {
+            final char last = out.charAt(out.length() - 1);
+            if (whitespace.equals("\n")) {
+                if (last != '\n') {
+                    out.append('\n');
+                }
+            } else if (last != ' ' && last != '\n') {
+                out.append(' ');
+            }
+        }
+    }
+
+    private static void addImport(final Map<String, List<String>> imports, final String statement) {
+        final String name = statement.trim();
+        final int dot = name.lastIndexOf('.');
+        imports.computeIfAbsent((dot < 0) ? "" : name.substring(0, dot), p -> new ArrayList<>())
+               .add(name.substring(dot + 1));
+    }
+
+    private static String foldedImports(final Map<String, List<String>> imports) {
+        final StringBuilder folded = new StringBuilder();
+        for (Map.Entry<String, List<String>> e : imports.entrySet()) {
+            final List<String> names = e.getValue();
+            folded.append("import ");
+            if (!e.getKey().isEmpty()) {
+                folded.append(e.getKey()).append('.');
+            }
+            if (names.size() == 1) {
+                folded.append(names.get(0));
+            } else {
+                folded.append('{').append(String.join(", ", names)).append('}');
+            }
+            folded.append(";\n");
+        }
+        return folded.toString();
+    }
+
+    private static boolean isComment(final JavaTokenId id) {
+        return id == JavaTokenId.LINE_COMMENT || id == JavaTokenId.BLOCK_COMMENT
+            || id == JavaTokenId.JAVADOC_COMMENT || id == JavaTokenId.JAVADOC_COMMENT_LINE_RUN;
+    }
+
+    private static boolean isJavadoc(final JavaTokenId id) {
+        return id == JavaTokenId.JAVADOC_COMMENT || id == JavaTokenId.JAVADOC_COMMENT_LINE_RUN;
+    }
+
+    private static boolean isLicense(final CharSequence comment) {
+        final String text = comment.toString().toLowerCase();
+        return text.contains("copyright") || text.contains("license");
+    }
+
+    private static boolean contains(final CharSequence text, final char c) {
+        for (int i = 0; i < text.length(); ++i) {
+            if (text.charAt(i) == c) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -158,8 +158,11 @@ public class SourceUtil {
         return "";
     }
 
+    /**
+     * @return the java source without javadoc and comments
+     */
     public static String removeJavadoc(String content) {
-        return content.replaceAll("/\\*{1,2}[\\s\\S]*?\\*/|//.*|^\\s*///.*$", "");
+        return SourceMinifier.minify(content, SourceMinifier.Options.COMMENTS);
     }
 
     public static void updateMethodInSource(FileObject fileObject, String sourceMethodSignature, String methodContent) {
@@ -0,0 +1,277 @@
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.ai.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Turns a patch into the minimal edits of a text: a patch is either a unified
+ * diff (see {@link UnifiedDiff}) or a sequence of search/replace blocks:
+ * <pre>
+ * &lt;&lt;&lt;&lt;&lt;&lt;&lt; SEARCH
+ * lines to find, exactly once
+ * =======
+ * lines to replace them with
+ * &gt;&gt;&gt;&gt;&gt;&gt;&gt; REPLACE
+ * </pre>
+ * A hunk whose removed and context lines are not in the text is stale and
+ * the whole patch is rejected; a hunk whose lines are not at the position it
+ * gives is looked for in the rest of the text and applied if found exactly
+ * once. Each hunk gives one edit, trimmed of what the old and new text have in
+ * common at the start and at the end.
+ */
+public class TextPatch {
+
+    public static final String SEARCH = "<<<<<<< SEARCH", DIVIDER = "=======", REPLACE = ">>>>>>> REPLACE";
+
+    private static final Pattern HUNK = Pattern.compile("^@@ -(\\d+)(?:,(\\d+))? \\+\\d+(?:,\\d+)? @@.*$");
+
+    /**
+     * Replaces {@code length} characters at {@code offset} with {@code text}.
+     */
+    public record Edit(int offset, int length, String text) {}
+
+    /**
+     * old lines and new lines of a hunk; line is the 0-based line where the
+     * old lines are expected, -1 if anywhere
+     */
+    private record Hunk(int line, List<String> oldLines, List<String> newLines) {}
+
+    /**
+     * @param text the text to patch
+     * @param patch a unified diff or search/replace blocks
+     *
+     * @return the edits, sorted by offset and not overlapping; empty if the
+     * patch changes nothing
+     *
+     * @throws IllegalArgumentException if the patch is malformed or stale
+     */
+    public static List<Edit> edits(final String text, final String patch) {
+        final List<Hunk> hunks = patch.lines().anyMatch(l -> l.strip().equals(SEARCH))
+                               ? blocks(patch) : hunks(patch);
+        if (hunks.isEmpty()) {
+            throw new IllegalArgumentException("no hunks or search/replace blocks in the patch");
+        }
+
+        final List<Integer> starts = lineStarts(text);
+        final List<String> lines = text.lines().map(TextPatch::strip).toList();
+        final List<Edit> edits = new ArrayList<>();
+        int n = 0;
+        for (Hunk hunk : hunks) {
+            ++n;
+            final int line = locate(lines, hunk, n);
+            final int from = (line < starts.size()) ? starts.get(line) : text.length();
+            final int end = line + hunk.oldLines.size();
+            final int to = (end < starts.size()) ? starts.get(end) : text.length();
+
+            final String oldText = text.substring(from, to);
+            String newText = String.join("\n", hunk.newLines);
+            if (!hunk.newLines.isEmpty()) {
+                if (oldText.isEmpty() && from == text.length() && !text.isEmpty() && !text.endsWith("\n")) {
+                    newText = '\n' + newText; // appended after a last line with no newline
+                } else if (oldText.isEmpty() || oldText.endsWith("\n")) {
+                    newText += '\n';
+                }
+            }
+            final Edit edit = minimal(from, oldText, newText);
+            if (edit != null) {
+                edits.add(edit);
+            }
+        }
+
+        edits.sort(Comparator.comparingInt(Edit::offset));
+        for (int i = 1; i < edits.size(); ++i) {
+            final Edit previous = edits.get(i - 1);
+            if (previous.offset + previous.length > edits.get(i).offset) {
+                throw new IllegalArgumentException("hunks overlap");
+            }
+        }
+        return edits;
+    }
+
+    /**
+     * @param text a text
+     * @param edits edits of the text, sorted by offset and not overlapping
+     *
+     * @return the text with the edits applied
+     */
+    public static String apply(final String text, final List<Edit> edits) {
+        final StringBuilder result = new StringBuilder(text);
+        for (int i = edits.size() - 1; i >= 0; --i) {
+            final Edit e = edits.get(i);
+            result.replace(e.offset, e.offset + e.length, e.text);
+        }
+        return result.toString();
+    }
+
+    /**
+     * @param offset the offset of the old text
+     * @param oldText the text to replace
+     * @param newText the text to replace it with
+     *
+     * @return the edit replacing only the part of old text that differs from
+     * the new text, null if they are the same
+     */
+    public static Edit minimal(final int offset, final String oldText, final String newText) {
+        final int max = Math.min(oldText.length(), newText.length());
+        int prefix = 0;
+        while (prefix < max && oldText.charAt(prefix) == newText.charAt(prefix)) {
+            ++prefix;
+        }
+        if (prefix == oldText.length() && prefix == newText.length()) {
+            return null;
+        }
+        int suffix = 0;
+        while (suffix < max - prefix
+               && oldText.charAt(oldText.length() - 1 - suffix) == newText.charAt(newText.length() - 1 - suffix)) {
+            ++suffix;
+        }
+        return new Edit(
+            offset + prefix, oldText.length() - prefix - suffix,
+            newText.substring(prefix, newText.length() - suffix)
+        );
+    }
+
+    // --------------------------------------------------------- private methods
+
+    private static List<Hunk> hunks(final String patch) {
+        final List<Hunk> hunks = new ArrayList<>();
+        final List<String> lines = patch.lines().toList();
+        int i = 0;
+        while (i < lines.size()) {
+            final Matcher m = HUNK.matcher(lines.get(i++));
+            if (!m.matches()) {
+                continue; // headers and the like
+            }
+            final int start = Integer.parseInt(m.group(1));
+            final int count = (m.group(2) == null) ? 1 : Integer.parseInt(m.group(2));
+            final List<String> oldLines = new ArrayList<>(), newLines = new ArrayList<>();
+            while (i < lines.size() && !lines.get(i).startsWith("@@") && !lines.get(i).startsWith("diff ")
+                   && !(lines.get(i).startsWith("--- ") && i + 1 < lines.size() && lines.get(i + 1).startsWith("+++ "))) {
+                final String line = lines.get(i++);
+                if (line.startsWith("\\")) {
+                    continue; // \ No newline at end of file
+                }
+                final String content = line.isEmpty() ? "" : strip(line.substring(1));
+                switch (line.isEmpty() ? ' ' : line.charAt(0)) {
+                    case ' ' -> { oldLines.add(content); newLines.add(content); }
+                    case '-' -> oldLines.add(content);
+                    case '+' -> newLines.add(content);
+                    default -> throw new IllegalArgumentException("unexpected line in hunk " + (hunks.size() + 1) + ": " + line);
+                }
+            }
+            //
+            // an empty range starts at the line before it
+            //
+            hunks.add(new Hunk((count == 0) ? start : Math.max(0, start - 1), oldLines, newLines));
+        }
+        return hunks;
+    }
+
+    private static List<Hunk> blocks(final String patch) {
+        final List<Hunk> hunks = new ArrayList<>();
+        List<String> oldLines = null, newLines = null;
+        for (String line : patch.lines().toList()) {
+            final String marker = line.strip();
+            if (marker.equals(SEARCH)) {
+                oldLines = new ArrayList<>();
+                newLines = null;
+            } else if (marker.equals(DIVIDER) && oldLines != null && newLines == null) {
+                newLines = new ArrayList<>();
+            } else if (marker.equals(REPLACE) && newLines != null) {
+                if (oldLines.isEmpty()) {
+                    throw new IllegalArgumentException("empty search in block " + (hunks.size() + 1));
+                }
+                hunks.add(new Hunk(-1, oldLines, newLines));
+                oldLines = newLines = null;
+            } else if (newLines != null) {
+                newLines.add(strip(line));
+            } else if (oldLines != null) {
+                oldLines.add(strip(line));
+            }
+        }
+        if (oldLines != null) {
+            throw new IllegalArgumentException("unterminated search/replace block " + (hunks.size() + 1));
+        }
+        return hunks;
+    }
+
+    /**
+     * @return the line where the old lines of the hunk are: where the hunk
+     * says if there, else the only place they are
+     */
+    private static int locate(final List<String> lines, final Hunk hunk, final int n) {
+        if (hunk.line >= 0 && matches(lines, hunk.oldLines, hunk.line)) {
+            return hunk.line;
+        }
+        if (hunk.oldLines.isEmpty()) {
+            throw new IllegalArgumentException("hunk " + n + " inserts at line " + (hunk.line + 1) + ", beyond the end of the text");
+        }
+        int found = -1;
+        for (int i = 0; i + hunk.oldLines.size() <= lines.size(); ++i) {
+            if (matches(lines, hunk.oldLines, i)) {
+                if (found >= 0) {
+                    throw new IllegalArgumentException(
+                        "hunk " + n + " is ambiguous: its lines are at line " + (found + 1) + " and at line " + (i + 1)
+                    );
+                }
+                found = i;
+            }
+        }
+        if (found < 0) {
+            throw new IllegalArgumentException(
+                "hunk " + n + " is stale: its lines starting with '" + hunk.oldLines.get(0) + "' are not in the text"
+            );
+        }
+        return found;
+    }
+
+    private static boolean matches(final List<String> lines, final List<String> expected, final int at) {
+        if (at + expected.size() > lines.size()) {
+            return false;
+        }
+        for (int i = 0; i < expected.size(); ++i) {
+            if (!lines.get(at + i).equals(expected.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the offsets where the lines of the text start
+     */
+    private static List<Integer> lineStarts(final String text) {
+        final List<Integer> starts = new ArrayList<>();
+        if (!text.isEmpty()) {
+            starts.add(0);
+        }
+        for (int i = 0; i < text.length(); ++i) {
+            if (text.charAt(i) == '\n' && i + 1 < text.length()) {
+                starts.add(i + 1);
+            }
+        }
+        return starts;
+    }
+
+    private static String strip(final String line) {
+        return line.endsWith("\r") ? line.substring(0, line.length() - 1) : line;
+    }
+}
@@ -0,0 +1,181 @@
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.ai.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Line based diff of two texts in unified format, computed with the Myers
+ * O(ND) algorithm; meant for small changes to large texts, so the number of
+ * edits is capped.
+ */
+public class UnifiedDiff {
+
+    private static final char EQUAL = ' ', DELETE = '-', INSERT = '+';
+
+    private record Edit(char type, String line) {}
+
+    /**
+     * @param oldName name of the old text in the header
+     * @param newName name of the new text in the header
+     * @param oldText the old text
+     * @param newText the new text
+     * @param context number of unchanged lines around each change
+     * @param maxEdits maximum number of inserted plus deleted lines
+     *
+     * @return the diff, empty if the texts have the same lines, null if they
+     * differ by more than {@code maxEdits} lines
+     */
+    public static String diff(
+        final String oldName, final String newName,
+        final String oldText, final String newText,
+        final int context, final int maxEdits
+    ) {
+        final List<Edit> edits = edits(lines(oldText), lines(newText), maxEdits);
+        if (edits == null) {
+            return null;
+        }
+
+        final StringBuilder diff = new StringBuilder();
+        int i = 0;
+        while (i < edits.size()) {
+            //
+            // next change, then extend the hunk as long as the following
+            // change is closer than two contexts
+            //
+            while (i < edits.size() && edits.get(i).type == EQUAL) {
+                ++i;
+            }
+            if (i == edits.size()) {
+                break;
+            }
+            int last = i;
+            for (int j = i + 1; j < edits.size() && j - last <= 2 * context + 1; ++j) {
+                if (edits.get(j).type != EQUAL) {
+                    last = j;
+                }
+            }
+            final int from = Math.max(0, i - context), to = Math.min(edits.size(), last + 1 + context);
+
+            if (diff.isEmpty()) {
+                diff.append("--- ").append(oldName).append('\n')
+                    .append("+++ ").append(newName).append('\n');
+            }
+            hunk(diff, edits, from, to);
+            i = to;
+        }
+
+        return diff.toString();
+    }
+
+    // --------------------------------------------------------- private methods
+
+    private static void hunk(final StringBuilder diff, final List<Edit> edits, final int from, final int to) {
+        int oldStart = 0, newStart = 0;
+        for (int i = 0; i < from; ++i) {
+            oldStart += (edits.get(i).type != INSERT) ? 1 : 0;
+            newStart += (edits.get(i).type != DELETE) ? 1 : 0;
+        }
+        int oldCount = 0, newCount = 0;
+        for (int i = from; i < to; ++i) {
+            oldCount += (edits.get(i).type != INSERT) ? 1 : 0;
+            newCount += (edits.get(i).type != DELETE) ? 1 : 0;
+        }
+
+        diff.append("@@ -").append(range(oldStart, oldCount))
+            .append(" +").append(range(newStart, newCount)).append(" @@\n");
+        for (int i = from; i < to; ++i) {
+            diff.append(edits.get(i).type).append(edits.get(i).line).append('\n');
+        }
+    }
+
+    private static String range(final int start, final int count) {
+        //
+        // an empty range starts at the line before it
+        //
+        return (count == 0) ? (start + ",0") : ((start + 1) + "," + count);
+    }
+
+    /**
+     * @return the edit script turning a into b, null if longer than maxEdits
+     */
+    private static List<Edit> edits(final String[] a, final String[] b, final int maxEdits) {
+        final int n = a.length, m = b.length, max = Math.min(n + m, maxEdits);
+        final int offset = max + 1;
+        final int[] v = new int[2 * max + 3];
+        final List<int[]> trace = new ArrayList<>();
+
+        for (int d = 0; d <= max; ++d) {
+            for (int k = -d; k <= d; k += 2) {
+                int x = (k == -d || (k != d && v[offset + k - 1] < v[offset + k + 1]))
+                      ? v[offset + k + 1] : v[offset + k - 1] + 1;
+                int y = x - k;
+                while (x < n && y < m && a[x].equals(b[y])) {
+                    ++x; ++y;
+                }
+                v[offset + k] = x;
+                if (x >= n && y >= m) {
+                    trace.add(Arrays.copyOfRange(v, offset - d, offset + d + 1));
+                    return backtrack(a, b, trace);
+                }
+            }
+            trace.add(Arrays.copyOfRange(v, offset - d, offset + d + 1));
+        }
+
+        return null;
+    }
+
+    /**
+     * Walks the trace back from the end, trace[d] being the furthest x of each
+     * diagonal -d..d after d edits.
+     */
+    private static List<Edit> backtrack(final String[] a, final String[] b, final List<int[]> trace) {
+        final List<Edit> edits = new ArrayList<>();
+        int x = a.length, y = b.length;
+
+        for (int d = trace.size() - 1; d > 0; --d) {
+            final int[] previous = trace.get(d - 1); // diagonals -(d-1)..d-1
+            final int k = x - y;
+            final int previousK = (k == -d || (k != d && previous[k - 1 + d - 1] < previous[k + 1 + d - 1]))
+                                ? k + 1 : k - 1;
+            final int previousX = previous[previousK + d - 1], previousY = previousX - previousK;
+
+            while (x > previousX && y > previousY) {
+                edits.add(new Edit(EQUAL, a[--x]));
+                --y;
+            }
+            if (x == previousX) {
+                edits.add(new Edit(INSERT, b[--y]));
+            } else {
+                edits.add(new Edit(DELETE, a[--x]));
+            }
+        }
+        while (x > 0 && y > 0) {
+            edits.add(new Edit(EQUAL, a[--x]));
+            --y;
+        }
+
+        Collections.reverse(edits);
+        return edits;
+    }
+
+    private static String[] lines(final String text) {
+        return text.lines().toArray(String[]::new);
+    }
+}
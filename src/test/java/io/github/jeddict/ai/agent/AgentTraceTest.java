@@ -0,0 +1,154 @@
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.ai.agent;
+
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.ToolExecutionResultMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.chat.response.StreamingChatResponseHandler;
+import dev.langchain4j.service.AiServices;
+import dev.langchain4j.service.tool.ToolExecutor;
+import io.github.jeddict.ai.test.TestBase;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.assertj.core.api.BDDAssertions.thenThrownBy;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+public class AgentTraceTest extends TestBase {
+
+    private static final ToolSpecification ECHO = ToolSpecification.builder().name("echo").build();
+
+    /**
+     * asks to call the echo tool, then answers with what the tool returned
+     */
+    private static final ChatModel SCRIPTED = new ChatModel() {
+        @Override
+        public ChatResponse doChat(final ChatRequest request) {
+            final ChatMessage last = request.messages().get(request.messages().size() - 1);
+            final AiMessage answer = (last instanceof ToolExecutionResultMessage result)
+                ? AiMessage.from("done: " + result.text())
+                : AiMessage.from(ToolExecutionRequest.builder().id("1").name("echo").arguments("{\"arg0\":\"hi\"}").build());
+            return ChatResponse.builder().aiMessage(answer).build();
+        }
+    };
+
+    @Test
+    public void session_is_recorded_and_replayed_with_real_tools() throws Exception {
+        final AgentTrace trace = new AgentTrace(HOME.resolve("traces/session.jsonl"));
+
+        then(assistant(trace.record(SCRIPTED), trace.record(echo("echo "))).chat(List.of(UserMessage.from("go"))).aiMessage().text())
+            .isEqualTo("done: echo {\"arg0\":\"hi\"}");
+
+        final List<JSONObject> events = AgentTrace.read(trace.file());
+        then(events).extracting(e -> e.getString("type")).containsExactly(
+            AgentTrace.REQUEST, AgentTrace.RESPONSE, AgentTrace.TOOL_CALL, AgentTrace.TOOL_RESULT,
+            AgentTrace.REQUEST, AgentTrace.RESPONSE
+        );
+        then(events).extracting(e -> e.getLong("seq")).containsExactly(1L, 2L, 3L, 4L, 5L, 6L);
+        then(events.get(2).getString("name")).isEqualTo("echo");
+        then(events.get(3).getString("result")).isEqualTo("echo {\"arg0\":\"hi\"}");
+        then(events.get(3).has("duration")).isTrue();
+        then(AgentTrace.summary(events)).startsWith("model: 2 calls,").contains("\necho: 1 calls,");
+
+        final TraceReplayModel replay = new TraceReplayModel(trace.file());
+        then(assistant(replay, echo("echo ")).chat(List.of(UserMessage.from("go"))).aiMessage().text())
+            .isEqualTo("done: echo {\"arg0\":\"hi\"}");
+        then(replay.mismatches()).isEmpty();
+        then(replay.remaining()).isZero();
+
+        thenThrownBy(() -> replay.chat(List.<ChatMessage>of(UserMessage.from("again"))))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("trace exhausted: request 3 but only 2 responses recorded");
+    }
+
+    @Test
+    public void replay_reports_tools_behaving_differently() throws Exception {
+        final AgentTrace trace = new AgentTrace(HOME.resolve("session.jsonl"));
+        assistant(trace.record(SCRIPTED), trace.record(echo("echo "))).chat(List.of(UserMessage.from("go")));
+
+        final TraceReplayModel replay = new TraceReplayModel(trace.file());
+        //
+        // the recorded answer is replayed even if the tool now returns
+        // something else
+        //
+        then(assistant(replay, echo("changed ")).chat(List.of(UserMessage.from("go"))).aiMessage().text())
+            .isEqualTo("done: echo {\"arg0\":\"hi\"}");
+        then(replay.mismatches()).hasSize(1);
+        then(replay.mismatches().get(0)).startsWith("request 2, message 3: recorded ").contains("changed ");
+    }
+
+    @Test
+    public void replay_streams_recorded_responses_and_errors() throws Exception {
+        final TraceReplayModel replay = new TraceReplayModel(List.of(
+            new JSONObject().put("type", AgentTrace.REQUEST).put("request", 1).put("messages", new JSONArray()),
+            new JSONObject().put("type", AgentTrace.RESPONSE).put("request", 1)
+                .put("message", new JSONObject().put("type", "AI").put("text", "hello"))
+                .put("finishReason", "STOP").put("inputTokens", 3).put("outputTokens", 1),
+            new JSONObject().put("type", AgentTrace.ERROR).put("request", 2).put("error", "rate limited")
+        ));
+        final List<String> received = new ArrayList<>();
+        final StreamingChatResponseHandler handler = new StreamingChatResponseHandler() {
+            @Override
+            public void onPartialResponse(final String partial) {
+                received.add("partial " + partial);
+            }
+
+            @Override
+            public void onCompleteResponse(final ChatResponse response) {
+                received.add("complete " + response.aiMessage().text() + " " + response.finishReason()
+                    + " " + response.tokenUsage().totalTokenCount());
+            }
+
+            @Override
+            public void onError(final Throwable error) {
+                received.add("error " + error.getMessage());
+            }
+        };
+
+        replay.chat(ChatRequest.builder().messages(UserMessage.from("hi")).build(), handler);
+        replay.chat(ChatRequest.builder().messages(UserMessage.from("hi")).build(), handler);
+
+        then(received).containsExactly("partial hello", "complete hello STOP 4", "error rate limited");
+        then(replay.mismatches()).containsExactly("request 1: 0 messages recorded, 1 sent");
+    }
+
+    @Test
+    public void a_trace_without_responses_can_not_be_replayed() {
+        thenThrownBy(() -> new TraceReplayModel(List.of()))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("no model responses in the trace");
+    }
+
+    // --------------------------------------------------------- private methods
+
+    private static Map<ToolSpecification, ToolExecutor> echo(final String prefix) {
+        return Map.of(ECHO, (request, memoryId) -> prefix + request.arguments());
+    }
+
+    private static Assistant assistant(final ChatModel model, final Map<ToolSpecification, ToolExecutor> tools) {
+        return AiServices.builder(Assistant.class).chatModel(model).tools(tools).build();
+    }
+}
@@ -0,0 +1,56 @@
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.ai.agent;
+
+import io.github.jeddict.ai.agent.BuildFileEdit.Action;
+import io.github.jeddict.ai.agent.BuildFileEdit.Change;
+import io.github.jeddict.ai.agent.BuildFileEdit.Target;
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.assertj.core.api.BDDAssertions.thenThrownBy;
+import org.junit.jupiter.api.Test;
+
+public class BuildFileEditTest {
+
+    @Test
+    public void parse_reads_one_change_per_line_or_semicolon() {
+        then(BuildFileEdit.parse("add dependency a:b:1\r\n\n  REMOVE Plugin c:d ; update property x = y z"))
+            .containsExactly(
+                new Change(Action.ADD, Target.DEPENDENCY, "a:b:1"),
+                new Change(Action.REMOVE, Target.PLUGIN, "c:d"),
+                new Change(Action.SET, Target.PROPERTY, "x = y z")
+            );
+    }
+
+    @Test
+    public void parse_rejects_malformed_changes() {
+        thenThrownBy(() -> BuildFileEdit.parse(" \n "))
+            .isInstanceOf(IllegalArgumentException.class).hasMessage("no changes given");
+        thenThrownBy(() -> BuildFileEdit.parse("add dependency"))
+            .hasMessage("malformed change 'add dependency': expected <action> <target> <arguments>");
+        thenThrownBy(() -> BuildFileEdit.parse("replace dependency a:b"))
+            .hasMessage("malformed change 'replace dependency a:b': unknown action 'replace'");
+        thenThrownBy(() -> BuildFileEdit.parse("add module a"))
+            .hasMessage("malformed change 'add module a': unknown target 'module'");
+        thenThrownBy(() -> BuildFileEdit.parse("set dependency a:b:1"))
+            .hasMessage("malformed change 'set dependency a:b:1': use add or update for dependencies and plugins");
+    }
+
+    @Test
+    public void remove_drops_lines_left_empty() {
+        then(BuildFileEdit.remove("a\n  <x/>\nb", 4, 8)).isEqualTo("a\nb");
+        then(BuildFileEdit.remove("a <x/> b", 2, 6)).isEqualTo("a  b");
+    }
+}
@@ -0,0 +1,174 @@
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.ai.agent;
+
+import static org.assertj.core.api.BDDAssertions.then;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ */
+public class BuildOutputTest {
+
+    @Test
+    public void maven_compilation_errors_and_failures_are_extracted() {
+        final BuildOutput output = add(new BuildOutput(2, 3), """
+            [INFO] Scanning for projects...
+            [INFO] Building demo 1.0
+            [INFO] --- compiler:3.14.0:compile (default-compile) @ demo ---
+            [ERROR] COMPILATION ERROR :
+            [ERROR] /p/src/main/java/a/A.java:[12,5] cannot find symbol
+              symbol:   class Foo
+            [ERROR] /p/src/main/java/a/B.java:[3,1] class, interface, enum, or record expected
+            [INFO] BUILD FAILURE
+            [ERROR] Failed to execute goal org.apache.maven.plugins:maven-compiler-plugin:3.14.0:compile (default-compile) on project demo: Compilation failure
+            [ERROR] /p/src/main/java/a/A.java:[12,5] cannot find symbol
+            [ERROR] -> [Help 1]
+            """);
+
+        then(output.errors()).containsExactly(
+            "/p/src/main/java/a/A.java:[12,5] cannot find symbol",
+            "/p/src/main/java/a/B.java:[3,1] class, interface, enum, or record expected"
+        );
+        then(output.failures()).hasSize(1).allMatch(f -> f.startsWith("Failed to execute goal"));
+        then(output.digest("Building failed with exit code 1", "see the log")).isEqualTo("""
+            Building failed with exit code 1
+            11 lines of output, see the log
+
+            Compilation errors (2):
+              /p/src/main/java/a/A.java:[12,5] cannot find symbol
+              /p/src/main/java/a/B.java:[3,1] class, interface, enum, or record expected
+
+            Failures (1):
+              Failed to execute goal org.apache.maven.plugins:maven-compiler-plugin:3.14.0:compile (default-compile) on project demo: Compilation failure
+
+            First 2 lines:
+            [INFO] Scanning for projects...
+            [INFO] Building demo 1.0
+            [6 lines omitted]
+            Last 3 lines:
+            [ERROR] Failed to execute goal org.apache.maven.plugins:maven-compiler-plugin:3.14.0:compile (default-compile) on project demo: Compilation failure
+            [ERROR] /p/src/main/java/a/A.java:[12,5] cannot find symbol
+            [ERROR] -> [Help 1]
+            """.replace("[6 lines omitted]\n", String.format("[%,d lines omitted]%n", 6)));
+    }
+
+    @Test
+    public void surefire_failing_tests_and_stack_traces_are_extracted() {
+        final BuildOutput output = add(new BuildOutput(0, 1), """
+            [INFO] Running a.FooTest
+            [ERROR] Tests run: 2, Failures: 1, Errors: 1, Skipped: 0, Time elapsed: 0.1 s <<< FAILURE! -- in a.FooTest
+            [ERROR] a.FooTest.sum -- Time elapsed: 0.01 s <<< FAILURE!
+            org.opentest4j.AssertionFailedError: expected: <2> but was: <3>
+            \tat a.FooTest.sum(FooTest.java:12)
+            \tat java.base/java.lang.reflect.Method.invoke(Method.java:568)
+
+            [ERROR] a.FooTest.div -- Time elapsed: 0.01 s <<< ERROR!
+            java.lang.ArithmeticException: / by zero
+            \tat a.Foo.div(Foo.java:5)
+            \tat a.FooTest.div(FooTest.java:20)
+
+            [ERROR] Failures:
+            [ERROR]   FooTest.sum:12 expected: <2> but was: <3>
+            [ERROR] Errors:
+            [ERROR]   FooTest.div:20 » Arithmetic / by zero
+            [ERROR] Tests run: 2, Failures: 1, Errors: 1, Skipped: 0
+            """);
+
+        then(output.tests()).containsExactly("a.FooTest.sum", "a.FooTest.div");
+        then(output.failures()).containsExactly("FooTest.sum:12 expected: <2> but was: <3>", "FooTest.div:20 » Arithmetic / by zero");
+
+        final String digest = output.digest("Testing failed with exit code 1", "see the log");
+        then(digest).contains("""
+            Stack traces:
+              org.opentest4j.AssertionFailedError: expected: <2> but was: <3>
+                  at a.FooTest.sum(FooTest.java:12)
+                  at java.base/java.lang.reflect.Method.invoke(Method.java:568)
+              java.lang.ArithmeticException: / by zero
+                  at a.Foo.div(Foo.java:5)
+                  at a.FooTest.div(FooTest.java:20)
+            """);
+        then(digest).endsWith("Last 1 lines:\n[ERROR] Tests run: 2, Failures: 1, Errors: 1, Skipped: 0\n");
+    }
+
+    @Test
+    public void gradle_errors_and_failing_tests_are_extracted() {
+        final BuildOutput output = add(new BuildOutput(10, 10), """
+            > Task :compileJava
+            /p/src/main/java/a/A.java:12: error: cannot find symbol
+            e: file:///p/src/main/kotlin/a/B.kt:3:7 Unresolved reference: foo
+            FooTest > sum() FAILED
+                org.opentest4j.AssertionFailedError at FooTest.java:12
+
+            * What went wrong:
+            Execution failed for task ':test'.
+            > There were failing tests.
+
+            * Try:
+            """);
+
+        then(output.errors()).containsExactly(
+            "/p/src/main/java/a/A.java:12: error: cannot find symbol",
+            "e: file:///p/src/main/kotlin/a/B.kt:3:7 Unresolved reference: foo"
+        );
+        then(output.tests()).containsExactly("FooTest > sum()");
+        then(output.failures()).containsExactly("Execution failed for task ':test'.", "> There were failing tests.");
+        then(output.digest("Testing failed", "see the log")).doesNotContain("omitted").contains("Output:\n> Task :compileJava\n");
+    }
+
+    @Test
+    public void only_the_first_and_last_lines_are_kept() {
+        final BuildOutput output = new BuildOutput(3, 5);
+        for (int i = 1; i <= 100_000; ++i) {
+            output.add("line " + i);
+        }
+        for (int i = 1; i <= 100; ++i) {
+            output.add("[ERROR] /p/A" + i + ".java:[1,1] error");
+        }
+
+        then(output.lines()).isEqualTo(100_100);
+        then(output.errors()).hasSize(BuildOutput.MAX_ITEMS);
+        final String digest = output.digest("Building failed", "see the log");
+        then(digest).contains("Compilation errors (100):", "  ... and 70 more\n", "line 3\n", "[ERROR] /p/A100.java:[1,1] error\n")
+                    .doesNotContain("line 4\n", "line 100000\n");
+    }
+
+    @Test
+    public void repeated_entries_and_a_trace_at_the_end_are_counted_once() {
+        final BuildOutput output = new BuildOutput(0, 0);
+        for (int repeat = 0; repeat < 3; ++repeat) {
+            for (int i = 1; i <= 40; ++i) {
+                output.add("[ERROR] /p/A" + i + ".java:[1,1] error");
+            }
+        }
+        add(output, """
+            java.lang.IllegalStateException: closed
+            \tat a.Foo.run(Foo.java:5)
+            """);
+
+        then(output.digest("Building failed", "see the log")).contains(
+            "Compilation errors (40):", "  ... and 10 more\n",
+            "Stack traces:\n  java.lang.IllegalStateException: closed\n      at a.Foo.run(Foo.java:5)\n"
+        );
+    }
+
+    // --------------------------------------------------------- private methods
+
+    private BuildOutput add(final BuildOutput output, final String text) {
+        text.lines().forEach(output::add);
+        return output;
+    }
+}
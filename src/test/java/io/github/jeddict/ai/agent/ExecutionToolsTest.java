@@ -0,0 +1,86 @@
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.ai.agent;
+
+import io.github.jeddict.ai.index.ProjectLexicalIndex;
+import io.github.jeddict.ai.test.TestBase;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import static org.assertj.core.api.BDDAssertions.then;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.openide.filesystems.FileUtil;
+
+/**
+ *
+ */
+@DisabledOnOs(OS.WINDOWS)
+public class ExecutionToolsTest extends TestBase {
+
+    @Test
+    public void the_digest_of_the_output_is_returned() {
+        final ExecutionTools tools = new ExecutionTools(
+            projectDir, "demo",
+            "echo '[INFO] Building demo'; echo '[ERROR] /p/A.java:[1,2] cannot find symbol'; exit 1",
+            "echo 'All tests passed'"
+        );
+
+        then(tools.buildProject()).isEqualTo("""
+            Building failed with exit code 1
+
+            Compilation errors (1):
+              /p/A.java:[1,2] cannot find symbol
+
+            Output:
+            [INFO] Building demo
+            [ERROR] /p/A.java:[1,2] cannot find symbol
+            """);
+        then(tools.testProject()).isEqualTo("Testing successful\n\nOutput:\nAll tests passed\n");
+    }
+
+    @Test
+    public void only_the_affected_tests_are_run() throws Exception {
+        final Path test = Paths.get(projectDir, "src", "test", "java", "a", "FooTest.java");
+        Files.createDirectories(test.getParent());
+        Files.writeString(test, "package a;\n\npublic class FooTest {}\n");
+
+        final ExecutionTools tools = new ExecutionTools(projectDir, "demo", "echo build", "echo mvn test");
+        try {
+            then(tools.testAffected(" src/test/java/a/FooTest.java, ")).isEqualTo(
+                "Running the 1 tests affected: a.FooTest\nTesting successful\n\nOutput:\n"
+                + "mvn test -Dtest=a.FooTest -Dsurefire.failIfNoSpecifiedTests=false -DfailIfNoTests=false\n"
+            );
+            then(tools.testAffected("README.md")).startsWith("No tests are affected by README.md");
+            then(tools.testAffected("")).isEqualTo("Testing successful\n\nOutput:\nmvn test\n");
+        } finally {
+            ProjectLexicalIndex.forDirectory(FileUtil.toFileObject(new File(projectDir))).close();
+        }
+    }
+
+    @Test
+    public void tests_are_selected_with_maven_and_gradle_commands() {
+        final String gradle = ExecutionTools.selectedTestCommand("./gradlew test", List.of("a.FooTest", "b.BarTest"));
+        then(gradle).startsWith("./gradlew test --init-script \"").endsWith("\" --tests a.FooTest --tests b.BarTest");
+        then(Paths.get(gradle.split("\"")[1])).content().contains("filter.failOnNoMatchingTests = false");
+        then(ExecutionTools.selectedTestCommand("./mvnw -q test", List.of("a.FooTest", "b.BarTest")))
+            .isEqualTo("./mvnw -q test -Dtest=a.FooTest,b.BarTest -Dsurefire.failIfNoSpecifiedTests=false -DfailIfNoTests=false");
+        then(ExecutionTools.selectedTestCommand("make check", List.of("a.FooTest"))).isNull();
+    }
+}
@@ -112,6 +112,14 @@ public class ExploreToolsTest extends TestBase {
         then(tools.listMethodsInFile(path)).contains("Method: sayHello");
     }
 
+    @Test
+    public void searchSymbol_without_project_sources_returns_no_sources()
+    throws Exception {
+        final ExplorationTools tools = new ExplorationTools(projectDir, null);
+
+        then(tools.searchSymbol("UserService, findUser")).isEqualTo("No sources found in project.");
+    }
+
     @Test
     public void findUsages_with_invalid_path_return_file_not_found()
     throws Exception {
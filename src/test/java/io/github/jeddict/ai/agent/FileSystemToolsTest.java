@@ -15,10 +15,12 @@
  */
 package io.github.jeddict.ai.agent;
 
+import io.github.jeddict.ai.index.ProjectLexicalIndex;
 import io.github.jeddict.ai.test.TestBase;
 import static io.github.jeddict.ai.agent.AbstractTool.PROPERTY_MESSAGE;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
+import java.io.File;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -29,6 +31,7 @@ import org.assertj.core.api.BDDAssertions;
 import static org.assertj.core.api.BDDAssertions.then;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
+import org.openide.filesystems.FileUtil;
 
 public class FileSystemToolsTest extends TestBase {
 
@@ -192,4 +195,175 @@ public class FileSystemToolsTest extends TestBase {
         // TODO: logging
         //
     }
+
+    @Test
+    public void readFile_returns_large_files_in_part() throws Exception {
+        final String path = "folder/large.log";
+        writeLines(path, 3000);
+
+        final FileSystemTools tools = new FileSystemTools(projectDir);
+        final String content = tools.readFile(path);
+
+        then(content).startsWith("File: " + path + " (3000 lines, " + Files.size(Paths.get(projectDir, path)) + " bytes); lines 1-1000:\n1: line 1\n")
+            .contains("\n1000: line 1000\n")
+            .doesNotContain("line 1001")
+            .endsWith("[2000 more lines, continue with startLine 1001]\n");
+    }
+
+    @Test
+    public void readFileLines_head_and_tail() throws Exception {
+        final String path = "folder/large.log";
+        writeLines(path, 3000);
+
+        final FileSystemTools tools = new FileSystemTools(projectDir);
+        final List<PropertyChangeEvent> events = new ArrayList<>();
+        tools.addPropertyChangeListener((evt) -> events.add(evt));
+
+        then(tools.readFileLines(path, 1500, 3)).endsWith(
+            "lines 1500-1502:\n1500: line 1500\n1501: line 1501\n1502: line 1502\n[1498 more lines, continue with startLine 1503]\n"
+        );
+        then(events.get(0).getNewValue()).isEqualTo("📖 Reading lines 1500-1502 of file " + path);
+
+        then(tools.readFileLines(path, 2999, 10)).endsWith("lines 2999-3000:\n2999: line 2999\n3000: line 3000\n");
+        then(tools.readFileLines(path, 4000, 10)).endsWith("no lines from line 3001\n");
+        then(tools.readFileHead(path, 2)).endsWith("lines 1-2:\n1: line 1\n2: line 2\n[2998 more lines, continue with startLine 3]\n");
+        then(tools.readFileTail(path, 2)).endsWith("lines 2999-3000:\n2999: line 2999\n3000: line 3000\n");
+    }
+
+    @Test
+    public void readFileBytes_with_lines_spanned() throws Exception {
+        final String path = "folder/large.log";
+        writeLines(path, 10); // "line 1\n" ... "line 10\n", 71 bytes
+
+        final FileSystemTools tools = new FileSystemTools(projectDir);
+
+        then(tools.readFileBytes(path, 7, 14)).isEqualTo(
+            "File: " + path + " (10 lines, 71 bytes); bytes 7-21 (lines 2-3):\nline 2\nline 3\n\n[50 more bytes, continue at offset 21]"
+        );
+        then(tools.readFileBytes(path, 63, 100)).endsWith("bytes 63-71 (lines 10-10):\nline 10\n");
+    }
+
+    @Test
+    public void readAroundMatch_merges_close_matches() throws Exception {
+        final String path = "folder/large.log";
+        writeLines(path, 100);
+
+        final FileSystemTools tools = new FileSystemTools(projectDir);
+
+        then(tools.readAroundMatch(path, "line (10|12|50)$", 1)).endsWith(
+            "3 matching lines:\n"
+            + "9: line 9\n10> line 10\n11: line 11\n12> line 12\n13: line 13\n"
+            + "--\n"
+            + "49: line 49\n50> line 50\n51: line 51\n"
+        );
+        then(tools.readAroundMatch(path, "line", 0)).contains("100 matching lines, first 20 shown:\n").endsWith("20> line 20\n");
+        then(tools.readAroundMatch(path, "nothing", 2)).endsWith("0 matching lines:\n");
+    }
+
+    @Test
+    public void readAroundMatch_splits_lines_as_the_index_and_reads_a_bounded_window() throws Exception {
+        final FileSystemTools tools = new FileSystemTools(projectDir);
+
+        Files.writeString(Paths.get(projectDir, "folder/cr.txt"), "a\rb\nmatch here\r\nc\n");
+        then(tools.readAroundMatch("folder/cr.txt", "here$", 0)).endsWith("1 matching lines:\n2> match here\n");
+
+        final String huge = "x".repeat(3 * FileSystemTools.MAX_READ_BYTES);
+        Files.writeString(Paths.get(projectDir, "folder/huge.txt"), huge + " needle\nend\n");
+        then(tools.readAroundMatch("folder/huge.txt", "needle", 1)).endsWith(
+            "1 matching lines:\n1> " + huge.substring(0, FileSystemTools.MAX_READ_BYTES)
+            + " [line truncated, read it with readFileBytes at offset 0]\n"
+            + "[read limited to " + FileSystemTools.MAX_READ_BYTES + " bytes, continue with readFileLines at startLine 1]\n"
+        );
+        then(tools.readFileLines("folder/huge.txt", 1, 2)).endsWith(
+            "lines 1-1:\n1: " + huge.substring(0, FileSystemTools.MAX_READ_BYTES)
+            + " [line truncated, read it with readFileBytes at offset 0]\n[1 more lines, continue with startLine 2]\n"
+        );
+    }
+
+    @Test
+    public void line_index_is_rebuilt_when_the_file_changes() throws Exception {
+        final String path = "folder/large.log";
+        writeLines(path, 10);
+
+        final FileSystemTools tools = new FileSystemTools(projectDir);
+        then(tools.readFileTail(path, 1)).endsWith("10: line 10\n");
+
+        writeLines(path, 12);
+        then(tools.readFileTail(path, 1)).endsWith("12: line 12\n");
+    }
+
+    @Test
+    public void searchInProject_with_text_regex_and_pages() throws Exception {
+        final Path src = Files.createDirectories(Paths.get(projectDir, "src"));
+        Files.writeString(src.resolve("UserRepository.java"), "class UserRepository {\n  User findUserByName(String name) {}\n  User findUserById(long id) {}\n}\n");
+        Files.writeString(src.resolve("OrderService.java"), "class OrderService {\n  void placeOrder(Order order) {}\n}\n");
+        final StringBuilder many = new StringBuilder();
+        for (int i = 1; i <= 60; ++i) {
+            many.append("findUser ").append(i).append('\n');
+        }
+        Files.writeString(src.resolve("Many.java"), many);
+
+        final FileSystemTools tools = new FileSystemTools(projectDir);
+        try {
+            then(tools.searchInProject("placeOrder", false, 1)).isEqualTo(
+                "1 matches in 1 files (1 of 4 files searched); page 1 of 1:\n"
+                + "src/OrderService.java:2: void placeOrder(Order order) {}\n"
+            );
+            then(tools.searchInProject("findUserBy(Name|Id)", true, 1)).isEqualTo(
+                "2 matches in 1 files (4 of 4 files searched); page 1 of 1:\n"
+                + "src/UserRepository.java:2: User findUserByName(String name) {}\n"
+                + "src/UserRepository.java:3: User findUserById(long id) {}\n"
+            );
+
+            final String page1 = tools.searchInProject("findUser", false, 1);
+            then(page1).startsWith("62 matches in 2 files (2 of 4 files searched); page 1 of 2:\n"
+                + "src/Many.java:1: findUser 1\n"
+            ).endsWith("src/Many.java:50: findUser 50\n[more matches, continue with page 2]\n");
+            then(tools.searchInProject("findUser", false, 2)).endsWith(
+                "src/Many.java:60: findUser 60\n"
+                + "src/UserRepository.java:2: User findUserByName(String name) {}\n"
+                + "src/UserRepository.java:3: User findUserById(long id) {}\n"
+            );
+
+            then(tools.searchInProject("nowhere", false, 1)).isEqualTo(
+                "0 matches in 0 files (0 of 4 files searched); page 1 of 1:\n"
+            );
+        } finally {
+            ProjectLexicalIndex.forDirectory(FileUtil.toFileObject(new File(projectDir))).close();
+        }
+    }
+
+    @Test
+    public void searchInProject_keeps_the_first_matches_in_path_order() throws Exception {
+        final Path src = Files.createDirectories(Paths.get(projectDir, "src"));
+        final StringBuilder many = new StringBuilder();
+        for (int i = 1; i <= 50; ++i) {
+            many.append("capped ").append(i).append('\n');
+        }
+        for (int i = 10; i < 40; ++i) {
+            Files.writeString(src.resolve("File" + i + ".java"), many);
+        }
+
+        final FileSystemTools tools = new FileSystemTools(projectDir);
+        try {
+            final String last = tools.searchInProject("capped", false, 20);
+            then(last).startsWith("1000+ matches in 20 files (30 of 31 files searched); page 20 of 20:\n")
+                      .endsWith("src/File29.java:50: capped 50\n");
+            for (int i = 0; i < 5; ++i) {
+                then(tools.searchInProject("capped", false, 20)).isEqualTo(last);
+            }
+        } finally {
+            ProjectLexicalIndex.forDirectory(FileUtil.toFileObject(new File(projectDir))).close();
+        }
+    }
+
+    // --------------------------------------------------------- private methods
+
+    private void writeLines(final String path, final int count) throws Exception {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 1; i <= count; ++i) {
+            sb.append("line ").append(i).append('\n');
+        }
+        Files.writeString(Paths.get(projectDir, path), sb);
+    }
 }
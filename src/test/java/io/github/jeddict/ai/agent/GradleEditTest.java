@@ -0,0 +1,153 @@
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.ai.agent;
+
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.assertj.core.api.BDDAssertions.thenThrownBy;
+import org.junit.jupiter.api.Test;
+
+public class GradleEditTest {
+
+    private static final String BUILD = String.join("\n",
+        "buildscript {",
+        "    dependencies {",
+        "        classpath 'org.example:plugin:1.0'",
+        "    }",
+        "}",
+        "",
+        "plugins {",
+        "    id 'java'",
+        "    id 'org.springframework.boot' version '3.2.0'",
+        "}",
+        "",
+        "// dependencies { are here }",
+        "dependencies {",
+        "  implementation 'com.google.guava:guava:32.0.0-jre'",
+        "  testImplementation(\"org.junit.jupiter:junit-jupiter:5.10.0\")",
+        "}",
+        ""
+    );
+
+    @Test
+    public void batch_of_changes_is_applied_keeping_formatting() {
+        final BuildFileEdit.Result result = new GradleEdit().apply(BUILD, BuildFileEdit.parse(String.join("\n",
+            "add dependency implementation org.slf4j:slf4j-api:2.0.13",
+            "update dependency implementation com.google.guava:guava:33.0.0-jre",
+            "remove dependency testImplementation org.junit.jupiter:junit-jupiter:5.10.0",
+            "update plugin org.springframework.boot 3.3.0",
+            "add plugin jacoco",
+            "set property junitVersion=5.11.0"
+        )));
+
+        then(result.messages()).hasSize(6);
+        then(result.text()).isEqualTo(String.join("\n",
+            "buildscript {",
+            "    dependencies {",
+            "        classpath 'org.example:plugin:1.0'",
+            "    }",
+            "}",
+            "",
+            "plugins {",
+            "    id 'java'",
+            "    id 'org.springframework.boot' version '3.3.0'",
+            "    id 'jacoco'",
+            "}",
+            "",
+            "// dependencies { are here }",
+            "ext {",
+            "    junitVersion = '5.11.0'",
+            "}",
+            "",
+            "dependencies {",
+            "  implementation 'com.google.guava:guava:33.0.0-jre'",
+            "  implementation 'org.slf4j:slf4j-api:2.0.13'",
+            "}",
+            ""
+        ));
+    }
+
+    @Test
+    public void properties_are_updated_in_place() {
+        final String build = "ext {\n    a = '1'\n}\next.b = 2\n";
+
+        final BuildFileEdit.Result result = new GradleEdit().apply(build, BuildFileEdit.parse(
+            "set property a=x y\nset property b=3\nadd property c=it's"
+        ));
+
+        then(result.text()).isEqualTo("ext {\n    a = 'x y'\n    c = 'it\\'s'\n}\next.b = 3\n");
+        then(new GradleEdit().apply(result.text(), BuildFileEdit.parse("remove property b")).text())
+            .isEqualTo("ext {\n    a = 'x y'\n    c = 'it\\'s'\n}\n");
+    }
+
+    @Test
+    public void missing_blocks_are_created() {
+        final BuildFileEdit.Result result = new GradleEdit().apply("group = 'a'\n", BuildFileEdit.parse(
+            "add dependency implementation a:b:1\nadd plugin java"
+        ));
+
+        then(result.text()).isEqualTo("plugins {\n    id 'java'\n}\n\ngroup = 'a'\n\ndependencies {\n    implementation 'a:b:1'\n}\n");
+    }
+
+    @Test
+    public void adding_an_existing_dependency_changes_nothing_and_removing_a_missing_one_fails() {
+        final GradleEdit edit = new GradleEdit();
+
+        then(edit.apply(BUILD, BuildFileEdit.parse("add dependency implementation com.google.guava:guava:32.0.0-jre")).changed(BUILD))
+            .isFalse();
+        thenThrownBy(() -> edit.apply(BUILD, BuildFileEdit.parse("add plugin jacoco\nremove dependency implementation x:y:1")))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("remove dependency implementation x:y:1: Dependency not found in build.gradle; no changes applied");
+        //
+        // the buildscript classpath is not a project dependency
+        //
+        thenThrownBy(() -> edit.apply(BUILD, BuildFileEdit.parse("remove dependency classpath org.example:plugin:1.0")))
+            .hasMessage("Dependency not found in build.gradle");
+    }
+
+    @Test
+    public void commented_dependencies_are_not_dependencies() {
+        final String build = String.join("\n",
+            "dependencies {",
+            "    // implementation 'com.acme:lib:1.0'",
+            "    /* implementation 'com.acme:old:1.0'",
+            "       implementation 'com.acme:older:1.0' */",
+            "    implementation 'org.x:y:2'",
+            "}",
+            ""
+        );
+        final GradleEdit edit = new GradleEdit();
+
+        then(edit.apply(build, BuildFileEdit.parse("add dependency implementation com.acme:lib:1.0")).text())
+            .contains("    implementation 'org.x:y:2'\n    implementation 'com.acme:lib:1.0'\n");
+        thenThrownBy(() -> edit.apply(build, BuildFileEdit.parse("remove dependency implementation com.acme:older:1.0")))
+            .hasMessage("Dependency not found in build.gradle");
+        then(edit.apply(build, BuildFileEdit.parse("update dependency implementation org.x:y:3")).text())
+            .contains("// implementation 'com.acme:lib:1.0'").contains("    implementation 'org.x:y:3'\n");
+        then(edit.apply(build, BuildFileEdit.parse("remove dependency implementation org.x:y:2")).text())
+            .contains("// implementation 'com.acme:lib:1.0'").doesNotContain("org.x:y:2");
+    }
+
+    @Test
+    public void blocks_are_found_at_top_level_only() {
+        final GradleEdit.Block block = GradleEdit.block(BUILD, "dependencies");
+
+        then(block).isNotNull();
+        then(BUILD.substring(block.start())).startsWith("dependencies {\n  implementation");
+        then(BUILD.charAt(block.close())).isEqualTo('}');
+        then(GradleEdit.block(BUILD, "ext")).isNull();
+        then(GradleEdit.mask("a '{' // }\nb")).isEqualTo("a         \nb");
+    }
+}
@@ -0,0 +1,92 @@
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.ai.agent;
+
+import io.github.jeddict.ai.test.TestBase;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.assertj.core.api.BDDAssertions.thenThrownBy;
+import org.junit.jupiter.api.Test;
+
+public class MavenToolsTest extends TestBase {
+
+    private static final String POM = String.join("\n",
+        "<project>",
+        "    <!-- keep me -->",
+        "    <dependencies>",
+        "        <dependency>",
+        "            <groupId>a</groupId>",
+        "            <artifactId>b</artifactId>",
+        "            <version>1</version>",
+        "        </dependency>",
+        "    </dependencies>",
+        "</project>",
+        ""
+    );
+
+    @Test
+    public void editBuild_applies_all_changes_in_one_write() throws Exception {
+        final Path pom = Files.writeString(Paths.get(projectDir, "pom.xml"), POM);
+        final MavenTools tools = new MavenTools(projectDir);
+
+        then(tools.editBuild("add dependency c:d:2:test\nremove dependency a:b\nset property x=y")).isEqualTo(String.join("\n",
+            "Dependency added successfully to pom.xml",
+            "Dependency removed successfully from pom.xml",
+            "Property x set successfully in pom.xml"
+        ));
+        then(Files.readString(pom)).isEqualTo(String.join("\n",
+            "<project>",
+            "    <!-- keep me -->",
+            "    <properties>",
+            "        <x>y</x>",
+            "    </properties>",
+            "    <dependencies>",
+            "        <dependency>",
+            "            <groupId>c</groupId>",
+            "            <artifactId>d</artifactId>",
+            "            <version>2</version>",
+            "            <scope>test</scope>",
+            "        </dependency>",
+            "    </dependencies>",
+            "</project>",
+            ""
+        ));
+    }
+
+    @Test
+    public void editBuild_with_a_failing_change_does_not_write() throws Exception {
+        final Path pom = Files.writeString(Paths.get(projectDir, "pom.xml"), POM);
+        final MavenTools tools = new MavenTools(projectDir);
+
+        thenThrownBy(() -> tools.editBuild("add dependency c:d:2\nremove plugin x:y"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("remove plugin x:y: Plugin not found x:y; no changes applied");
+        then(Files.readString(pom)).isEqualTo(POM);
+    }
+
+    @Test
+    public void single_dependency_tools_keep_their_messages() throws Exception {
+        Files.writeString(Paths.get(projectDir, "pom.xml"), POM);
+        final MavenTools tools = new MavenTools(projectDir);
+
+        then(tools.addDependency("a", "b", "1")).isEqualTo("Dependency already exists in pom.xml");
+        then(tools.updateDependencyVersion("a", "b", "2")).isEqualTo("Dependency version updated successfully in pom.xml");
+        then(tools.listDependencies()).isEqualTo("a:b:2");
+        thenThrownBy(() -> tools.removeDependency("x", "y")).hasMessage("Dependency not found x:y");
+    }
+}
@@ -0,0 +1,204 @@
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.ai.agent;
+
+import java.util.List;
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.assertj.core.api.BDDAssertions.thenThrownBy;
+import org.junit.jupiter.api.Test;
+
+public class PomEditTest {
+
+    private static final String POM = String.join("\n",
+        "<?xml version=\"1.0\" encoding=\"UTF-8\"?>",
+        "<project xmlns=\"http://maven.apache.org/POM/4.0.0\">",
+        "  <modelVersion>4.0.0</modelVersion>",
+        "  <!-- the <properties> below are <b>shared</b> -->",
+        "  <properties>",
+        "    <java.version>17</java.version>",
+        "  </properties>",
+        "",
+        "  <dependencies>",
+        "    <dependency>",
+        "      <groupId>org.slf4j</groupId>",
+        "      <artifactId>slf4j-api</artifactId>",
+        "      <version>2.0.9</version>",
+        "    </dependency>",
+        "  </dependencies>",
+        "",
+        "  <build>",
+        "    <plugins>",
+        "      <plugin>",
+        "        <artifactId>maven-compiler-plugin</artifactId>",
+        "        <version>3.11.0</version>",
+        "      </plugin>",
+        "    </plugins>",
+        "  </build>",
+        "</project>",
+        ""
+    );
+
+    @Test
+    public void batch_of_changes_is_applied_keeping_formatting() {
+        final BuildFileEdit.Result result = new PomEdit().apply(POM, BuildFileEdit.parse(String.join("\n",
+            "add dependency org.junit.jupiter:junit-jupiter:5.10.0:test",
+            "update dependency org.slf4j:slf4j-api:2.0.13",
+            "update plugin org.apache.maven.plugins:maven-compiler-plugin:3.13.0",
+            "add plugin org.apache.maven.plugins:maven-surefire-plugin:3.2.5",
+            "set property java.version=21",
+            "set property project.build.sourceEncoding=UTF-8"
+        )));
+
+        then(result.messages()).hasSize(6);
+        then(result.text()).isEqualTo(String.join("\n",
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>",
+            "<project xmlns=\"http://maven.apache.org/POM/4.0.0\">",
+            "  <modelVersion>4.0.0</modelVersion>",
+            "  <!-- the <properties> below are <b>shared</b> -->",
+            "  <properties>",
+            "    <java.version>21</java.version>",
+            "    <project.build.sourceEncoding>UTF-8</project.build.sourceEncoding>",
+            "  </properties>",
+            "",
+            "  <dependencies>",
+            "    <dependency>",
+            "      <groupId>org.slf4j</groupId>",
+            "      <artifactId>slf4j-api</artifactId>",
+            "      <version>2.0.13</version>",
+            "    </dependency>",
+            "    <dependency>",
+            "      <groupId>org.junit.jupiter</groupId>",
+            "      <artifactId>junit-jupiter</artifactId>",
+            "      <version>5.10.0</version>",
+            "      <scope>test</scope>",
+            "    </dependency>",
+            "  </dependencies>",
+            "",
+            "  <build>",
+            "    <plugins>",
+            "      <plugin>",
+            "        <artifactId>maven-compiler-plugin</artifactId>",
+            "        <version>3.13.0</version>",
+            "      </plugin>",
+            "      <plugin>",
+            "        <groupId>org.apache.maven.plugins</groupId>",
+            "        <artifactId>maven-surefire-plugin</artifactId>",
+            "        <version>3.2.5</version>",
+            "      </plugin>",
+            "    </plugins>",
+            "  </build>",
+            "</project>",
+            ""
+        ));
+    }
+
+    @Test
+    public void remove_changes_remove_whole_lines() {
+        final BuildFileEdit.Result result = new PomEdit().apply(POM, BuildFileEdit.parse(
+            "remove dependency org.slf4j:slf4j-api; remove plugin org.apache.maven.plugins:maven-compiler-plugin; remove property java.version"
+        ));
+
+        then(result.text()).isEqualTo(String.join("\n",
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>",
+            "<project xmlns=\"http://maven.apache.org/POM/4.0.0\">",
+            "  <modelVersion>4.0.0</modelVersion>",
+            "  <!-- the <properties> below are <b>shared</b> -->",
+            "  <properties>",
+            "  </properties>",
+            "",
+            "  <dependencies>",
+            "  </dependencies>",
+            "",
+            "  <build>",
+            "    <plugins>",
+            "    </plugins>",
+            "  </build>",
+            "</project>",
+            ""
+        ));
+    }
+
+    @Test
+    public void missing_sections_are_created() {
+        final String pom = "<project>\n\t<modelVersion>4.0.0</modelVersion>\n</project>\n";
+
+        final BuildFileEdit.Result result = new PomEdit().apply(pom, BuildFileEdit.parse(
+            "add dependency a:b:1\nadd plugin c:d\nset property p=x&y"
+        ));
+
+        then(result.text()).isEqualTo(String.join("\n",
+            "<project>",
+            "\t<modelVersion>4.0.0</modelVersion>",
+            "\t<properties>",
+            "\t\t<p>x&amp;y</p>",
+            "\t</properties>",
+            "\t<dependencies>",
+            "\t\t<dependency>",
+            "\t\t\t<groupId>a</groupId>",
+            "\t\t\t<artifactId>b</artifactId>",
+            "\t\t\t<version>1</version>",
+            "\t\t</dependency>",
+            "\t</dependencies>",
+            "\t<build>",
+            "\t\t<plugins>",
+            "\t\t\t<plugin>",
+            "\t\t\t\t<groupId>c</groupId>",
+            "\t\t\t\t<artifactId>d</artifactId>",
+            "\t\t\t</plugin>",
+            "\t\t</plugins>",
+            "\t</build>",
+            "</project>",
+            ""
+        ));
+    }
+
+    @Test
+    public void adding_an_existing_dependency_changes_nothing() {
+        final BuildFileEdit.Result result = new PomEdit().apply(POM, BuildFileEdit.parse("add dependency org.slf4j:slf4j-api:2.0.13"));
+
+        then(result.changed(POM)).isFalse();
+        then(result.messages()).containsExactly("Dependency already exists in pom.xml");
+    }
+
+    @Test
+    public void a_failing_change_fails_the_whole_batch() {
+        final PomEdit edit = new PomEdit();
+        final List<BuildFileEdit.Change> changes = BuildFileEdit.parse(
+            "add dependency a:b:1\nremove dependency x:y"
+        );
+
+        thenThrownBy(() -> edit.apply(POM, changes))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("remove dependency x:y: Dependency not found x:y; no changes applied");
+        thenThrownBy(() -> edit.apply(POM, BuildFileEdit.parse("update dependency x:y:2")))
+            .hasMessage("Dependency x:y not found");
+        thenThrownBy(() -> edit.apply(POM, BuildFileEdit.parse("update dependency x:y")))
+            .hasMessageStartingWith("malformed coordinates 'x:y'");
+    }
+
+    @Test
+    public void elements_are_located_skipping_comments_and_attributes() {
+        final PomEdit.Element project = PomEdit.elements(POM);
+
+        then(project.name).isEqualTo("project");
+        then(project.children).extracting(e -> e.name).containsExactly("modelVersion", "properties", "dependencies", "build");
+        then(project.text(POM, "modelVersion")).isEqualTo("4.0.0");
+
+        thenThrownBy(() -> PomEdit.elements("<project><a></project>"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("malformed pom.xml: unexpected </project>");
+    }
+}
@@ -0,0 +1,111 @@
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.ai.agent;
+
+import java.nio.file.Path;
+import java.util.List;
+import static org.assertj.core.api.BDDAssertions.then;
+import org.junit.jupiter.api.Test;
+
+public class SymbolIndexTest {
+
+    private static final String SOURCE = String.join("\n",
+        "package com.example;",               // 1
+        "",                                   // 2
+        "/**",                                // 3
+        " * The class UserService serves.",   // 4
+        " */",                                // 5
+        "public class UserService {",         // 6
+        "",                                   // 7
+        "    private final Map<String, User> users = new HashMap<>();", // 8
+        "",                                   // 9
+        "    public User findUser(String id) {", // 10
+        "        return findUser(id, true);",  // 11
+        "    }",                               // 12
+        "",                                   // 13
+        "    // findUser(id) is the common case", // 14
+        "    private User findUser(String id, boolean strict) {", // 15
+        "        return users.get(id);",      // 16
+        "    }",                               // 17
+        "",                                   // 18
+        "    record User(String id) {}",      // 19
+        "",                                   // 20
+        "    enum Kind { ADMIN, USER }",      // 21
+        "}"                                   // 22
+    );
+
+    @Test
+    public void typeDeclarations_returns_declared_types_in_order_skipping_comments() {
+        then(SymbolIndex.typeDeclarations(SOURCE)).containsExactly("UserService", "User", "Kind");
+        then(SymbolIndex.typeDeclarations("package a;\n\npublic @interface Marker {}\n")).containsExactly("Marker");
+        then(SymbolIndex.typeDeclarations("package a;\n")).isEmpty();
+    }
+
+    @Test
+    public void typeDeclarationLine_returns_the_line_of_the_declaration() {
+        then(SymbolIndex.typeDeclarationLine(SOURCE, "UserService")).isEqualTo(6);
+        then(SymbolIndex.typeDeclarationLine(SOURCE, "User")).isEqualTo(19);
+        then(SymbolIndex.typeDeclarationLine(SOURCE, "Kind")).isEqualTo(21);
+        then(SymbolIndex.typeDeclarationLine(SOURCE, "Missing")).isZero();
+    }
+
+    @Test
+    public void memberDeclarationLine_returns_the_line_of_the_first_declaration() {
+        then(SymbolIndex.memberDeclarationLine(SOURCE, "findUser")).isEqualTo(10);
+        then(SymbolIndex.memberDeclarationLine(SOURCE, "users")).isEqualTo(8);
+        then(SymbolIndex.memberDeclarationLine(SOURCE, "missing")).isZero();
+    }
+
+    @Test
+    public void memberDeclarationLine_ignores_calls_and_returns() {
+        final String text = String.join("\n",
+            "class A {",
+            "    void a() {",
+            "        return run();",
+            "        new run();",
+            "    }",
+            "    int run() { return 0; }",
+            "}"
+        );
+
+        then(SymbolIndex.memberDeclarationLine(text, "run")).isEqualTo(6);
+    }
+
+    @Test
+    public void referenceLines_returns_whole_word_uses_skipping_comments() {
+        then(SymbolIndex.referenceLines(SOURCE, "findUser")).containsExactly(10, 11, 15);
+        then(SymbolIndex.referenceLines(SOURCE, "users")).containsExactly(8, 16);
+        then(SymbolIndex.referenceLines(SOURCE, "User")).containsExactly(8, 10, 15, 19);
+        then(SymbolIndex.referenceLines(SOURCE, "missing")).isEmpty();
+    }
+
+    @Test
+    public void without_project_lookup_there_are_no_sources() {
+        final SymbolIndex index = new SymbolIndex(Path.of("."), null);
+
+        then(index.hasSources()).isFalse();
+        then(index.declarations("UserService")).isEmpty();
+    }
+
+    @Test
+    public void positions_are_printed_as_file_and_line() {
+        then(new SymbolIndex.Position("src/A.java", 12, "a();")).hasToString("src/A.java:12: a();");
+        then(new SymbolIndex.Declaration("class", "a.A", new SymbolIndex.Position("src/A.java", 3, "class A {")))
+            .hasToString("class a.A at src/A.java:3");
+        then(new SymbolIndex.Declaration("method", "a.A.b", null)).hasToString("method a.A.b");
+        then(List.of(new SymbolIndex.Position("a", 1, "x"))).contains(new SymbolIndex.Position("a", 1, "x"));
+    }
+}
@@ -0,0 +1,73 @@
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.ai.agent;
+
+import io.github.jeddict.ai.index.ProjectLexicalIndex;
+import io.github.jeddict.ai.test.TestBase;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import static org.assertj.core.api.BDDAssertions.then;
+import org.junit.jupiter.api.Test;
+import org.openide.filesystems.FileUtil;
+
+/**
+ *
+ */
+public class TestImpactTest extends TestBase {
+
+    @Test
+    public void tests_referencing_the_changed_classes_are_affected() throws Exception {
+        write("src/main/java/a/Foo.java", "package a;\n\npublic class Foo {}\n");
+        write("src/main/java/a/Bar.java", "package a;\n\npublic class Bar { Foo foo; }\n");
+        write("src/main/java/b/Baz.java", "package b;\n\nimport a.Bar;\n\npublic class Baz { Bar bar; }\n");
+        write("src/main/java/b/Other.java", "package b;\n\n// not the Foo of package a\npublic class Other {}\n");
+        write("src/test/java/a/FooTest.java", "package a;\n\npublic class FooTest { Foo foo; }\n");
+        write("src/test/java/b/BazTest.java", "package b;\n\npublic class BazTest { Baz baz; }\n");
+        write("src/test/java/b/OtherTest.java", "package b;\n\npublic class OtherTest { Other other; }\n");
+        write("src/test/java/c/BarTests.java", "package c;\n\nimport a.*;\n\npublic class BarTests { Bar bar; }\n");
+        write("src/test/java/c/MoreFooTest.java", "package c;\n\nimport a.FooTest;\n\npublic class MoreFooTest extends FooTest {}\n");
+
+        final ProjectLexicalIndex index = ProjectLexicalIndex.forDirectory(FileUtil.toFileObject(new File(projectDir)));
+        try {
+            final TestImpact impact = new TestImpact(index);
+
+            //
+            // Foo <- Bar <- Baz <- BazTest, three references away, is
+            // affected; the subclasses of an affected test are affected
+            //
+            then(impact.affectedTests(List.of("src/main/java/a/Foo.java")))
+                .containsExactly("a.FooTest", "b.BazTest", "c.BarTests", "c.MoreFooTest");
+            then(impact.affectedTests(List.of("src/main/java/a/Foo.java"), 1)).hasSizeGreaterThan(1);
+            then(impact.affectedTests(List.of("./src/main/java/b/Baz.java", "src/main/java/b/Other.java")))
+                .containsExactly("b.BazTest", "b.OtherTest");
+            then(impact.affectedTests(List.of("src/test/java/b/BazTest.java"))).containsExactly("b.BazTest");
+            then(impact.affectedTests(List.of("pom.xml", "src/main/java/a/Missing.java"))).isEmpty();
+        } finally {
+            index.close();
+        }
+    }
+
+    // --------------------------------------------------------- private methods
+
+    private void write(final String path, final String content) throws Exception {
+        final Path file = Paths.get(projectDir, path);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+    }
+}
@@ -0,0 +1,186 @@
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.ai.agent;
+
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.service.tool.ToolExecutor;
+import io.github.jeddict.ai.test.TestBase;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import static org.assertj.core.api.BDDAssertions.then;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import org.openide.filesystems.FileObject;
+import org.openide.filesystems.FileUtil;
+
+/**
+ *
+ */
+public class ToolResultCacheTest extends TestBase {
+
+    @Test
+    public void read_only_results_are_reused_until_written() throws Exception {
+        final ToolResultCache cache = new ToolResultCache(Paths.get(projectDir));
+        final Map<ToolSpecification, ToolExecutor> executors = cache.executors(List.of(new FileSystemTools(projectDir)));
+
+        final String content = execute(executors, "readFile", "folder/testfile.txt");
+        then(execute(executors, "readFile", "folder/testfile.txt")).isSameAs(content);
+
+        //
+        // the same arguments in another order and format are the same key
+        //
+        final List<String> names = names(executors, "readFileLines");
+        final String lines = execute(executors, "readFileLines", "folder/testfile.txt", 1, 2);
+        then(executor(executors, "readFileLines").execute(request(
+            "readFileLines",
+            "{ \"" + names.get(2) + "\" : 2, \"" + names.get(1) + "\" : 1, \"" + names.get(0) + "\" : \"folder/testfile.txt\" }"
+        ), "memory")).isSameAs(lines);
+        execute(executors, "listFilesInDirectory", "folder");
+        execute(executors, "readFile", "other.txt"); // not found: not cached
+        then(cache.hits()).isEqualTo(2);
+        then(cache.misses()).isEqualTo(4);
+        then(cache.size()).isEqualTo(3);
+
+        //
+        // a write to another file invalidates the listing of its folder only
+        //
+        execute(executors, "createFile", "folder/new.txt", "new");
+        then(cache.size()).isEqualTo(2);
+        execute(executors, "readFile", "folder/testfile.txt");
+        then(cache.hits()).isEqualTo(3);
+
+        //
+        // a write to the file invalidates its reads
+        //
+        execute(executors, "deleteFile", "./folder/testfile.txt");
+        then(cache.size()).isZero();
+
+        cache.close();
+    }
+
+    @Test
+    public void project_wide_results_are_invalidated_by_any_change() throws Exception {
+        final ToolResultCache cache = new ToolResultCache(Paths.get(projectDir));
+        final Map<ToolSpecification, ToolExecutor> executors = cache.executors(List.of(new FileSystemTools(projectDir)));
+
+        execute(executors, "readFile", "folder/testfile.txt");
+        execute(executors, "searchInFile", "folder/testfile.txt", "test");
+        execute(executors, "listFilesInDirectory", "");
+        then(cache.size()).isEqualTo(3);
+
+        cache.invalidate("src/Other.java");
+        then(cache.size()).isEqualTo(2); // the listing of the project directory
+
+        cache.invalidate(Paths.get(projectDir, "folder").toString());
+        then(cache.size()).isZero();
+
+        cache.invalidate("/outside/the/project");
+        cache.close();
+    }
+
+    @Test
+    public void file_changes_invalidate_the_entries() throws Exception {
+        final ToolResultCache cache = new ToolResultCache(Paths.get(projectDir));
+        final Map<ToolSpecification, ToolExecutor> executors = cache.executors(List.of(new FileSystemTools(projectDir)));
+        cache.open();
+        try {
+            final Path path = Paths.get(projectDir, "folder", "testfile.txt");
+            final FileObject file = FileUtil.toFileObject(path.toFile());
+
+            then(execute(executors, "readFile", "folder/testfile.txt")).isEqualTo(Files.readString(path));
+            then(cache.size()).isEqualTo(1);
+
+            try (OutputStream os = file.getOutputStream()) {
+                os.write("changed".getBytes(StandardCharsets.UTF_8));
+            }
+            then(cache.size()).isZero();
+            then(execute(executors, "readFile", "folder/testfile.txt")).isEqualTo("changed");
+        } finally {
+            cache.close();
+        }
+        then(logHandler.getMessages()).anyMatch(m -> m.startsWith("tool result cache: 0 hits, 2 misses"));
+    }
+
+    @Test
+    public void caches_of_a_project_share_one_listener() throws Exception {
+        final ToolResultCache cache1 = new ToolResultCache(Paths.get(projectDir));
+        final ToolResultCache cache2 = new ToolResultCache(Paths.get(projectDir));
+        final Map<ToolSpecification, ToolExecutor> executors1 = cache1.executors(List.of(new FileSystemTools(projectDir)));
+        final Map<ToolSpecification, ToolExecutor> executors2 = cache2.executors(List.of(new FileSystemTools(projectDir)));
+        cache1.open();
+        cache2.open();
+        then(ToolResultCache.isListening(Paths.get(projectDir))).isTrue();
+
+        execute(executors1, "readFile", "folder/testfile.txt");
+        execute(executors2, "readFile", "folder/testfile.txt");
+        final FileObject file = FileUtil.toFileObject(Paths.get(projectDir, "folder", "testfile.txt").toFile());
+        try (OutputStream os = file.getOutputStream()) {
+            os.write("changed".getBytes(StandardCharsets.UTF_8));
+        }
+        then(cache1.size()).isZero();
+        then(cache2.size()).isZero();
+
+        cache1.close();
+        then(ToolResultCache.isListening(Paths.get(projectDir))).isTrue();
+        cache2.close();
+        then(ToolResultCache.isListening(Paths.get(projectDir))).isFalse();
+    }
+
+    // --------------------------------------------------------- private methods
+
+    /**
+     * Executes a tool with the given values of its arguments, in order.
+     */
+    private String execute(final Map<ToolSpecification, ToolExecutor> executors, final String name, final Object... values) {
+        final List<String> names = names(executors, name);
+        final JSONObject arguments = new JSONObject();
+        for (int i = 0; i < values.length; ++i) {
+            arguments.put(names.get(i), values[i]);
+        }
+        return executor(executors, name).execute(request(name, arguments.toString()), "memory");
+    }
+
+    private ToolExecutor executor(final Map<ToolSpecification, ToolExecutor> executors, final String name) {
+        return executors.get(specification(executors, name));
+    }
+
+    /**
+     * @return the names of the arguments of a tool, as given to the model
+     */
+    private List<String> names(final Map<ToolSpecification, ToolExecutor> executors, final String name) {
+        return new ArrayList<>(specification(executors, name).parameters().properties().keySet());
+    }
+
+    private ToolSpecification specification(final Map<ToolSpecification, ToolExecutor> executors, final String name) {
+        for (ToolSpecification specification : executors.keySet()) {
+            if (specification.name().equals(name)) {
+                return specification;
+            }
+        }
+        throw new IllegalArgumentException(name);
+    }
+
+    private ToolExecutionRequest request(final String name, final String arguments) {
+        return ToolExecutionRequest.builder().id("1").name(name).arguments(arguments).build();
+    }
+}
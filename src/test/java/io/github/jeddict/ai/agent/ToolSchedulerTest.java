@@ -0,0 +1,209 @@
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.ai.agent;
+
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.service.tool.ToolExecutor;
+import io.github.jeddict.ai.test.TestBase;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.assertj.core.api.BDDAssertions.then;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ */
+public class ToolSchedulerTest extends TestBase {
+
+    private ToolScheduler scheduler;
+
+    @Test
+    public void a_read_and_a_write_of_another_file_run_concurrently() throws Exception {
+        //
+        // each call waits for the other one to start: they complete only if
+        // they run at the same time (at least two tools run concurrently)
+        //
+        final CountDownLatch started = new CountDownLatch(2);
+        final Map<ToolSpecification, ToolExecutor> executors = schedule((request, memoryId) -> {
+            started.countDown();
+            try {
+                return String.valueOf(started.await(5, TimeUnit.SECONDS));
+            } catch (InterruptedException x) {
+                return "false";
+            }
+        });
+
+        then(run(executors,
+            call(executors, "readFile", "folder/testfile.txt"),
+            call(executors, "createFile", "other.txt", "text")
+        )).containsExactly("true", "true");
+    }
+
+    @Test
+    public void writes_of_the_same_file_run_one_at_a_time_in_order_of_results() throws Exception {
+        final AtomicInteger running = new AtomicInteger(), maxRunning = new AtomicInteger();
+        final Map<ToolSpecification, ToolExecutor> executors = schedule((request, memoryId) -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException x) {
+                Thread.currentThread().interrupt();
+            }
+            running.decrementAndGet();
+            return request.id();
+        });
+
+        then(run(executors,
+            call(executors, "createFile", "folder/new.txt", "one"),
+            call(executors, "readFile", "./folder/new.txt"),
+            call(executors, "replaceFileContent", "folder/new.txt", "two"),
+            call(executors, "searchInProject", "two", false, 1)
+        )).containsExactly("0", "1", "2", "3");
+        then(maxRunning.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void tools_named_in_their_annotation_take_their_own_locks() throws Exception {
+        //
+        // both list dependencies, read-only tools whose methods have the same
+        // name: they run concurrently only if not taken for unknown tools
+        // locking the whole project
+        //
+        final CountDownLatch started = new CountDownLatch(2);
+        final Map<ToolSpecification, ToolExecutor> executors = schedule((request, memoryId) -> {
+            started.countDown();
+            try {
+                return String.valueOf(started.await(5, TimeUnit.SECONDS));
+            } catch (InterruptedException x) {
+                return "false";
+            }
+        }, List.of(new MavenTools(projectDir), new GradleTools(projectDir)));
+
+        then(run(executors,
+            call(executors, "MavenListDependenciesTool_listDependencies"),
+            call(executors, "listGradleDependencies")
+        )).containsExactly("true", "true");
+    }
+
+    @Test
+    public void writes_of_the_same_file_keep_the_order_of_the_calls() throws Exception {
+        //
+        // the first insert is the slowest: it would complete last if the
+        // calls were run in the order they take their locks
+        //
+        final List<String> applied = Collections.synchronizedList(new ArrayList<>());
+        final Map<ToolSpecification, ToolExecutor> executors = schedule((request, memoryId) -> {
+            if ("0".equals(request.id())) {
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException x) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            applied.add(request.id());
+            return request.id();
+        });
+
+        then(run(executors,
+            call(executors, "insertLineInFile", "folder/testfile.txt", 10, "ten"),
+            call(executors, "insertLineInFile", "folder/testfile.txt", 20, "twenty"),
+            call(executors, "readFile", "other.txt"),
+            call(executors, "readFile", "folder/testfile.txt")
+        )).containsExactly("0", "1", "2", "3");
+        then(applied).containsSubsequence("0", "1", "3");
+    }
+
+    // --------------------------------------------------------- private methods
+
+    /**
+     * @return the scheduled executors of the file system tools, all executing
+     * the given executor instead of the tools
+     */
+    private Map<ToolSpecification, ToolExecutor> schedule(final ToolExecutor executor) {
+        return schedule(executor, List.of(new FileSystemTools(projectDir)));
+    }
+
+    /**
+     * @return the scheduled executors of the given tools, all executing the
+     * given executor instead of the tools
+     */
+    private Map<ToolSpecification, ToolExecutor> schedule(
+        final ToolExecutor executor, final List<? extends AbstractTool> tools
+    ) {
+        final Map<ToolSpecification, ToolExecutor> executors = new LinkedHashMap<>();
+        for (ToolSpecification specification : new ToolResultCache(Paths.get(projectDir)).executors(tools).keySet()) {
+            executors.put(specification, executor);
+        }
+        scheduler = new ToolScheduler(Paths.get(projectDir));
+        return scheduler.executors(executors, tools);
+    }
+
+    private ToolExecutionRequest call(
+        final Map<ToolSpecification, ToolExecutor> executors, final String name, final Object... values
+    ) {
+        for (ToolSpecification specification : executors.keySet()) {
+            if (specification.name().equals(name)) {
+                final List<String> names = (specification.parameters() == null)
+                                         ? List.of()
+                                         : new ArrayList<>(specification.parameters().properties().keySet());
+                final JSONObject arguments = new JSONObject();
+                for (int i = 0; i < values.length; ++i) {
+                    arguments.put(names.get(i), values[i]);
+                }
+                return ToolExecutionRequest.builder().name(name).arguments(arguments.toString()).build();
+            }
+        }
+        throw new IllegalArgumentException(name);
+    }
+
+    /**
+     * Runs the given calls concurrently, as the tool calls of a turn, on the
+     * executor of the last scheduler.
+     *
+     * @return the results, in the order of the calls
+     */
+    private List<String> run(
+        final Map<ToolSpecification, ToolExecutor> executors, final ToolExecutionRequest... requests
+    ) throws Exception {
+        final List<CompletableFuture<String>> futures = new ArrayList<>();
+        for (int i = 0; i < requests.length; ++i) {
+            final ToolExecutionRequest request = requests[i].toBuilder().id(String.valueOf(i)).build();
+            ToolExecutor executor = null;
+            for (Map.Entry<ToolSpecification, ToolExecutor> e : executors.entrySet()) {
+                if (e.getKey().name().equals(request.name())) {
+                    executor = e.getValue();
+                }
+            }
+            final ToolExecutor scheduled = executor;
+            futures.add(CompletableFuture.supplyAsync(() -> scheduled.execute(request, "memory"), scheduler.executor()));
+        }
+        final List<String> results = new ArrayList<>();
+        for (CompletableFuture<String> future : futures) {
+            results.add(future.get(10, TimeUnit.SECONDS));
+        }
+        return results;
+    }
+}
@@ -0,0 +1,100 @@
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.ai.completion;
+
+import io.github.jeddict.ai.completion.SchemaMetadataCache.Column;
+import io.github.jeddict.ai.completion.SchemaMetadataCache.Keys;
+import io.github.jeddict.ai.completion.SchemaMetadataCache.Schema;
+import io.github.jeddict.ai.completion.SchemaMetadataCache.Table;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import static org.assertj.core.api.BDDAssertions.then;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ */
+public class SchemaMetadataCacheTest {
+
+    private final Schema schema = new Schema("H2", "2.2", "PUBLIC", List.of(
+        table("CUSTOMER", "ID", "NAME", "EMAIL"),
+        table("ORDERS", "ID", "CUSTOMER_ID", "TOTAL"),
+        table("PRODUCT", "ID", "NAME", "PRICE"),
+        table("AUDIT_LOG", "ID", "EMAIL", "MESSAGE")
+    ), 0);
+
+    @Test
+    public void only_referenced_tables_are_described() {
+        final String description = SchemaMetadataCache.describe(schema, null, "select * from customers c join ORDERS o on o.customer_id = c.id");
+
+        then(description).startsWith("DB Name:H2\nDB Version:2.2\nDB Structure:" + SchemaMetadataCache.HEADER)
+            .contains("CUSTOMER,EMAIL,", "ORDERS,TOTAL,", "ORDERS,CUSTOMER_ID,VARCHAR,YES,,NO,NO,NO,NO,10,0,CUSTOMER.ID,")
+            .doesNotContain("PRODUCT,ID")
+            .endsWith("Other Tables:PRODUCT,AUDIT_LOG\n");
+    }
+
+    @Test
+    public void tables_with_a_referenced_column_contribute_it_and_their_key() {
+        final String description = SchemaMetadataCache.describe(schema, null, "where email like '%@acme.com'");
+
+        then(description).contains("CUSTOMER,ID,", "CUSTOMER,EMAIL,", "AUDIT_LOG,ID,", "AUDIT_LOG,EMAIL,")
+            .doesNotContain("CUSTOMER,NAME,", "AUDIT_LOG,MESSAGE,");
+    }
+
+    @Test
+    public void small_schemas_are_described_in_full_without_text() {
+        then(SchemaMetadataCache.select(schema, null)).hasSize(4);
+        then(SchemaMetadataCache.select(schema, "no table here")).hasSize(4);
+    }
+
+    @Test
+    public void large_schemas_are_not_described_without_referenced_tables() {
+        final List<Table> tables = new ArrayList<>();
+        for (int i = 0; i <= SchemaMetadataCache.MAX_TABLES; ++i) {
+            tables.add(table("T" + i, "ID"));
+        }
+        final Schema large = new Schema("H2", "2.2", "PUBLIC", tables, 0);
+
+        then(SchemaMetadataCache.select(large, null)).isEmpty();
+        then(SchemaMetadataCache.select(large, "no table here")).isEmpty();
+        then(SchemaMetadataCache.select(large, "from t3")).hasSize(1);
+    }
+
+    @Test
+    public void fuzzy_table_names() {
+        then(SchemaMetadataCache.matches("orders", "order")).isTrue();
+        then(SchemaMetadataCache.matches("product", "prodcut")).isFalse(); // a swap is two edits
+        then(SchemaMetadataCache.matches("product", "produt")).isTrue();
+        then(SchemaMetadataCache.matches("product", "products")).isTrue();
+        then(SchemaMetadataCache.matches("customer", "custmer")).isTrue();
+        then(SchemaMetadataCache.matches("item", "iter")).isFalse(); // too short to guess
+    }
+
+    // --------------------------------------------------------- private methods
+
+    private static Table table(final String name, final String... columns) {
+        final List<Column> list = new ArrayList<>();
+        for (String column : columns) {
+            list.add(new Column(column, "VARCHAR", true, null, false, 10, 0, null));
+        }
+        return new Table(name, list, new Keys(
+            Set.of("ID"), Set.of("ID"), Set.of("ID"),
+            name.equals("ORDERS") ? Map.of("CUSTOMER_ID", "CUSTOMER.ID") : Map.of()
+        ));
+    }
+}
@@ -0,0 +1,100 @@
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.ai.index;
+
+import java.util.List;
+import static org.assertj.core.api.BDDAssertions.then;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ */
+public class Bm25IndexTest {
+
+    @Test
+    public void identifiers_are_split_at_case_and_underscores() {
+        then(Bm25Index.tokenize("parseHTTPResponse(user_id, 42, x)")).containsExactly(
+            "parse", "http", "response", "parsehttpresponse", "user", "id", "userid"
+        );
+        then(Bm25Index.tokenize("src/main/java/UserRepository.java")).containsExactly(
+            "src", "main", "java", "user", "repository", "userrepository", "java"
+        );
+    }
+
+    @Test
+    public void most_relevant_chunks_come_first() {
+        final Bm25Index index = new Bm25Index();
+        index.put("src/UserRepository.java", "class UserRepository { User findUser(String name) {} }", 60);
+        index.put("src/OrderService.java", "class OrderService { void placeOrder(Order order) {} }", 60);
+        index.put("src/Main.java", "class Main { public static void main(String[] args) {} }", 60);
+
+        final List<Bm25Index.Hit> hits = index.search("how are users found by name?", 10);
+
+        then(hits).isNotEmpty();
+        then(hits.get(0).chunk().path()).isEqualTo("src/UserRepository.java");
+        then(index.search("order", 10)).extracting(h -> h.chunk().path()).containsExactly("src/OrderService.java");
+        then(index.search("nothing matches", 10)).isEmpty();
+    }
+
+    @Test
+    public void files_can_be_replaced_and_removed() {
+        final Bm25Index index = new Bm25Index();
+        index.put("a/Hello.java", "class Hello { greeting }", 60);
+        index.put("a/b/World.java", "class World { greeting }", 60);
+        then(index.search("greeting", 10)).hasSize(2);
+
+        index.put("a/Hello.java", "class Hello { salutation }", 60);
+        then(index.search("greeting", 10)).extracting(h -> h.chunk().path()).containsExactly("a/b/World.java");
+        then(index.search("salutation", 10)).extracting(h -> h.chunk().path()).containsExactly("a/Hello.java");
+
+        then(index.remove("a/Hello.java")).isTrue();
+        then(index.remove("a/Hello.java")).isFalse();
+        then(index.search("salutation", 10)).isEmpty();
+
+        index.removeIf(p -> p.startsWith("a/b/"));
+        then(index.files()).isZero();
+        then(index.size()).isZero();
+    }
+
+    @Test
+    public void deleted_chunks_are_compacted() {
+        final Bm25Index index = new Bm25Index();
+        for (int i = 0; i < 3000; ++i) {
+            index.put("File" + (i % 10) + ".java", "class File { version" + i + " }", 60);
+        }
+
+        then(index.files()).isEqualTo(10);
+        then(index.size()).isEqualTo(10);
+        then(index.search("version2999", 10)).extracting(h -> h.chunk().path()).containsExactly("File9.java");
+        then(index.search("version0", 10)).isEmpty();
+    }
+
+    @Test
+    public void long_files_are_chunked_by_lines() {
+        final StringBuilder text = new StringBuilder();
+        for (int i = 1; i <= 100; ++i) {
+            text.append("line").append(i).append(i == 50 ? "\n\n" : "\n");
+        }
+
+        final List<Bm25Index.Chunk> chunks = Bm25Index.chunk("Long.java", text.toString(), 60);
+
+        then(chunks).extracting(Bm25Index.Chunk::startLine).containsExactly(1, 52);
+        then(chunks.get(0).endLine()).isEqualTo(51);
+        then(chunks.get(1).endLine()).isEqualTo(101);
+        then(chunks.get(1).text()).startsWith("line51\n").endsWith("line100\n");
+        then(Bm25Index.chunk("Empty.java", " \n", 60)).isEmpty();
+    }
+}
@@ -0,0 +1,126 @@
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.ai.index;
+
+import io.github.jeddict.ai.test.DummyProject;
+import io.github.jeddict.ai.test.TestBase;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.function.Predicate;
+import static org.assertj.core.api.BDDAssertions.then;
+import org.junit.jupiter.api.Test;
+import org.netbeans.api.project.Project;
+import org.openide.filesystems.FileObject;
+import org.openide.filesystems.FileUtil;
+
+/**
+ *
+ */
+public class ProjectLexicalIndexTest extends TestBase {
+
+    @Test
+    public void context_has_the_relevant_files_within_the_budget() throws Exception {
+        final Path src = Files.createDirectories(Paths.get(projectDir, "src"));
+        Files.writeString(src.resolve("UserRepository.java"), "class UserRepository {\n  User findUserByName(String name) {}\n}\n");
+        Files.writeString(src.resolve("OrderService.java"), "class OrderService {\n  void placeOrder(Order order) {}\n}\n");
+        Files.createDirectories(Paths.get(projectDir, "target"));
+        Files.writeString(Paths.get(projectDir, "target", "UserRepository.java"), "class UserRepository {}\n");
+
+        final Project project = new DummyProject(new File(projectDir)); // the index keeps its root weakly
+        final ProjectLexicalIndex index = ProjectLexicalIndex.forProject(project);
+        try {
+            then(index.getIndex().files()).isEqualTo(3); // including folder/testfile.txt, excluding target
+
+            final String context = index.getContext("find user by name", 1000);
+            then(context).startsWith("File: src/UserRepository.java (lines 1-3)\n")
+                         .contains("findUserByName").doesNotContain("OrderService");
+
+            then(index.getContext("find user by name", 5)).isEmpty();
+        } finally {
+            index.close();
+        }
+    }
+
+    @Test
+    public void changed_files_are_indexed_again() throws Exception {
+        final Project project = new DummyProject(new File(projectDir)); // the index keeps its root weakly
+        final ProjectLexicalIndex index = ProjectLexicalIndex.forProject(project);
+        try {
+            then(index.getContext("brand new words", 1000)).isEmpty();
+
+            final Path path = Paths.get(projectDir, "folder/testfile.txt");
+            Files.writeString(path, "brand new content");
+            FileUtil.toFileObject(path.toFile()).refresh();
+
+            //
+            // updates are done in background
+            //
+            for (int i = 0; i < 50 && index.getContext("brand", 1000).isEmpty(); ++i) {
+                Thread.sleep(100);
+            }
+            then(index.getContext("brand", 1000)).contains("File: folder/testfile.txt");
+        } finally {
+            index.close();
+        }
+    }
+
+    @Test
+    public void index_is_built_in_background() throws Exception {
+        final Project project = new DummyProject(new File(projectDir));
+
+        ProjectLexicalIndex index = ProjectLexicalIndex.ifBuilt(project);
+        for (int i = 0; i < 50 && index == null; ++i) {
+            Thread.sleep(100);
+            index = ProjectLexicalIndex.ifBuilt(project);
+        }
+        try {
+            then(index).isNotNull();
+            then(index.isBuilt()).isTrue();
+            then(ProjectLexicalIndex.forProject(project)).isSameAs(index);
+        } finally {
+            index.close();
+        }
+    }
+
+    @Test
+    public void context_of_a_scope_has_its_files_only() throws Exception {
+        final Path main = Files.createDirectories(Paths.get(projectDir, "src/main"));
+        final Path other = Files.createDirectories(Paths.get(projectDir, "src/mainly"));
+        Files.writeString(main.resolve("UserRepository.java"), "class UserRepository {\n  User findUserByName(String name) {}\n}\n");
+        Files.writeString(other.resolve("UserFinder.java"), "class UserFinder {\n  User findUserByName(String name) {}\n}\n");
+
+        //
+        // the index keeps its root weakly
+        //
+        final FileObject root = FileUtil.toFileObject(new File(projectDir));
+        final ProjectLexicalIndex index = ProjectLexicalIndex.forDirectory(root);
+        try {
+            final Predicate<String> scope = index.scope(List.of(FileUtil.toFileObject(main.toFile())));
+
+            then(scope.test("src/main/UserRepository.java")).isTrue();
+            then(scope.test("src/mainly/UserFinder.java")).isFalse();
+            then(index.getContext("find user by name", 1000, List.of(), scope))
+                .contains("src/main/UserRepository.java").doesNotContain("UserFinder");
+            then(index.scope(List.of(root))).accepts("src/mainly/UserFinder.java");
+            then(index.scope(List.of(FileUtil.toFileObject(new File(projectDir).getParentFile())))).isNull();
+        } finally {
+            index.close();
+        }
+    }
+}
@@ -0,0 +1,192 @@
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.ai.index;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.output.Response;
+import io.github.jeddict.ai.test.DummyEmbeddingModel;
+import io.github.jeddict.ai.test.TestBase;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import static org.assertj.core.api.BDDAssertions.then;
+import org.junit.jupiter.api.Test;
+import org.openide.filesystems.FileObject;
+import org.openide.filesystems.FileUtil;
+
+/**
+ *
+ */
+public class SemanticIndexTest extends TestBase {
+
+    @Test
+    public void only_changed_chunks_are_embedded_again() throws Exception {
+        final Path src = Files.createDirectories(Paths.get(projectDir, "src"));
+        final Path users = src.resolve("users.txt");
+        final Path orders = src.resolve("orders.txt");
+        Files.writeString(users, "find user by name\n");
+        Files.writeString(orders, "place an order\n");
+        final FileObject root = FileUtil.toFileObject(new File(projectDir));
+        final DummyEmbeddingModel model = new DummyEmbeddingModel();
+        final Path store = HOME.resolve("embeddings");
+
+        try (SemanticIndex index = new SemanticIndex(store, model)) {
+            index.update(root, files(users, orders));
+            then(model.embedded).hasSize(2);
+            then(model.requests).isEqualTo(1);
+
+            final List<Bm25Index.Hit> hits = index.search("user name", 1);
+            then(hits).hasSize(1);
+            then(hits.get(0).chunk().path()).isEqualTo("src/users.txt");
+            then(hits.get(0).chunk().text()).isEqualTo("find user by name\n");
+
+            model.embedded.clear(); // including the query
+
+            index.update(root, files(users, orders));
+            then(model.embedded).isEmpty(); // nothing changed
+        }
+
+        //
+        // the index is kept on disk
+        //
+        Files.writeString(orders, "place an order quickly\n");
+        FileUtil.toFileObject(orders.toFile()).refresh();
+        try (SemanticIndex index = new SemanticIndex(store, model)) {
+            index.update(root, files(users, orders));
+            then(model.embedded).containsExactly("src/orders.txt\nplace an order quickly\n");
+            then(index.size()).isEqualTo(2);
+
+            index.update(root, files(users));
+            then(index.size()).isEqualTo(1);
+            then(index.search("order", 5)).extracting(h -> h.chunk().path()).containsExactly("src/users.txt");
+        }
+    }
+
+    @Test
+    public void chunks_are_embedded_in_batches() throws Exception {
+        final Path src = Files.createDirectories(Paths.get(projectDir, "src"));
+        final StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 100 * ProjectLexicalIndex.CHUNK_LINES; ++i) {
+            text.append("line ").append(i).append('\n');
+        }
+        final Path file = src.resolve("long.txt");
+        Files.writeString(file, text);
+        final DummyEmbeddingModel model = new DummyEmbeddingModel();
+
+        try (SemanticIndex index = new SemanticIndex(HOME.resolve("embeddings"), model)) {
+            index.update(FileUtil.toFileObject(new File(projectDir)), files(file));
+
+            then(model.embedded).hasSize(100);
+            then(model.requests).isEqualTo(4);
+        }
+    }
+
+    @Test
+    public void searches_are_not_blocked_by_embedding() throws Exception {
+        final Path src = Files.createDirectories(Paths.get(projectDir, "src"));
+        final Path users = src.resolve("users.txt");
+        final Path orders = src.resolve("orders.txt");
+        Files.writeString(users, "find user by name\n");
+        Files.writeString(orders, "place an order\n");
+        final FileObject root = FileUtil.toFileObject(new File(projectDir));
+        final CountDownLatch embedding = new CountDownLatch(1), release = new CountDownLatch(1);
+        final DummyEmbeddingModel model = new DummyEmbeddingModel() {
+            @Override
+            public Response<List<Embedding>> embedAll(final List<TextSegment> segments) {
+                if (segments.get(0).text().startsWith("src/orders.txt")) {
+                    embedding.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException x) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.embedAll(segments);
+            }
+        };
+
+        try (SemanticIndex index = new SemanticIndex(HOME.resolve("embeddings"), model)) {
+            index.update(root, files(users));
+
+            final CompletableFuture<Void> update = CompletableFuture.runAsync(() -> {
+                try {
+                    index.update(root, files(users, orders));
+                } catch (IOException x) {
+                    throw new UncheckedIOException(x);
+                }
+            });
+            then(embedding.await(5, TimeUnit.SECONDS)).isTrue();
+
+            final List<Bm25Index.Hit> hits = CompletableFuture.supplyAsync(() -> index.search("user order", 5))
+                .get(5, TimeUnit.SECONDS);
+            then(paths(hits)).containsExactly("src/users.txt"); // orders not swapped in yet
+
+            release.countDown();
+            update.get(5, TimeUnit.SECONDS);
+            then(paths(index.search("user order", 5))).containsExactlyInAnyOrder("src/users.txt", "src/orders.txt");
+        }
+    }
+
+    @Test
+    public void watched_directories_are_indexed_in_background_and_kept_up_to_date() throws Exception {
+        final Path src = Files.createDirectories(Paths.get(projectDir, "src"));
+        final Path users = src.resolve("users.txt");
+        Files.writeString(users, "find user by name\n");
+        final FileObject root = FileUtil.toFileObject(new File(projectDir));
+
+        try (SemanticIndex index = new SemanticIndex(HOME.resolve("embeddings"), new DummyEmbeddingModel())) {
+            index.watch(root, Set.of("txt"), Set.of());
+            for (int i = 0; i < 50 && !index.isReady(); ++i) {
+                Thread.sleep(100);
+            }
+            then(index.isReady()).isTrue();
+            then(paths(index.search("user name", 10))).contains("src/users.txt").doesNotContain("src/orders.txt");
+
+            //
+            // changes are indexed in background
+            //
+            Files.writeString(src.resolve("orders.txt"), "place an order\n");
+            Files.delete(users);
+            FileUtil.toFileObject(src.toFile()).refresh();
+            for (int i = 0; i < 50 && !paths(index.search("order", 10)).contains("src/orders.txt"); ++i) {
+                Thread.sleep(100);
+            }
+            then(paths(index.search("user name order", 10))).contains("src/orders.txt").doesNotContain("src/users.txt");
+        }
+    }
+
+    private static List<String> paths(final List<Bm25Index.Hit> hits) {
+        return hits.stream().map(hit -> hit.chunk().path()).toList();
+    }
+
+    private static Set<FileObject> files(final Path... paths) {
+        final Set<FileObject> files = new HashSet<>();
+        for (Path path : paths) {
+            files.add(FileUtil.toFileObject(path.toFile()));
+        }
+        return files;
+    }
+}
@@ -0,0 +1,80 @@
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.ai.index;
+
+import java.util.List;
+import static org.assertj.core.api.BDDAssertions.then;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ */
+public class TrigramIndexTest {
+
+    @Test
+    public void candidates_contain_all_trigrams_case_insensitively() {
+        final TrigramIndex index = new TrigramIndex();
+        index.put("src/UserRepository.java", "class UserRepository { User findUser(String name) {} }");
+        index.put("src/OrderService.java", "class OrderService { void placeOrder(Order order) {} }");
+        index.put("README.md", "How to FindUsers and orders");
+
+        then(index.files()).isEqualTo(3);
+        then(index.candidates(List.of("findUser"))).containsExactly("README.md", "src/UserRepository.java");
+        then(index.candidates(List.of("placeOrder"))).containsExactly("src/OrderService.java");
+        then(index.candidates(List.of("class", "order"))).containsExactly("src/OrderService.java");
+        then(index.candidates(List.of("nowhere"))).isEmpty();
+        then(index.candidates(List.of("ab"))).hasSize(3); // too short to narrow
+
+        index.put("README.md", "nothing relevant");
+        then(index.candidates(List.of("findUser"))).containsExactly("src/UserRepository.java");
+
+        index.removeIf(p -> p.startsWith("src/"));
+        then(index.candidates(List.of())).containsExactly("README.md");
+        then(index.remove("README.md")).isTrue();
+        then(index.remove("README.md")).isFalse();
+        then(index.files()).isZero();
+    }
+
+    @Test
+    public void files_indexed_after_removals_are_found() {
+        final TrigramIndex index = new TrigramIndex();
+        for (int i = 0; i < 10; ++i) {
+            index.put("src/File" + i + ".java", "class File" + i + " { /* common */ }");
+        }
+        index.removeIf(p -> !p.endsWith("9.java"));
+        index.put("src/Greeting.java", "String greeting = \"こんにちは世界\";");
+        index.put("src/Other.java", "String other = \"common\";");
+
+        then(index.files()).isEqualTo(3);
+        then(index.candidates(List.of("common"))).containsExactly("src/File9.java", "src/Other.java");
+        then(index.candidates(List.of("こんにちは"))).containsExactly("src/Greeting.java");
+        then(index.candidates(List.of("file1"))).isEmpty();
+    }
+
+    @Test
+    public void literals_required_by_a_regex() {
+        then(TrigramIndex.literals("findUser")).containsExactly("findUser");
+        then(TrigramIndex.literals("find\\w+ById\\(")).containsExactly("find", "ById(");
+        then(TrigramIndex.literals("colou?r")).containsExactly("colo");
+        then(TrigramIndex.literals("colours?")).containsExactly("colour");
+        then(TrigramIndex.literals("import [a-z.]+\\.List;")).containsExactly("import ", ".List;");
+        then(TrigramIndex.literals("(public|private) void")).isEmpty();
+        then(TrigramIndex.literals("(get)Name+")).containsExactly("get", "Name");
+        then(TrigramIndex.literals("(?i)name")).isEmpty();
+        then(TrigramIndex.literals("x{2,3}abcd")).containsExactly("abcd");
+        then(TrigramIndex.literals("(abc)?def")).isEmpty();
+    }
+}
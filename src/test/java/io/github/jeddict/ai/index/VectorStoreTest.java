@@ -0,0 +1,99 @@
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.ai.index;
+
+import java.nio.file.Path;
+import java.util.Random;
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.assertj.core.data.Offset.offset;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ *
+ */
+public class VectorStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void nearest_vectors_are_found() throws Exception {
+        final Random random = new Random(1);
+        final float[][] vectors = new float[1000][32];
+        try (VectorStore store = new VectorStore(dir.resolve("v.bin"), 32)) {
+            for (int i = 0; i < vectors.length; ++i) {
+                for (int j = 0; j < 32; ++j) {
+                    vectors[i][j] = (float) random.nextGaussian();
+                }
+                then(store.add(vectors[i])).isEqualTo(i);
+            }
+
+            for (int i = 0; i < vectors.length; i += 97) {
+                final VectorStore.Neighbour nearest = store.search(vectors[i], 3).get(0);
+                then(nearest.slot()).isEqualTo(i);
+                then(nearest.score()).isCloseTo(1.0, offset(1e-5));
+            }
+        }
+    }
+
+    @Test
+    public void vectors_are_kept_on_disk_and_slots_reused() throws Exception {
+        final Path file = dir.resolve("v.bin");
+        try (VectorStore store = new VectorStore(file, 3)) {
+            store.add(new float[] {1, 0, 0});
+            store.add(new float[] {0, 2, 0});
+            store.add(new float[] {0, 0, 3});
+            store.remove(1);
+        }
+
+        try (VectorStore store = new VectorStore(file, 3)) {
+            then(store.size()).isEqualTo(2);
+            then(store.isLive(1)).isFalse();
+            then(store.get(2)).containsExactly(0, 0, 1);
+            then(store.search(new float[] {0, 0.1f, 1}, 1).get(0).slot()).isEqualTo(2);
+            then(store.add(new float[] {0, 1, 1})).isEqualTo(1);
+        }
+
+        try (VectorStore store = new VectorStore(file, 4)) {
+            then(store.size()).isZero(); // other dimension
+        }
+    }
+
+    @Test
+    public void vectors_are_mapped_in_segments() throws Exception {
+        final Path file = dir.resolve("v.bin");
+        try (VectorStore store = new VectorStore(file, 3, 40)) { // two slots per segment
+            for (int i = 0; i < 600; ++i) {
+                then(store.add(new float[] {i + 1, 1, 0})).isEqualTo(i);
+            }
+            store.remove(301);
+        }
+
+        try (VectorStore store = new VectorStore(file, 3, 40)) {
+            then(store.size()).isEqualTo(599);
+            then(store.isLive(301)).isFalse();
+            then(store.get(599)).containsExactly(normalized(600, 1, 0));
+            then(store.get(300)).containsExactly(normalized(301, 1, 0));
+            then(store.search(new float[] {0, 1, 0}, 1).get(0).slot()).isEqualTo(0);
+        }
+    }
+
+    private static float[] normalized(final float... vector) {
+        final double norm = Math.sqrt(vector[0] * vector[0] + vector[1] * vector[1] + vector[2] * vector[2]);
+        return new float[] {(float) (vector[0] / norm), (float) (vector[1] / norm), (float) (vector[2] / norm)};
+    }
+}
@@ -0,0 +1,185 @@
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.ai.lang;
+
+import io.github.jeddict.ai.response.Response;
+import io.github.jeddict.ai.test.TestBase;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.assertj.core.api.BDDAssertions.then;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ */
+public class ConversationMemoryTest extends TestBase {
+
+    private final List<String> prompts = new ArrayList<>();
+
+    @Test
+    public void older_turns_are_folded_into_the_summary_once() {
+        final ConversationMemory memory = new ConversationMemory(2, 0, this::summarize);
+        final List<Response> history = new ArrayList<>();
+
+        history.add(new Response("q1", "a1", null));
+        history.add(new Response("q2", "a2", null));
+        then(queries(memory.compact(history))).containsExactly("q1", "q2");
+        then(prompts).isEmpty();
+
+        history.add(new Response("q3", "a3", null));
+        then(queries(memory.compact(history))).containsExactly(ConversationMemory.SUMMARY_QUERY, "q2", "q3");
+        then(prompts).hasSize(1);
+        then(prompts.get(0)).contains("User: q1").doesNotContain("q2");
+        then(memory.getSummary()).isEqualTo("summary 1");
+
+        //
+        // nothing new leaves the window: no new summarization
+        //
+        memory.compact(history);
+        then(prompts).hasSize(1);
+
+        history.add(new Response("q4", "a4", null));
+        final List<Response> compacted = memory.compact(history);
+        then(queries(compacted)).containsExactly(ConversationMemory.SUMMARY_QUERY, "q3", "q4");
+        then(prompts).hasSize(2);
+        then(prompts.get(1)).contains("summary 1").contains("User: q2");
+        then(compacted.get(0).toString()).isEqualTo("summary 2");
+    }
+
+    @Test
+    public void superseded_code_blocks_are_dropped() {
+        final ConversationMemory memory = new ConversationMemory(-1, 0, null);
+        final List<Response> history = List.of(
+            new Response("q1", "Here:\n```java\npublic class Hello {}\n```\n", null),
+            new Response("q2", "Fixed:\n```java\npublic class Hello { int x; }\n```\n", null)
+        );
+
+        final List<Response> compacted = memory.compact(history);
+
+        then(compacted.get(0).toString()).contains(ConversationMemory.SUPERSEDED).doesNotContain("class Hello");
+        then(compacted.get(1).toString()).contains("public class Hello { int x; }");
+        then(history.get(0).toString()).contains("public class Hello {}"); // history untouched
+    }
+
+    @Test
+    public void token_ceiling_folds_the_oldest_turns() {
+        final ConversationMemory memory = new ConversationMemory(-1, 50, this::summarize);
+        final List<Response> history = new ArrayList<>();
+        for (int i = 1; i <= 5; ++i) {
+            history.add(new Response("q" + i, "word ".repeat(20), null));
+        }
+
+        final List<Response> compacted = memory.compact(history);
+
+        then(queries(compacted)).containsExactly(ConversationMemory.SUMMARY_QUERY, "q4", "q5");
+        then(prompts).hasSize(1);
+    }
+
+    @Test
+    public void rewritten_history_resets_the_summary() {
+        final ConversationMemory memory = new ConversationMemory(1, 0, this::summarize);
+        final List<Response> history = new ArrayList<>();
+        history.add(new Response("q1", "a1", null));
+        history.add(new Response("q2", "a2", null));
+        memory.compact(history);
+        then(memory.getSummary()).isNotEmpty();
+
+        history.set(0, new Response("q1 again", "a1", null));
+        memory.compact(history);
+        then(prompts).hasSize(2);
+        then(prompts.get(1)).contains("q1 again").contains("(none)");
+    }
+
+    @Test
+    public void failing_summarizer_keeps_the_queries() {
+        final ConversationMemory memory = new ConversationMemory(1, 0, prompt -> {
+            throw new IllegalStateException("no model");
+        });
+        final List<Response> history = List.of(
+            new Response("q1", "a1", null), new Response("q2", "a2", null)
+        );
+
+        then(queries(memory.compact(history))).containsExactly(ConversationMemory.SUMMARY_QUERY, "q2");
+        then(memory.getSummary()).isEqualTo("- Asked: q1");
+    }
+
+    @Test
+    public void settings_are_read_on_each_turn() {
+        final AtomicInteger window = new AtomicInteger(3);
+        final ConversationMemory memory = new ConversationMemory(
+            window::get, () -> 0, () -> this::summarize, Runnable::run
+        );
+        final List<Response> history = new ArrayList<>();
+        history.add(new Response("q1", "a1", null));
+        history.add(new Response("q2", "a2", null));
+        history.add(new Response("q3", "a3", null));
+        then(queries(memory.compact(history))).containsExactly("q1", "q2", "q3");
+
+        window.set(1);
+        then(queries(memory.compact(history))).containsExactly(ConversationMemory.SUMMARY_QUERY, "q3");
+        then(prompts).hasSize(1);
+    }
+
+    @Test
+    public void turns_are_folded_in_background() {
+        final List<Runnable> tasks = new ArrayList<>();
+        final ConversationMemory memory = new ConversationMemory(
+            () -> 1, () -> 0, () -> this::summarize, tasks::add
+        );
+        final List<Response> history = new ArrayList<>();
+        history.add(new Response("q1", "a1", null));
+        history.add(new Response("q2", "a2", null));
+
+        //
+        // until the summary is updated the turns being folded are replayed
+        // and no other fold is started
+        //
+        then(queries(memory.compact(history))).containsExactly("q1", "q2");
+        history.add(new Response("q3", "a3", null));
+        then(queries(memory.compact(history))).containsExactly("q1", "q2", "q3");
+        then(tasks).hasSize(1);
+        then(prompts).isEmpty();
+
+        tasks.remove(0).run();
+        then(memory.getSummary()).isEqualTo("summary 1");
+        then(queries(memory.compact(history))).containsExactly(ConversationMemory.SUMMARY_QUERY, "q2", "q3");
+        then(tasks).hasSize(1);
+    }
+
+    @Test
+    public void folds_started_before_a_reset_are_discarded() {
+        final List<Runnable> tasks = new ArrayList<>();
+        final ConversationMemory memory = new ConversationMemory(
+            () -> 1, () -> 0, () -> this::summarize, tasks::add
+        );
+        memory.compact(List.of(new Response("q1", "a1", null), new Response("q2", "a2", null)));
+
+        memory.reset();
+        tasks.remove(0).run();
+
+        then(memory.getSummary()).isEmpty();
+    }
+
+    private String summarize(final String prompt) {
+        prompts.add(prompt);
+        return "summary " + prompts.size();
+    }
+
+    private static List<String> queries(final List<Response> responses) {
+        return responses.stream().map(Response::getQuery).toList();
+    }
+}
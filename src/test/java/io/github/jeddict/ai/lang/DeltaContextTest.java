@@ -0,0 +1,115 @@
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.ai.lang;
+
+import io.github.jeddict.ai.response.Response;
+import io.github.jeddict.ai.test.TestBase;
+import io.github.jeddict.ai.util.FileContentCache;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import static org.assertj.core.api.BDDAssertions.then;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openide.filesystems.FileObject;
+import org.openide.filesystems.FileUtil;
+
+/**
+ *
+ */
+public class DeltaContextTest extends TestBase {
+
+    private final DeltaContext delta = new DeltaContext();
+
+    private Path path;
+    private FileObject file;
+
+    @BeforeEach
+    public void before() throws Exception {
+        path = Paths.get(projectDir, "folder/Big.txt");
+        final StringBuilder text = new StringBuilder();
+        for (int i = 1; i <= 100; ++i) {
+            text.append("line ").append(i).append('\n');
+        }
+        Files.writeString(path, text);
+        file = FileUtil.toFileObject(path.toFile());
+    }
+
+    @Test
+    public void files_are_sent_in_full_then_by_name_then_as_diff() throws Exception {
+        delta.begin(List.of());
+        final String first = render();
+        then(first).startsWith("File: Big.txt\nline 1\n").endsWith("line 100\n");
+        final Response r1 = commit(first);
+
+        delta.begin(List.of(r1));
+        final String second = render();
+        then(second).isEqualTo("File: Big.txt " + DeltaContext.UNCHANGED + '\n');
+        final Response r2 = commit(second);
+
+        Files.writeString(path, Files.readString(path).replace("line 50\n", "line fifty\n"));
+        file.refresh();
+
+        delta.begin(List.of(r1, r2));
+        final String third = render();
+        then(third).startsWith("File: Big.txt " + DeltaContext.CHANGED + '\n')
+                   .contains("-line 50\n+line fifty\n")
+                   .doesNotContain("line 1\n");
+        final Response r3 = commit(third);
+
+        //
+        // the diff builds on the first turn: if it is not replayed any more,
+        // the file is sent in full again
+        //
+        delta.begin(List.of(r2, r3));
+        then(render()).startsWith("File: Big.txt\nline 1\n").contains("line fifty\n");
+    }
+
+    @Test
+    public void nothing_is_seen_without_commit() {
+        delta.begin(List.of());
+        render();
+
+        delta.begin(List.of());
+        then(render()).startsWith("File: Big.txt\nline 1\n");
+    }
+
+    @Test
+    public void large_changes_are_sent_in_full() throws Exception {
+        delta.begin(List.of());
+        final Response r1 = commit(render());
+
+        Files.writeString(path, "something else entirely\n");
+        file.refresh();
+
+        delta.begin(List.of(r1));
+        then(render()).isEqualTo("File: Big.txt\nsomething else entirely\n");
+    }
+
+    // --------------------------------------------------------- private methods
+
+    private String render() {
+        return delta.render(file, FileContentCache.getInstance().get(file, false));
+    }
+
+    private Response commit(final String context) {
+        final Response r = new Response("q", "a", null);
+        r.setContext(context);
+        delta.commit(r);
+        return r;
+    }
+}
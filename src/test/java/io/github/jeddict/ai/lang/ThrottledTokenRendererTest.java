@@ -0,0 +1,99 @@
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.ai.lang;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import javax.swing.SwingUtilities;
+import static org.assertj.core.api.BDDAssertions.then;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ */
+public class ThrottledTokenRendererTest {
+
+    private final List<String> rendered = new CopyOnWriteArrayList<>();
+    private volatile boolean onEDT = true;
+
+    @Test
+    public void tokens_are_rendered_at_most_once_per_frame() throws Exception {
+        final ThrottledTokenRenderer renderer = new ThrottledTokenRenderer(this::render, 10); // 100ms frames
+
+        final StringBuilder expected = new StringBuilder();
+        final long start = System.nanoTime();
+        for (int i = 0; System.nanoTime() - start < 350_000_000L; ++i) {
+            renderer.append("t" + i + " ");
+            expected.append("t").append(i).append(' ');
+            Thread.sleep(1);
+        }
+        renderer.flush();
+
+        then(String.join("", rendered)).isEqualTo(expected.toString());
+        then(rendered.size()).isBetween(2, 6); // a frame per 100ms plus the final flush
+        then(onEDT).isTrue();
+    }
+
+    @Test
+    public void the_first_token_is_not_delayed() throws Exception {
+        final ThrottledTokenRenderer renderer = new ThrottledTokenRenderer(this::render, 1); // 1s frames
+
+        renderer.append("first");
+        for (int i = 0; i < 50 && rendered.isEmpty(); ++i) {
+            Thread.sleep(10);
+        }
+
+        then(rendered).containsExactly("first");
+    }
+
+    @Test
+    public void flush_renders_the_queued_tokens_before_returning() throws Exception {
+        final ThrottledTokenRenderer renderer = new ThrottledTokenRenderer(this::render, 1);
+
+        renderer.append("first");
+        renderer.append(" second"); // waits for the next frame
+        renderer.append(" third");
+        renderer.flush();
+
+        then(String.join("", rendered)).isEqualTo("first second third");
+        then(onEDT).isTrue();
+
+        //
+        // the frame scheduled before the flush renders nothing more
+        //
+        Thread.sleep(1100);
+        then(String.join("", rendered)).isEqualTo("first second third");
+    }
+
+    @Test
+    public void flush_on_the_EDT() throws Exception {
+        final ThrottledTokenRenderer renderer = new ThrottledTokenRenderer(this::render, 1);
+
+        SwingUtilities.invokeAndWait(() -> {
+            renderer.append("a");
+            renderer.append("b");
+            renderer.flush();
+            then(rendered).containsExactly("ab");
+        });
+    }
+
+    // --------------------------------------------------------- private methods
+
+    private void render(final String text) {
+        onEDT &= SwingUtilities.isEventDispatchThread();
+        rendered.add(text);
+    }
+}
@@ -346,4 +346,40 @@ public class ResponseTest extends TestBase {
         then(response.getBlocks().get(2).getContent()).isEqualTo("More text");
     }
 
+    @Test
+    void to_string_is_cached_until_blocks_change() {
+        final String MARKDOWN =
+            "Hello.\n" +
+            "```bash\n" +
+            "echo 'world'\n" +
+            "```";
+
+        final Response response = new Response(query, MARKDOWN, messageContext);
+
+        final String first = response.toString();
+        then(response.toString()).isSameAs(first);
+
+        response.getBlocks().get(1).setContent("echo 'moon'\n");
+        then(response.toString()).isEqualTo("Hello.\n```bash\necho 'moon'\n```");
+
+        response.getBlocks().remove(0);
+        then(response.toString()).isEqualTo("```bash\necho 'moon'\n```");
+    }
+
+    @Test
+    void parse_markdown_with_crlf_line_endings() {
+        final String MARKDOWN =
+            "Text\r\n" +
+            "```java\r\n" +
+            "int x;\r\n" +
+            "```\r\n";
+
+        final Response response = new Response(query, MARKDOWN, messageContext);
+
+        then(response.getBlocks()).hasSize(2);
+        then(response.getBlocks().get(0).getContent()).isEqualTo("Text");
+        then(response.getBlocks().get(1).getType()).isEqualTo("java");
+        then(response.getBlocks().get(1).getContent()).isEqualTo("int x;\n");
+    }
+
 }
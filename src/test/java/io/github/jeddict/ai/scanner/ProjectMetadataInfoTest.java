@@ -0,0 +1,122 @@
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.ai.scanner;
+
+import io.github.jeddict.ai.scanner.ProjectMetadataInfo.Metadata;
+import io.github.jeddict.ai.test.DummyProject;
+import io.github.jeddict.ai.test.TestBase;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import static org.assertj.core.api.BDDAssertions.entry;
+import static org.assertj.core.api.BDDAssertions.then;
+import org.junit.jupiter.api.Test;
+import org.openide.filesystems.FileObject;
+import org.openide.filesystems.FileUtil;
+
+/**
+ *
+ */
+public class ProjectMetadataInfoTest extends TestBase {
+
+    @Test
+    public void gradle_groovy_build_script() {
+        final Metadata metadata = ProjectMetadataInfo.gradle("""
+            plugins {
+                id 'java'
+                id 'org.springframework.boot' version '3.2.1'
+            }
+            java {
+                sourceCompatibility = JavaVersion.VERSION_17
+            }
+            dependencies {
+                implementation 'org.springframework.boot:spring-boot-starter-web'
+                implementation "com.google.guava:guava:33.0.0-jre"
+                testImplementation 'org.junit.jupiter:junit-jupiter:5.10.0'
+            }
+            """);
+
+        then(metadata.buildTool()).isEqualTo("Gradle");
+        then(metadata.jdkVersion()).isEqualTo("17");
+        then(metadata.importPrefix()).isEqualTo("jakarta");
+        then(metadata.frameworks()).containsExactly(entry("Spring Boot", "3.2.1"));
+        then(metadata.dependencies()).containsExactly(
+            "org.springframework.boot:spring-boot-starter-web", "com.google.guava:guava"
+        );
+        then(metadata.text()).isEqualTo("""
+            Project Metadata:
+            Build Tool: Gradle
+            EE Import Prefix: jakarta
+            Java Version: 17
+            Frameworks: Spring Boot 3.2.1
+            Dependencies: org.springframework.boot:spring-boot-starter-web, com.google.guava:guava
+            """);
+    }
+
+    @Test
+    public void gradle_kotlin_build_script() {
+        final Metadata metadata = ProjectMetadataInfo.gradle("""
+            plugins {
+                java
+                id("io.quarkus")
+            }
+            dependencies {
+                implementation(enforcedPlatform("io.quarkus.platform:quarkus-bom:3.6.0"))
+                implementation("io.quarkus:quarkus-rest")
+                compileOnly("jakarta.platform:jakarta.jakartaee-api:10.0.0")
+            }
+            java {
+                toolchain {
+                    languageVersion.set(JavaLanguageVersion.of(21))
+                }
+            }
+            """);
+
+        then(metadata.jdkVersion()).isEqualTo("21");
+        then(metadata.eeVersion()).isEqualTo("10.0.0");
+        then(metadata.importPrefix()).isEqualTo("jakarta");
+        then(metadata.frameworks()).containsExactly(entry("Quarkus", "3.6.0"), entry("Jakarta EE", "10.0.0"));
+        then(metadata.text()).contains("Jakarta EE Version: 10.0.0\n", "Frameworks: Quarkus 3.6.0, Jakarta EE 10.0.0\n");
+    }
+
+    @Test
+    public void metadata_is_cached_until_the_build_script_changes() throws Exception {
+        final Path dir = Paths.get(projectDir, "gradle");
+        Files.createDirectories(dir);
+        final Path script = dir.resolve("build.gradle");
+        Files.writeString(script, "sourceCompatibility = '11'\n");
+        final DummyProject project = new DummyProject(dir.toFile());
+
+        final Metadata metadata = ProjectMetadataInfo.getMetadata(project);
+        then(metadata.jdkVersion()).isEqualTo("11");
+        then(ProjectMetadataInfo.getMetadata(project)).isSameAs(metadata);
+
+        final FileObject file = FileUtil.toFileObject(script.toFile());
+        try (OutputStream os = file.getOutputStream()) {
+            os.write("sourceCompatibility = '17'\n".getBytes());
+        }
+
+        then(ProjectMetadataInfo.getMetadata(project).jdkVersion()).isEqualTo("17");
+    }
+
+    @Test
+    public void no_metadata_without_build() {
+        then(ProjectMetadataInfo.getMetadata(new DummyProject(FileUtil.toFileObject(
+            Paths.get(projectDir, "folder").toFile()
+        )))).isNull();
+    }
+}
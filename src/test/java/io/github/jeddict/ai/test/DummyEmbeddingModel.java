@@ -0,0 +1,58 @@
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.ai.test;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import io.github.jeddict.ai.index.Bm25Index;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Local embedding model for tests: a text is embedded as the counts of its
+ * terms hashed into {@link #DIMENSION} buckets, so texts sharing words are
+ * close. Embedded texts and requests are recorded.
+ */
+public class DummyEmbeddingModel implements EmbeddingModel {
+
+    public static final int DIMENSION = 64;
+
+    public final List<String> embedded = new ArrayList<>();
+    public int requests;
+
+    @Override
+    public Response<List<Embedding>> embedAll(final List<TextSegment> segments) {
+        ++requests;
+        final List<Embedding> embeddings = new ArrayList<>();
+        for (TextSegment segment : segments) {
+            embedded.add(segment.text());
+            final float[] vector = new float[DIMENSION];
+            vector[0] = 0.01f; // never a zero vector
+            for (String term : Bm25Index.tokenize(segment.text())) {
+                vector[Math.floorMod(term.hashCode(), DIMENSION)] += 1;
+            }
+            embeddings.add(Embedding.from(vector));
+        }
+        return Response.from(embeddings);
+    }
+
+    @Override
+    public int dimension() {
+        return DIMENSION;
+    }
+}
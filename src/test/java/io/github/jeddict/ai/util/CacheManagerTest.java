@@ -0,0 +1,128 @@
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.ai.util;
+
+import io.github.jeddict.ai.util.CacheManager.Region;
+import io.github.jeddict.ai.util.CacheManager.Stats;
+import java.util.ArrayList;
+import java.util.List;
+import static org.assertj.core.api.BDDAssertions.then;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ */
+public class CacheManagerTest {
+
+    private static final long OVERHEAD = CacheManager.ENTRY_OVERHEAD;
+
+    @Test
+    public void hits_misses_and_size() {
+        final CacheManager manager = new CacheManager(() -> 1000);
+        final Region<String, String> region = manager.region("texts", false, (k, v) -> v.length());
+
+        then(region.get("a")).isNull();
+        region.put("a", "12345");
+        then(region.get("a")).isEqualTo("12345");
+        then(region.get("a")).isEqualTo("12345");
+
+        then(region.stats()).isEqualTo(new Stats("texts", 1, OVERHEAD + 5, 2, 1, 0));
+        then(manager.getSize()).isEqualTo(OVERHEAD + 5);
+        then(manager.region("texts", false, (k, v) -> 0)).isSameAs(region);
+
+        region.put("a", "123");
+        then(manager.getSize()).isEqualTo(OVERHEAD + 3);
+        then(region.remove("a")).isEqualTo("123");
+        then(manager.getSize()).isZero();
+        then(manager.report()).contains("texts: 0 entries, 0 KB, 67% hits (2/3), 0 evicted");
+    }
+
+    @Test
+    public void least_recently_used_entries_of_all_regions_are_evicted() {
+        final CacheManager manager = new CacheManager(() -> 3 * (OVERHEAD + 100));
+        final List<String> removed = new ArrayList<>();
+        final Region<String, String> first = manager.region("first", false, (k, v) -> 100, removed::add);
+        final Region<String, String> second = manager.region("second", false, (k, v) -> 100, removed::add);
+
+        first.put("a", "A");
+        second.put("b", "B");
+        first.put("c", "C");
+        first.get("a"); // b is now the least recently used
+
+        second.put("d", "D");
+        then(removed).containsExactly("B");
+        then(second.get("b")).isNull();
+        then(first.size()).isEqualTo(2);
+        then(second.stats().evictions()).isEqualTo(1);
+
+        first.put("e", "E"); // c, then a
+        then(removed).containsExactly("B", "C");
+        then(manager.getSize()).isEqualTo(3 * (OVERHEAD + 100));
+    }
+
+    @Test
+    public void an_entry_larger_than_the_budget_is_kept_alone() {
+        final CacheManager manager = new CacheManager(() -> 100);
+        final Region<String, String> region = manager.region("big", false, (k, v) -> v.length());
+
+        region.put("a", "small");
+        region.put("b", "x".repeat(500));
+
+        then(region.get("a")).isNull();
+        then(region.get("b")).hasSize(500);
+    }
+
+    @Test
+    public void compute_if_absent_and_clear() {
+        final CacheManager manager = new CacheManager(() -> 1000);
+        final List<String> removed = new ArrayList<>();
+        final Region<String, String> region = manager.region("computed", false, (k, v) -> 10, removed::add);
+
+        final String a = region.computeIfAbsent("a", k -> k.toUpperCase());
+        then(a).isEqualTo("A");
+        then(region.computeIfAbsent("a", k -> "other")).isSameAs(a);
+        then(region.computeIfAbsent("b", k -> null)).isNull();
+        then(region.size()).isEqualTo(1);
+
+        region.put("a", a); // same value, not removed
+        then(removed).isEmpty();
+
+        manager.clear();
+        then(removed).containsExactly("A");
+        then(region.size()).isZero();
+        then(manager.getSize()).isZero();
+    }
+
+    @Test
+    public void weak_keys_are_compared_by_equals_and_collected() throws Exception {
+        final CacheManager manager = new CacheManager(() -> 1000);
+        final List<String> removed = new ArrayList<>();
+        final Region<Object, String> region = manager.region("weak", true, (k, v) -> 10, removed::add);
+
+        String key = new String("key");
+        region.put(key, "value");
+        then(region.get(new String("key"))).isEqualTo("value");
+
+        key = null;
+        for (int i = 0; i < 50 && region.size() > 0; ++i) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        then(region.size()).isZero();
+        then(removed).containsExactly("value");
+        then(manager.getSize()).isZero();
+    }
+}
@@ -0,0 +1,124 @@
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.ai.util;
+
+import io.github.jeddict.ai.settings.PreferencesManager;
+import io.github.jeddict.ai.test.DummyProject;
+import io.github.jeddict.ai.test.TestBase;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import static org.assertj.core.api.BDDAssertions.then;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.netbeans.api.project.Project;
+import org.openide.filesystems.FileObject;
+import org.openide.filesystems.FileUtil;
+
+/**
+ *
+ */
+public class ContextHelperTest extends TestBase {
+
+    private Path main;
+    private Project project;
+
+    @BeforeEach
+    public void before() throws Exception {
+        project = new DummyProject(new File(projectDir));
+        main = Files.createDirectories(Paths.get(projectDir, "src", "main"));
+        Files.writeString(main.resolve("Main.java"), "class Main {}");
+        Files.writeString(main.resolve("image.bin"), "not included");
+        Files.createDirectories(main.resolve("java/app"));
+        Files.writeString(main.resolve("java/app/App.java"), "class App {}");
+        Files.createDirectories(main.resolve("build"));
+        Files.writeString(main.resolve("build/Generated.java"), "class Generated {}");
+    }
+
+    @Test
+    public void selected_folders_give_their_files() {
+        final FileObject java = FileUtil.toFileObject(main.resolve("java").toFile());
+        final FileObject app = FileUtil.toFileObject(main.resolve("java/app").toFile());
+
+        then(names(ContextHelper.streamFilesContext(Set.of(java), project, 0).toList())).isEmpty();
+        then(names(ContextHelper.streamFilesContext(Set.of(java, app), project, 0).toList())).containsExactly("App.java");
+    }
+
+    @Test
+    public void src_main_gives_the_whole_subtree_but_excluded_folders() throws Exception {
+        Files.createDirectories(main.resolve("java/app/cache"));
+        Files.writeString(main.resolve("java/app/cache/Cache.java"), "class Cache {}");
+        final FileObject src = FileUtil.toFileObject(main.toFile());
+        final PreferencesManager pm = PreferencesManager.getInstance();
+        final List<String> excludes = pm.getExcludeDirs();
+
+        //
+        // excluded directories are paths relative to the project directory,
+        // packages with the name of an excluded directory are included
+        //
+        then(names(ContextHelper.streamFilesContext(Set.of(src), project, 0).toList()))
+            .containsExactlyInAnyOrder("Main.java", "App.java", "Cache.java", "Generated.java");
+
+        pm.setExcludeDirs("src/main/build, src/main/java/app/cache");
+        try {
+            then(names(ContextHelper.streamFilesContext(Set.of(src), project, 0).toList()))
+                .containsExactlyInAnyOrder("Main.java", "App.java");
+        } finally {
+            pm.setExcludeDirs(String.join(",", excludes));
+        }
+    }
+
+    @Test
+    public void walk_stops_at_the_byte_budget() {
+        final FileObject src = FileUtil.toFileObject(main.toFile());
+
+        then(ContextHelper.streamFilesContext(Set.of(src), project, 13).toList()).hasSize(1);
+        then(ContextHelper.streamFilesContext(Set.of(src), project, 5).toList()).isEmpty();
+        then(ContextHelper.streamFilesContext(Set.of(src), project, 31).toList()).hasSize(2);
+    }
+
+    @Test
+    public void walk_stops_after_too_many_files_bigger_than_the_budget() throws Exception {
+        final FileObject small = FileUtil.toFileObject(main.resolve("Main.java").toFile());
+
+        //
+        // selected files are walked in reverse order: the small one is last
+        //
+        final Set<FileObject> scope = new LinkedHashSet<>();
+        scope.add(small);
+        for (int i = 0; i < ContextHelper.MAX_SKIPPED_FILES - 1; ++i) {
+            scope.add(bigFile(i));
+        }
+        then(names(ContextHelper.streamFilesContext(scope, project, 20).toList())).containsExactly("Main.java");
+
+        scope.add(bigFile(ContextHelper.MAX_SKIPPED_FILES));
+        then(ContextHelper.streamFilesContext(scope, project, 20).toList()).isEmpty();
+    }
+
+    private FileObject bigFile(final int i) throws Exception {
+        final Path path = main.resolve("Big" + i + ".java");
+        Files.writeString(path, "class Big" + i + " { /* bigger than the budget */ }");
+        return FileUtil.toFileObject(path.toFile());
+    }
+
+    private static List<String> names(final List<FileObject> files) {
+        return files.stream().map(FileObject::getNameExt).toList();
+    }
+}
@@ -0,0 +1,114 @@
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.ai.util;
+
+import io.github.jeddict.ai.test.TestBase;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import static org.assertj.core.api.BDDAssertions.then;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openide.filesystems.FileObject;
+import org.openide.filesystems.FileUtil;
+
+/**
+ *
+ */
+public class FileContentCacheTest extends TestBase {
+
+    private final FileContentCache cache = FileContentCache.getInstance();
+
+    @BeforeEach
+    public void before() {
+        cache.clear();
+    }
+
+    @Test
+    public void unchanged_files_are_read_once() throws Exception {
+        final FileObject file = FileUtil.toFileObject(new File(projectDir, "folder/testfile.txt"));
+
+        final FileContentCache.Content content = cache.get(file, false);
+
+        then(content.text()).isEqualTo("This is a test file content for real file testing.");
+        then(content.tokens()).isPositive();
+        then(content.digest()).hasSize(64);
+        then(cache.get(file, false)).isSameAs(content);
+    }
+
+    @Test
+    public void changed_files_are_read_again() throws Exception {
+        final Path path = Paths.get(projectDir, "folder/testfile.txt");
+        final FileObject file = FileUtil.toFileObject(path.toFile());
+
+        final FileContentCache.Content content = cache.get(file, false);
+
+        Files.writeString(path, "new and longer content");
+        file.refresh();
+
+        final FileContentCache.Content changed = cache.get(file, false);
+        then(changed).isNotSameAs(content);
+        then(changed.text()).isEqualTo("new and longer content");
+        then(changed.digest()).isNotEqualTo(content.digest());
+    }
+
+    @Test
+    public void javadoc_is_removed_from_java_files_only_if_requested() throws Exception {
+        final Path path = Paths.get(projectDir, "folder/Hello.java");
+        Files.writeString(path, "/** doc */\nclass Hello {}\n");
+        final FileObject file = FileUtil.toFileObject(path.toFile());
+
+        then(cache.get(file, true).text()).isEqualTo("\nclass Hello {}\n");
+        then(cache.get(file, false).text()).isEqualTo("/** doc */\nclass Hello {}\n");
+        then(cache.get(file, false).tokensSaved()).isZero();
+
+        final FileContentCache.Content minified = cache.get(file, SourceMinifier.Options.ALL);
+        then(minified.text()).isEqualTo("class Hello {}\n");
+        then(minified.tokensSaved()).isPositive();
+        then(cache.get(file, SourceMinifier.Options.ALL)).isSameAs(minified);
+    }
+
+    @Test
+    public void reads_with_other_options_do_not_evict_each_other() throws Exception {
+        final Path path = Paths.get(projectDir, "folder/Hello.java");
+        Files.writeString(path, "/** doc */\nclass Hello {}\n");
+        final FileObject file = FileUtil.toFileObject(path.toFile());
+
+        final FileContentCache.Content original = cache.get(file, false);
+        final FileContentCache.Content comments = cache.get(file, true);
+        final FileContentCache.Content minified = cache.get(file, SourceMinifier.Options.ALL);
+
+        then(cache.get(file, false)).isSameAs(original);
+        then(cache.get(file, true)).isSameAs(comments);
+        then(cache.get(file, SourceMinifier.Options.ALL)).isSameAs(minified);
+        then(comments.tokensSaved()).isEqualTo(original.tokens() - comments.tokens());
+
+        Files.writeString(path, "class Hello { int a; }\n");
+        file.refresh();
+
+        then(cache.get(file, true)).isNotSameAs(comments);
+        then(cache.get(file, false).text()).isEqualTo("class Hello { int a; }\n");
+    }
+
+    @Test
+    public void files_read_for_scans_are_not_cached() throws Exception {
+        final FileObject file = FileUtil.toFileObject(new File(projectDir, "folder/testfile.txt"));
+
+        then(FileContentCache.read(file)).isEqualTo("This is a test file content for real file testing.");
+        then(cache.size()).isZero();
+    }
+}
@@ -0,0 +1,104 @@
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.ai.util;
+
+import io.github.jeddict.ai.test.TestBase;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Base64;
+import javax.imageio.ImageIO;
+import static org.assertj.core.api.BDDAssertions.then;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openide.filesystems.FileObject;
+import org.openide.filesystems.FileUtil;
+
+/**
+ *
+ */
+public class ImageContextCacheTest extends TestBase {
+
+    private final ImageContextCache cache = ImageContextCache.getInstance();
+
+    @BeforeEach
+    public void before() {
+        cache.clear();
+    }
+
+    @Test
+    public void large_images_are_scaled_down_once() throws Exception {
+        final FileObject file = image("big.png", 4000, 3000, BufferedImage.TYPE_INT_RGB);
+
+        final String dataUrl = cache.get(file, 1000);
+
+        then(dataUrl).startsWith("data:image/jpeg;base64,");
+        final BufferedImage image = decode(dataUrl);
+        then(image.getWidth()).isEqualTo(1000);
+        then(image.getHeight()).isEqualTo(750);
+        then(cache.get(file, 1000)).isSameAs(dataUrl);
+        then(cache.get(file, 500)).isNotSameAs(dataUrl);
+    }
+
+    @Test
+    public void transparent_images_stay_png() throws Exception {
+        final FileObject file = image("icon.png", 800, 400, BufferedImage.TYPE_INT_ARGB);
+
+        final String dataUrl = cache.get(file, 200);
+
+        then(dataUrl).startsWith("data:image/png;base64,");
+        then(decode(dataUrl).getWidth()).isEqualTo(200);
+        then(decode(dataUrl).getColorModel().hasAlpha()).isTrue();
+    }
+
+    @Test
+    public void small_images_are_sent_as_they_are_if_not_smaller_reencoded() throws Exception {
+        final FileObject file = image("small.png", 10, 10, BufferedImage.TYPE_INT_ARGB);
+
+        then(cache.get(file, 1000)).isEqualTo(
+            "data:" + file.getMIMEType() + ";base64," + Base64.getEncoder().encodeToString(file.asBytes())
+        );
+    }
+
+    @Test
+    public void images_are_sent_as_they_are_with_negative_max_dimension() throws Exception {
+        final FileObject file = image("photo.png", 1200, 900, BufferedImage.TYPE_INT_RGB);
+
+        then(cache.get(file, -1)).isEqualTo(
+            "data:" + file.getMIMEType() + ";base64," + Base64.getEncoder().encodeToString(file.asBytes())
+        );
+    }
+
+    private FileObject image(final String name, final int width, final int height, final int type) throws Exception {
+        final BufferedImage image = new BufferedImage(width, height, type);
+        for (int x = 0; x < width; x += 7) {
+            for (int y = 0; y < height; y += 5) {
+                image.setRGB(x, y, (x * y) | 0xff000000);
+            }
+        }
+        final Path path = Paths.get(projectDir, name);
+        ImageIO.write(image, "png", path.toFile());
+        return FileUtil.toFileObject(path.toFile());
+    }
+
+    private static BufferedImage decode(final String dataUrl) throws Exception {
+        return ImageIO.read(new ByteArrayInputStream(
+            Base64.getDecoder().decode(dataUrl.substring(dataUrl.indexOf(',') + 1))
+        ));
+    }
+}
@@ -0,0 +1,83 @@
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.ai.util;
+
+import java.util.List;
+import static org.assertj.core.api.BDDAssertions.then;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ */
+public class IncrementalMarkdownRendererTest {
+
+    private static final String MARKDOWN =
+        "# Title\n\nFirst paragraph\nstill first.\n\n"
+        + "```java\nclass A {\n\n    void m() {}\n}\n```\n\n"
+        + "- one\n\n- two\n\n  indented\n\n"
+        + "1. first\n2. second\n\nLast *paragraph*.\n";
+
+    @Test
+    public void streamed_html_matches_full_rendering() {
+        final IncrementalMarkdownRenderer markdown = new IncrementalMarkdownRenderer();
+        final StringBuilder html = new StringBuilder();
+
+        //
+        // feed it in small tokens like a streaming model would do
+        //
+        for (int i = 0; i < MARKDOWN.length(); i += 3) {
+            markdown.append(MARKDOWN.substring(i, Math.min(i + 3, MARKDOWN.length())))
+                    .forEach(html::append);
+        }
+        html.append(markdown.tail());
+
+        then(html.toString()).isEqualTo(IncrementalMarkdownRenderer.render(MARKDOWN));
+        then(markdown.getHtml()).isEqualTo(html.toString());
+        then(markdown.getSource()).isEqualTo(MARKDOWN);
+        then(markdown.getBlocks()).isNotEmpty();
+    }
+
+    @Test
+    public void code_fence_is_not_split_at_blank_lines() {
+        final IncrementalMarkdownRenderer markdown = new IncrementalMarkdownRenderer();
+
+        then(markdown.append("```\nline 1\n\nline 2\n")).isEmpty();
+        then(markdown.tail()).contains("<pre><code>line 1\n\nline 2\n");
+        then(markdown.append("```\n\nafter\n")).hasSize(1);
+        then(markdown.tail()).isEqualTo("<p>after</p>\n");
+    }
+
+    @Test
+    public void update_appends_or_rebuilds() {
+        final IncrementalMarkdownRenderer markdown = new IncrementalMarkdownRenderer();
+
+        then(markdown.update("hello\n\n")).isEmpty();
+        final List<String> fragments = markdown.update("hello\n\nworld\n");
+        then(fragments).containsExactly("<p>hello</p>\n");
+        then(markdown.tail()).isEqualTo("<p>world</p>\n");
+
+        then(markdown.update("bye\n")).isNull();
+        then(markdown.getHtml()).isEqualTo("<p>bye</p>\n");
+    }
+
+    @Test
+    public void post_processor_is_applied_to_every_fragment() {
+        final IncrementalMarkdownRenderer markdown = new IncrementalMarkdownRenderer(String::toUpperCase);
+
+        markdown.append("one\n\ntwo");
+        then(markdown.getHtml()).isEqualTo("<P>ONE</P>\n<P>TWO</P>\n");
+    }
+}
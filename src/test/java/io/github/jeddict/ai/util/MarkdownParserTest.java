@@ -0,0 +1,83 @@
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.ai.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import static org.assertj.core.api.BDDAssertions.then;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ */
+public class MarkdownParserTest {
+
+    private static final String MARKDOWN =
+        "Intro\n" +
+        "``` java \n" +
+        "class A {}\n" +
+        "``\n" +
+        "```\n" +
+        "Middle\r\n" +
+        "````\n" +
+        "```\n" +
+        "still code\n" +
+        "````\n" +
+        "```not a fence\n" +
+        "End";
+
+    @Test
+    public void parse_splits_text_and_code_blocks() {
+        then(parse(MARKDOWN)).containsExactly(
+            "text|Intro\n|false",
+            "java|class A {}\n``\n|true",
+            "text|Middle\n|false",
+            "code|still code\n|true",
+            "text|```not a fence\nEnd\n|false"
+        );
+    }
+
+    @Test
+    public void streamed_chunks_give_the_same_blocks() {
+        for (int size = 1; size < 8; ++size) {
+            final List<String> blocks = new ArrayList<>();
+            final MarkdownParser parser = new MarkdownParser(
+                (type, content, closed) -> blocks.add(type + "|" + content + "|" + closed)
+            );
+            for (int i = 0; i < MARKDOWN.length(); i += size) {
+                parser.append(MARKDOWN.substring(i, Math.min(i + size, MARKDOWN.length())));
+            }
+            parser.finish();
+
+            then(blocks).containsExactlyElementsOf(parse(MARKDOWN));
+        }
+    }
+
+    @Test
+    public void trim_behaves_like_string_trim() {
+        for (String S: new String[] {"", " ", "\n a b\t\n", "ab", " ab", "ab "}) {
+            then(MarkdownParser.trim(new StringBuilder(S))).isEqualTo(S.trim());
+        }
+    }
+
+    private List<String> parse(final String markdown) {
+        final List<String> blocks = new ArrayList<>();
+        new MarkdownParser(
+            (type, content, closed) -> blocks.add(type + "|" + content + "|" + closed)
+        ).parse(markdown);
+        return blocks;
+    }
+}
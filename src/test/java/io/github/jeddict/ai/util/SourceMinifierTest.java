@@ -0,0 +1,105 @@
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.ai.util;
+
+import io.github.jeddict.ai.util.SourceMinifier.Options;
+import static org.assertj.core.api.BDDAssertions.then;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ */
+public class SourceMinifierTest {
+
+    private static final String SOURCE = """
+        /*
+         * Copyright 2025 ACME. Licensed under the Apache License.
+         */
+        package com.acme;
+
+        import java.util.List;
+        import java.util.Map;
+        import static java.util.Objects.requireNonNull;
+        import com.acme.model.Item;
+
+        /**
+         * Says hello.
+         */
+        public class Hello {
+
+            // the greeting
+            private String s = "http://acme.com"; /* keep? */
+
+            public void hello(List<Item> items,   Map<String, String> map) {
+                System.out.println(s);
+            }
+        }
+        """;
+
+    @Test
+    public void none_leaves_the_source_as_it_is() {
+        then(SourceMinifier.minify(SOURCE, Options.NONE)).isSameAs(SOURCE);
+    }
+
+    @Test
+    public void strip_comments_but_not_in_strings() {
+        then(SourceMinifier.minify(SOURCE, Options.COMMENTS)).isEqualTo("""
+
+            package com.acme;
+
+            import java.util.List;
+            import java.util.Map;
+            import static java.util.Objects.requireNonNull;
+            import com.acme.model.Item;
+
+
+            public class Hello {
+
+               \s
+                private String s = "http://acme.com";\s
+
+                public void hello(List<Item> items,   Map<String, String> map) {
+                    System.out.println(s);
+                }
+            }
+            """);
+    }
+
+    @Test
+    public void strip_license_only() {
+        then(SourceMinifier.minify(SOURCE, new Options(true, false, false, false, false)))
+            .startsWith("\npackage com.acme;\n").contains("Says hello.", "// the greeting");
+
+        final String noLicense = "/* just a comment */\npackage com.acme;";
+        then(SourceMinifier.minify(noLicense, new Options(true, false, false, false, false))).isEqualTo(noLicense);
+    }
+
+    @Test
+    public void minify_all() {
+        then(SourceMinifier.minify(SOURCE, Options.ALL)).isEqualTo("""
+            package com.acme;
+            import java.util.{List, Map};
+            import static java.util.Objects.requireNonNull;
+            import com.acme.model.Item;
+            public class Hello {
+            private String s = "http://acme.com";
+            public void hello(List<Item> items, Map<String, String> map) {
+            System.out.println(s);
+            }
+            }
+            """);
+    }
+}
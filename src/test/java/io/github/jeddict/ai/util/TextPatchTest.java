@@ -0,0 +1,124 @@
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.ai.util;
+
+import java.util.List;
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.assertj.core.api.BDDAssertions.thenThrownBy;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ */
+public class TextPatchTest {
+
+    private static final String TEXT = """
+        class A {
+            int a = 1;
+            int b = 2;
+            int c = 3;
+        }
+        """;
+
+    @Test
+    public void unified_diff_gives_minimal_edits() {
+        final String patch = """
+            --- a/A.java
+            +++ b/A.java
+            @@ -2,3 +2,3 @@
+                 int a = 1;
+            -    int b = 2;
+            +    int b = 20;
+                 int c = 3;
+            """;
+
+        final List<TextPatch.Edit> edits = TextPatch.edits(TEXT, patch);
+        then(edits).containsExactly(new TextPatch.Edit(TEXT.indexOf("2;") + 1, 0, "0"));
+        then(TextPatch.apply(TEXT, edits)).isEqualTo(TEXT.replace("b = 2", "b = 20"));
+    }
+
+    @Test
+    public void hunks_are_found_when_not_at_their_line() {
+        final String patch = """
+            @@ -10,2 +10,3 @@
+                 int c = 3;
+            +    int d = 4;
+             }
+            """;
+
+        then(TextPatch.apply(TEXT, TextPatch.edits(TEXT, patch))).isEqualTo(TEXT.replace("}", "    int d = 4;\n}"));
+    }
+
+    @Test
+    public void insertions_and_deletions() {
+        final String patch = """
+            @@ -0,0 +1 @@
+            +package p;
+            @@ -3 +3,0 @@
+            -    int b = 2;
+            """;
+
+        then(TextPatch.apply(TEXT, TextPatch.edits(TEXT, patch)))
+            .isEqualTo("package p;\n" + TEXT.replace("    int b = 2;\n", ""));
+        then(TextPatch.apply("a\nb", TextPatch.edits("a\nb", "@@ -2,0 +3 @@\n+c\n"))).isEqualTo("a\nb\nc");
+    }
+
+    @Test
+    public void search_replace_blocks() {
+        final String patch = """
+            <<<<<<< SEARCH
+                int a = 1;
+            =======
+                long a = 1;
+            >>>>>>> REPLACE
+            <<<<<<< SEARCH
+                int c = 3;
+            =======
+            >>>>>>> REPLACE
+            """;
+
+        then(TextPatch.apply(TEXT, TextPatch.edits(TEXT, patch)))
+            .isEqualTo(TEXT.replace("int a", "long a").replace("    int c = 3;\n", ""));
+    }
+
+    @Test
+    public void stale_ambiguous_and_overlapping_hunks_are_rejected() {
+        thenThrownBy(() -> TextPatch.edits(TEXT, "@@ -3 +3 @@\n-    int b = 3;\n+    int b = 4;\n"))
+            .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("hunk 1 is stale");
+        thenThrownBy(() -> TextPatch.edits("x\ny\nx\n", "<<<<<<< SEARCH\nx\n=======\nz\n>>>>>>> REPLACE\n"))
+            .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("ambiguous");
+        thenThrownBy(() -> TextPatch.edits(TEXT, """
+            <<<<<<< SEARCH
+                int a = 1;
+                int b = 2;
+            =======
+            >>>>>>> REPLACE
+            <<<<<<< SEARCH
+                int b = 2;
+            =======
+            >>>>>>> REPLACE
+            """)).isInstanceOf(IllegalArgumentException.class).hasMessage("hunks overlap");
+        thenThrownBy(() -> TextPatch.edits(TEXT, "just some text"))
+            .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("no hunks");
+    }
+
+    @Test
+    public void minimal_edit_trims_the_common_parts() {
+        then(TextPatch.minimal(10, "hello world", "hello there world")).isEqualTo(new TextPatch.Edit(16, 0, "there "));
+        then(TextPatch.minimal(0, "aaa", "aa")).isEqualTo(new TextPatch.Edit(2, 1, ""));
+        then(TextPatch.minimal(0, "same", "same")).isNull();
+    }
+}
@@ -0,0 +1,70 @@
+/**
+ * Copyright 2025 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.ai.util;
+
+import static org.assertj.core.api.BDDAssertions.then;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ */
+public class UnifiedDiffTest {
+
+    @Test
+    public void same_lines_give_an_empty_diff() {
+        then(UnifiedDiff.diff("a", "b", "one\ntwo\n", "one\ntwo\n", 3, 10)).isEmpty();
+    }
+
+    @Test
+    public void changes_are_grouped_in_hunks_with_context() {
+        final StringBuilder before = new StringBuilder(), after = new StringBuilder();
+        for (int i = 1; i <= 20; ++i) {
+            before.append("line ").append(i).append('\n');
+            after.append((i == 3) ? "line three\n" : (i == 18) ? "" : "line " + i + '\n');
+        }
+        after.append("line 21\n");
+
+        then(UnifiedDiff.diff("a/F.java", "b/F.java", before.toString(), after.toString(), 2, 10)).isEqualTo("""
+            --- a/F.java
+            +++ b/F.java
+            @@ -1,5 +1,5 @@
+             line 1
+             line 2
+            -line 3
+            +line three
+             line 4
+             line 5
+            @@ -16,5 +16,5 @@
+             line 16
+             line 17
+            -line 18
+             line 19
+             line 20
+            +line 21
+            """);
+    }
+
+    @Test
+    public void insertion_in_an_empty_text() {
+        then(UnifiedDiff.diff("a", "b", "", "new\n", 3, 10)).isEqualTo("--- a\n+++ b\n@@ -0,0 +1,1 @@\n+new\n");
+    }
+
+    @Test
+    public void too_many_edits_give_null() {
+        then(UnifiedDiff.diff("a", "b", "1\n2\n3\n", "4\n5\n6\n", 3, 5)).isNull();
+        then(UnifiedDiff.diff("a", "b", "1\n2\n3\n", "4\n5\n6\n", 3, 6)).isNotNull();
+    }
+}